@@ -4,7 +4,9 @@ import model.*;
 import singleton.GestorDisponibilidad;
 import controller.ControladorVentanaPrincipal;
 import java.util.Date;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Comando para anular una reserva.
@@ -28,6 +30,7 @@ public class AnularReservaCommand implements ICommand {
 
     /**
      * Constructor del comando de anular reserva.
+     * El controlador puede ser null (reconstrucción desde el diario): no se muestra nada.
      */
     public AnularReservaCommand(String cedula, IModeloService modeloService, 
                                GestorDisponibilidad gestorDisponibilidad,
@@ -54,8 +57,8 @@ public class AnularReservaCommand implements ICommand {
                     System.err.println("Advertencia: No se pudo eliminar el cliente en redo.");
                 }
                 
-                controlador.mostrarMensaje("Reserva anulada correctamente y cliente eliminado del sistema (redo).");
-                controlador.actualizarVista();
+                if (controlador != null) controlador.mostrarMensaje("Reserva anulada correctamente y cliente eliminado del sistema (redo).");
+                if (controlador != null) controlador.actualizarVista();
                 return;
             }
             
@@ -83,10 +86,10 @@ public class AnularReservaCommand implements ICommand {
                 System.err.println("Advertencia: No se pudo eliminar el cliente de la BD, pero la reserva fue anulada.");
             }
             
-            controlador.mostrarMensaje("Reserva anulada correctamente y cliente eliminado del sistema.");
+            if (controlador != null) controlador.mostrarMensaje("Reserva anulada correctamente y cliente eliminado del sistema.");
             
             // Actualizar la vista para mostrar los cambios
-            controlador.actualizarVista();
+            if (controlador != null) controlador.actualizarVista();
             
         } catch (Exception e) {
             throw new RuntimeException("Error al anular reserva: " + e.getMessage(), e);
@@ -115,7 +118,7 @@ public class AnularReservaCommand implements ICommand {
                     reservaAnulada.setFechaSalida(null); // Asegurar que esté activa
                     
                     if (modeloService.crearReserva(reservaAnulada)) {
-                        controlador.mostrarMensaje("✅ Anulación deshecha: Cliente restaurado y reserva reactivada.");
+                        if (controlador != null) controlador.mostrarMensaje("✅ Anulación deshecha: Cliente restaurado y reserva reactivada.");
                     } else {
                         // Si no se pudo crear la reserva, eliminar el cliente nuevamente para mantener consistencia
                         modeloService.eliminarCliente(cliente.getId());
@@ -129,14 +132,19 @@ public class AnularReservaCommand implements ICommand {
             }
             
             // Actualizar la vista para mostrar los cambios
-            controlador.actualizarVista();
+            if (controlador != null) controlador.actualizarVista();
             
         } catch (Exception e) {
             System.err.println("Error al deshacer anulación: " + e.getMessage());
-            controlador.mostrarMensaje("Error al deshacer anulación de reserva.");
+            if (controlador != null) controlador.mostrarMensaje("Error al deshacer anulación de reserva.");
         }
     }
 
+    @Override
+    public Map<String, String> getParametros() {
+        return Collections.singletonMap("cedula", cedula);
+    }
+
     @Override
     public String getDescription() {
         return "Anular reserva de cliente con cédula " + cedula;
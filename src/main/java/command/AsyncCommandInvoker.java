@@ -0,0 +1,282 @@
+package command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Variante asíncrona del invoker: decora un {@link ICommandInvoker} (normalmente
+ * {@link CommandInvoker} con Memento) y ejecuta todas sus operaciones de escritura en un
+ * único hilo "command-writer". El invoker decorado solo se toca con el candado del escritor;
+ * las consultas (canUndo, descripciones, historial) leen una instantánea inmutable que se
+ * publica tras cada operación, así el EDT nunca espera a la base de datos para pintar botones.
+ * Los eventos del historial del invoker decorado se reenvían en el notificador, después de
+ * publicar esa instantánea, para que un observador que consulte canUndo/canRedo vea el estado nuevo.
+ */
+public class AsyncCommandInvoker implements IAsyncCommandInvoker {
+
+    /** Estado del historial publicado después de cada operación. */
+    private static final class Estado {
+        final boolean canUndo;
+        final boolean canRedo;
+        final String nextUndo;
+        final String nextRedo;
+        final List<String> history;
+
+        Estado(ICommandInvoker invoker) {
+            this.canUndo = invoker.canUndo();
+            this.canRedo = invoker.canRedo();
+            this.nextUndo = invoker.getNextUndoDescription();
+            this.nextRedo = invoker.getNextRedoDescription();
+            this.history = Collections.unmodifiableList(new ArrayList<>(invoker.getCommandHistory()));
+        }
+    }
+
+    private final ICommandInvoker delegado;
+    private final Executor notificador;
+    private final ExecutorService escritor;
+    private final ReentrantLock candado = new ReentrantLock();
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private final Map<String, MetricasOperacion> metricas = new HashMap<>();
+    private volatile Thread hiloEscritor;
+    private volatile Estado estado;
+    private final List<ObservadorHistorial> observadores = new CopyOnWriteArrayList<>();
+    private final List<EventoHistorial> eventosPendientes = new ArrayList<>(); // protegido por candado
+
+    /**
+     * Constructor que notifica los resultados en el EDT de Swing.
+     * 
+     * @param delegado Invoker que mantiene el historial Undo/Redo
+     */
+    public AsyncCommandInvoker(ICommandInvoker delegado) {
+        this(delegado, javax.swing.SwingUtilities::invokeLater);
+    }
+
+    /**
+     * @param delegado Invoker que mantiene el historial Undo/Redo
+     * @param notificador Ejecutor en el que se completan los futuros (EDT, o Runnable::run en tests)
+     */
+    public AsyncCommandInvoker(ICommandInvoker delegado, Executor notificador) {
+        this.delegado = delegado;
+        this.notificador = notificador;
+        this.escritor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "command-writer");
+            t.setDaemon(true);
+            hiloEscritor = t;
+            return t;
+        });
+        this.estado = new Estado(delegado);
+        delegado.agregarObservador(this::retenerEvento);
+    }
+
+    /**
+     * Retiene un evento del invoker decorado hasta publicar el nuevo estado (se llama con el candado).
+     */
+    private void retenerEvento(EventoHistorial evento) {
+        synchronized (eventosPendientes) {
+            eventosPendientes.add(evento);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> executeCommandAsync(ICommand command) {
+        if (command == null) {
+            throw new IllegalArgumentException("El comando no puede ser nulo");
+        }
+        String tipo = command.getClass().getSimpleName();
+        return encolar(tipo.isEmpty() ? command.getClass().getName() : tipo, () -> {
+            delegado.executeCommand(command);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> undoAsync() {
+        return encolar("undo", delegado::undo);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> redoAsync() {
+        return encolar("redo", delegado::redo);
+    }
+
+    /**
+     * Encola una operación en el hilo escritor y devuelve un futuro completado en el notificador.
+     */
+    private <T> CompletableFuture<T> encolar(String tipo, Supplier<T> operacion) {
+        long encolado = System.nanoTime();
+        pendientes.incrementAndGet();
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        try {
+            escritor.execute(() -> {
+                long inicio = System.nanoTime();
+                T valor = null;
+                Throwable error = null;
+                try {
+                    valor = bajoCandado(operacion);
+                } catch (Throwable t) {
+                    error = t;
+                } finally {
+                    registrarMetrica(tipo, System.nanoTime() - inicio, inicio - encolado);
+                    pendientes.decrementAndGet();
+                }
+                final T v = valor;
+                final Throwable e = error;
+                notificador.execute(() -> {
+                    if (e != null) resultado.completeExceptionally(e);
+                    else resultado.complete(v);
+                });
+            });
+        } catch (RuntimeException rechazo) {
+            pendientes.decrementAndGet();
+            throw rechazo;
+        }
+        return resultado;
+    }
+
+    /**
+     * Ejecuta con el candado del escritor y publica el nuevo estado del historial.
+     */
+    private <T> T bajoCandado(Supplier<T> operacion) {
+        candado.lock();
+        List<EventoHistorial> eventos;
+        try {
+            return operacion.get();
+        } finally {
+            estado = new Estado(delegado);
+            synchronized (eventosPendientes) {
+                eventos = new ArrayList<>(eventosPendientes);
+                eventosPendientes.clear();
+            }
+            candado.unlock();
+            if (!eventos.isEmpty() && !observadores.isEmpty()) {
+                notificador.execute(() -> {
+                    for (EventoHistorial evento : eventos) EventoHistorial.entregar(observadores, evento);
+                });
+            }
+        }
+    }
+
+    /**
+     * Ejecución síncrona: espera a que terminen las operaciones encoladas antes que ella y
+     * corre en el hilo llamador. No se admite en el EDT: esperar la cola congelaría la interfaz
+     * con una base lenta y bloquearía a cualquier tarea del escritor que use invokeAndWait.
+     */
+    private <T> T sincrono(Supplier<T> operacion) {
+        if (javax.swing.SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("En el EDT use executeCommandAsync, undoAsync o redoAsync");
+        }
+        if (Thread.currentThread() != hiloEscritor && !candado.isHeldByCurrentThread()) {
+            try {
+                escritor.submit(() -> { }).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido esperando la cola de comandos", e);
+            } catch (java.util.concurrent.ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return bajoCandado(operacion);
+    }
+
+    private synchronized void registrarMetrica(String tipo, long ejecucionNs, long esperaNs) {
+        MetricasOperacion actual = metricas.get(tipo);
+        if (actual == null) actual = new MetricasOperacion(0, 0, 0, 0);
+        metricas.put(tipo, actual.sumar(ejecucionNs, esperaNs));
+    }
+
+    @Override
+    public synchronized Map<String, MetricasOperacion> getMetricas() {
+        return new HashMap<>(metricas);
+    }
+
+    @Override
+    public int getOperacionesPendientes() {
+        return pendientes.get();
+    }
+
+    @Override
+    public void cerrar() {
+        escritor.shutdown();
+        try {
+            escritor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void executeCommand(ICommand command) {
+        sincrono(() -> {
+            delegado.executeCommand(command);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean undo() {
+        return sincrono(delegado::undo);
+    }
+
+    @Override
+    public boolean redo() {
+        return sincrono(delegado::redo);
+    }
+
+    @Override
+    public void clearHistory() {
+        sincrono(() -> {
+            delegado.clearHistory();
+            return null;
+        });
+    }
+
+    /**
+     * Los observadores se notifican en el notificador (el EDT en Swing).
+     */
+    @Override
+    public void agregarObservador(ObservadorHistorial observador) {
+        if (observador != null) observadores.add(observador);
+    }
+
+    @Override
+    public void quitarObservador(ObservadorHistorial observador) {
+        observadores.remove(observador);
+    }
+
+    @Override
+    public boolean canUndo() {
+        return estado.canUndo;
+    }
+
+    @Override
+    public boolean canRedo() {
+        return estado.canRedo;
+    }
+
+    @Override
+    public List<String> getCommandHistory() {
+        return new ArrayList<>(estado.history);
+    }
+
+    @Override
+    public String getNextUndoDescription() {
+        return estado.nextUndo;
+    }
+
+    @Override
+    public String getNextRedoDescription() {
+        return estado.nextRedo;
+    }
+}
@@ -3,6 +3,8 @@ package command;
 import model.*;
 import controller.ControladorVentanaPrincipal;
 import builder.ReservaBuilder;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Comando para realizar check-in de un cliente.
@@ -31,6 +33,9 @@ public class CheckinCommand implements ICommand {
     private Reserva reservaCreada;
     private String idHabitacion;
     private boolean primeraEjecucion = true;
+    // IDs de la primera ejecución, fijados al construir para que queden en el diario
+    private final String idClienteNuevo;
+    private final String idReserva;
 
     /**
      * Constructor del comando de check-in.
@@ -39,6 +44,21 @@ public class CheckinCommand implements ICommand {
                          String habitacionDisplay, IModeloService modeloService,
                          ControladorVentanaPrincipal controlador,
                          int offsetDiasLlegada, int nochesPlanificadas) {
+        this(nombre, apellido, cedula, telefono, habitacionDisplay, modeloService, controlador,
+            offsetDiasLlegada, nochesPlanificadas, java.util.UUID.randomUUID().toString(),
+            java.util.UUID.randomUUID().toString());
+    }
+
+    /**
+     * Constructor con los IDs de la primera ejecución (reconstrucción desde el diario).
+     * El controlador puede ser null: no se muestra nada.
+     */
+    CheckinCommand(String nombre, String apellido, String cedula, String telefono,
+                   String habitacionDisplay, IModeloService modeloService,
+                   ControladorVentanaPrincipal controlador,
+                   int offsetDiasLlegada, int nochesPlanificadas, String idClienteNuevo, String idReserva) {
+        this.idClienteNuevo = idClienteNuevo;
+        this.idReserva = idReserva;
         this.nombre = nombre;
         this.apellido = apellido;
         this.cedula = cedula;
@@ -73,8 +93,7 @@ public class CheckinCommand implements ICommand {
                     clienteCreado = clienteExistente;
                 } else {
                     // Crear cliente nuevo
-                    String idCliente = java.util.UUID.randomUUID().toString();
-                    clienteCreado = new Cliente(idCliente, nombre, apellido, cedula, telefono);
+                    clienteCreado = new Cliente(idClienteNuevo, nombre, apellido, cedula, telefono);
                     
                     if (!modeloService.registrarCliente(clienteCreado)) {
                         throw new RuntimeException("Error al registrar cliente.");
@@ -91,7 +110,9 @@ public class CheckinCommand implements ICommand {
             java.util.Date fechaFinPlan = java.util.Date.from(finPlan.atStartOfDay(java.time.ZoneId.systemDefault()).toInstant());
 
             // Crear nueva reserva: si llegada es hoy => checkin inmediato, si no => reserva futura (sin ocupar aún)
+            // Re-ejecutar crea otra reserva: la anterior quedó finalizada con su ID
             ReservaBuilder rb = new ReservaBuilder()
+                .setId(reservaCreada == null ? idReserva : java.util.UUID.randomUUID().toString())
                 .setCliente(clienteCreado.getId())
                 .setHabitacion(idHabitacion)
                 .setTotal(habitacion.getPrecio() * nochesPlanificadas);
@@ -112,10 +133,10 @@ public class CheckinCommand implements ICommand {
             }
             
             // Mostrar factura
-            controlador.mostrarFactura(clienteCreado, habitacion, reservaCreada);
+            if (controlador != null) controlador.mostrarFactura(clienteCreado, habitacion, reservaCreada);
             
             // Actualizar la vista para mostrar los cambios
-            controlador.actualizarVista();
+            if (controlador != null) controlador.actualizarVista();
             
         } catch (Exception e) {
             throw new RuntimeException("Error al ejecutar check-in: " + e.getMessage(), e);
@@ -136,16 +157,31 @@ public class CheckinCommand implements ICommand {
             // sino que solo cancelaríamos la reserva. Pero para este ejemplo de undo completo:
             // No eliminamos el cliente ya que podría tener otras reservas
             
-            controlador.mostrarMensaje("Check-in deshecho correctamente.");
+            if (controlador != null) controlador.mostrarMensaje("Check-in deshecho correctamente.");
             
             // Actualizar la vista para mostrar los cambios
-            controlador.actualizarVista();
+            if (controlador != null) controlador.actualizarVista();
             
         } catch (Exception e) {
             throw new RuntimeException("Error al deshacer check-in: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public Map<String, String> getParametros() {
+        Map<String, String> parametros = new LinkedHashMap<>();
+        parametros.put("idCliente", idClienteNuevo);
+        parametros.put("idReserva", idReserva);
+        parametros.put("nombre", nombre);
+        parametros.put("apellido", apellido);
+        parametros.put("cedula", cedula);
+        parametros.put("telefono", telefono);
+        parametros.put("habitacion", habitacionDisplay);
+        parametros.put("offsetDiasLlegada", String.valueOf(offsetDiasLlegada));
+        parametros.put("nochesPlanificadas", String.valueOf(nochesPlanificadas));
+        return parametros;
+    }
+
     @Override
     public String getDescription() {
     String accion = (offsetDiasLlegada==0?"Check-in":"Reserva planificada");
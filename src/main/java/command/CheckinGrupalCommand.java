@@ -0,0 +1,132 @@
+package command;
+
+import model.*;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Comando macro para el check-in de un grupo completo (excursiones, eventos).
+ * Usa la API en lote de {@link IModeloService} y ocupa una sola entrada del historial,
+ * de modo que un único Undo revierte a todo el grupo.
+ */
+public class CheckinGrupalCommand implements ICommand {
+
+    private final IModeloService modeloService;
+    private List<HuespedGrupo> huespedes;
+    private final long executionTime;
+    private ResultadoCheckinGrupal resultado;
+
+    /**
+     * @param modeloService Servicio del modelo
+     * @param huespedes Huéspedes del grupo, cada uno con su reserva planificada
+     */
+    public CheckinGrupalCommand(IModeloService modeloService, List<HuespedGrupo> huespedes) {
+        if (huespedes == null || huespedes.isEmpty()) {
+            throw new IllegalArgumentException("El grupo debe tener al menos un huésped");
+        }
+        this.modeloService = modeloService;
+        this.huespedes = new ArrayList<>(huespedes);
+        this.executionTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public void execute() {
+        if (resultado != null && resultado.isExitoso()) {
+            // Re-ejecución (redo sin snapshot): el undo eliminó lo creado, se vuelve a crear con
+            // los mismos IDs y fechas para que el historial y los demás comandos sigan siendo válidos
+            List<HuespedGrupo> nuevos = new ArrayList<>(huespedes.size());
+            for (HuespedGrupo huesped : huespedes) {
+                Reserva r = huesped.getReserva();
+                Date fechaIngreso = r.getFechaIngreso();
+                Date fechaReserva = r.getFechaReserva();
+                nuevos.add(new HuespedGrupo(huesped.getCliente(), new Reserva(r.getId(), r.getIdCliente(), r.getIdHabitacion(),
+                    fechaIngreso, null, r.getTotal(), r.getObservaciones(), true, fechaReserva,
+                    r.getFechaInicioPlanificada(), r.getFechaFinPlanificada(), r.getNoches())));
+            }
+            huespedes = nuevos;
+        }
+        resultado = modeloService.registrarCheckinGrupal(huespedes);
+        if (!resultado.isExitoso()) {
+            throw new RuntimeException("Check-in grupal rechazado: " + resultado.getMensaje());
+        }
+    }
+
+    @Override
+    public void undo() {
+        if (resultado == null || !resultado.isExitoso()) return;
+        // Se elimina lo creado (finalizar dejaría estancias que nunca ocurrieron) y se liberan
+        // solo las habitaciones que ocupó el grupo
+        for (String idReserva : resultado.getIdsReservas()) {
+            modeloService.eliminarReserva(idReserva);
+        }
+        for (String idCliente : resultado.getIdsClientesNuevos()) {
+            modeloService.eliminarCliente(idCliente);
+        }
+        for (String idHabitacion : resultado.getIdsHabitaciones()) {
+            modeloService.actualizarEstadoHabitacion(idHabitacion, false);
+        }
+    }
+
+    @Override
+    public boolean canUndo() {
+        return resultado != null && resultado.isExitoso();
+    }
+
+    /**
+     * @return Resultado de la última ejecución (null si aún no se ejecutó)
+     */
+    public ResultadoCheckinGrupal getResultado() {
+        return resultado;
+    }
+
+    /**
+     * Un grupo de claves por huésped (huesped.N.campo) con los datos del cliente y de su reserva;
+     * las fechas van en milisegundos y los IDs solo si ya están asignados.
+     */
+    @Override
+    public Map<String, String> getParametros() {
+        Map<String, String> parametros = new LinkedHashMap<>();
+        parametros.put("huespedes", String.valueOf(huespedes.size()));
+        for (int i = 0; i < huespedes.size(); i++) {
+            String prefijo = "huesped." + i + ".";
+            Cliente c = huespedes.get(i).getCliente();
+            Reserva r = huespedes.get(i).getReserva();
+            ponerSiHay(parametros, prefijo + "idCliente", c.getId());
+            parametros.put(prefijo + "cedula", c.getCedula());
+            parametros.put(prefijo + "nombre", c.getNombre());
+            parametros.put(prefijo + "apellido", c.getApellido());
+            parametros.put(prefijo + "telefono", c.getTelefono());
+            ponerSiHay(parametros, prefijo + "idReserva", r.getId());
+            parametros.put(prefijo + "idHabitacion", r.getIdHabitacion());
+            parametros.put(prefijo + "total", String.valueOf(r.getTotal()));
+            parametros.put(prefijo + "noches", String.valueOf(r.getNoches()));
+            ponerSiHay(parametros, prefijo + "observaciones", r.getObservaciones());
+            ponerSiHay(parametros, prefijo + "fechaIngreso", r.getFechaIngreso());
+            ponerSiHay(parametros, prefijo + "fechaReserva", r.getFechaReserva());
+            ponerSiHay(parametros, prefijo + "inicioPlanificado", r.getFechaInicioPlanificada());
+            ponerSiHay(parametros, prefijo + "finPlanificado", r.getFechaFinPlanificada());
+        }
+        return parametros;
+    }
+
+    private static void ponerSiHay(Map<String, String> parametros, String clave, Object valor) {
+        if (valor instanceof Date) {
+            parametros.put(clave, String.valueOf(((Date) valor).getTime()));
+        } else if (valor != null) {
+            parametros.put(clave, valor.toString());
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "Check-in grupal de " + huespedes.size() + " huéspedes";
+    }
+
+    @Override
+    public long getExecutionTime() {
+        return executionTime;
+    }
+}
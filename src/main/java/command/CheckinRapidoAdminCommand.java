@@ -1,7 +1,10 @@
 package command;
 
 import model.*;
+import memento.ModeloMemento.Coleccion;
 import builder.ReservaBuilder;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Comando para check-in rápido desde panel de habitaciones en admin.
@@ -10,13 +13,35 @@ public class CheckinRapidoAdminCommand implements ICommand {
     private final IModeloService modeloService;
     private final Cliente cliente;
     private final Habitacion habitacion;
+    private final String idReserva; // de la primera ejecución, fijado al construir para que quede en el diario
     private Reserva reserva;
     private final long executionTime;
+    private final Integer noches; // null = se piden al ejecutar
 
     public CheckinRapidoAdminCommand(IModeloService modeloService, Cliente cliente, Habitacion habitacion) {
+        this(modeloService, cliente, habitacion, null, java.util.UUID.randomUUID().toString());
+    }
+
+    /**
+     * Constructor con las noches ya decididas: no abre diálogos al ejecutarse, así que puede
+     * correr en el hilo escritor de comandos.
+     * 
+     * @param noches Noches de hospedaje (1+)
+     */
+    public CheckinRapidoAdminCommand(IModeloService modeloService, Cliente cliente, Habitacion habitacion, int noches) {
+        this(modeloService, cliente, habitacion, Integer.valueOf(Math.max(1, noches)), java.util.UUID.randomUUID().toString());
+    }
+
+    /**
+     * Constructor con el ID de la reserva de la primera ejecución (reconstrucción desde el diario).
+     */
+    CheckinRapidoAdminCommand(IModeloService modeloService, Cliente cliente, Habitacion habitacion, Integer noches,
+                              String idReserva) {
         this.modeloService = modeloService;
+        this.idReserva = idReserva;
         this.cliente = cliente;
         this.habitacion = habitacion;
+        this.noches = noches;
         this.executionTime = System.currentTimeMillis();
     }
 
@@ -27,8 +52,8 @@ public class CheckinRapidoAdminCommand implements ICommand {
                 throw new RuntimeException("No se pudo registrar el cliente");
             }
         }
-        int noches = 1;
-        if (!java.awt.GraphicsEnvironment.isHeadless()) {
+        int noches = this.noches != null ? this.noches : 1;
+        if (!java.awt.GraphicsEnvironment.isHeadless() && this.noches == null) {
             String inputNoches = javax.swing.JOptionPane.showInputDialog(null, "Noches de hospedaje (check-in rápido)", "1");
             if (inputNoches != null && !inputNoches.trim().isEmpty()) {
                 try { noches = Math.max(1, Integer.parseInt(inputNoches.trim())); } catch(NumberFormatException ignored) {}
@@ -38,7 +63,10 @@ public class CheckinRapidoAdminCommand implements ICommand {
         java.time.LocalDate finPlan = hoy.plusDays(noches);
         java.util.Date fechaInicioPlan = java.util.Date.from(hoy.atStartOfDay(java.time.ZoneId.systemDefault()).toInstant());
         java.util.Date fechaFinPlan = java.util.Date.from(finPlan.atStartOfDay(java.time.ZoneId.systemDefault()).toInstant());
-        reserva = ReservaBuilder.paraCheckin(cliente.getId(), habitacion.getId(), habitacion.getPrecio() * noches).build();
+        // Re-ejecutar crea otra reserva: la anterior quedó finalizada con su ID
+        String id = reserva == null ? idReserva : java.util.UUID.randomUUID().toString();
+        reserva = ReservaBuilder.paraCheckin(cliente.getId(), habitacion.getId(), habitacion.getPrecio() * noches)
+            .setId(id).build();
         reserva.setFechaReserva(new java.util.Date());
         reserva.setFechaInicioPlanificada(fechaInicioPlan);
         reserva.setFechaFinPlanificada(fechaFinPlan);
@@ -55,6 +83,27 @@ public class CheckinRapidoAdminCommand implements ICommand {
         }
     }
 
+    @Override
+    public HuellaComando getHuella() {
+        return HuellaComando.vacia().lee(Coleccion.CLIENTES)
+            .escribe(Coleccion.CLIENTES).escribe(Coleccion.RESERVAS)
+            .escribe(Coleccion.HABITACIONES, habitacion.getId());
+    }
+
+    @Override
+    public Map<String, String> getParametros() {
+        Map<String, String> parametros = new LinkedHashMap<>();
+        parametros.put("idReserva", idReserva);
+        parametros.put("idCliente", cliente.getId());
+        parametros.put("cedula", cliente.getCedula());
+        parametros.put("nombre", cliente.getNombre());
+        parametros.put("apellido", cliente.getApellido());
+        parametros.put("telefono", cliente.getTelefono());
+        parametros.put("idHabitacion", habitacion.getId());
+        if (noches != null) parametros.put("noches", String.valueOf(noches));
+        return parametros;
+    }
+
     @Override
     public String getDescription() {return "Check-in rápido hab " + habitacion.getNumero();}
     @Override
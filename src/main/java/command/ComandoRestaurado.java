@@ -0,0 +1,39 @@
+package command;
+
+/**
+ * Marcador de un comando del historial recuperado de una ejecución anterior.
+ * Solo conserva la descripción: deshacerlo o rehacerlo restaura el estado que guardó el caretaker,
+ * así que execute y undo no hacen nada por sí mismos.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+final class ComandoRestaurado implements ICommand {
+
+    private final String descripcion;
+    private final long executionTime = System.currentTimeMillis();
+
+    ComandoRestaurado(String descripcion) {
+        this.descripcion = descripcion != null ? descripcion : "Acción anterior";
+    }
+
+    @Override
+    public void execute() {
+        // El estado lo restaura el invoker desde el caretaker
+    }
+
+    @Override
+    public void undo() {
+        // El estado lo restaura el invoker desde el caretaker
+    }
+
+    @Override
+    public String getDescription() {
+        return descripcion;
+    }
+
+    @Override
+    public long getExecutionTime() {
+        return executionTime;
+    }
+}
@@ -1,24 +1,35 @@
 package command;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import model.IModeloService;
+import memento.CodificadorMemento;
+import memento.ICaretaker;
 import memento.ModeloMemento;
+import memento.RegistroCambios;
 
 /**
  * Implementación del invoker de comandos con soporte para Undo/Redo.
  * Mantiene una pila de comandos ejecutados y otra de comandos deshechos.
+ * Cada cambio del historial se notifica a los observadores en el hilo que lo produjo.
+ * Puede delegar los registros de cambios (o los mementos completos, si el servicio no registra
+ * cambios) en un {@link ICaretaker}, que decide cuántos conserva en memoria y puede mantener el
+ * historial entre ejecuciones.
  * 
  * @author asdw
  * @version 1.0
  */
 public class CommandInvoker implements ICommandInvoker {
 
-    // Snapshot de comandos para integrar Memento
+    // Snapshot de comandos para integrar Memento: completo (pre/post) o incremental (cambios)
     private static class CommandSnapshot {
         final ModeloMemento preState;
         final ModeloMemento postState;
+        final RegistroCambios cambios;
         CommandSnapshot(ModeloMemento pre, ModeloMemento post){
-            this.preState = pre; this.postState = post; }
+            this.preState = pre; this.postState = post; this.cambios = null; }
+        CommandSnapshot(RegistroCambios cambios){
+            this.preState = null; this.postState = null; this.cambios = cambios; }
     }
 
     private final Deque<CommandSnapshot> undoSnapshots = new ArrayDeque<>();
@@ -28,6 +39,15 @@ public class CommandInvoker implements ICommandInvoker {
     private final List<String> history;
     private final int maxHistorySize;
     private final IModeloService modeloService; // Puede ser null si no se desea Memento
+    private final ICaretaker caretaker; // puede ser null
+    private final boolean incremental; // el servicio registra cambios por documento
+    private final List<ObservadorHistorial> observadores = new CopyOnWriteArrayList<>();
+    private final MetricasHuella metricasHuella = new MetricasHuella();
+    private int comandosDesdeReferencia;
+    // Cada cuántos comandos se vuelve a medir un snapshot completo como referencia del ahorro
+    private static final int COMANDOS_POR_REFERENCIA = 256;
+    private static final java.util.logging.Logger logger =
+        java.util.logging.Logger.getLogger(CommandInvoker.class.getName());
 
     /**
      * Constructor que inicializa las pilas de comandos.
@@ -35,11 +55,37 @@ public class CommandInvoker implements ICommandInvoker {
      * @param maxHistorySize Tamaño máximo del historial (0 = ilimitado)
      */
     public CommandInvoker(int maxHistorySize, IModeloService modeloService) {
+        this(maxHistorySize, modeloService, null);
+    }
+
+    /**
+     * Constructor que guarda el historial en un caretaker en lugar de snapshots propios: los registros
+     * de cambios si el servicio los soporta, o los estados completos si no.
+     * Si el caretaker trae historial de una ejecución anterior, las pilas se reconstruyen con sus
+     * descripciones.
+     *
+     * @param maxHistorySize Tamaño máximo del historial (0 = ilimitado)
+     * @param modeloService Servicio originador de los mementos
+     * @param caretaker Custodio de los estados (null = mementos en memoria del invoker)
+     */
+    public CommandInvoker(int maxHistorySize, IModeloService modeloService, ICaretaker caretaker) {
         this.undoStack = new Stack<>();
         this.redoStack = new Stack<>();
         this.history = new ArrayList<>();
         this.maxHistorySize = maxHistorySize;
         this.modeloService = modeloService;
+        this.caretaker = modeloService != null ? caretaker : null;
+        this.incremental = modeloService != null && modeloService.soportaRegistroCambios();
+        if (this.caretaker != null) {
+            for (String descripcion : this.caretaker.getUndoDescriptions()) {
+                undoStack.push(new ComandoRestaurado(descripcion));
+                history.add(descripcion);
+            }
+            List<String> rehacer = this.caretaker.getRedoDescriptions();
+            for (String descripcion : rehacer) { // del más antiguo al más reciente: el último queda arriba
+                redoStack.push(new ComandoRestaurado(descripcion));
+            }
+        }
     }
 
     public CommandInvoker(int maxHistorySize){
@@ -60,20 +106,75 @@ public class CommandInvoker implements ICommandInvoker {
         }
         
         try {
-            ModeloMemento pre = (modeloService!=null)? modeloService.crearMemento(): null;
-            command.execute();
-            ModeloMemento post = (modeloService!=null)? modeloService.crearMemento(): null;
+            CommandSnapshot snapshot = null;
+            if (incremental) {
+                // Modo incremental: solo se guardan los documentos que toca el comando
+                long inicio = System.nanoTime();
+                modeloService.iniciarRegistroCambios();
+                long nanosCaptura = System.nanoTime() - inicio;
+                RegistroCambios cambios;
+                try {
+                    command.execute();
+                } finally {
+                    inicio = System.nanoTime();
+                    cambios = modeloService.finalizarRegistroCambios();
+                    nanosCaptura += System.nanoTime() - inicio;
+                }
+                verificarHuella(command, cambios);
+                medirRegistro(command, cambios, nanosCaptura);
+                if (caretaker != null) {
+                    caretaker.saveChanges(cambios, command.getDescription());
+                } else {
+                    snapshot = new CommandSnapshot(cambios);
+                }
+            } else if (caretaker != null) {
+                long inicio = System.nanoTime();
+                ModeloMemento pre = modeloService.crearMemento();
+                long nanos = System.nanoTime() - inicio;
+                long bytes = CodificadorMemento.estimarBytesHeap(pre);
+                metricasHuella.actualizarReferencia(bytes, nanos);
+                metricasHuella.registrar(command.getClass().getSimpleName(), bytes, nanos, 1);
+                command.execute();
+                caretaker.saveState(pre, command.getDescription());
+            } else if (modeloService!=null) {
+                // Solo se captura lo que el comando declara que escribe
+                HuellaComando huella = command.getHuella();
+                long inicio = System.nanoTime();
+                ModeloMemento pre = capturar(huella);
+                long nanos = System.nanoTime() - inicio;
+                long bytes = CodificadorMemento.estimarBytesHeap(pre);
+                if (huella.isCompleta()) {
+                    metricasHuella.actualizarReferencia(bytes, nanos);
+                } else {
+                    estimarReferenciaSiToca(documentos(pre), bytes, nanos);
+                }
+                command.execute();
+                inicio = System.nanoTime();
+                ModeloMemento post = capturar(huella);
+                nanos += System.nanoTime() - inicio;
+                snapshot = new CommandSnapshot(pre, post);
+                metricasHuella.registrar(command.getClass().getSimpleName(),
+                    bytes + CodificadorMemento.estimarBytesHeap(post), nanos, 2);
+            } else {
+                command.execute();
+            }
             undoStack.push(command);
             redoStack.clear();
-            if (modeloService!=null){
-                undoSnapshots.push(new CommandSnapshot(pre, post));
+            if (snapshot!=null){
+                undoSnapshots.push(snapshot);
                 redoSnapshots.clear();
             }
             history.add(command.getDescription());
+            String recortado = null;
             if (maxHistorySize > 0 && undoStack.size() > maxHistorySize) {
-                undoStack.remove(0);
+                recortado = undoStack.remove(0).getDescription();
                 history.remove(0);
-                if (modeloService!=null && !undoSnapshots.isEmpty()) undoSnapshots.removeLast();
+                if (caretaker != null) caretaker.discardOldest();
+                else if (modeloService!=null && !undoSnapshots.isEmpty()) undoSnapshots.removeLast();
+            }
+            notificar(EventoHistorial.Tipo.EJECUTADO, command.getDescription());
+            if (recortado != null) {
+                notificar(EventoHistorial.Tipo.RECORTADO, recortado);
             }
         } catch (Exception e) {
             throw new RuntimeException("Error al ejecutar comando: " + command.getDescription(), e);
@@ -86,21 +187,44 @@ public class CommandInvoker implements ICommandInvoker {
             return false;
         }
         
+        ICommand command = undoStack.pop();
+        redoStack.push(command);
+        boolean usaCaretaker = caretaker != null && caretaker.canUndo();
+        boolean caretakerMovido = false;
         try {
-            ICommand command = undoStack.pop();
-            redoStack.push(command);
-            if (modeloService!=null && !undoSnapshots.isEmpty()) {
+            if (usaCaretaker && incremental) {
+                RegistroCambios cambios = caretaker.undoChanges();
+                caretakerMovido = true;
+                modeloService.aplicarCambios(cambios, true);
+            } else if (usaCaretaker) {
+                // El caretaker guarda el estado actual para redo antes de devolver el anterior
+                ModeloMemento anterior = caretaker.undo();
+                caretakerMovido = true;
+                modeloService.restaurarEstadoCompleto(anterior);
+            } else if (modeloService!=null && !undoSnapshots.isEmpty()) {
                 CommandSnapshot snap = undoSnapshots.pop();
                 // Guardar estado actual para posibilitar redo
                 redoSnapshots.push(snap);
-                modeloService.restaurarEstadoCompleto(snap.preState);
+                if (snap.cambios != null) {
+                    modeloService.aplicarCambios(snap.cambios, true);
+                } else {
+                    restaurar(snap.preState);
+                }
             } else {
                 // Fallback a undo lógico del comando
                 command.undo();
             }
             return true;
         } catch (Exception e) {
+            if (usaCaretaker && !caretakerMovido) {
+                redoStack.pop();
+                undoStack.push(command);
+                sincronizarConCaretaker();
+            }
             throw new RuntimeException("Error al deshacer comando", e);
+        } finally {
+            // Las pilas ya cambiaron: se notifica aunque falle la restauración
+            notificar(EventoHistorial.Tipo.DESHECHO, command.getDescription());
         }
     }
 
@@ -110,13 +234,27 @@ public class CommandInvoker implements ICommandInvoker {
             return false;
         }
         
+        ICommand command = redoStack.pop();
+        undoStack.push(command);
+        boolean usaCaretaker = caretaker != null && caretaker.canRedo();
+        boolean caretakerMovido = false;
         try {
-            ICommand command = redoStack.pop();
-            undoStack.push(command);
-            if (modeloService!=null && !redoSnapshots.isEmpty()) {
+            if (usaCaretaker && incremental) {
+                RegistroCambios cambios = caretaker.redoChanges();
+                caretakerMovido = true;
+                modeloService.aplicarCambios(cambios, false);
+            } else if (usaCaretaker) {
+                ModeloMemento posterior = caretaker.redo();
+                caretakerMovido = true;
+                modeloService.restaurarEstadoCompleto(posterior);
+            } else if (modeloService!=null && !redoSnapshots.isEmpty()) {
                 CommandSnapshot snap = redoSnapshots.pop();
                 // Restaurar estado post comando
-                modeloService.restaurarEstadoCompleto(snap.postState);
+                if (snap.cambios != null) {
+                    modeloService.aplicarCambios(snap.cambios, false);
+                } else {
+                    restaurar(snap.postState);
+                }
                 undoSnapshots.push(snap); // vuelve a la pila de undo
             } else {
                 // Reejecutar comando si no hay snapshot
@@ -124,7 +262,14 @@ public class CommandInvoker implements ICommandInvoker {
             }
             return true;
         } catch (Exception e) {
+            if (usaCaretaker && !caretakerMovido) {
+                undoStack.pop();
+                redoStack.push(command);
+                sincronizarConCaretaker();
+            }
             throw new RuntimeException("Error al rehacer comando", e);
+        } finally {
+            notificar(EventoHistorial.Tipo.REHECHO, command.getDescription());
         }
     }
 
@@ -145,9 +290,17 @@ public class CommandInvoker implements ICommandInvoker {
 
     @Override
     public void clearHistory() {
+        boolean habiaHistorial = !undoStack.isEmpty() || !redoStack.isEmpty() || !history.isEmpty();
         undoStack.clear();
         redoStack.clear();
         history.clear();
+        // Los snapshots van emparejados con las pilas: sin esto un undo posterior aplicaría uno viejo
+        undoSnapshots.clear();
+        redoSnapshots.clear();
+        if (caretaker != null) caretaker.clear();
+        if (habiaHistorial) {
+            notificar(EventoHistorial.Tipo.LIMPIADO, null);
+        }
     }
 
     @Override
@@ -166,6 +319,105 @@ public class CommandInvoker implements ICommandInvoker {
         return null;
     }
 
+    @Override
+    public void agregarObservador(ObservadorHistorial observador) {
+        if (observador != null) observadores.add(observador);
+    }
+
+    @Override
+    public void quitarObservador(ObservadorHistorial observador) {
+        observadores.remove(observador);
+    }
+
+    /**
+     * Tras un rechazo del caretaker (historial heredado que ya no corresponde al estado) quita de
+     * las pilas lo que él descartó; lo heredado siempre queda en el fondo de ambas pilas.
+     */
+    private void sincronizarConCaretaker() {
+        int enUndo = caretaker.getUndoDescriptions().size();
+        int enRedo = caretaker.getRedoDescriptions().size();
+        while (undoStack.size() > enUndo) {
+            undoStack.remove(0);
+            if (!history.isEmpty()) history.remove(0);
+        }
+        while (redoStack.size() > enRedo) {
+            redoStack.remove(0);
+        }
+    }
+
+    private ModeloMemento capturar(HuellaComando huella) {
+        return huella.isCompleta() ? modeloService.crearMemento()
+            : modeloService.crearMementoParcial(huella.getEscrituras());
+    }
+
+    /**
+     * El registro ya contiene todo lo escrito, así que deshacer no depende de la huella; se contrasta
+     * con ella para detectar huellas incompletas, que sí romperían la captura parcial de los
+     * servicios sin registro de cambios.
+     */
+    private void verificarHuella(ICommand command, RegistroCambios cambios) {
+        List<RegistroCambios.Cambio> fuera = command.getHuella().noDeclarados(cambios);
+        if (!fuera.isEmpty()) {
+            StringBuilder documentos = new StringBuilder();
+            for (RegistroCambios.Cambio cambio : fuera) {
+                if (documentos.length() > 0) documentos.append(", ");
+                documentos.append(cambio.getColeccion()).append('/').append(cambio.getId());
+            }
+            logger.warning(command.getClass().getSimpleName() + " escribió fuera de su huella: " + documentos);
+        }
+    }
+
+    /**
+     * Anota en las métricas el tamaño del registro guardado. El tamaño se estima a partir de su
+     * codificación BSON, que no cuenta como tiempo de captura; un fallo al medir no afecta al comando.
+     */
+    private void medirRegistro(ICommand command, RegistroCambios cambios, long nanosCaptura) {
+        try {
+            long bytes = CodificadorMemento.estimarBytesHeapCambios(CodificadorMemento.codificarCambios(cambios).length);
+            estimarReferenciaSiToca(cambios.size(), bytes, nanosCaptura);
+            metricasHuella.registrar(command.getClass().getSimpleName(), bytes, nanosCaptura, 1);
+        } catch (RuntimeException e) {
+            logger.fine("No se pudo medir el registro de " + command.getDescription() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sin mementos completos la referencia se estima: el coste por documento de lo guardado
+     * multiplicado por los documentos del modelo. Se hace la primera vez y luego cada
+     * {@link #COMANDOS_POR_REFERENCIA} comandos, para que siga al tamaño del modelo.
+     */
+    private void estimarReferenciaSiToca(int guardados, long bytes, long nanos) {
+        if (guardados == 0
+                || metricasHuella.tieneReferencia() && ++comandosDesdeReferencia < COMANDOS_POR_REFERENCIA) {
+            return;
+        }
+        long documentos = modeloService.contarDocumentos();
+        if (documentos < 0) {
+            return;
+        }
+        comandosDesdeReferencia = 0;
+        metricasHuella.actualizarReferencia(documentos * bytes / guardados, documentos * nanos / guardados);
+    }
+
+    private static int documentos(ModeloMemento memento) {
+        return memento.getEstadoClientes().size() + memento.getEstadoHabitaciones().size()
+            + memento.getEstadoReservas().size();
+    }
+
+    private void restaurar(ModeloMemento memento) {
+        if (memento.isParcial()) {
+            modeloService.restaurarEstadoParcial(memento);
+        } else {
+            modeloService.restaurarEstadoCompleto(memento);
+        }
+    }
+
+    private void notificar(EventoHistorial.Tipo tipo, String descripcion) {
+        if (!observadores.isEmpty()) {
+            EventoHistorial.entregar(observadores, new EventoHistorial(tipo, descripcion, this));
+        }
+    }
+
     /**
      * Obtiene el número de comandos en la pila de undo.
      * 
@@ -183,4 +435,22 @@ public class CommandInvoker implements ICommandInvoker {
     public int getRedoStackSize() {
         return redoStack.size();
     }
+
+    /**
+     * Obtiene el número de snapshots (mementos o registros de cambios) retenidos en memoria.
+     * 
+     * @return Snapshots de undo más snapshots de redo
+     */
+    public int getSnapshotsRetenidos() {
+        return undoSnapshots.size() + redoSnapshots.size();
+    }
+
+    /**
+     * Obtiene las métricas de lo guardado por tipo de comando frente a snapshots completos.
+     * 
+     * @return Bytes y tiempo de captura guardados y ahorrados por tipo de comando
+     */
+    public MetricasHuella getMetricasHuella() {
+        return metricasHuella;
+    }
 }
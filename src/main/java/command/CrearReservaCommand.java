@@ -1,7 +1,10 @@
 package command;
 
 import model.*;
+import memento.ModeloMemento.Coleccion;
 import builder.ReservaBuilder;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Comando para creación de una nueva reserva (con soporte básico de undo liberando la habitación).
@@ -12,15 +15,43 @@ public class CrearReservaCommand implements ICommand {
     private final String idHabitacion;
     private double total;
     private final String descripcion;
+    private final String idReserva; // fijado al construir para que quede en el diario
     private Reserva reservaCreada;
     private final long executionTime;
+    private final Integer noches; // null = se piden al ejecutar
+    private final int diasHastaLlegada;
 
     public CrearReservaCommand(IModeloService modeloService, String idCliente, String idHabitacion, double total, String descripcion) {
+        this(modeloService, idCliente, idHabitacion, total, descripcion, null, 0, java.util.UUID.randomUUID().toString());
+    }
+
+    /**
+     * Constructor con la estancia ya decidida: no abre diálogos al ejecutarse, así que puede
+     * correr en el hilo escritor de comandos.
+     * 
+     * @param total Total de la estancia (no se multiplica por las noches)
+     * @param noches Noches planificadas (1+)
+     * @param diasHastaLlegada Días desde hoy hasta la llegada (0 = hoy)
+     */
+    public CrearReservaCommand(IModeloService modeloService, String idCliente, String idHabitacion, double total,
+                               String descripcion, int noches, int diasHastaLlegada) {
+        this(modeloService, idCliente, idHabitacion, total, descripcion, Integer.valueOf(Math.max(1, noches)),
+            Math.max(0, diasHastaLlegada), java.util.UUID.randomUUID().toString());
+    }
+
+    /**
+     * Constructor con el ID de la reserva a crear (reconstrucción desde el diario).
+     */
+    CrearReservaCommand(IModeloService modeloService, String idCliente, String idHabitacion, double total,
+                        String descripcion, Integer noches, int diasHastaLlegada, String idReserva) {
         this.modeloService = modeloService;
+        this.idReserva = idReserva;
         this.idCliente = idCliente;
         this.idHabitacion = idHabitacion;
         this.total = total;
         this.descripcion = descripcion;
+        this.noches = noches;
+        this.diasHastaLlegada = diasHastaLlegada;
         this.executionTime = System.currentTimeMillis();
     }
 
@@ -29,9 +60,9 @@ public class CrearReservaCommand implements ICommand {
         if (reservaCreada == null) {
             // En modo headless (tests CI) no se puede mostrar JOptionPane; usar valores por defecto.
             boolean headless = java.awt.GraphicsEnvironment.isHeadless();
-            int noches = 1;
-            java.time.LocalDate inicio = java.time.LocalDate.now();
-            if (!headless) {
+            int noches = this.noches != null ? this.noches : 1;
+            java.time.LocalDate inicio = java.time.LocalDate.now().plusDays(diasHastaLlegada);
+            if (!headless && this.noches == null) {
                 String inputNoches = javax.swing.JOptionPane.showInputDialog(null, "Número de noches (1+)", "1");
                 if (inputNoches != null && !inputNoches.trim().isEmpty()) {
                     try { noches = Math.max(1, Integer.parseInt(inputNoches.trim())); } catch(NumberFormatException ignored) {}
@@ -46,11 +77,12 @@ public class CrearReservaCommand implements ICommand {
             java.util.Date fechaInicioPlan = java.util.Date.from(inicio.atStartOfDay(java.time.ZoneId.systemDefault()).toInstant());
             java.util.Date fechaFinPlan = java.util.Date.from(finPlan.atStartOfDay(java.time.ZoneId.systemDefault()).toInstant());
             // Recalcular total si se proporcionó uno base (precio noche estimado = total original)
-            if (total > 0) {
+            if (total > 0 && this.noches == null) {
                 // Interpretar 'total' pasado como precio por noche si se creó desde UI anterior
                 this.total = total * noches;
             }
             reservaCreada = new ReservaBuilder()
+                .setId(idReserva)
                 .setCliente(idCliente)
                 .setHabitacion(idHabitacion)
                 .setTotal(this.total)
@@ -75,6 +107,28 @@ public class CrearReservaCommand implements ICommand {
         }
     }
 
+    @Override
+    public HuellaComando getHuella() {
+        // La reserva es nueva (colección entera); de habitaciones solo cambia la reservada
+        return HuellaComando.vacia().lee(Coleccion.CLIENTES, Coleccion.HABITACIONES)
+            .escribe(Coleccion.RESERVAS).escribe(Coleccion.HABITACIONES, idHabitacion);
+    }
+
+    @Override
+    public Map<String, String> getParametros() {
+        Map<String, String> parametros = new LinkedHashMap<>();
+        parametros.put("idReserva", idReserva);
+        parametros.put("idCliente", idCliente);
+        parametros.put("idHabitacion", idHabitacion);
+        parametros.put("total", String.valueOf(total));
+        parametros.put("descripcion", descripcion);
+        if (noches != null) {
+            parametros.put("noches", String.valueOf(noches));
+            parametros.put("diasHastaLlegada", String.valueOf(diasHastaLlegada));
+        }
+        return parametros;
+    }
+
     @Override
     public String getDescription() {
         return "Crear reserva: " + descripcion;
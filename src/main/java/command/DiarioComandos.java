@@ -0,0 +1,626 @@
+package command;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Diario de solo anexado de los comandos ejecutados, para auditoría y recuperación tras una caída.
+ * Cada comando deja un registro INICIADO (con sus parámetros) antes de ejecutarse y uno CONFIRMADO
+ * o FALLIDO al terminar; deshacer, rehacer y limpiar el historial también quedan anotados.
+ * Los registros se escriben en segmentos locales (diario-N.log) con longitud y CRC, y un hilo
+ * escritor los fuerza a disco por lotes (group commit): todo lo encolado mientras se hace un
+ * fsync sale en el siguiente. Quien espera durabilidad lo hace como mucho el presupuesto de
+ * sobrecarga por comando; si el disco no llega a tiempo el registro se escribe igual poco después.
+ * Un lote que no se puede escribir se recorta del segmento y se reintenta; si el disco sigue
+ * fallando el diario queda averiado: deja de escribir y nada posterior se da por durable.
+ * Al abrir se valida el diario, se descarta una cola rota por una caída y se detectan los comandos
+ * que empezaron pero no terminaron.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public class DiarioComandos implements Closeable {
+
+    /** Tipos de registro. */
+    public enum Tipo { INICIADO, CONFIRMADO, FALLIDO, DESHECHO, REHECHO, LIMPIADO }
+
+    /** Registro leído del diario. */
+    public static final class Registro {
+        private final long secuencia;
+        private final long referencia;
+        private final long instante;
+        private final Tipo tipo;
+        private final String comando;
+        private final String descripcion;
+        private final Map<String, String> parametros;
+
+        Registro(long secuencia, long referencia, long instante, Tipo tipo, String comando, String descripcion,
+                 Map<String, String> parametros) {
+            this.secuencia = secuencia;
+            this.referencia = referencia;
+            this.instante = instante;
+            this.tipo = tipo;
+            this.comando = comando;
+            this.descripcion = descripcion;
+            this.parametros = Collections.unmodifiableMap(parametros);
+        }
+
+        /** @return Número de registro, creciente */
+        public long getSecuencia() { return secuencia; }
+        /** @return Secuencia del INICIADO al que cierra un CONFIRMADO/FALLIDO (0 en los demás) */
+        public long getReferencia() { return referencia; }
+        /** @return Momento del registro en milisegundos */
+        public long getInstante() { return instante; }
+        public Tipo getTipo() { return tipo; }
+        /** @return Nombre de la clase del comando (null en DESHECHO, REHECHO y LIMPIADO) */
+        public String getComando() { return comando; }
+        public String getDescripcion() { return descripcion; }
+        public Map<String, String> getParametros() { return parametros; }
+
+        @Override
+        public String toString() {
+            return "#" + secuencia + " " + tipo + " " + (comando != null ? comando + " " : "")
+                + (descripcion != null ? descripcion : "") + (parametros.isEmpty() ? "" : " " + parametros);
+        }
+    }
+
+    /**
+     * Recrea un comando a partir de su registro INICIADO (para reconstruir el historial).
+     */
+    @FunctionalInterface
+    public interface Fabrica {
+        /**
+         * @return Comando listo para ejecutar, o null si el tipo no se puede recrear
+         */
+        ICommand crear(String comando, Map<String, String> parametros);
+    }
+
+    /** Sobrecarga por comando admitida por defecto. */
+    public static final long PRESUPUESTO_POR_DEFECTO_NANOS = 2_000_000L;
+    private static final long TAMANO_SEGMENTO = 16L << 20;
+    private static final int MAGICO = 0x4A524E4C; // "JRNL"
+    private static final int VERSION = 1;
+    private static final int CABECERA = 8;
+    private static final int REGISTRO_MINIMO = 37; // secuencias, instante, tipo y dos cadenas nulas
+    private static final long ESPERA_SINCRONIZAR_NANOS = 10_000_000_000L;
+    private static final int MAX_REINTENTOS = 5;
+    private static final long PAUSA_REINTENTO_MS = 50;
+    private static final String PREFIJO = "diario-";
+    private static final String SUFIJO = ".log";
+    private static final java.util.logging.Logger logger =
+        java.util.logging.Logger.getLogger(DiarioComandos.class.getName());
+
+    private final Path directorio;
+    private final long presupuestoNanos;
+    private final List<Registro> incompletos;
+    private final Thread escritor;
+
+    // Protegidos por this
+    private final List<byte[]> cola = new ArrayList<>();
+    private long secuencia;
+    private long durable;
+    private boolean cerrado;
+    private boolean averiado;
+    private long registros;
+    private long lotes;
+    private long fallosEscritura;
+    private long comandos;
+    private long sobrecargaTotal;
+    private long sobrecargaMaxima;
+    private long sobrePresupuesto;
+
+    // Solo los usa el hilo escritor (y el constructor antes de arrancarlo)
+    private FileChannel canal;
+    private int segmento;
+
+    /**
+     * Abre (o crea) el diario del directorio y arranca el hilo escritor.
+     *
+     * @param directorio Directorio de los segmentos
+     * @param presupuestoNanos Sobrecarga máxima por comando que se espera a la durabilidad
+     * @throws IllegalStateException si el directorio no se puede leer o escribir
+     */
+    public DiarioComandos(Path directorio, long presupuestoNanos) {
+        if (presupuestoNanos < 0) {
+            throw new IllegalArgumentException("El presupuesto no puede ser negativo");
+        }
+        this.directorio = directorio;
+        this.presupuestoNanos = presupuestoNanos;
+        Map<Long, Registro> abiertos = new LinkedHashMap<>();
+        try {
+            Files.createDirectories(directorio);
+            List<Path> segmentos = segmentos();
+            for (int i = 0; i < segmentos.size(); i++) {
+                boolean ultimo = i == segmentos.size() - 1;
+                long valido = leerSegmento(segmentos.get(i), r -> {
+                    secuencia = Math.max(secuencia, r.getSecuencia());
+                    if (r.getTipo() == Tipo.INICIADO) abiertos.put(r.getSecuencia(), r);
+                    else if (r.getReferencia() > 0) abiertos.remove(r.getReferencia());
+                });
+                if (ultimo) {
+                    segmento = numero(segmentos.get(i));
+                    canal = FileChannel.open(segmentos.get(i), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    if (valido < CABECERA) {
+                        canal.truncate(0);
+                        escribirCabecera();
+                    } else if (canal.size() > valido) {
+                        logger.warning("Diario con registros incompletos al final de " + segmentos.get(i)
+                            + "; se descartan " + (canal.size() - valido) + " bytes");
+                        canal.truncate(valido);
+                    }
+                    canal.position(canal.size());
+                }
+            }
+            if (canal == null) abrirSegmento(1);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo abrir el diario en " + directorio, e);
+        }
+        durable = secuencia;
+        incompletos = Collections.unmodifiableList(new ArrayList<>(abiertos.values()));
+        escritor = new Thread(this::escribirLotes, "diario-comandos");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * @param directorio Directorio de los segmentos
+     */
+    public DiarioComandos(Path directorio) {
+        this(directorio, PRESUPUESTO_POR_DEFECTO_NANOS);
+    }
+
+    // === Escritura ===
+
+    /**
+     * Encola un registro; no espera a que llegue a disco.
+     *
+     * @param tipo Tipo de registro
+     * @param referencia Secuencia del INICIADO que cierra (0 si no aplica)
+     * @param comando Clase del comando (puede ser null)
+     * @param descripcion Descripción legible (puede ser null)
+     * @param parametros Parámetros del comando (puede ser null)
+     * @return Secuencia asignada (en un diario averiado el registro se descarta)
+     * @throws IllegalStateException si el diario está cerrado
+     */
+    public long registrar(Tipo tipo, long referencia, String comando, String descripcion, Map<String, String> parametros) {
+        long instante = System.currentTimeMillis();
+        synchronized (this) {
+            if (cerrado) {
+                throw new IllegalStateException("El diario está cerrado");
+            }
+            long asignada = ++secuencia;
+            if (averiado) return asignada;
+            cola.add(codificar(asignada, referencia, instante, tipo, comando, descripcion, parametros));
+            notifyAll();
+            return asignada;
+        }
+    }
+
+    /**
+     * Espera a que un registro esté en disco, como mucho el tiempo indicado.
+     *
+     * @param secuenciaRegistro Secuencia devuelta por {@link #registrar}
+     * @param maximoNanos Espera máxima
+     * @return true si el registro ya es durable
+     */
+    public synchronized boolean esperarDurable(long secuenciaRegistro, long maximoNanos) {
+        long limite = System.nanoTime() + maximoNanos;
+        while (durable < secuenciaRegistro && !cerrado && !averiado) {
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) return false;
+            try {
+                wait(restante / 1_000_000L, (int) (restante % 1_000_000L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return durable >= secuenciaRegistro;
+    }
+
+    /**
+     * Espera a que todo lo encolado esté en disco (como mucho diez segundos).
+     *
+     * @return true si todo lo encolado ya es durable
+     */
+    public boolean sincronizar() {
+        long hasta;
+        synchronized (this) {
+            hasta = secuencia;
+        }
+        return esperarDurable(hasta, ESPERA_SINCRONIZAR_NANOS);
+    }
+
+    /**
+     * Anota la sobrecarga que el diario añadió a un comando.
+     *
+     * @param nanos Tiempo total gastado en registrar y esperar
+     */
+    synchronized void medirSobrecarga(long nanos) {
+        comandos++;
+        sobrecargaTotal += nanos;
+        sobrecargaMaxima = Math.max(sobrecargaMaxima, nanos);
+        if (nanos > presupuestoNanos) sobrePresupuesto++;
+    }
+
+    private void escribirLotes() {
+        int intentos = 0;
+        while (true) {
+            List<byte[]> lote;
+            long hasta;
+            synchronized (this) {
+                while (cola.isEmpty() && !cerrado) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        cerrado = true;
+                    }
+                }
+                if (cola.isEmpty()) return;
+                lote = new ArrayList<>(cola);
+                cola.clear();
+                hasta = secuencia;
+            }
+            boolean escrito = escribir(lote);
+            synchronized (this) {
+                if (escrito) {
+                    intentos = 0;
+                    durable = hasta;
+                    registros += lote.size();
+                    lotes++;
+                } else {
+                    fallosEscritura++;
+                    if (canal.isOpen() && ++intentos < MAX_REINTENTOS) {
+                        cola.addAll(0, lote); // vuelve delante de lo encolado después, en orden
+                    } else {
+                        logger.severe("Diario de comandos averiado: se descartan " + (lote.size() + cola.size())
+                            + " registros pendientes y no se escribirá más");
+                        averiado = true;
+                        cola.clear();
+                    }
+                }
+                notifyAll();
+                if (averiado) return;
+            }
+            if (!escrito) {
+                try {
+                    Thread.sleep(PAUSA_REINTENTO_MS * intentos);
+                } catch (InterruptedException e) {
+                    synchronized (this) {
+                        cerrado = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Escribe y fuerza a disco un lote. Si falla, recorta el segmento hasta donde empezaba el lote
+     * para no dejar un registro a medias delante de los siguientes; si ni eso se puede, cierra el canal.
+     *
+     * @return true si el lote entero es durable
+     */
+    private boolean escribir(List<byte[]> lote) {
+        long inicio = -1;
+        try {
+            long bytes = 0;
+            for (byte[] registro : lote) bytes += registro.length;
+            if (canal.size() > CABECERA && canal.size() + bytes > TAMANO_SEGMENTO) {
+                canal.force(false);
+                canal.close();
+                abrirSegmento(segmento + 1);
+            }
+            inicio = canal.position();
+            ByteBuffer[] buffers = new ByteBuffer[lote.size()];
+            for (int i = 0; i < buffers.length; i++) buffers[i] = ByteBuffer.wrap(lote.get(i));
+            long restante = bytes;
+            while (restante > 0) restante -= escribirEn(canal, buffers);
+            canal.force(false);
+            return true;
+        } catch (IOException e) {
+            logger.severe("No se pudo escribir el diario de comandos: " + e.getMessage());
+            if (inicio >= 0) {
+                try {
+                    canal.truncate(inicio);
+                    canal.position(inicio);
+                    return false;
+                } catch (IOException sinRecorte) {
+                    logger.severe("No se pudo recortar el diario tras el fallo: " + sinRecorte.getMessage());
+                }
+            }
+            cerrarCanal();
+            return false;
+        }
+    }
+
+    private void cerrarCanal() {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            logger.warning("No se pudo cerrar el segmento del diario: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe en el canal; separado para poder simular fallos del disco en las pruebas.
+     *
+     * @return Bytes escritos
+     */
+    long escribirEn(FileChannel canal, ByteBuffer[] buffers) throws IOException {
+        return canal.write(buffers);
+    }
+
+    private void abrirSegmento(int numero) throws IOException {
+        segmento = numero;
+        canal = FileChannel.open(directorio.resolve(String.format("%s%06d%s", PREFIJO, numero, SUFIJO)),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        canal.truncate(0);
+        escribirCabecera();
+    }
+
+    private void escribirCabecera() throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+        cabecera.putInt(MAGICO).putInt(VERSION).flip();
+        canal.write(cabecera, 0);
+        canal.position(CABECERA);
+        canal.force(false);
+    }
+
+    private static byte[] codificar(long secuencia, long referencia, long instante, Tipo tipo, String comando,
+                                    String descripcion, Map<String, String> parametros) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0); // longitud
+            out.writeInt(0); // crc
+            out.writeLong(secuencia);
+            out.writeLong(referencia);
+            out.writeLong(instante);
+            out.writeByte(tipo.ordinal());
+            escribir(out, comando);
+            escribir(out, descripcion);
+            Map<String, String> p = parametros != null ? parametros : Collections.<String, String>emptyMap();
+            out.writeInt(p.size());
+            for (Map.Entry<String, String> e : p.entrySet()) {
+                escribir(out, e.getKey());
+                escribir(out, e.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // no ocurre sobre un arreglo en memoria
+        }
+        byte[] registro = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(registro, 8, registro.length - 8);
+        ByteBuffer.wrap(registro).putInt(registro.length - 8).putInt((int) crc.getValue());
+        return registro;
+    }
+
+    private static void escribir(DataOutputStream out, String valor) throws IOException {
+        if (valor == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = valor.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    // === Lectura ===
+
+    private List<Path> segmentos() throws IOException {
+        List<Path> lista = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, PREFIJO + "*" + SUFIJO)) {
+            for (Path archivo : archivos) {
+                if (numero(archivo) > 0) lista.add(archivo);
+            }
+        }
+        lista.sort((a, b) -> Integer.compare(numero(a), numero(b)));
+        return lista;
+    }
+
+    private static int numero(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        try {
+            return Integer.parseInt(nombre.substring(PREFIJO.length(), nombre.length() - SUFIJO.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Lee los registros válidos de un segmento.
+     *
+     * @return Posición tras el último registro válido (0 si la cabecera no es válida)
+     */
+    private static long leerSegmento(Path archivo, Consumer<Registro> lector) throws IOException {
+        ByteBuffer datos = ByteBuffer.wrap(Files.readAllBytes(archivo));
+        if (datos.remaining() < CABECERA || datos.getInt() != MAGICO || datos.getInt() != VERSION) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        while (datos.remaining() >= 8) {
+            int inicio = datos.position();
+            int longitud = datos.getInt();
+            int esperado = datos.getInt();
+            if (longitud < REGISTRO_MINIMO || longitud > datos.remaining()) return inicio;
+            crc.reset();
+            crc.update(datos.array(), datos.position(), longitud);
+            if ((int) crc.getValue() != esperado) return inicio;
+            Registro registro;
+            try {
+                registro = leerRegistro(datos);
+            } catch (RuntimeException e) {
+                return inicio; // CRC correcto pero contenido ilegible: se trata como cola rota
+            }
+            datos.position(inicio + 8 + longitud);
+            // Lo que lance el lector (p.ej. un comando al reconstruir) no es corrupción: se propaga
+            lector.accept(registro);
+        }
+        return datos.position();
+    }
+
+    private static Registro leerRegistro(ByteBuffer datos) {
+        long secuencia = datos.getLong();
+        long referencia = datos.getLong();
+        long instante = datos.getLong();
+        Tipo tipo = Tipo.values()[datos.get()];
+        String comando = leerCadena(datos);
+        String descripcion = leerCadena(datos);
+        int n = datos.getInt();
+        Map<String, String> parametros = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) parametros.put(leerCadena(datos), leerCadena(datos));
+        return new Registro(secuencia, referencia, instante, tipo, comando, descripcion, parametros);
+    }
+
+    private static String leerCadena(ByteBuffer datos) {
+        int longitud = datos.getInt();
+        if (longitud < 0) return null;
+        String valor = new String(datos.array(), datos.position(), longitud, StandardCharsets.UTF_8);
+        datos.position(datos.position() + longitud);
+        return valor;
+    }
+
+    /**
+     * Recorre en orden todos los registros durables del diario (primero fuerza lo encolado).
+     *
+     * @param lector Recibe cada registro
+     */
+    public void reproducir(Consumer<Registro> lector) {
+        sincronizar();
+        try {
+            for (Path segmento : segmentos()) {
+                leerSegmento(segmento, lector);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo leer el diario en " + directorio, e);
+        }
+    }
+
+    /**
+     * Reconstruye un historial ejecutando en otro invoker los comandos confirmados y repitiendo
+     * los deshacer, rehacer y limpiar en el mismo orden. El estado de partida debe ser el que había
+     * cuando empezó el diario; el invoker no debe escribir en este mismo diario.
+     *
+     * @param fabrica Recrea cada comando a partir de sus parámetros
+     * @param invoker Invoker sobre el que se reconstruye
+     * @return Comandos reejecutados (los que la fábrica no pudo recrear se omiten)
+     */
+    public int reconstruir(Fabrica fabrica, ICommandInvoker invoker) {
+        Map<Long, Registro> iniciados = new HashMap<>();
+        int[] ejecutados = {0};
+        reproducir(r -> {
+            switch (r.getTipo()) {
+                case INICIADO:
+                    iniciados.put(r.getSecuencia(), r);
+                    break;
+                case CONFIRMADO:
+                    Registro inicio = iniciados.remove(r.getReferencia());
+                    ICommand comando = inicio != null ? fabrica.crear(inicio.getComando(), inicio.getParametros()) : null;
+                    if (comando != null) {
+                        invoker.executeCommand(comando);
+                        ejecutados[0]++;
+                    } else {
+                        logger.warning("No se puede recrear el registro " + r);
+                    }
+                    break;
+                case FALLIDO:
+                    iniciados.remove(r.getReferencia());
+                    break;
+                case DESHECHO:
+                    invoker.undo();
+                    break;
+                case REHECHO:
+                    invoker.redo();
+                    break;
+                default:
+                    invoker.clearHistory();
+            }
+        });
+        return ejecutados[0];
+    }
+
+    /**
+     * @return Comandos que tenían INICIADO pero ni CONFIRMADO ni FALLIDO al abrir el diario
+     *         (la aplicación se cerró a mitad de ejecutarlos)
+     */
+    public List<Registro> getIncompletos() {
+        return incompletos;
+    }
+
+    // === Métricas ===
+
+    /** @return Sobrecarga máxima admitida por comando */
+    public long getPresupuestoNanos() {
+        return presupuestoNanos;
+    }
+
+    /** @return Registros escritos a disco */
+    public synchronized long getRegistrosEscritos() {
+        return registros;
+    }
+
+    /** @return Lotes forzados a disco (un fsync cada uno) */
+    public synchronized long getLotes() {
+        return lotes;
+    }
+
+    /** @return Intentos de escritura de lotes que fallaron (incluidos los reintentos) */
+    public synchronized long getFallosEscritura() {
+        return fallosEscritura;
+    }
+
+    /** @return true si el disco falló en todos los reintentos y el diario dejó de escribir */
+    public synchronized boolean isAveriado() {
+        return averiado;
+    }
+
+    /** @return Sobrecarga media por comando en nanosegundos */
+    public synchronized long getSobrecargaPromedioNanos() {
+        return comandos == 0 ? 0 : sobrecargaTotal / comandos;
+    }
+
+    /** @return Sobrecarga máxima medida en un comando */
+    public synchronized long getSobrecargaMaximaNanos() {
+        return sobrecargaMaxima;
+    }
+
+    /** @return Comandos cuya sobrecarga superó el presupuesto */
+    public synchronized long getComandosSobrePresupuesto() {
+        return sobrePresupuesto;
+    }
+
+    /**
+     * Deja de aceptar registros, escribe los pendientes y cierra el segmento.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (cerrado) return;
+            cerrado = true;
+            notifyAll();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (canal.isOpen()) canal.close();
+    }
+}
@@ -0,0 +1,90 @@
+package command;
+
+import java.util.List;
+
+/**
+ * Cambio en el historial Undo/Redo de un {@link ICommandInvoker}.
+ * Incluye el estado del historial justo después del cambio, para que los observadores
+ * actualicen botones y descripciones sin volver a consultar al invoker.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public final class EventoHistorial {
+
+    /** Tipos de cambio del historial. */
+    public enum Tipo {
+        /** Se ejecutó un comando (y se vació la pila de redo). */
+        EJECUTADO,
+        /** Se deshizo el último comando. */
+        DESHECHO,
+        /** Se rehízo el último comando deshecho. */
+        REHECHO,
+        /** Se vació el historial. */
+        LIMPIADO,
+        /** Se descartó el comando más antiguo por superar el tamaño máximo. */
+        RECORTADO
+    }
+
+    private static final java.util.logging.Logger logger =
+        java.util.logging.Logger.getLogger(EventoHistorial.class.getName());
+
+    private final Tipo tipo;
+    private final String descripcion;
+    private final boolean canUndo;
+    private final boolean canRedo;
+    private final String siguienteUndo;
+    private final String siguienteRedo;
+    private final int tamanoHistorial;
+
+    /**
+     * @param tipo Tipo de cambio
+     * @param descripcion Comando afectado (null en LIMPIADO)
+     * @param invoker Invoker del que se toma el estado resultante
+     */
+    public EventoHistorial(Tipo tipo, String descripcion, ICommandInvoker invoker) {
+        this.tipo = tipo;
+        this.descripcion = descripcion;
+        this.canUndo = invoker.canUndo();
+        this.canRedo = invoker.canRedo();
+        this.siguienteUndo = invoker.getNextUndoDescription();
+        this.siguienteRedo = invoker.getNextRedoDescription();
+        this.tamanoHistorial = invoker.getCommandHistory().size();
+    }
+
+    /**
+     * Entrega el evento a cada observador; un observador que falla no impide la entrega a los demás.
+     */
+    static void entregar(List<ICommandInvoker.ObservadorHistorial> observadores, EventoHistorial evento) {
+        for (ICommandInvoker.ObservadorHistorial observador : observadores) {
+            try {
+                observador.historialCambiado(evento);
+            } catch (RuntimeException e) {
+                logger.warning("Observador del historial falló con " + evento + ": " + e);
+            }
+        }
+    }
+
+    public Tipo getTipo() { return tipo; }
+
+    /** @return Descripción del comando ejecutado, deshecho, rehecho o recortado */
+    public String getDescripcion() { return descripcion; }
+
+    public boolean isCanUndo() { return canUndo; }
+
+    public boolean isCanRedo() { return canRedo; }
+
+    /** @return Próximo comando a deshacer, o null */
+    public String getSiguienteUndo() { return siguienteUndo; }
+
+    /** @return Próximo comando a rehacer, o null */
+    public String getSiguienteRedo() { return siguienteRedo; }
+
+    /** @return Comandos en el historial tras el cambio */
+    public int getTamanoHistorial() { return tamanoHistorial; }
+
+    @Override
+    public String toString() {
+        return tipo + (descripcion != null ? "[" + descripcion + "]" : "");
+    }
+}
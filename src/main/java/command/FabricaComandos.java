@@ -0,0 +1,148 @@
+package command;
+
+import model.*;
+import singleton.GestorDisponibilidad;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Fábrica de los comandos de la aplicación a partir de los parámetros que dejan en el
+ * {@link DiarioComandos} (ver {@link ICommand#getParametros()}), para reconstruir el historial.
+ * Los comandos se recrean sin vista: los que avisan al controlador no muestran nada, y los que
+ * no registraron noches usan una en lugar de preguntarlas. Los IDs que los comandos generan
+ * (reservas, clientes del check-in) se registran al construirlos, así que se recrean iguales y
+ * los comandos posteriores que los referencian siguen siendo válidos.
+ * Las fechas relativas (llegada en N días) se calculan desde el día de la reconstrucción.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public class FabricaComandos implements DiarioComandos.Fabrica {
+
+    private static final java.util.logging.Logger logger =
+        java.util.logging.Logger.getLogger(FabricaComandos.class.getName());
+
+    private final IModeloService modeloService;
+
+    /**
+     * @param modeloService Servicio sobre el que actuarán los comandos recreados
+     */
+    public FabricaComandos(IModeloService modeloService) {
+        if (modeloService == null) {
+            throw new IllegalArgumentException("El servicio del modelo es obligatorio");
+        }
+        this.modeloService = modeloService;
+    }
+
+    /**
+     * @return Comando recreado, o null si el tipo es desconocido o faltan parámetros
+     */
+    @Override
+    public ICommand crear(String comando, Map<String, String> parametros) {
+        if (comando == null) return null;
+        try {
+            switch (comando) {
+                case "CrearReservaCommand":
+                    return crearReserva(parametros);
+                case "FinalizarReservaCommand":
+                    return new FinalizarReservaCommand(modeloService, obligatorio(parametros, "idReserva"));
+                case "CheckinRapidoAdminCommand":
+                    return checkinRapido(parametros);
+                case "CheckinCommand":
+                    return new CheckinCommand(parametros.get("nombre"), parametros.get("apellido"),
+                        obligatorio(parametros, "cedula"), parametros.get("telefono"),
+                        obligatorio(parametros, "habitacion"), modeloService, null,
+                        Integer.parseInt(obligatorio(parametros, "offsetDiasLlegada")),
+                        Integer.parseInt(obligatorio(parametros, "nochesPlanificadas")),
+                        idOGenerado(parametros, "idCliente"), idOGenerado(parametros, "idReserva"));
+                case "AnularReservaCommand":
+                    return new AnularReservaCommand(obligatorio(parametros, "cedula"), modeloService,
+                        GestorDisponibilidad.getInstance(), null);
+                case "CheckinGrupalCommand":
+                    return checkinGrupal(parametros);
+                default:
+                    return null;
+            }
+        } catch (IllegalArgumentException e) {
+            // Incluye NumberFormatException
+            logger.warning("Parámetros inválidos para " + comando + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private ICommand crearReserva(Map<String, String> p) {
+        String idCliente = obligatorio(p, "idCliente");
+        String idHabitacion = obligatorio(p, "idHabitacion");
+        double total = Double.parseDouble(obligatorio(p, "total"));
+        boolean conNoches = p.containsKey("noches");
+        return new CrearReservaCommand(modeloService, idCliente, idHabitacion, total, p.get("descripcion"),
+            conNoches ? Math.max(1, Integer.parseInt(p.get("noches"))) : 1,
+            conNoches ? Math.max(0, Integer.parseInt(obligatorio(p, "diasHastaLlegada"))) : 0,
+            idOGenerado(p, "idReserva"));
+    }
+
+    private ICommand checkinRapido(Map<String, String> p) {
+        String idHabitacion = obligatorio(p, "idHabitacion");
+        Habitacion habitacion = null;
+        for (Habitacion h : modeloService.obtenerTodasHabitaciones()) {
+            if (idHabitacion.equals(h.getId())) {
+                habitacion = h;
+                break;
+            }
+        }
+        if (habitacion == null) {
+            throw new IllegalArgumentException("No existe la habitación " + idHabitacion);
+        }
+        // El cliente pudo crearse al ejecutar el comando: se busca y si no, se vuelve a armar
+        String idCliente = p.get("idCliente");
+        Cliente cliente = idCliente != null ? modeloService.buscarClientePorId(idCliente) : null;
+        if (cliente == null) {
+            cliente = modeloService.buscarClientePorCedula(obligatorio(p, "cedula"));
+        }
+        if (cliente == null) {
+            cliente = new Cliente(idCliente, p.get("nombre"), p.get("apellido"), p.get("cedula"), p.get("telefono"));
+        }
+        int noches = p.containsKey("noches") ? Math.max(1, Integer.parseInt(p.get("noches"))) : 1;
+        return new CheckinRapidoAdminCommand(modeloService, cliente, habitacion, noches, idOGenerado(p, "idReserva"));
+    }
+
+    private ICommand checkinGrupal(Map<String, String> p) {
+        int cantidad = Integer.parseInt(obligatorio(p, "huespedes"));
+        List<HuespedGrupo> huespedes = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            String prefijo = "huesped." + i + ".";
+            Cliente cliente = new Cliente(p.get(prefijo + "idCliente"), p.get(prefijo + "nombre"),
+                p.get(prefijo + "apellido"), obligatorio(p, prefijo + "cedula"), p.get(prefijo + "telefono"));
+            String noches = p.get(prefijo + "noches");
+            Reserva reserva = new Reserva(p.get(prefijo + "idReserva"), null, obligatorio(p, prefijo + "idHabitacion"),
+                fecha(p, prefijo + "fechaIngreso"), null, Double.parseDouble(obligatorio(p, prefijo + "total")),
+                p.get(prefijo + "observaciones"), true, fecha(p, prefijo + "fechaReserva"),
+                fecha(p, prefijo + "inicioPlanificado"), fecha(p, prefijo + "finPlanificado"),
+                noches != null ? Integer.parseInt(noches) : 1);
+            huespedes.add(new HuespedGrupo(cliente, reserva));
+        }
+        return new CheckinGrupalCommand(modeloService, huespedes);
+    }
+
+    /** Diarios anteriores no registraban los IDs generados: se genera uno nuevo. */
+    private static String idOGenerado(Map<String, String> parametros, String clave) {
+        String valor = parametros.get(clave);
+        return valor != null ? valor : UUID.randomUUID().toString();
+    }
+
+    private static Date fecha(Map<String, String> parametros, String clave) {
+        String valor = parametros.get(clave);
+        return valor != null ? new Date(Long.parseLong(valor)) : null;
+    }
+
+    private static String obligatorio(Map<String, String> parametros, String clave) {
+        String valor = parametros.get(clave);
+        if (valor == null) {
+            throw new IllegalArgumentException("falta el parámetro " + clave);
+        }
+        return valor;
+    }
+}
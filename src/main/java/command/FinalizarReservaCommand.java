@@ -1,7 +1,10 @@
 package command;
 
 import model.*;
+import memento.ModeloMemento.Coleccion;
 import java.util.List;
+import java.util.Collections;
+import java.util.Map;
 
 /**
  * Comando para finalizar (checkout) una reserva activa.
@@ -61,6 +64,18 @@ public class FinalizarReservaCommand implements ICommand {
         modeloService.crearReserva(reactivada);
     }
 
+    @Override
+    public HuellaComando getHuella() {
+        // La habitación liberada no se conoce antes de ejecutar: se declara la colección entera
+        return HuellaComando.vacia().lee(Coleccion.RESERVAS)
+            .escribe(Coleccion.RESERVAS, idReserva).escribe(Coleccion.HABITACIONES);
+    }
+
+    @Override
+    public Map<String, String> getParametros() {
+        return Collections.singletonMap("idReserva", idReserva);
+    }
+
     @Override
     public String getDescription() {return "Finalizar reserva " + idReserva;}
     @Override
@@ -0,0 +1,172 @@
+package command;
+
+import memento.ModeloMemento.Coleccion;
+import memento.RegistroCambios;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Huella de un comando: colecciones que lee y colecciones (o documentos concretos) que escribe.
+ * Con servicios sin registro de cambios el invoker captura y restaura solo lo escrito, así que la
+ * huella debe cubrir todo lo que el comando modifica; un id solo puede declararse si el documento ya
+ * existe antes de ejecutar (los documentos creados exigen declarar la colección entera).
+ * Con registro de cambios el invoker contrasta la huella con lo que el comando escribió de verdad
+ * ({@link #noDeclarados}) y avisa de las huellas incompletas.
+ * Es inmutable: cada método devuelve una huella nueva.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public final class HuellaComando {
+
+    private static final HuellaComando COMPLETA = new HuellaComando(EnumSet.allOf(Coleccion.class), todas());
+    private static final HuellaComando VACIA =
+        new HuellaComando(EnumSet.noneOf(Coleccion.class), new EnumMap<>(Coleccion.class));
+
+    private final Set<Coleccion> lecturas;
+    private final Map<Coleccion, Set<String>> escrituras; // null = colección entera
+
+    private HuellaComando(Set<Coleccion> lecturas, Map<Coleccion, Set<String>> escrituras) {
+        this.lecturas = Collections.unmodifiableSet(lecturas);
+        this.escrituras = Collections.unmodifiableMap(escrituras);
+    }
+
+    private static Map<Coleccion, Set<String>> todas() {
+        Map<Coleccion, Set<String>> escrituras = new EnumMap<>(Coleccion.class);
+        for (Coleccion c : Coleccion.values()) escrituras.put(c, null);
+        return escrituras;
+    }
+
+    /**
+     * @return Huella que lee y escribe todo el modelo (la de cualquier comando que no declare otra)
+     */
+    public static HuellaComando completa() {
+        return COMPLETA;
+    }
+
+    /**
+     * @return Huella sin lecturas ni escrituras, para ir declarando
+     */
+    public static HuellaComando vacia() {
+        return VACIA;
+    }
+
+    /**
+     * @param colecciones Colecciones que el comando consulta
+     * @return Huella con esas lecturas añadidas
+     */
+    public HuellaComando lee(Coleccion... colecciones) {
+        Set<Coleccion> nuevas = copiarLecturas();
+        nuevas.addAll(Arrays.asList(colecciones));
+        return new HuellaComando(nuevas, copiarEscrituras());
+    }
+
+    /**
+     * Declara que el comando puede crear, modificar o borrar cualquier documento de la colección.
+     *
+     * @param coleccion Colección escrita
+     * @return Huella con la escritura añadida
+     */
+    public HuellaComando escribe(Coleccion coleccion) {
+        Map<Coleccion, Set<String>> nuevas = copiarEscrituras();
+        nuevas.put(coleccion, null);
+        return new HuellaComando(copiarLecturas(), nuevas);
+    }
+
+    /**
+     * Declara que el comando solo modifica documentos existentes con esos ids.
+     * Si la colección ya estaba declarada entera, sigue entera.
+     *
+     * @param coleccion Colección escrita
+     * @param ids Ids de los documentos modificados
+     * @return Huella con la escritura añadida
+     */
+    public HuellaComando escribe(Coleccion coleccion, String... ids) {
+        Map<Coleccion, Set<String>> nuevas = copiarEscrituras();
+        if (!nuevas.containsKey(coleccion) || nuevas.get(coleccion) != null) {
+            Set<String> acumulados = new HashSet<>();
+            if (nuevas.get(coleccion) != null) acumulados.addAll(nuevas.get(coleccion));
+            acumulados.addAll(Arrays.asList(ids));
+            nuevas.put(coleccion, Collections.unmodifiableSet(acumulados));
+        }
+        return new HuellaComando(copiarLecturas(), nuevas);
+    }
+
+    private Set<Coleccion> copiarLecturas() {
+        Set<Coleccion> copia = EnumSet.noneOf(Coleccion.class);
+        copia.addAll(lecturas);
+        return copia;
+    }
+
+    private Map<Coleccion, Set<String>> copiarEscrituras() {
+        Map<Coleccion, Set<String>> copia = new EnumMap<>(Coleccion.class);
+        copia.putAll(escrituras);
+        return copia;
+    }
+
+    /** @return Colecciones que el comando consulta */
+    public Set<Coleccion> getLecturas() {
+        return lecturas;
+    }
+
+    /** @return Colección escrita -> ids escritos (null = colección entera) */
+    public Map<Coleccion, Set<String>> getEscrituras() {
+        return escrituras;
+    }
+
+    /**
+     * @return true si el comando escribe todas las colecciones enteras (no hay nada que ahorrar)
+     */
+    public boolean isCompleta() {
+        if (escrituras.size() < Coleccion.values().length) return false;
+        for (Set<String> ids : escrituras.values()) {
+            if (ids != null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Cambios de un registro que la huella no declara, con las mismas reglas que la captura parcial:
+     * un documento creado solo lo cubre la colección entera, y las colecciones que el memento no
+     * guarda (por ejemplo servicios) solo las cubre la huella completa.
+     *
+     * @param cambios Lo que el comando escribió
+     * @return Cambios fuera de la huella (vacío si la huella los cubre todos)
+     */
+    public List<RegistroCambios.Cambio> noDeclarados(RegistroCambios cambios) {
+        List<RegistroCambios.Cambio> fuera = new ArrayList<>();
+        for (RegistroCambios.Cambio cambio : cambios.getCambios()) {
+            Coleccion coleccion = coleccionDe(cambio.getColeccion());
+            boolean cubierto;
+            if (coleccion == null) {
+                cubierto = isCompleta();
+            } else if (!escrituras.containsKey(coleccion)) {
+                cubierto = false;
+            } else {
+                Set<String> ids = escrituras.get(coleccion);
+                cubierto = ids == null || (cambio.getAntes() != null && ids.contains(cambio.getId()));
+            }
+            if (!cubierto) fuera.add(cambio);
+        }
+        return fuera;
+    }
+
+    private static Coleccion coleccionDe(String nombre) {
+        for (Coleccion c : Coleccion.values()) {
+            if (c.name().equalsIgnoreCase(nombre)) return c;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "Huella{lee=" + lecturas + ", escribe=" + escrituras + "}";
+    }
+}
@@ -0,0 +1,89 @@
+package command;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Invoker que ejecuta comandos, undo y redo fuera del hilo que los solicita.
+ * Las operaciones se encolan en un único hilo escritor, por lo que se aplican en el
+ * mismo orden en que se solicitan y el historial Undo/Redo queda consistente.
+ * Los futuros devueltos se completan en el hilo de notificación (el EDT en Swing),
+ * de modo que sus callbacks pueden tocar la interfaz directamente.
+ * 
+ * Los métodos síncronos heredados de {@link ICommandInvoker} siguen disponibles fuera del EDT
+ * (pruebas, tareas en segundo plano): esperan a que se vacíe la cola y luego ejecutan en el hilo
+ * llamador. En el EDT lanzan IllegalStateException; la interfaz debe usar las variantes asíncronas.
+ */
+public interface IAsyncCommandInvoker extends ICommandInvoker {
+
+    /**
+     * Encola la ejecución de un comando.
+     * 
+     * @param command Comando a ejecutar
+     * @return Futuro que se completa al terminar (excepcionalmente si el comando falla)
+     */
+    CompletableFuture<Void> executeCommandAsync(ICommand command);
+
+    /**
+     * Encola un undo del último comando (según el historial en el momento de ejecutarse).
+     * 
+     * @return Futuro con true si se deshizo algo
+     */
+    CompletableFuture<Boolean> undoAsync();
+
+    /**
+     * Encola un redo del último comando deshecho.
+     * 
+     * @return Futuro con true si se rehízo algo
+     */
+    CompletableFuture<Boolean> redoAsync();
+
+    /**
+     * @return Operaciones encoladas o en curso
+     */
+    int getOperacionesPendientes();
+
+    /**
+     * @return Métricas de latencia por tipo de operación (clase del comando, "undo", "redo")
+     */
+    Map<String, MetricasOperacion> getMetricas();
+
+    /**
+     * Detiene el hilo escritor tras terminar lo encolado.
+     */
+    void cerrar();
+
+    /**
+     * Latencias acumuladas de un tipo de operación.
+     */
+    final class MetricasOperacion {
+        private final long ejecuciones;
+        private final long totalEjecucionNs;
+        private final long maxEjecucionNs;
+        private final long totalEsperaNs;
+
+        public MetricasOperacion(long ejecuciones, long totalEjecucionNs, long maxEjecucionNs, long totalEsperaNs) {
+            this.ejecuciones = ejecuciones;
+            this.totalEjecucionNs = totalEjecucionNs;
+            this.maxEjecucionNs = maxEjecucionNs;
+            this.totalEsperaNs = totalEsperaNs;
+        }
+
+        MetricasOperacion sumar(long ejecucionNs, long esperaNs) {
+            return new MetricasOperacion(ejecuciones + 1, totalEjecucionNs + ejecucionNs,
+                Math.max(maxEjecucionNs, ejecucionNs), totalEsperaNs + esperaNs);
+        }
+
+        public long getEjecuciones() { return ejecuciones; }
+        public double getEjecucionPromedioMs() { return ejecuciones == 0 ? 0 : totalEjecucionNs / 1e6 / ejecuciones; }
+        public double getEjecucionMaximaMs() { return maxEjecucionNs / 1e6; }
+        /** Tiempo medio que la operación pasó en cola antes de ejecutarse. */
+        public double getEsperaPromedioMs() { return ejecuciones == 0 ? 0 : totalEsperaNs / 1e6 / ejecuciones; }
+
+        @Override
+        public String toString() {
+            return String.format("%d ejecuciones, media %.2f ms, máx %.2f ms, espera media %.2f ms",
+                ejecuciones, getEjecucionPromedioMs(), getEjecucionMaximaMs(), getEsperaPromedioMs());
+        }
+    }
+}
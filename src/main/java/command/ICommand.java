@@ -35,6 +35,27 @@ public interface ICommand {
         return true;
     }
     
+    /**
+     * Declara qué lee y qué escribe el comando. Sin registro de cambios el invoker solo captura y restaura
+     * lo escrito, así que una huella más estrecha abarata el historial pero debe cubrir todo lo que
+     * execute modifica; con registro, el invoker avisa si el comando escribió fuera de ella.
+     * 
+     * @return Huella del comando (por defecto, todo el modelo)
+     */
+    default HuellaComando getHuella() {
+        return HuellaComando.completa();
+    }
+    
+    /**
+     * Parámetros con los que se creó el comando, para el diario de auditoría y para poder
+     * recrearlo al reconstruir el historial.
+     * 
+     * @return Nombre -> valor (por defecto, ninguno)
+     */
+    default java.util.Map<String, String> getParametros() {
+        return java.util.Collections.emptyMap();
+    }
+    
     /**
      * Obtiene el timestamp de cuando se ejecutó el comando.
      * 
@@ -9,6 +9,14 @@ import java.util.List;
  * @version 1.0
  */
 public interface ICommandInvoker {
+
+    /**
+     * Observador de cambios del historial Undo/Redo.
+     */
+    @FunctionalInterface
+    interface ObservadorHistorial {
+        void historialCambiado(EventoHistorial evento);
+    }
     
     /**
      * Ejecuta un comando y lo añade al historial.
@@ -70,4 +78,19 @@ public interface ICommandInvoker {
      * @return Descripción del comando o null si no hay comandos
      */
     String getNextRedoDescription();
+
+    /**
+     * Registra un observador que se notifica solo cuando el historial cambia
+     * (comando ejecutado, deshecho, rehecho, historial limpiado o recortado).
+     * 
+     * @param observador Observador a agregar
+     */
+    void agregarObservador(ObservadorHistorial observador);
+    
+    /**
+     * Quita un observador del historial.
+     * 
+     * @param observador Observador registrado con agregarObservador
+     */
+    void quitarObservador(ObservadorHistorial observador);
 }
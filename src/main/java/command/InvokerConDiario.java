@@ -0,0 +1,114 @@
+package command;
+
+import java.util.List;
+
+/**
+ * Decorador de un {@link ICommandInvoker} que anota cada operación en un {@link DiarioComandos}.
+ * Antes de ejecutar un comando registra INICIADO con sus parámetros y espera a que llegue a disco
+ * solo lo que quede del presupuesto de sobrecarga; el cierre (CONFIRMADO o FALLIDO) y los registros
+ * de deshacer/rehacer no esperan y viajan en el siguiente lote del diario.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public class InvokerConDiario implements ICommandInvoker {
+
+    private final ICommandInvoker delegado;
+    private final DiarioComandos diario;
+
+    /**
+     * @param delegado Invoker que mantiene el historial Undo/Redo
+     * @param diario Diario donde se anotan las operaciones
+     */
+    public InvokerConDiario(ICommandInvoker delegado, DiarioComandos diario) {
+        this.delegado = delegado;
+        this.diario = diario;
+    }
+
+    @Override
+    public void executeCommand(ICommand command) {
+        if (command == null) {
+            throw new IllegalArgumentException("El comando no puede ser nulo");
+        }
+        String tipo = command.getClass().getSimpleName();
+        long inicio = System.nanoTime();
+        long iniciado = diario.registrar(DiarioComandos.Tipo.INICIADO, 0, tipo, command.getDescription(),
+            command.getParametros());
+        diario.esperarDurable(iniciado, diario.getPresupuestoNanos() - (System.nanoTime() - inicio));
+        long sobrecarga = System.nanoTime() - inicio;
+        boolean confirmado = false;
+        try {
+            delegado.executeCommand(command);
+            confirmado = true;
+        } finally {
+            long cierre = System.nanoTime();
+            diario.registrar(confirmado ? DiarioComandos.Tipo.CONFIRMADO : DiarioComandos.Tipo.FALLIDO,
+                iniciado, tipo, null, null);
+            diario.medirSobrecarga(sobrecarga + System.nanoTime() - cierre);
+        }
+    }
+
+    @Override
+    public boolean undo() {
+        String descripcion = delegado.getNextUndoDescription();
+        boolean hecho = delegado.undo();
+        if (hecho) diario.registrar(DiarioComandos.Tipo.DESHECHO, 0, null, descripcion, null);
+        return hecho;
+    }
+
+    @Override
+    public boolean redo() {
+        String descripcion = delegado.getNextRedoDescription();
+        boolean hecho = delegado.redo();
+        if (hecho) diario.registrar(DiarioComandos.Tipo.REHECHO, 0, null, descripcion, null);
+        return hecho;
+    }
+
+    @Override
+    public boolean canUndo() {
+        return delegado.canUndo();
+    }
+
+    @Override
+    public boolean canRedo() {
+        return delegado.canRedo();
+    }
+
+    @Override
+    public List<String> getCommandHistory() {
+        return delegado.getCommandHistory();
+    }
+
+    @Override
+    public void clearHistory() {
+        delegado.clearHistory();
+        diario.registrar(DiarioComandos.Tipo.LIMPIADO, 0, null, null, null);
+    }
+
+    @Override
+    public String getNextUndoDescription() {
+        return delegado.getNextUndoDescription();
+    }
+
+    @Override
+    public String getNextRedoDescription() {
+        return delegado.getNextRedoDescription();
+    }
+
+    @Override
+    public void agregarObservador(ObservadorHistorial observador) {
+        delegado.agregarObservador(observador);
+    }
+
+    @Override
+    public void quitarObservador(ObservadorHistorial observador) {
+        delegado.quitarObservador(observador);
+    }
+
+    /**
+     * @return Diario en el que se anotan las operaciones
+     */
+    public DiarioComandos getDiario() {
+        return diario;
+    }
+}
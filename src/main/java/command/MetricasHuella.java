@@ -0,0 +1,128 @@
+package command;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Métricas de lo que el invoker guarda para deshacer cada comando, por tipo de comando, frente a un
+ * snapshot completo del modelo. Con registro de cambios lo guardado es el registro del comando; sin
+ * él, las capturas parciales de su huella (antes y después). El ahorro se calcula contra el último
+ * snapshot completo medido (bytes de heap estimados y tiempo de captura); mientras no haya ninguno
+ * cuenta como cero.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public class MetricasHuella {
+
+    /** Acumulado de un tipo de comando. */
+    public static final class PorTipo {
+        private final String tipo;
+        private long comandos;
+        private long bytesCapturados;
+        private long bytesAhorrados;
+        private long nanosCaptura;
+        private long nanosAhorrados;
+
+        PorTipo(String tipo) {
+            this.tipo = tipo;
+        }
+
+        PorTipo(PorTipo otro) {
+            this(otro.tipo);
+            comandos = otro.comandos;
+            bytesCapturados = otro.bytesCapturados;
+            bytesAhorrados = otro.bytesAhorrados;
+            nanosCaptura = otro.nanosCaptura;
+            nanosAhorrados = otro.nanosAhorrados;
+        }
+
+        /** @return Nombre de la clase del comando */
+        public String getTipo() { return tipo; }
+        /** @return Ejecuciones medidas */
+        public long getComandos() { return comandos; }
+        /** @return Bytes de heap estimados de lo guardado para deshacer */
+        public long getBytesCapturados() { return bytesCapturados; }
+        /** @return Bytes estimados que habrían costado los snapshots completos menos los guardados */
+        public long getBytesAhorrados() { return bytesAhorrados; }
+        /** @return Tiempo total de captura medido */
+        public long getNanosCaptura() { return nanosCaptura; }
+        /** @return Tiempo de captura estimado que se evitó */
+        public long getNanosAhorrados() { return nanosAhorrados; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d comandos, %d KB (ahorro %d KB, %.1f ms)", tipo, comandos,
+                bytesCapturados / 1024, bytesAhorrados / 1024, nanosAhorrados / 1e6);
+        }
+    }
+
+    private final Map<String, PorTipo> porTipo = new LinkedHashMap<>();
+    private long bytesReferencia = -1; // -1 = sin snapshot completo medido
+    private long nanosReferencia;
+
+    /**
+     * Fija el snapshot completo contra el que se calcula el ahorro.
+     *
+     * @param bytes Bytes de heap estimados del snapshot completo
+     * @param nanos Tiempo que tomó capturarlo
+     */
+    synchronized void actualizarReferencia(long bytes, long nanos) {
+        bytesReferencia = bytes;
+        nanosReferencia = nanos;
+    }
+
+    /** @return true si ya se midió un snapshot completo */
+    synchronized boolean tieneReferencia() {
+        return bytesReferencia >= 0;
+    }
+
+    /**
+     * Registra lo guardado para una ejecución.
+     *
+     * @param tipo Tipo de comando
+     * @param bytes Bytes de heap estimados de lo guardado
+     * @param nanos Tiempo que tomó capturarlo
+     * @param snapshots Snapshots completos a los que equivale (1 por registro, 2 por captura antes y después)
+     */
+    synchronized void registrar(String tipo, long bytes, long nanos, int snapshots) {
+        PorTipo acumulado = porTipo.computeIfAbsent(tipo, PorTipo::new);
+        acumulado.comandos++;
+        acumulado.bytesCapturados += bytes;
+        acumulado.nanosCaptura += nanos;
+        if (bytesReferencia >= 0) {
+            acumulado.bytesAhorrados += Math.max(0, snapshots * bytesReferencia - bytes);
+            acumulado.nanosAhorrados += Math.max(0, snapshots * nanosReferencia - nanos);
+        }
+    }
+
+    /**
+     * @param tipo Nombre de la clase del comando
+     * @return Copia del acumulado del tipo, o null si no hay ejecuciones de ese tipo
+     */
+    public synchronized PorTipo get(String tipo) {
+        PorTipo acumulado = porTipo.get(tipo);
+        return acumulado != null ? new PorTipo(acumulado) : null;
+    }
+
+    /** @return Copia de los acumulados, en orden de primera ejecución */
+    public synchronized List<PorTipo> getPorTipo() {
+        List<PorTipo> copia = new ArrayList<>(porTipo.size());
+        for (PorTipo acumulado : porTipo.values()) copia.add(new PorTipo(acumulado));
+        return copia;
+    }
+
+    /** @return Bytes de heap estimados del último snapshot completo medido (-1 si no hay) */
+    public synchronized long getBytesReferencia() {
+        return bytesReferencia;
+    }
+
+    /** @return Bytes ahorrados por todos los tipos de comando */
+    public synchronized long getBytesAhorrados() {
+        long total = 0;
+        for (PorTipo acumulado : porTipo.values()) total += acumulado.bytesAhorrados;
+        return total;
+    }
+}
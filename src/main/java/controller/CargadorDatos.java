@@ -0,0 +1,179 @@
+package controller;
+
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Carga de datos en segundo plano para los paneles de la interfaz.
+ * Cada carga se identifica con una clave (por ejemplo "reservas"): la consulta se ejecuta en un
+ * {@link SwingWorker} fuera del EDT y el resultado se entrega en el EDT. Si se lanza una nueva carga
+ * con la misma clave antes de que termine la anterior, la anterior queda cancelada y su resultado
+ * se descarta, de modo que la tabla siempre muestra la última consulta pedida.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public class CargadorDatos {
+
+    /**
+     * Consulta que se ejecuta fuera del EDT. No debe tocar componentes Swing.
+     *
+     * @param <T> Tipo del resultado
+     */
+    @FunctionalInterface
+    public interface Tarea<T> {
+        T ejecutar(Avance avance) throws Exception;
+    }
+
+    /**
+     * Canal de la tarea hacia el cargador: informa el progreso y permite abandonar
+     * pronto una carga que ya fue reemplazada (cancelación cooperativa).
+     */
+    public interface Avance {
+        /** @param porcentaje Progreso de 0 a 100 */
+        void reportar(int porcentaje);
+        /** @return true si la carga fue reemplazada o cancelada */
+        boolean isCancelado();
+    }
+
+    /**
+     * Recibe en el EDT el estado de las cargas para mostrar un indicador de progreso.
+     */
+    @FunctionalInterface
+    public interface Observador {
+        /**
+         * @param cargasEnCurso Número de cargas sin terminar
+         * @param progreso Progreso (0-100) informado por la última tarea que avanzó
+         */
+        void estadoCarga(int cargasEnCurso, int progreso);
+    }
+
+    private static final java.util.logging.Logger logger =
+        java.util.logging.Logger.getLogger(CargadorDatos.class.getName());
+
+    private final Map<String, Trabajo<?>> enCurso = new HashMap<>(); // protegido por this
+    private Observador observador = (n, p) -> { };
+    private int canceladas; // protegido por this
+
+    /**
+     * @param observador Observador del progreso (se invoca en el EDT)
+     */
+    public void setObservador(Observador observador) {
+        this.observador = observador != null ? observador : (n, p) -> { };
+    }
+
+    /**
+     * Lanza una carga en segundo plano, cancelando la carga previa con la misma clave.
+     *
+     * @param clave Identificador del panel o tabla destino
+     * @param tarea Consulta a ejecutar fuera del EDT
+     * @param alCompletar Recibe el resultado en el EDT (solo si la carga sigue vigente)
+     * @param alFallar Recibe el error en el EDT
+     * @return El worker lanzado
+     */
+    public <T> SwingWorker<T, Void> cargar(String clave, Tarea<T> tarea, Consumer<T> alCompletar, Consumer<Exception> alFallar) {
+        Trabajo<T> trabajo = new Trabajo<>(clave, tarea, alCompletar, alFallar);
+        Trabajo<?> anterior;
+        synchronized (this) {
+            anterior = enCurso.put(clave, trabajo);
+            if (anterior != null) canceladas++;
+        }
+        if (anterior != null) {
+            // Sin interrupción: interrumpir al driver de MongoDB descarta la conexión del pool.
+            // La consulta anterior termina o se abandona vía Avance.isCancelado(), y su resultado se ignora.
+            anterior.cancel(false);
+        }
+        trabajo.addPropertyChangeListener(ev -> {
+            if ("progress".equals(ev.getPropertyName())) notificar((Integer) ev.getNewValue());
+        });
+        notificar(0);
+        trabajo.execute();
+        return trabajo;
+    }
+
+    /**
+     * Cancela la carga en curso con la clave indicada, si existe.
+     */
+    public void cancelar(String clave) {
+        Trabajo<?> trabajo;
+        synchronized (this) {
+            trabajo = enCurso.remove(clave);
+            if (trabajo != null) canceladas++;
+        }
+        if (trabajo != null) {
+            trabajo.cancel(false);
+            notificar(0);
+        }
+    }
+
+    /** @return Número de cargas sin terminar */
+    public synchronized int getCargasEnCurso() {
+        return enCurso.size();
+    }
+
+    /** @return Cargas descartadas por haber sido reemplazadas o canceladas */
+    public synchronized int getCargasCanceladas() {
+        return canceladas;
+    }
+
+    private synchronized boolean retirarSiVigente(String clave, Trabajo<?> trabajo) {
+        if (enCurso.get(clave) != trabajo) return false;
+        enCurso.remove(clave);
+        return true;
+    }
+
+    private void notificar(int progreso) {
+        Runnable aviso = () -> observador.estadoCarga(getCargasEnCurso(), progreso);
+        if (SwingUtilities.isEventDispatchThread()) aviso.run();
+        else SwingUtilities.invokeLater(aviso);
+    }
+
+    private final class Trabajo<T> extends SwingWorker<T, Void> implements Avance {
+        private final String clave;
+        private final Tarea<T> tarea;
+        private final Consumer<T> alCompletar;
+        private final Consumer<Exception> alFallar;
+
+        Trabajo(String clave, Tarea<T> tarea, Consumer<T> alCompletar, Consumer<Exception> alFallar) {
+            this.clave = clave;
+            this.tarea = tarea;
+            this.alCompletar = alCompletar;
+            this.alFallar = alFallar;
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            return tarea.ejecutar(this);
+        }
+
+        @Override
+        public void reportar(int porcentaje) {
+            setProgress(Math.max(0, Math.min(100, porcentaje)));
+        }
+
+        @Override
+        public boolean isCancelado() {
+            return isCancelled();
+        }
+
+        @Override
+        protected void done() {
+            boolean vigente = retirarSiVigente(clave, this);
+            notificar(100);
+            if (!vigente || isCancelled()) return;
+            try {
+                alCompletar.accept(get());
+            } catch (ExecutionException e) {
+                Throwable causa = e.getCause();
+                logger.warning("Error cargando " + clave + ": " + causa);
+                alFallar.accept(causa instanceof Exception ? (Exception) causa : e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
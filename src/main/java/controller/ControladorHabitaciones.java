@@ -40,6 +40,29 @@ public class ControladorHabitaciones {
         modeloService.inicializarHabitaciones();
     }
 
+    /**
+     * Habitaciones leídas del modelo, listas para volcarse en las tablas.
+     */
+    public static final class DatosHabitaciones {
+        private final List<Habitacion> disponibles;
+        private final List<HabitacionOcupadaInfo> ocupadas;
+
+        DatosHabitaciones(List<Habitacion> disponibles, List<HabitacionOcupadaInfo> ocupadas) {
+            this.disponibles = disponibles;
+            this.ocupadas = ocupadas;
+        }
+    }
+
+    /**
+     * Consulta las habitaciones disponibles y ocupadas. No toca Swing: puede ejecutarse fuera del EDT.
+     * 
+     * @return Datos para {@link #mostrarHabitaciones}
+     */
+    public DatosHabitaciones consultarHabitaciones() {
+        return new DatosHabitaciones(modeloService.obtenerHabitacionesDisponibles(),
+            modeloService.obtenerHabitacionesOcupadasConCliente());
+    }
+
     /**
      * Carga habitaciones en tablas y ComboBox.
      * 
@@ -49,17 +72,27 @@ public class ControladorHabitaciones {
      */
     public void cargarHabitaciones(JTable tablaDisponibles, JTable tablaOcupadas, 
                                  JComboBox<String> comboBox) {
+        mostrarHabitaciones(consultarHabitaciones(), tablaDisponibles, tablaOcupadas, comboBox);
+    }
+
+    /**
+     * Vuelca habitaciones ya consultadas en tablas y ComboBox. Debe llamarse en el EDT.
+     * 
+     * @param datos Resultado de {@link #consultarHabitaciones()}
+     * @param tablaDisponibles Tabla de habitaciones disponibles
+     * @param tablaOcupadas Tabla de habitaciones ocupadas
+     * @param comboBox ComboBox de selección de habitaciones
+     */
+    public void mostrarHabitaciones(DatosHabitaciones datos, JTable tablaDisponibles, JTable tablaOcupadas,
+                                  JComboBox<String> comboBox) {
         DefaultTableModel modeloDisp = (DefaultTableModel) tablaDisponibles.getModel();
         DefaultTableModel modeloOcup = (DefaultTableModel) tablaOcupadas.getModel();
         
         modeloDisp.setRowCount(0);
         modeloOcup.setRowCount(0);
         comboBox.removeAllItems();
-
-        List<model.Habitacion> habitacionesDisponibles = modeloService.obtenerHabitacionesDisponibles();
-        List<HabitacionOcupadaInfo> habitacionesOcupadas = modeloService.obtenerHabitacionesOcupadasConCliente();
         
-        for (model.Habitacion h : habitacionesDisponibles) {
+        for (model.Habitacion h : datos.disponibles) {
             String display = "#" + h.getNumero() + " | " + h.getTipo() + " | $" + String.format("%.2f", h.getPrecio());
             
             modeloDisp.addRow(new Object[]{
@@ -70,7 +103,7 @@ public class ControladorHabitaciones {
             comboBox.addItem(display);
         }
         
-        for (HabitacionOcupadaInfo info : habitacionesOcupadas) {
+        for (HabitacionOcupadaInfo info : datos.ocupadas) {
             modeloOcup.addRow(new Object[]{
                 info.getNumeroFormateado(), 
                 info.getTipoHabitacion(), 
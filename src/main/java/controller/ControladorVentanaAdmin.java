@@ -8,16 +8,13 @@ import command.CrearReservaCommand;
 import command.FinalizarReservaCommand;
 import singleton.GestorDisponibilidad;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.text.AbstractDocument;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.DocumentFilter;
 import java.awt.Toolkit;
 import java.util.List;
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.stream.Collectors;
 import java.awt.GridBagLayout;
 import java.awt.GridBagConstraints;
@@ -42,6 +39,7 @@ public class ControladorVentanaAdmin {
     private final ICommandInvoker commandInvoker;
     private final GestorDisponibilidad gestorDisponibilidad;
     private final ControladorHabitaciones controladorHabitaciones;
+    private final CargadorDatos cargador = new CargadorDatos(); // consultas fuera del EDT
     
     // Paneles de la interfaz
     private final view.panels.PanelClientes panelClientes;
@@ -57,6 +55,27 @@ public class ControladorVentanaAdmin {
     // Reglas de validación centralizadas
     private static final int LONGITUD_CEDULA_TELEFONO = 10; // Exactamente 10 dígitos
 
+    // Claves de carga: una nueva carga con la misma clave reemplaza a la anterior
+    private static final String CARGA_DASHBOARD = "dashboard";
+    private static final String CARGA_REPORTES = "reportes";
+    private static final String CARGA_CLIENTES = "clientes";
+    private static final String CARGA_HABITACIONES = "habitaciones";
+    private static final String CARGA_RESERVAS = "reservas";
+    private static final String CARGA_OCUPADAS_SERVICIOS = "ocupadasServicios";
+    private static final String CARGA_SERVICIOS = "servicios";
+
+    // Dashboard: filas de reservas recientes e intervalos de sondeo según los eventos disponibles
+    private static final int FILAS_RECIENTES = 10;
+    private static final int INTERVALO_SONDEO_MS = 30_000; // los cambios de otras terminales llegan solo por sondeo
+    private static final int INTERVALO_RESPALDO_REMOTO_MS = 300_000; // también llegan eventos de otras terminales
+    private final EstadoDashboard estadoDashboard = new EstadoDashboard(FILAS_RECIENTES);
+    private final PublicadorEventos.Suscriptor suscriptorEventos = this::alCambiarModelo;
+    private final ICommandInvoker.ObservadorHistorial observadorHistorial = this::alCambiarHistorial;
+    private Timer dashboardTimer;
+    private boolean eventosActivos;
+    private boolean recargaDashboardPendiente; // solo EDT
+    private boolean pinturaDashboardProgramada; // solo EDT
+
     /**
      * Constructor con inyección de dependencias.
      * Aplica DIP al recibir abstracciones como parámetros.
@@ -83,6 +102,7 @@ public class ControladorVentanaAdmin {
     this.panelHabitaciones = new view.panels.PanelHabitaciones();
     this.panelReservas = new view.panels.PanelReservas();
     this.panelServicios = new view.panels.PanelServicios();
+        cargador.setObservador(vista::mostrarCarga);
         
         // Inicializar sistema
         inicializarSistema();
@@ -100,14 +120,22 @@ public class ControladorVentanaAdmin {
     }
 
     private void cargarDatosReportes() {
-        try {
-            List<Reserva> reservas = modeloService.obtenerTodasReservas();
-            double ingresosHoy = calcularIngresosHoy(reservas).doubleValue();
-            long activas = reservas.stream().filter(r -> r.getFechaSalida()==null).count();
-            panelReportes.setResumen("Ingresos hoy: $"+String.format("%.2f", ingresosHoy)+" | Reservas activas: "+activas);
-        } catch (Exception e) {
-            panelReportes.setResumen("Error cargando reportes");
-        }
+        // Una sola pasada sobre el cursor: no se materializa el histórico de reservas
+        cargador.cargar(CARGA_REPORTES, avance -> {
+            LocalDate hoy = LocalDate.now();
+            double[] ingresosHoy = {0};
+            long[] activas = {0};
+            try (java.util.stream.Stream<Reserva> reservas = modeloService.recorrerReservas()) {
+                reservas.forEach(r -> {
+                    if (r.getFechaSalida() == null) activas[0]++;
+                    if (r.getFechaIngreso() != null
+                            && r.getFechaIngreso().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate().equals(hoy)) {
+                        ingresosHoy[0] += r.getTotal();
+                    }
+                });
+            }
+            return "Ingresos hoy: $"+String.format("%.2f", ingresosHoy[0])+" | Reservas activas: "+activas[0];
+        }, panelReportes::setResumen, e -> panelReportes.setResumen("Error cargando reportes"));
     }
 
     /**
@@ -134,9 +162,73 @@ public class ControladorVentanaAdmin {
         // cuando se implementen las funcionalidades específicas
         configurarEventosMenu();
         
-        // Timer para actualizar dashboard cada 30 segundos
-        Timer dashboardTimer = new Timer(30000, e -> actualizarDashboard());
+        // El dashboard se actualiza con los eventos del modelo; el sondeo queda como respaldo
+        // (cambio de día, eventos perdidos). Sin flujo de cambios (servidor sin réplica) los cambios
+        // de otras terminales solo se ven por sondeo, así que se mantiene el intervalo de siempre
+        eventosActivos = modeloService.suscribirEventos(suscriptorEventos);
+        int intervalo = eventosActivos && modeloService.publicaCambiosRemotos()
+            ? INTERVALO_RESPALDO_REMOTO_MS : INTERVALO_SONDEO_MS;
+        dashboardTimer = new Timer(intervalo, e -> actualizarDashboard());
         dashboardTimer.start();
+        logger.info("Dashboard: eventos " + (eventosActivos ? "activos" : "no disponibles")
+            + ", sondeo cada " + intervalo / 1000 + " s");
+        vista.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override public void windowClosed(java.awt.event.WindowEvent e) {
+                liberarRecursos();
+            }
+        });
+        
+        // Botones Undo/Redo: estado inicial y luego solo cuando cambia el historial
+        commandInvoker.agregarObservador(observadorHistorial);
+        vista.mostrarEstadoUndoRedo(commandInvoker.canUndo(), commandInvoker.canRedo(),
+            commandInvoker.getNextUndoDescription(), commandInvoker.getNextRedoDescription());
+    }
+    
+    /**
+     * Aplica en los botones Undo/Redo el estado que trae un evento del historial.
+     */
+    private void alCambiarHistorial(EventoHistorial evento) {
+        Runnable mostrar = () -> vista.mostrarEstadoUndoRedo(evento.isCanUndo(), evento.isCanRedo(),
+            evento.getSiguienteUndo(), evento.getSiguienteRedo());
+        if (SwingUtilities.isEventDispatchThread()) mostrar.run();
+        else SwingUtilities.invokeLater(mostrar);
+    }
+    
+    /**
+     * Detiene el sondeo y las suscripciones a eventos al cerrar la ventana.
+     */
+    private void liberarRecursos() {
+        dashboardTimer.stop();
+        modeloService.cancelarSuscripcionEventos(suscriptorEventos);
+        commandInvoker.quitarObservador(observadorHistorial);
+        cargador.cancelar(CARGA_DASHBOARD);
+    }
+    
+    /**
+     * Recibe un evento del modelo (en el hilo que hizo el cambio) y lo aplica en el EDT.
+     * Una ráfaga de eventos (check-in grupal) se pinta una sola vez.
+     */
+    private void alCambiarModelo(EventoModelo evento) {
+        SwingUtilities.invokeLater(() -> {
+            if (!estadoDashboard.aplicar(evento, LocalDate.now())) {
+                recargaDashboardPendiente = true;
+            }
+            if (!pinturaDashboardProgramada) {
+                pinturaDashboardProgramada = true;
+                // Se encola detrás de los eventos ya recibidos
+                SwingUtilities.invokeLater(this::pintarEventosPendientes);
+            }
+        });
+    }
+    
+    private void pintarEventosPendientes() {
+        pinturaDashboardProgramada = false;
+        if (recargaDashboardPendiente) {
+            recargaDashboardPendiente = false;
+            actualizarDashboard();
+        } else {
+            pintarDashboard();
+        }
     }
     
     /**
@@ -149,122 +241,87 @@ public class ControladorVentanaAdmin {
     }
 
     /**
-     * Actualiza toda la información del dashboard.
+     * Recarga por completo la información del dashboard.
+     * Las consultas se hacen en segundo plano y las tarjetas y la tabla se actualizan en el EDT.
      */
     public void actualizarDashboard() {
-        SwingUtilities.invokeLater(() -> {
-            actualizarTarjetasInformativas();
-            actualizarTablaReservas();
+        estadoDashboard.iniciarCarga();
+        cargador.cargar(CARGA_DASHBOARD, this::consultarDashboard, this::mostrarDashboard, e -> {
+            estadoDashboard.cancelarCarga();
+            logger.severe("Error actualizando dashboard: " + e.getMessage());
+            mostrarError("Error actualizando información del dashboard");
         });
     }
-
+    
     /**
-     * Actualiza las tarjetas informativas del dashboard.
+     * Recarga el dashboard solo si no hay eventos del modelo que ya lo mantengan al día.
      */
-    private void actualizarTarjetasInformativas() {
-        try {
-            List<Habitacion> todasHabitaciones = modeloService.obtenerTodasHabitaciones();
-            List<Reserva> todasReservas = modeloService.obtenerTodasReservas();
-            
-            // Calcular estadísticas
-            long habitacionesDisponibles = todasHabitaciones.stream()
-                .filter(h -> !h.isOcupada())
-                .count();
-                
-            long habitacionesOcupadas = todasHabitaciones.stream()
-                .filter(Habitacion::isOcupada)
-                .count();
-                
-            long checkinHoy = contarCheckinsHoy(todasReservas);
-            BigDecimal ingresosHoy = calcularIngresosHoy(todasReservas);
-            
-            // Actualizar las tarjetas
-            vista.actualizarTarjeta("Habitaciones Disponibles", String.valueOf(habitacionesDisponibles));
-            vista.actualizarTarjeta("Habitaciones Ocupadas", String.valueOf(habitacionesOcupadas));
-            vista.actualizarTarjeta("Check-ins Hoy", String.valueOf(checkinHoy));
-            vista.actualizarTarjeta("Ingresos del Día", String.format("$%.2f", ingresosHoy.doubleValue()));
-                
-        } catch (Exception e) {
-            logger.severe("Error actualizando tarjetas informativas: " + e.getMessage());
-            mostrarError("Error actualizando información del dashboard");
+    private void actualizarDashboardSiHaceFalta() {
+        if (!eventosActivos || !estadoDashboard.isCargado()) {
+            actualizarDashboard();
+        } else {
+            pintarDashboard();
         }
     }
-    
+
     /**
-     * Cuenta los check-ins realizados hoy.
+     * Datos del dashboard leídos fuera del EDT.
      */
-    private long contarCheckinsHoy(List<Reserva> reservas) {
-        LocalDate hoy = LocalDate.now();
-        return reservas.stream()
-            .filter(r -> r.getFechaIngreso().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate().equals(hoy))
-            .count();
+    private static final class DatosDashboard {
+        List<Habitacion> habitaciones;
+        List<Reserva> reservasHoy;
+        List<Reserva> reservasRecientes;
+        List<Cliente> clientes;
+        LocalDate dia;
     }
-    
+
     /**
-     * Calcula los ingresos del día actual.
+     * Consulta los datos del dashboard. Se ejecuta fuera del EDT.
      */
-    private BigDecimal calcularIngresosHoy(List<Reserva> reservas) {
-        LocalDate hoy = LocalDate.now();
-        return reservas.stream()
-            .filter(r -> r.getFechaIngreso().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate().equals(hoy))
-            .map(r -> BigDecimal.valueOf(r.getTotal()))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private DatosDashboard consultarDashboard(CargadorDatos.Avance avance) {
+        DatosDashboard datos = new DatosDashboard();
+        datos.dia = LocalDate.now();
+        datos.habitaciones = modeloService.obtenerTodasHabitaciones();
+        avance.reportar(25);
+        // Solo se retienen las reservas con ingreso hoy; el resto se descarta al recorrer el cursor
+        try (java.util.stream.Stream<Reserva> reservas = modeloService.recorrerReservas()) {
+            datos.reservasHoy = reservas
+                .filter(r -> r.getFechaIngreso() != null
+                    && r.getFechaIngreso().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate().equals(datos.dia))
+                .collect(Collectors.toList());
+        }
+        avance.reportar(50);
+        if (avance.isCancelado()) return null;
+        datos.reservasRecientes = modeloService.obtenerReservasRecientes(FILAS_RECIENTES);
+        avance.reportar(75);
+        datos.clientes = modeloService.obtenerTodosClientes();
+        return datos;
     }
 
     /**
-     * Actualiza la tabla de reservas recientes.
+     * Carga el estado del dashboard y lo pinta. Se ejecuta en el EDT.
      */
-    private void actualizarTablaReservas() {
-        try {
-            List<Reserva> reservasRecientes = modeloService.obtenerReservasRecientes(10);
-            List<Habitacion> todasHabitaciones = modeloService.obtenerTodasHabitaciones();
-            List<Cliente> todosClientes = modeloService.obtenerTodosClientes();
-
-            // Para optimizar, creamos mapas de búsqueda rápida
-            java.util.Map<String, Habitacion> mapaHabitaciones = todasHabitaciones.stream()
-                .collect(Collectors.toMap(Habitacion::getId, h -> h));
-            java.util.Map<String, Cliente> mapaClientes = todosClientes.stream()
-                .collect(Collectors.toMap(Cliente::getId, c -> c));
-
-            // Construir solo filas válidas (sin datos huérfanos)
-            java.util.List<String[]> filas = new java.util.ArrayList<>();
-            for (Reserva reserva : reservasRecientes) {
-                Cliente cliente = mapaClientes.get(reserva.getIdCliente());
-                Habitacion habitacionAsociada = mapaHabitaciones.get(reserva.getIdHabitacion());
-                if (cliente == null || habitacionAsociada == null) {
-                    // Saltar reservas inconsistente para no mostrar 'N/A'
-                    continue;
-                }
-                String numeroHabitacion = habitacionAsociada.getNumero();
-                String estadoReserva;
-                if (reserva.getFechaSalida() != null) {
-                    estadoReserva = "Finalizada";
-                } else if (habitacionAsociada.isOcupada()) {
-                    estadoReserva = "Check-in";
-                } else {
-                    estadoReserva = "Reservada";
-                }
-                String fechaIngreso = reserva.getFechaIngreso() != null ?
-                    reserva.getFechaIngreso().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate()
-                        .format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "";
-                String fechaSalida = reserva.getFechaSalida() != null ?
-                    reserva.getFechaSalida().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate()
-                        .format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "Activa";
-                filas.add(new String[]{
-                    cliente.getNombre()+" "+cliente.getApellido(),
-                    numeroHabitacion,
-                    fechaIngreso,
-                    fechaSalida,
-                    estadoReserva
-                });
-            }
-            vista.actualizarTablaReservas(filas.toArray(new String[0][0]));
-            
-        } catch (Exception e) {
-            logger.severe("Error actualizando tabla de reservas: " + e.getMessage());
-            mostrarError("Error actualizando tabla de reservas");
+    private void mostrarDashboard(DatosDashboard datos) {
+        boolean alDia = estadoDashboard.cargar(datos.habitaciones, datos.reservasHoy, datos.reservasRecientes,
+            datos.clientes, datos.dia);
+        pintarDashboard();
+        if (!alDia) {
+            // Un undo/redo llegó mientras se consultaba: la carga pudo leer el estado anterior
+            actualizarDashboard();
         }
     }
+    
+    /**
+     * Vuelca en la vista el estado actual del dashboard. Se ejecuta en el EDT.
+     */
+    private void pintarDashboard() {
+        if (!estadoDashboard.isCargado()) return;
+        vista.actualizarTarjeta("Habitaciones Disponibles", String.valueOf(estadoDashboard.getHabitacionesDisponibles()));
+        vista.actualizarTarjeta("Habitaciones Ocupadas", String.valueOf(estadoDashboard.getHabitacionesOcupadas()));
+        vista.actualizarTarjeta("Check-ins Hoy", String.valueOf(estadoDashboard.getCheckinsHoy()));
+        vista.actualizarTarjeta("Ingresos del Día", String.format("$%.2f", estadoDashboard.getIngresosHoy().doubleValue()));
+        vista.actualizarTablaReservas(estadoDashboard.getFilasRecientes());
+    }
 
     /**
      * Navega a una sección específica del dashboard.
@@ -275,7 +332,7 @@ public class ControladorVentanaAdmin {
         SwingUtilities.invokeLater(() -> {
             switch (seccion) {
                 case "Dashboard":
-                    actualizarDashboard();
+                    actualizarDashboardSiHaceFalta();
                     break;
                 case "Habitaciones":
                     mostrarVistaHabitaciones();
@@ -346,44 +403,93 @@ public class ControladorVentanaAdmin {
     }
 
     /**
-     * Ejecuta un comando con soporte para Undo/Redo.
+     * Ejecuta un comando con soporte para Undo/Redo. Con un {@link IAsyncCommandInvoker} corre en
+     * el hilo escritor y {@code alTerminar} se invoca en el EDT al completarse, sin bloquear la
+     * interfaz mientras MongoDB responde; si no, todo es síncrono.
      * 
      * @param comando Comando a ejecutar
+     * @param alTerminar Acción en el EDT cuando el comando termina correctamente
      */
-    public void ejecutarComando(ICommand comando) {
+    public void ejecutarComando(ICommand comando, Runnable alTerminar) {
+        if (commandInvoker instanceof IAsyncCommandInvoker) {
+            ((IAsyncCommandInvoker) commandInvoker).executeCommandAsync(comando).whenComplete((v, error) -> {
+                if (error != null) {
+                    informarErrorComando(error);
+                } else {
+                    terminarComando(alTerminar);
+                }
+            });
+            return;
+        }
         try {
             commandInvoker.executeCommand(comando);
-            actualizarDashboard(); // Actualizar después de cada comando
         } catch (Exception e) {
-            logger.severe("Error ejecutando comando: " + e.getMessage());
-            mostrarError("Error ejecutando operación: " + e.getMessage());
+            informarErrorComando(e);
+            return;
+        }
+        terminarComando(alTerminar);
+    }
+
+    private void terminarComando(Runnable alTerminar) {
+        actualizarDashboardSiHaceFalta(); // con eventos activos el comando ya lo actualizó
+        alTerminar.run();
+    }
+
+    private void informarErrorComando(Throwable error) {
+        Throwable causa = error.getCause() != null ? error.getCause() : error;
+        logger.severe("Error ejecutando comando: " + causa.getMessage());
+        mostrarError("Error ejecutando operación: " + causa.getMessage());
+    }
+
+    /**
+     * Deshace o rehace, en segundo plano si el invoker es asíncrono; el resultado llega en el EDT.
+     */
+    private void ejecutarDeshacerRehacer(boolean deshacer, java.util.function.Consumer<Boolean> alTerminar) {
+        String operacion = deshacer ? "deshaciendo" : "rehaciendo";
+        if (commandInvoker instanceof IAsyncCommandInvoker) {
+            IAsyncCommandInvoker asincrono = (IAsyncCommandInvoker) commandInvoker;
+            (deshacer ? asincrono.undoAsync() : asincrono.redoAsync()).whenComplete((ok, error) -> {
+                if (error != null) {
+                    logger.severe("Error " + operacion + ": " + error.getMessage());
+                    mostrarError("Error " + operacion + " operación: " + error.getMessage());
+                } else {
+                    alTerminar.accept(ok);
+                }
+            });
+            return;
+        }
+        boolean ok;
+        try {
+            ok = deshacer ? commandInvoker.undo() : commandInvoker.redo();
+        } catch (Exception e) {
+            logger.severe("Error " + operacion + ": " + e.getMessage());
+            mostrarError("Error " + operacion + " operación: " + e.getMessage());
+            return;
         }
+        alTerminar.accept(ok);
     }
 
     /**
      * Ejecuta undo del último comando.
      */
     public void ejecutarUndo() {
-        try {
-            if (!commandInvoker.canUndo()) { mostrarMensaje("No hay operaciones para deshacer"); return; }
-
-            String descripcion = commandInvoker.getNextUndoDescription();
-            if (descripcion == null || descripcion.isBlank()) descripcion = "Operación previa";
-            String mensaje = "¿Está seguro que desea deshacer la siguiente operación?\n\n" +
-                             "⚠️ " + descripcion + "\n\n" +
-                             "Esta acción liberará recursos y modificará el estado del sistema.";
-            int respuesta = JOptionPane.showConfirmDialog(vista, mensaje, "Confirmar Deshacer", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
-            if (respuesta == JOptionPane.YES_OPTION) {
-                if (commandInvoker.undo()) {
-                    actualizarDashboard();
+        if (!commandInvoker.canUndo()) { mostrarMensaje("No hay operaciones para deshacer"); return; }
+
+        String siguiente = commandInvoker.getNextUndoDescription();
+        String descripcion = siguiente == null || siguiente.isBlank() ? "Operación previa" : siguiente;
+        String mensaje = "¿Está seguro que desea deshacer la siguiente operación?\n\n" +
+                         "⚠️ " + descripcion + "\n\n" +
+                         "Esta acción liberará recursos y modificará el estado del sistema.";
+        int respuesta = JOptionPane.showConfirmDialog(vista, mensaje, "Confirmar Deshacer", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (respuesta == JOptionPane.YES_OPTION) {
+            ejecutarDeshacerRehacer(true, ok -> {
+                if (ok) {
+                    actualizarDashboardSiHaceFalta();
                     mostrarMensaje("✅ Operación deshecha correctamente: " + descripcion);
                 } else {
                     mostrarError("No se pudo deshacer la operación.");
                 }
-            }
-        } catch (Exception e) {
-            logger.severe("Error en undo: " + e.getMessage());
-            mostrarError("Error deshaciendo operación: " + e.getMessage());
+            });
         }
     }
 
@@ -391,25 +497,39 @@ public class ControladorVentanaAdmin {
      * Ejecuta redo del último comando deshecho.
      */
     public void ejecutarRedo() {
-        try {
-            if (!commandInvoker.canRedo()) { mostrarMensaje("No hay operaciones para rehacer"); return; }
-            String descripcion = commandInvoker.getNextRedoDescription();
-            if (descripcion == null || descripcion.isBlank()) descripcion = "Operación previa";
-            String mensaje = "¿Está seguro que desea rehacer la siguiente operación?\n\n" +
-                             "🔄 " + descripcion + "\n\n" +
-                             "Esta acción volverá a ejecutar la operación y ocupará recursos.";
-            int respuesta = JOptionPane.showConfirmDialog(vista, mensaje, "Confirmar Rehacer", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
-            if (respuesta == JOptionPane.YES_OPTION) {
-                if (commandInvoker.redo()) {
-                    actualizarDashboard();
+        if (!commandInvoker.canRedo()) { mostrarMensaje("No hay operaciones para rehacer"); return; }
+        String siguiente = commandInvoker.getNextRedoDescription();
+        String descripcion = siguiente == null || siguiente.isBlank() ? "Operación previa" : siguiente;
+        String mensaje = "¿Está seguro que desea rehacer la siguiente operación?\n\n" +
+                         "🔄 " + descripcion + "\n\n" +
+                         "Esta acción volverá a ejecutar la operación y ocupará recursos.";
+        int respuesta = JOptionPane.showConfirmDialog(vista, mensaje, "Confirmar Rehacer", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (respuesta == JOptionPane.YES_OPTION) {
+            ejecutarDeshacerRehacer(false, ok -> {
+                if (ok) {
+                    actualizarDashboardSiHaceFalta();
                     mostrarMensaje("✅ Operación rehecha correctamente: " + descripcion);
                 } else {
                     mostrarError("No se pudo rehacer la operación.");
                 }
-            }
-        } catch (Exception e) {
-            logger.severe("Error en redo: " + e.getMessage());
-            mostrarError("Error rehaciendo operación: " + e.getMessage());
+            });
+        }
+    }
+
+    /**
+     * Pide un número entero en el EDT. Los datos que antes preguntaban los comandos al ejecutarse
+     * se piden aquí, antes de encolarlos, porque el hilo escritor no puede abrir diálogos.
+     * 
+     * @return Valor introducido, o {@code porDefecto} si se cancela o no es un número &gt;= minimo
+     */
+    private int pedirEntero(String mensaje, int porDefecto, int minimo) {
+        String valor = JOptionPane.showInputDialog(vista, mensaje, String.valueOf(porDefecto));
+        if (valor == null || valor.trim().isEmpty()) return porDefecto;
+        try {
+            int n = Integer.parseInt(valor.trim());
+            return n >= minimo ? n : porDefecto;
+        } catch (NumberFormatException e) {
+            return porDefecto;
         }
     }
 
@@ -490,7 +610,7 @@ public class ControladorVentanaAdmin {
         switch (itemMenu) {
             case "Dashboard":
                 vista.cambiarContenidoPrincipal(panelDashboard);
-                actualizarDashboard(); // Asegurarse de que los datos están frescos
+                actualizarDashboardSiHaceFalta(); // con eventos activos el estado ya está al día
                 break;
             case "Clientes":
                 vista.cambiarContenidoPrincipal(panelClientes);
@@ -519,26 +639,14 @@ public class ControladorVentanaAdmin {
     }
 
     /**
-     * Actualiza la tabla de clientes en el panel de clientes.
+     * Actualiza la tabla de clientes en el panel de clientes (consulta en segundo plano).
      */
     private void actualizarTablaClientes() {
-        try {
-            List<Cliente> clientes = modeloService.obtenerTodosClientes();
-            DefaultTableModel model = (DefaultTableModel) panelClientes.getTablaClientes().getModel();
-            model.setRowCount(0); // Limpiar tabla
-            for (Cliente cliente : clientes) {
-                model.addRow(new Object[]{
-                    cliente.getId(),
-                    cliente.getNombre(),
-                    cliente.getApellido(),
-                    cliente.getCedula(),
-                    cliente.getTelefono()
-                });
-            }
-        } catch (Exception e) {
+        cargador.cargar(CARGA_CLIENTES, avance -> modeloService.obtenerTodosClientes(),
+            clientes -> panelClientes.getModeloClientes().setDatos(clientes), e -> {
             logger.severe("Error al actualizar la tabla de clientes: " + e.getMessage());
             mostrarError("No se pudo cargar la lista de clientes.");
-        }
+        });
     }
 
     // ====== HABITACIONES ======
@@ -585,16 +693,15 @@ public class ControladorVentanaAdmin {
     }
 
     private void cargarDatosHabitaciones() {
-        try {
-            controladorHabitaciones.cargarHabitaciones(
+        cargador.cargar(CARGA_HABITACIONES, avance -> controladorHabitaciones.consultarHabitaciones(),
+            datos -> controladorHabitaciones.mostrarHabitaciones(datos,
                 panelHabitaciones.getTablaDisponibles(),
                 panelHabitaciones.getTablaOcupadas(),
-                panelHabitaciones.getComboSeleccionHabitacion()
-            );
-        } catch (Exception ex) {
-            logger.severe("Error cargando habitaciones: " + ex.getMessage());
-            mostrarError("No se pudieron cargar las habitaciones.");
-        }
+                panelHabitaciones.getComboSeleccionHabitacion()),
+            ex -> {
+                logger.severe("Error cargando habitaciones: " + ex.getMessage());
+                mostrarError("No se pudieron cargar las habitaciones.");
+            });
     }
 
     private void checkinRapidoDesdeHabitaciones() {
@@ -624,9 +731,11 @@ public class ControladorVentanaAdmin {
         if (err != null) {mostrarError(err); return;}
         Cliente existente = modeloService.buscarClientePorCedula(cedulaVal);
         Cliente cli = existente != null ? existente : new Cliente(java.util.UUID.randomUUID().toString(), nombreVal, apellidoVal, cedulaVal, telefonoVal);
-                ejecutarComando(new CheckinRapidoAdminCommand(modeloService, cli, hab));
-                mostrarMensaje("Check-in registrado.");
-                cargarDatosHabitaciones();
+                int noches = pedirEntero("Noches de hospedaje (check-in rápido)", 1, 1);
+                ejecutarComando(new CheckinRapidoAdminCommand(modeloService, cli, hab, noches), () -> {
+                    mostrarMensaje("Check-in registrado.");
+                    cargarDatosHabitaciones();
+                });
             } catch (Exception ex) {
                 mostrarError("Error en check-in: " + ex.getMessage());
             }
@@ -643,9 +752,10 @@ public class ControladorVentanaAdmin {
         List<Reserva> reservas = modeloService.obtenerTodasReservas();
         Reserva activa = reservas.stream().filter(r -> r.getIdHabitacion().equals(hab.getId()) && r.getFechaSalida()==null).findFirst().orElse(null);
         if (activa == null) {mostrarMensaje("No hay reserva activa."); return;}
-    ejecutarComando(new FinalizarReservaCommand(modeloService, activa.getId()));
-    mostrarMensaje("Habitación liberada.");
-    cargarDatosHabitaciones();
+        ejecutarComando(new FinalizarReservaCommand(modeloService, activa.getId()), () -> {
+            mostrarMensaje("Habitación liberada.");
+            cargarDatosHabitaciones();
+        });
     }
 
     // ====== RESERVAS ======
@@ -679,135 +789,74 @@ public class ControladorVentanaAdmin {
     }
 
     private void cargarDatosReservas() {
-        try {
-            List<Reserva> reservas = modeloService.obtenerTodasReservas();
-            List<Cliente> clientes = modeloService.obtenerTodosClientes();
-            List<Habitacion> habitaciones = modeloService.obtenerTodasHabitaciones();
-            java.util.Map<String,Cliente> mapCli = clientes.stream().collect(java.util.stream.Collectors.toMap(Cliente::getId,c->c));
-            java.util.Map<String,Habitacion> mapHab = habitaciones.stream().collect(java.util.stream.Collectors.toMap(Habitacion::getId,h->h));
-            javax.swing.table.DefaultTableModel model = (javax.swing.table.DefaultTableModel) panelReservas.getTablaReservas().getModel();
-            model.setRowCount(0);
-            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd/MM/yyyy");
-            for (Reserva r: reservas) {
-                Cliente c = mapCli.get(r.getIdCliente());
-                Habitacion h = mapHab.get(r.getIdHabitacion());
-                String estado = r.getFechaSalida()!=null?"Finalizada":(h!=null && h.isOcupada()?"Check-in":"Reservada");
-                String fechaReservaStr = r.getFechaReserva()!=null? sdf.format(r.getFechaReserva()):"--";
-                String inicioPlanStr = r.getFechaInicioPlanificada()!=null? sdf.format(r.getFechaInicioPlanificada()):"--";
-                String finPlanStr = r.getFechaFinPlanificada()!=null? sdf.format(r.getFechaFinPlanificada()):"--";
-                String ingresoRealStr = r.getFechaIngreso()!=null? sdf.format(r.getFechaIngreso()):"--";
-                String salidaRealStr = r.getFechaSalida()!=null? sdf.format(r.getFechaSalida()):"--";
-                int noches = r.getNoches()>0? r.getNoches():1;
-                model.addRow(new Object[]{
-                    r.getId(),
-                    c!=null?c.getNombre()+" "+c.getApellido():"?",
-                    h!=null?h.getNumero():"?",
-                    fechaReservaStr,
-                    inicioPlanStr,
-                    finPlanStr,
-                    ingresoRealStr,
-                    salidaRealStr,
-                    noches,
-                    estado,
-                    String.format("$%.2f", r.getTotal())
-                });
-            }
-        } catch (Exception ex) {
-            mostrarError("Error cargando reservas.");
-        }
+        cargador.cargar(CARGA_RESERVAS, avance -> consultarDatosReservas(modeloService.obtenerTodasReservas()),
+            this::mostrarReservas, ex -> mostrarError("Error cargando reservas."));
     }
 
     private void cargarDatosReservasFiltradas() {
+        FiltroReservas filtro;
         try {
-            java.util.Date desde = (java.util.Date) panelReservas.getSpFechaDesde().getValue();
-            java.util.Date hasta = (java.util.Date) panelReservas.getSpFechaHasta().getValue();
-            if (desde != null && hasta != null && desde.after(hasta)) {
-                mostrarError("Rango de fechas inválido: 'Desde' es posterior a 'Hasta'");
-                return;
-            }
-            String estadoFiltro = (String) panelReservas.getComboEstado().getSelectedItem();
-            List<Reserva> reservas = modeloService.obtenerTodasReservas();
+            filtro = new FiltroReservas((java.util.Date) panelReservas.getSpFechaDesde().getValue(),
+                (java.util.Date) panelReservas.getSpFechaHasta().getValue(),
+                (String) panelReservas.getComboEstado().getSelectedItem());
+        } catch (IllegalArgumentException ex) {
+            mostrarError(ex.getMessage());
+            return;
+        }
+        cargador.cargar(CARGA_RESERVAS, avance -> {
+            // Rango y estado se resuelven en el servidor, página a página: el costo depende del resultado
             java.util.List<Reserva> filtradas = new java.util.ArrayList<>();
-            for (Reserva r : reservas) {
-                // Determinar fecha para filtrar (usamos fechaReserva si existe, sino ingreso)
-                java.util.Date base = r.getFechaReserva()!=null? r.getFechaReserva(): r.getFechaIngreso();
-                if (base == null) continue;
-                if (desde != null && base.before(normalizarInicioDia(desde))) continue;
-                if (hasta != null && base.after(normalizarFinDia(hasta))) continue;
-                String estado = calcularEstadoReserva(r);
-                if (!"Todos".equalsIgnoreCase(estadoFiltro) && !estadoFiltro.equalsIgnoreCase(estado)) continue;
-                filtradas.add(r);
+            PaginaReservas pagina = modeloService.buscarReservas(filtro);
+            filtradas.addAll(pagina.getReservas());
+            while (pagina.hayMas()) {
+                if (avance.isCancelado()) return null;
+                pagina = modeloService.buscarReservas(filtro.despuesDe(pagina.getSiguienteCursor()));
+                filtradas.addAll(pagina.getReservas());
             }
-            poblarTablaReservas(filtradas);
-        } catch (Exception ex) {
-            mostrarError("Error aplicando filtros.");
-        }
+            return consultarDatosReservas(filtradas);
+        }, this::mostrarReservas, ex -> mostrarError("Error aplicando filtros."));
     }
 
-    private java.util.Date normalizarInicioDia(java.util.Date d){
-        java.util.Calendar c = java.util.Calendar.getInstance(); c.setTime(d);
-        c.set(java.util.Calendar.HOUR_OF_DAY,0); c.set(java.util.Calendar.MINUTE,0); c.set(java.util.Calendar.SECOND,0); c.set(java.util.Calendar.MILLISECOND,0);
-        return c.getTime();
-    }
-    private java.util.Date normalizarFinDia(java.util.Date d){
-        java.util.Calendar c = java.util.Calendar.getInstance(); c.setTime(d);
-        c.set(java.util.Calendar.HOUR_OF_DAY,23); c.set(java.util.Calendar.MINUTE,59); c.set(java.util.Calendar.SECOND,59); c.set(java.util.Calendar.MILLISECOND,999);
-        return c.getTime();
+    /**
+     * Reservas a mostrar junto con los mapas de búsqueda de clientes y habitaciones.
+     */
+    private static final class DatosReservas {
+        final List<Reserva> reservas;
+        final java.util.Map<String,Cliente> clientes;
+        final java.util.Map<String,Habitacion> habitaciones;
+
+        DatosReservas(List<Reserva> reservas, java.util.Map<String,Cliente> clientes, java.util.Map<String,Habitacion> habitaciones) {
+            this.reservas = reservas;
+            this.clientes = clientes;
+            this.habitaciones = habitaciones;
+        }
     }
 
-    private String calcularEstadoReserva(Reserva r){
-        try {
-            List<Habitacion> habitaciones = modeloService.obtenerTodasHabitaciones();
-            Habitacion h = habitaciones.stream().filter(x -> x.getId().equals(r.getIdHabitacion())).findFirst().orElse(null);
-            if (r.getFechaSalida()!=null) return "Finalizada";
-            if (h!=null && h.isOcupada()) return "Check-in";
-            return "Reservada"; // Pendiente de check-in
-        } catch (Exception e){return "Reservada";}
+    /**
+     * Arma los mapas de búsqueda de la tabla de reservas. Se ejecuta fuera del EDT;
+     * el formateo de cada celda lo hace el modelo de la tabla al pintarla.
+     */
+    private DatosReservas consultarDatosReservas(List<Reserva> reservas){
+        List<Cliente> clientes = modeloService.obtenerTodosClientes();
+        List<Habitacion> habitaciones = modeloService.obtenerTodasHabitaciones();
+        java.util.Map<String,Cliente> mapCli = clientes.stream().collect(java.util.stream.Collectors.toMap(Cliente::getId,c->c));
+        java.util.Map<String,Habitacion> mapHab = habitaciones.stream().collect(java.util.stream.Collectors.toMap(Habitacion::getId,h->h));
+        return new DatosReservas(reservas, mapCli, mapHab);
     }
 
-    private void poblarTablaReservas(List<Reserva> reservas){
-        try {
-            List<Cliente> clientes = modeloService.obtenerTodosClientes();
-            List<Habitacion> habitaciones = modeloService.obtenerTodasHabitaciones();
-            java.util.Map<String,Cliente> mapCli = clientes.stream().collect(java.util.stream.Collectors.toMap(Cliente::getId,c->c));
-            java.util.Map<String,Habitacion> mapHab = habitaciones.stream().collect(java.util.stream.Collectors.toMap(Habitacion::getId,h->h));
-            javax.swing.table.DefaultTableModel model = (javax.swing.table.DefaultTableModel) panelReservas.getTablaReservas().getModel();
-            model.setRowCount(0);
-            java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd/MM/yyyy");
-            for (Reserva r: reservas) {
-                Cliente c = mapCli.get(r.getIdCliente());
-                Habitacion h = mapHab.get(r.getIdHabitacion());
-                String estado = calcularEstadoReserva(r);
-                String fechaReservaStr = r.getFechaReserva()!=null? sdf.format(r.getFechaReserva()):"--";
-                String inicioPlanStr = r.getFechaInicioPlanificada()!=null? sdf.format(r.getFechaInicioPlanificada()):"--";
-                String finPlanStr = r.getFechaFinPlanificada()!=null? sdf.format(r.getFechaFinPlanificada()):"--";
-                String ingresoRealStr = r.getFechaIngreso()!=null? sdf.format(r.getFechaIngreso()):"--";
-                String salidaRealStr = r.getFechaSalida()!=null? sdf.format(r.getFechaSalida()):"--";
-                int noches = r.getNoches()>0? r.getNoches():1;
-                model.addRow(new Object[]{
-                    r.getId(),
-                    c!=null?c.getNombre()+" "+c.getApellido():"?",
-                    h!=null?h.getNumero():"?",
-                    fechaReservaStr,
-                    inicioPlanStr,
-                    finPlanStr,
-                    ingresoRealStr,
-                    salidaRealStr,
-                    noches,
-                    estado,
-                    String.format("$%.2f", r.getTotal())
-                });
-            }
-        } catch (Exception ex){ mostrarError("Error mostrando reservas."); }
+    /**
+     * Entrega las reservas al modelo de la tabla (un único evento de cambio). Se ejecuta en el EDT.
+     */
+    private void mostrarReservas(DatosReservas datos){
+        panelReservas.getModeloReservas().setDatos(datos.reservas, datos.clientes, datos.habitaciones);
     }
 
     private void ajustarReservaSeleccionada() {
         int fila = panelReservas.getTablaReservas().getSelectedRow();
         if (fila == -1) {mostrarMensaje("Seleccione una reserva."); return;}
-        String id = panelReservas.getTablaReservas().getValueAt(fila,0).toString();
-        // Buscar reserva
-        Reserva reserva = modeloService.obtenerTodasReservas().stream().filter(r -> r.getId().equals(id)).findFirst().orElse(null);
-        if (reserva == null) {mostrarError("Reserva no encontrada."); return;}
+        // La fila ya referencia a la reserva cargada: no hace falta releer todas las reservas
+        Reserva reserva = panelReservas.getModeloReservas().getFila(fila);
+        String id = reserva.getId();
         if (reserva.getFechaSalida()!=null) {mostrarMensaje("No se puede ajustar una reserva finalizada."); return;}
         // Formulario
         JSpinner spInicio = new JSpinner(new javax.swing.SpinnerDateModel(reserva.getFechaInicioPlanificada()!=null?reserva.getFechaInicioPlanificada():new java.util.Date(), null, null, java.util.Calendar.DAY_OF_MONTH));
@@ -861,9 +910,12 @@ public class ControladorVentanaAdmin {
             int noches = (Integer) spinnerNoches.getValue();
             double total = hab.getPrecio() * noches;
             String obs = observaciones.getText()!=null?observaciones.getText().trim():"";
-            ejecutarComando(new CrearReservaCommand(modeloService, seleccionado.getId(), hab.getId(), total, obs));
-            mostrarMensaje("Reserva creada correctamente. Total: $"+String.format("%.2f", total));
-            cargarDatosReservas();
+            int diasHastaLlegada = pedirEntero("Días hasta la llegada (0 = hoy)", 0, 0);
+            ejecutarComando(new CrearReservaCommand(modeloService, seleccionado.getId(), hab.getId(), total, obs,
+                noches, diasHastaLlegada), () -> {
+                mostrarMensaje("Reserva creada correctamente. Total: $"+String.format("%.2f", total));
+                cargarDatosReservas();
+            });
         } catch (NumberFormatException nfe) {
             mostrarError("Número de noches inválido.");
         } catch (Exception ex) {
@@ -875,9 +927,10 @@ public class ControladorVentanaAdmin {
         int fila = panelReservas.getTablaReservas().getSelectedRow();
         if (fila==-1) {mostrarMensaje("Seleccione una reserva."); return;}
         String id = panelReservas.getTablaReservas().getValueAt(fila,0).toString();
-        ejecutarComando(new FinalizarReservaCommand(modeloService, id));
-        mostrarMensaje("Reserva finalizada.");
-        cargarDatosReservas();
+        ejecutarComando(new FinalizarReservaCommand(modeloService, id), () -> {
+            mostrarMensaje("Reserva finalizada.");
+            cargarDatosReservas();
+        });
     }
 
     // ====== SERVICIOS A HABITACIÓN ======
@@ -892,38 +945,35 @@ public class ControladorVentanaAdmin {
     }
 
     private void cargarHabitacionesOcupadasEnServicios() {
-        try {
-            java.util.List<Habitacion> ocupadas = modeloService.obtenerHabitacionesOcupadas();
+        cargador.cargar(CARGA_OCUPADAS_SERVICIOS, avance -> modeloService.obtenerHabitacionesOcupadas(), ocupadas -> {
             javax.swing.JComboBox<String> combo = panelServicios.getComboHabitacionesOcupadas();
-            combo.removeAllItems();
+            combo.removeAllItems(); // cada cambio de selección relanza la carga de servicios
             for (Habitacion h: ocupadas) combo.addItem(h.getNumero());
             if (combo.getItemCount()==0) mostrarMensaje("No hay habitaciones ocupadas.");
-        } catch (Exception ex) {
-            mostrarError("Error cargando habitaciones ocupadas.");
-        }
+        }, ex -> mostrarError("Error cargando habitaciones ocupadas."));
     }
 
     private void cargarServiciosDeHabitacionSeleccionada() {
         String numero = (String) panelServicios.getComboHabitacionesOcupadas().getSelectedItem();
         if (numero == null) {
-            javax.swing.table.DefaultTableModel m = (javax.swing.table.DefaultTableModel) panelServicios.getTablaServicios().getModel();
-            m.setRowCount(0);
+            cargador.cancelar(CARGA_SERVICIOS);
+            panelServicios.getModeloServicios().setDatos(java.util.Collections.<ServicioHabitacion>emptyList());
             return;
         }
-        Habitacion hab = modeloService.buscarHabitacionPorNumero(numero);
-        if (hab == null) return;
-        // Buscar reserva activa para esa habitación
-        Reserva activa = modeloService.obtenerTodasReservas().stream()
-                .filter(r -> r.getIdHabitacion().equals(hab.getId()) && r.getFechaSalida()==null)
-                .findFirst().orElse(null);
-        javax.swing.table.DefaultTableModel model = (javax.swing.table.DefaultTableModel) panelServicios.getTablaServicios().getModel();
-        model.setRowCount(0);
-        if (activa == null) return; // sin reserva activa no hay servicios
-        java.util.List<ServicioHabitacion> servicios = modeloService.obtenerServiciosPorReserva(activa.getId());
-        java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("dd/MM HH:mm");
-        for (ServicioHabitacion s: servicios) {
-            model.addRow(new Object[]{s.getId(), sdf.format(s.getFecha()), s.getTipo(), s.getDescripcion(), String.format("$%.2f", s.getCosto())});
-        }
+        cargador.cargar(CARGA_SERVICIOS, avance -> {
+            java.util.List<ServicioHabitacion> servicios = new java.util.ArrayList<>();
+            Habitacion hab = modeloService.buscarHabitacionPorNumero(numero);
+            if (hab == null) return null;
+            // Buscar reserva activa para esa habitación
+            Reserva activa = modeloService.obtenerTodasReservas().stream()
+                    .filter(r -> r.getIdHabitacion().equals(hab.getId()) && r.getFechaSalida()==null)
+                    .findFirst().orElse(null);
+            if (activa != null) servicios = modeloService.obtenerServiciosPorReserva(activa.getId()); // sin reserva activa no hay servicios
+            return servicios;
+        }, servicios -> {
+            if (servicios == null) return; // habitación inexistente: se conserva la tabla
+            panelServicios.getModeloServicios().setDatos(servicios);
+        }, ex -> mostrarError("Error cargando servicios de la habitación."));
     }
 
     private void agregarServicioAHabitacion() {
@@ -1050,11 +1100,8 @@ public class ControladorVentanaAdmin {
         String cedula = panelClientes.getTxtBuscarCedula().getText().trim();
         if (cedula.isEmpty()) {mostrarMensaje("Ingrese una cédula para buscar"); return;}
         Cliente c = modeloService.buscarClientePorCedula(cedula);
-        DefaultTableModel model = (DefaultTableModel) panelClientes.getTablaClientes().getModel();
-        model.setRowCount(0);
-        if (c != null) {
-            model.addRow(new Object[]{c.getId(), c.getNombre(), c.getApellido(), c.getCedula(), c.getTelefono()});
-        } else {
+        panelClientes.getModeloClientes().setDatos(c != null ? java.util.Collections.singletonList(c) : java.util.Collections.<Cliente>emptyList());
+        if (c == null) {
             mostrarMensaje("No se encontró cliente con esa cédula");
         }
     }
@@ -1069,12 +1116,13 @@ public class ControladorVentanaAdmin {
             return;
         }
 
-        // Obtener datos de la tabla
-        String id = (String) panelClientes.getTablaClientes().getValueAt(filaSeleccionada, 0);
-        String nombre = (String) panelClientes.getTablaClientes().getValueAt(filaSeleccionada, 1);
-        String apellido = (String) panelClientes.getTablaClientes().getValueAt(filaSeleccionada, 2);
-        String cedula = (String) panelClientes.getTablaClientes().getValueAt(filaSeleccionada, 3);
-        String telefono = (String) panelClientes.getTablaClientes().getValueAt(filaSeleccionada, 4);
+        // Obtener datos del cliente de la fila
+        Cliente seleccionado = panelClientes.getModeloClientes().getFila(filaSeleccionada);
+        String id = seleccionado.getId();
+        String nombre = seleccionado.getNombre();
+        String apellido = seleccionado.getApellido();
+        String cedula = seleccionado.getCedula();
+        String telefono = seleccionado.getTelefono();
 
         // Pre-llenar el formulario de edición
     JTextField nombreField = crearCampoSoloLetras(); nombreField.setText(nombre);
@@ -1170,7 +1218,7 @@ public class ControladorVentanaAdmin {
         int confirmacion = JOptionPane.showConfirmDialog(vista, "¿Está seguro de que desea eliminar a este cliente?", "Confirmar Eliminación", JOptionPane.YES_NO_OPTION);
         if (confirmacion == JOptionPane.YES_OPTION) {
             try {
-                String id = (String) panelClientes.getTablaClientes().getValueAt(filaSeleccionada, 0);
+                String id = panelClientes.getModeloClientes().getFila(filaSeleccionada).getId();
                 boolean ok = modeloService.eliminarCliente(id);
                 if (ok) {
                     actualizarTablaClientes();
@@ -26,6 +26,7 @@ public class ControladorVentanaPrincipal {
     private final ICommandInvoker commandInvoker;
     private final GestorDisponibilidad gestorDisponibilidad;
     private final ControladorHabitaciones controladorHabitaciones;
+    private final ICommandInvoker.ObservadorHistorial observadorHistorial = this::alCambiarHistorial;
 
     /**
      * Constructor con inyección de dependencias.
@@ -89,9 +90,14 @@ public class ControladorVentanaPrincipal {
         vista.BtnUndo.addActionListener(e -> ejecutarUndo());
         vista.BtnRedo.addActionListener(e -> ejecutarRedo());
         
-        // Actualizar estado de botones Undo/Redo periódicamente
-        Timer timer = new Timer(500, e -> actualizarBotonesUndoRedo());
-        timer.start();
+        // Botones Undo/Redo: se actualizan solo cuando cambia el historial
+        commandInvoker.agregarObservador(observadorHistorial);
+        vista.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override public void windowClosed(java.awt.event.WindowEvent e) {
+                commandInvoker.quitarObservador(observadorHistorial);
+            }
+        });
+        actualizarBotonesUndoRedo();
     }
 
     /**
@@ -138,13 +144,13 @@ public class ControladorVentanaPrincipal {
                 modeloService, this, offsetDias, noches
             );
 
-            // Ejecutar comando
-            commandInvoker.executeCommand(comando);
-            
-            // Limpiar campos y actualizar vista
-            limpiarCamposCheckin(); // limpia datos básicos
-            vista.limpiarPagoSeleccion(); // limpia estado de pago
-            actualizarVista();
+            // Ejecutar comando (en segundo plano si el invoker es asíncrono)
+            ejecutarComando(comando, () -> {
+                // Limpiar campos y actualizar vista
+                limpiarCamposCheckin(); // limpia datos básicos
+                vista.limpiarPagoSeleccion(); // limpia estado de pago
+                actualizarVista();
+            }, "Error al realizar check-in: ");
             
         } catch (Exception e) {
             mostrarError("Error al realizar check-in: " + e.getMessage());
@@ -188,12 +194,12 @@ public class ControladorVentanaPrincipal {
                 cedula, modeloService, gestorDisponibilidad, this
             );
 
-            // Ejecutar comando
-            commandInvoker.executeCommand(comando);
-            
-            // Limpiar campo y actualizar vista
-            vista.TxtBuscarCedulaAnular.setText("");
-            actualizarVista();
+            // Ejecutar comando (en segundo plano si el invoker es asíncrono)
+            ejecutarComando(comando, () -> {
+                // Limpiar campo y actualizar vista
+                vista.TxtBuscarCedulaAnular.setText("");
+                actualizarVista();
+            }, "Error al anular reserva: ");
             
         } catch (Exception e) {
             mostrarError("Error al anular reserva: " + e.getMessage());
@@ -217,12 +223,14 @@ public class ControladorVentanaPrincipal {
                         "Esta acción liberará recursos y modificará el estado del sistema.";
         
         if (mostrarConfirmacion(mensaje, "Confirmar Deshacer")) {
-            if (commandInvoker.undo()) {
-                actualizarVista();
-                mostrarMensaje("✅ Operación deshecha correctamente: " + descripcion);
-            } else {
-                mostrarError("No se pudo deshacer la operación.");
-            }
+            ejecutarDeshacerRehacer(true, ok -> {
+                if (ok) {
+                    actualizarVista();
+                    mostrarMensaje("✅ Operación deshecha correctamente: " + descripcion);
+                } else {
+                    mostrarError("No se pudo deshacer la operación.");
+                }
+            });
         }
     }
 
@@ -243,31 +251,96 @@ public class ControladorVentanaPrincipal {
                         "Esta acción volverá a ejecutar la operación y ocupará recursos.";
         
         if (mostrarConfirmacion(mensaje, "Confirmar Rehacer")) {
-            if (commandInvoker.redo()) {
-                actualizarVista();
-                mostrarMensaje("✅ Operación rehecha correctamente: " + descripcion);
-            } else {
-                mostrarError("No se pudo rehacer la operación.");
-            }
+            ejecutarDeshacerRehacer(false, ok -> {
+                if (ok) {
+                    actualizarVista();
+                    mostrarMensaje("✅ Operación rehecha correctamente: " + descripcion);
+                } else {
+                    mostrarError("No se pudo rehacer la operación.");
+                }
+            });
+        }
+    }
+
+    /**
+     * Ejecuta un comando. Con un {@link IAsyncCommandInvoker} corre en el hilo escritor y
+     * {@code alTerminar} se invoca en el EDT al completarse; si no, todo es síncrono.
+     */
+    private void ejecutarComando(ICommand comando, Runnable alTerminar, String prefijoError) {
+        if (commandInvoker instanceof IAsyncCommandInvoker) {
+            ((IAsyncCommandInvoker) commandInvoker).executeCommandAsync(comando).whenComplete((v, error) -> {
+                if (error != null) {
+                    Throwable causa = error.getCause() != null ? error.getCause() : error;
+                    mostrarError(prefijoError + causa.getMessage());
+                } else {
+                    alTerminar.run();
+                }
+            });
+        } else {
+            commandInvoker.executeCommand(comando);
+            alTerminar.run();
         }
     }
 
     /**
-     * Actualiza el estado de los botones Undo/Redo.
+     * Deshace o rehace, en segundo plano si el invoker es asíncrono; el resultado llega en el EDT.
+     */
+    private void ejecutarDeshacerRehacer(boolean deshacer, java.util.function.Consumer<Boolean> alTerminar) {
+        if (commandInvoker instanceof IAsyncCommandInvoker) {
+            IAsyncCommandInvoker asincrono = (IAsyncCommandInvoker) commandInvoker;
+            (deshacer ? asincrono.undoAsync() : asincrono.redoAsync()).whenComplete((ok, error) -> {
+                if (error != null) {
+                    mostrarError("Error al " + (deshacer ? "deshacer" : "rehacer") + ": " + error.getMessage());
+                } else {
+                    alTerminar.accept(ok);
+                }
+            });
+        } else {
+            alTerminar.accept(deshacer ? commandInvoker.undo() : commandInvoker.redo());
+        }
+    }
+
+    /**
+     * Ejecuta en el EDT: directamente si ya se está en él, o encolado si lo llama el hilo
+     * escritor de comandos (los comandos notifican a este controlador desde allí).
+     */
+    private void enEdt(Runnable accion) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            accion.run();
+        } else {
+            SwingUtilities.invokeLater(accion);
+        }
+    }
+
+    /**
+     * Actualiza el estado de los botones Undo/Redo consultando al invoker (estado inicial).
      */
     private void actualizarBotonesUndoRedo() {
-        vista.BtnUndo.setEnabled(commandInvoker.canUndo());
-        vista.BtnRedo.setEnabled(commandInvoker.canRedo());
+        mostrarBotonesUndoRedo(commandInvoker.canUndo(), commandInvoker.canRedo(),
+            commandInvoker.getNextUndoDescription(), commandInvoker.getNextRedoDescription());
+    }
+    
+    /**
+     * Aplica en los botones Undo/Redo el estado que trae un evento del historial.
+     */
+    private void alCambiarHistorial(EventoHistorial evento) {
+        enEdt(() -> mostrarBotonesUndoRedo(evento.isCanUndo(), evento.isCanRedo(),
+            evento.getSiguienteUndo(), evento.getSiguienteRedo()));
+    }
+    
+    private void mostrarBotonesUndoRedo(boolean canUndo, boolean canRedo, String siguienteUndo, String siguienteRedo) {
+        vista.BtnUndo.setEnabled(canUndo);
+        vista.BtnRedo.setEnabled(canRedo);
         
         // Actualizar tooltips
-        if (commandInvoker.canUndo()) {
-            vista.BtnUndo.setToolTipText("Deshacer: " + commandInvoker.getNextUndoDescription());
+        if (canUndo) {
+            vista.BtnUndo.setToolTipText("Deshacer: " + siguienteUndo);
         } else {
             vista.BtnUndo.setToolTipText("No hay operaciones para deshacer");
         }
         
-        if (commandInvoker.canRedo()) {
-            vista.BtnRedo.setToolTipText("Rehacer: " + commandInvoker.getNextRedoDescription());
+        if (canRedo) {
+            vista.BtnRedo.setToolTipText("Rehacer: " + siguienteRedo);
         } else {
             vista.BtnRedo.setToolTipText("No hay operaciones para rehacer");
         }
@@ -326,12 +399,14 @@ public class ControladorVentanaPrincipal {
      * Actualiza toda la vista con los datos actuales.
      */
     public void actualizarVista() {
-        controladorHabitaciones.cargarHabitaciones(
-            vista.TablaHabitacionesDisponibles, 
-            vista.TablaHabitacionesOcupadas, 
-            vista.CmboxHabitaciones
-        );
-        actualizarGestorDisponibilidad();
+        enEdt(() -> {
+            controladorHabitaciones.cargarHabitaciones(
+                vista.TablaHabitacionesDisponibles, 
+                vista.TablaHabitacionesOcupadas, 
+                vista.CmboxHabitaciones
+            );
+            actualizarGestorDisponibilidad();
+        });
     }
 
     /**
@@ -349,14 +424,14 @@ public class ControladorVentanaPrincipal {
      * Muestra un mensaje de error al usuario.
      */
     public void mostrarError(String mensaje) {
-        JOptionPane.showMessageDialog(vista, mensaje, "Error", JOptionPane.ERROR_MESSAGE);
+        enEdt(() -> JOptionPane.showMessageDialog(vista, mensaje, "Error", JOptionPane.ERROR_MESSAGE));
     }
 
     /**
      * Muestra un mensaje informativo al usuario.
      */
     public void mostrarMensaje(String mensaje) {
-        JOptionPane.showMessageDialog(vista, mensaje, "Información", JOptionPane.INFORMATION_MESSAGE);
+        enEdt(() -> JOptionPane.showMessageDialog(vista, mensaje, "Información", JOptionPane.INFORMATION_MESSAGE));
     }
     
     /**
@@ -398,7 +473,7 @@ public class ControladorVentanaPrincipal {
     sb.append("TOTAL: $").append(String.format("%.2f", reserva.getTotal())).append("\n");
         sb.append("=======================================");
         
-        JOptionPane.showMessageDialog(vista, sb.toString(), "Factura", JOptionPane.INFORMATION_MESSAGE);
+        enEdt(() -> JOptionPane.showMessageDialog(vista, sb.toString(), "Factura", JOptionPane.INFORMATION_MESSAGE));
     }
 
     /**
@@ -0,0 +1,214 @@
+package controller;
+
+import model.Cliente;
+import model.EventoModelo;
+import model.Habitacion;
+import model.Reserva;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estado del dashboard mantenido en memoria: se carga completo una vez (y en cada sondeo de respaldo)
+ * y después se actualiza con los eventos de dominio, sin volver a consultar la base de datos.
+ * Aplicar un evento es idempotente, porque los cambios propios pueden llegar dos veces
+ * (directo y por el flujo de cambios remoto).
+ * No es seguro para hilos: se usa solo desde el EDT.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public class EstadoDashboard {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final int limiteRecientes;
+    private final Map<String, Habitacion> habitaciones = new HashMap<>();
+    private final Map<String, Cliente> clientes = new HashMap<>();
+    private final Map<String, Reserva> reservasHoy = new HashMap<>(); // ingreso hoy, por ID
+    private final List<Reserva> recientes = new ArrayList<>(); // fecha de ingreso descendente
+    private final List<EventoModelo> pendientes = new ArrayList<>(); // llegados durante una carga
+    private LocalDate dia;
+    private boolean cargado;
+    private boolean cargando;
+    private long eventosAplicados;
+
+    /**
+     * @param limiteRecientes Filas de la tabla de reservas recientes
+     */
+    public EstadoDashboard(int limiteRecientes) {
+        this.limiteRecientes = limiteRecientes;
+    }
+
+    /**
+     * Marca el inicio de una carga completa: los eventos que lleguen hasta {@link #cargar}
+     * se guardan y se vuelven a aplicar sobre los datos nuevos, por si la consulta los leyó antes del cambio.
+     */
+    public void iniciarCarga() {
+        cargando = true;
+    }
+
+    /**
+     * Abandona la carga en curso (error de consulta); los eventos guardados se descartan.
+     */
+    public void cancelarCarga() {
+        cargando = false;
+        pendientes.clear();
+    }
+
+    /**
+     * Reemplaza el estado con una carga completa.
+     *
+     * @param todasHabitaciones Todas las habitaciones
+     * @param reservas Reservas entre las que se cuentan los check-in de hoy
+     * @param reservasRecientes Reservas más recientes por fecha de ingreso
+     * @param todosClientes Todos los clientes
+     * @param hoy Día de la carga
+     * @return false si algún evento llegado durante la carga exige otra carga completa
+     */
+    public boolean cargar(List<Habitacion> todasHabitaciones, List<Reserva> reservas, List<Reserva> reservasRecientes,
+                       List<Cliente> todosClientes, LocalDate hoy) {
+        habitaciones.clear();
+        for (Habitacion h : todasHabitaciones) habitaciones.put(h.getId(), h);
+        clientes.clear();
+        for (Cliente c : todosClientes) clientes.put(c.getId(), c);
+        reservasHoy.clear();
+        for (Reserva r : reservas) {
+            if (hoy.equals(dia(r.getFechaIngreso()))) reservasHoy.put(r.getId(), r);
+        }
+        recientes.clear();
+        for (Reserva r : reservasRecientes) {
+            if (recientes.size() < limiteRecientes) recientes.add(r);
+        }
+        dia = hoy;
+        cargado = true;
+        cargando = false;
+        List<EventoModelo> reaplicar = new ArrayList<>(pendientes);
+        pendientes.clear();
+        boolean alDia = true;
+        for (EventoModelo evento : reaplicar) {
+            alDia &= aplicar(evento, hoy);
+        }
+        return alDia;
+    }
+
+    /**
+     * Aplica un evento de dominio.
+     *
+     * @param evento Evento recibido
+     * @param hoy Día actual (un cambio de día invalida los totales de hoy)
+     * @return true si el estado quedó al día; false si hace falta una carga completa
+     */
+    public boolean aplicar(EventoModelo evento, LocalDate hoy) {
+        if (cargando) {
+            pendientes.add(evento);
+            return true;
+        }
+        if (!cargado || !hoy.equals(dia)) return false;
+        switch (evento.getTipo()) {
+            case HABITACION_CAMBIADA: {
+                Habitacion h = habitaciones.get(evento.getIdHabitacion());
+                if (h == null) return false;
+                h.setOcupada(evento.isOcupada());
+                break;
+            }
+            case CLIENTE_CAMBIADO:
+                if (evento.getCliente() != null) clientes.put(evento.getIdCliente(), evento.getCliente());
+                else clientes.remove(evento.getIdCliente());
+                break;
+            case RESERVA_CREADA:
+            case RESERVA_FINALIZADA:
+            case RESERVA_ACTUALIZADA:
+                aplicarReserva(evento.getReserva(), hoy);
+                break;
+            default: // ESTADO_RESTAURADO: no se sabe qué cambió
+                return false;
+        }
+        eventosAplicados++;
+        return true;
+    }
+
+    private void aplicarReserva(Reserva reserva, LocalDate hoy) {
+        if (hoy.equals(dia(reserva.getFechaIngreso()))) reservasHoy.put(reserva.getId(), reserva);
+        else reservasHoy.remove(reserva.getId());
+
+        for (Iterator<Reserva> it = recientes.iterator(); it.hasNext(); ) {
+            if (it.next().getId().equals(reserva.getId())) it.remove();
+        }
+        long ingreso = milis(reserva.getFechaIngreso());
+        int posicion = 0;
+        while (posicion < recientes.size() && milis(recientes.get(posicion).getFechaIngreso()) >= ingreso) posicion++;
+        if (posicion < limiteRecientes) {
+            recientes.add(posicion, reserva);
+            if (recientes.size() > limiteRecientes) recientes.remove(recientes.size() - 1);
+        }
+    }
+
+    /** @return true si hay una carga completa aplicada */
+    public boolean isCargado() {
+        return cargado;
+    }
+
+    /** @return Eventos aplicados sin recargar */
+    public long getEventosAplicados() {
+        return eventosAplicados;
+    }
+
+    public long getHabitacionesDisponibles() {
+        return habitaciones.values().stream().filter(h -> !h.isOcupada()).count();
+    }
+
+    public long getHabitacionesOcupadas() {
+        return habitaciones.values().stream().filter(Habitacion::isOcupada).count();
+    }
+
+    public long getCheckinsHoy() {
+        return reservasHoy.size();
+    }
+
+    public BigDecimal getIngresosHoy() {
+        return reservasHoy.values().stream()
+            .map(r -> BigDecimal.valueOf(r.getTotal()))
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Filas de la tabla de reservas recientes: cliente, habitación, ingreso, salida y estado.
+     * Las reservas cuyo cliente o habitación no existen se omiten para no mostrar 'N/A'.
+     */
+    public String[][] getFilasRecientes() {
+        List<String[]> filas = new ArrayList<>();
+        for (Reserva reserva : recientes) {
+            Cliente cliente = clientes.get(reserva.getIdCliente());
+            Habitacion habitacion = habitaciones.get(reserva.getIdHabitacion());
+            if (cliente == null || habitacion == null) continue;
+            filas.add(new String[]{
+                cliente.getNombre() + " " + cliente.getApellido(),
+                habitacion.getNumero(),
+                formatear(reserva.getFechaIngreso(), ""),
+                formatear(reserva.getFechaSalida(), "Activa"),
+                reserva.calcularEstado(habitacion)
+            });
+        }
+        return filas.toArray(new String[0][0]);
+    }
+
+    private static LocalDate dia(Date fecha) {
+        return fecha != null ? fecha.toInstant().atZone(ZoneId.systemDefault()).toLocalDate() : null;
+    }
+
+    private static long milis(Date fecha) {
+        return fecha != null ? fecha.getTime() : Long.MIN_VALUE;
+    }
+
+    private static String formatear(Date fecha, String siFalta) {
+        return fecha != null ? dia(fecha).format(FORMATO_FECHA) : siFalta;
+    }
+}
@@ -0,0 +1,111 @@
+package memento;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Archivo de snapshots de solo anexado, accedido con memoria mapeada.
+ * Cada registro es la longitud (int) seguida de los bytes del memento codificado; las posiciones
+ * de los registros vivos las guarda el índice del caretaker. Al crecer se vuelve a mapear con el doble
+ * de capacidad, así escribir y releer un snapshot no copia datos a través de buffers del sistema.
+ */
+final class ArchivoSnapshots implements Closeable {
+
+    private static final int MAGICO = 0x484D454D; // "HMEM"
+    static final int CABECERA = 8;
+    private static final int CAPACIDAD_INICIAL = 1 << 20;
+
+    private final Path archivo;
+    private final FileChannel canal;
+    private MappedByteBuffer mapa;
+    private long fin;
+
+    /**
+     * @param archivo Ruta del archivo (se crea si no existe)
+     * @param finValido Posición tras el último registro válido según el índice (0 si es nuevo)
+     */
+    ArchivoSnapshots(Path archivo, long finValido) throws IOException {
+        this.archivo = archivo;
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean nuevo = canal.size() < CABECERA;
+        if (!nuevo && finValido > canal.size()) {
+            canal.close();
+            throw new IOException("Archivo de snapshots más corto que el índice: " + archivo);
+        }
+        mapear(Math.max(CAPACIDAD_INICIAL, Math.max(canal.size(), finValido)));
+        if (nuevo) {
+            mapa.putInt(0, MAGICO);
+            mapa.putInt(4, CodificadorMemento.VERSION);
+            fin = CABECERA;
+        } else {
+            if (mapa.getInt(0) != MAGICO || mapa.getInt(4) != CodificadorMemento.VERSION) {
+                canal.close();
+                throw new IOException("Archivo de snapshots con formato desconocido: " + archivo);
+            }
+            fin = Math.max(CABECERA, finValido);
+        }
+    }
+
+    private void mapear(long capacidad) throws IOException {
+        if (capacidad > Integer.MAX_VALUE) {
+            throw new IOException("El archivo de snapshots superaría 2 GB: " + archivo);
+        }
+        mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, capacidad);
+    }
+
+    /**
+     * Anexa un registro y lo fuerza a disco.
+     *
+     * @param datos Memento codificado
+     * @return Posición del registro
+     */
+    long agregar(byte[] datos) throws IOException {
+        long necesario = fin + 4 + datos.length;
+        if (necesario > mapa.capacity()) {
+            mapear(Math.max(necesario, 2L * mapa.capacity()));
+        }
+        long posicion = fin;
+        mapa.putInt((int) posicion, datos.length);
+        ByteBuffer destino = mapa.duplicate();
+        destino.position((int) posicion + 4);
+        destino.put(datos);
+        mapa.force();
+        fin = necesario;
+        return posicion;
+    }
+
+    /**
+     * @param posicion Posición devuelta por {@link #agregar}
+     * @return Vista de solo lectura de los bytes del registro (sin copiarlos)
+     */
+    ByteBuffer leer(long posicion) {
+        if (posicion < CABECERA || posicion + 4 > fin) {
+            throw new IllegalArgumentException("Posición fuera del archivo: " + posicion);
+        }
+        int longitud = mapa.getInt((int) posicion);
+        ByteBuffer vista = mapa.asReadOnlyBuffer();
+        vista.position((int) posicion + 4);
+        vista.limit((int) posicion + 4 + longitud);
+        return vista.slice();
+    }
+
+    /** @return Bytes escritos (cabecera y registros, vivos o no) */
+    long getTamano() {
+        return fin;
+    }
+
+    Path getArchivo() {
+        return archivo;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // El mapeo se libera cuando el recolector reclama el buffer (no hay unmap público en Java 8)
+        canal.close();
+    }
+}
@@ -0,0 +1,624 @@
+package memento;
+
+import model.IModeloService;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Caretaker del patrón Memento con presupuesto de memoria y persistencia en disco.
+ * Cada estado guardado se codifica en binario y se anexa a un archivo mapeado en memoria
+ * ({@link ArchivoSnapshots}); en el heap solo se conservan los estados más recientes mientras
+ * su tamaño estimado quepa en el presupuesto, y los demás se releen del archivo al deshacer.
+ * Un índice pequeño (pilas de undo/redo con posición y descripción) se reescribe de forma atómica
+ * en cada cambio, de modo que el historial sobrevive a un reinicio.
+ * Cuando el archivo acumula más bytes descartados que vivos se compacta en una generación nueva.
+ *
+ * Guarda mementos completos o, si el originador registra cambios por documento, el
+ * {@link RegistroCambios} de cada comando. Con mementos, deshacer devuelve el estado guardado y
+ * guarda el estado actual del originador para rehacer (y viceversa), así que no se retienen pares
+ * antes/después por comando; un registro de cambios sirve en ambos sentidos y solo cambia de pila.
+ *
+ * Lo heredado de una ejecución anterior no se restaura a ciegas: otra terminal pudo cambiar la base
+ * mientras tanto. Un memento heredado se aplica solo si el estado actual coincide con la huella
+ * guardada al cerrar, y un registro heredado solo si sus documentos siguen como los dejó
+ * ({@link IModeloService#cambiosAplicables}). Si no, se descarta todo lo heredado.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public class CaretakerPersistente implements ICaretaker, Closeable {
+
+    /** Presupuesto de heap por defecto para snapshots en memoria. */
+    public static final long PRESUPUESTO_POR_DEFECTO = 64L * 1024 * 1024;
+    private static final String INDICE = "indice.bin";
+    private static final String PREFIJO_DATOS = "snapshots-";
+    private static final int MAGICO_INDICE = 0x48494458; // "HIDX"
+    private static final int VERSION_INDICE = 2; // 2: tipo de entrada y huella al cerrar
+    private static final long UMBRAL_COMPACTACION = 1L << 20;
+    private static final java.util.logging.Logger logger =
+        java.util.logging.Logger.getLogger(CaretakerPersistente.class.getName());
+
+    /** Estado guardado: siempre en disco, y en memoria mientras quepa en el presupuesto. */
+    private static final class Entrada {
+        final long secuencia;
+        long posicion;
+        final int longitud;
+        final long bytesHeap;
+        final String descripcion;
+        final boolean incremental; // RegistroCambios en lugar de memento completo
+        ModeloMemento enMemoria;
+        RegistroCambios cambiosEnMemoria;
+        boolean heredada; // cargada de una ejecución anterior y aún sin validar
+
+        Entrada(long secuencia, long posicion, int longitud, long bytesHeap, String descripcion, boolean incremental) {
+            this.secuencia = secuencia;
+            this.posicion = posicion;
+            this.longitud = longitud;
+            this.bytesHeap = bytesHeap;
+            this.descripcion = descripcion;
+            this.incremental = incremental;
+        }
+
+        boolean enMemoria() {
+            return enMemoria != null || cambiosEnMemoria != null;
+        }
+
+        void soltar() {
+            enMemoria = null;
+            cambiosEnMemoria = null;
+        }
+    }
+
+    private final IModeloService originador;
+    private final Path directorio;
+    private final long presupuestoBytes;
+    private final Deque<Entrada> undo = new ArrayDeque<>(); // primero = más reciente
+    private final Deque<Entrada> redo = new ArrayDeque<>();
+    private ArchivoSnapshots datos;
+    private int generacion;
+    private long secuencia;
+    private long bytesDescartados;
+    private long bytesEnMemoria;
+    private long lecturasDisco;
+    private Long huellaHeredada; // estado al cerrar la ejecución anterior (null si no cerró limpio)
+
+    /**
+     * Abre (o crea) el historial guardado en el directorio.
+     *
+     * @param originador Servicio del que se capturan y al que se restauran los estados
+     * @param directorio Directorio del historial
+     * @param presupuestoBytes Bytes de heap estimados que pueden ocupar los snapshots en memoria
+     * @throws IllegalStateException si el directorio no se puede crear o escribir
+     */
+    public CaretakerPersistente(IModeloService originador, Path directorio, long presupuestoBytes) {
+        if (presupuestoBytes < 0) {
+            throw new IllegalArgumentException("El presupuesto no puede ser negativo");
+        }
+        this.originador = originador;
+        this.directorio = directorio;
+        this.presupuestoBytes = presupuestoBytes;
+        try {
+            Files.createDirectories(directorio);
+            if (!cargarIndice()) {
+                undo.clear();
+                redo.clear();
+                generacion = 0;
+                datos = new ArchivoSnapshots(archivoDatos(generacion), 0);
+                guardarIndice(null);
+            }
+            borrarGeneracionesViejas();
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo abrir el historial en " + directorio, e);
+        }
+    }
+
+    // === ICaretaker ===
+
+    @Override
+    public synchronized ModeloMemento saveState() {
+        ModeloMemento actual = originador.crearMemento();
+        saveState(actual, null);
+        return actual;
+    }
+
+    /**
+     * Si lo último del historial es heredado, el estado de partida debe ser el que quedó al cerrar;
+     * si no, lo heredado ya no se puede encadenar con lo nuevo y se descarta.
+     */
+    @Override
+    public synchronized void saveState(ModeloMemento memento, String descripcion) {
+        Entrada ultima = undo.peek();
+        if (ultima != null && ultima.heredada && !ultima.incremental) {
+            if (coincideConCierre(memento)) {
+                marcarValidadas();
+            } else {
+                descartarHeredadas();
+            }
+        }
+        undo.push(escribir(memento, descripcion));
+        descartarTodas(redo);
+        persistir();
+    }
+
+    @Override
+    public synchronized void saveChanges(RegistroCambios cambios, String descripcion) {
+        byte[] codificado = CodificadorMemento.codificarCambios(cambios);
+        Entrada entrada = agregar(codificado, CodificadorMemento.estimarBytesHeapCambios(codificado.length), descripcion, true);
+        entrada.cambiosEnMemoria = cambios;
+        bytesEnMemoria += entrada.bytesHeap;
+        undo.push(entrada);
+        descartarTodas(redo);
+        persistir();
+    }
+
+    @Override
+    public void restoreState(ModeloMemento memento) {
+        originador.restaurarEstadoCompleto(memento);
+    }
+
+    @Override
+    public synchronized boolean canUndo() {
+        return !undo.isEmpty();
+    }
+
+    @Override
+    public synchronized boolean canRedo() {
+        return !redo.isEmpty();
+    }
+
+    /**
+     * Saca el último estado guardado y guarda el estado actual del originador para rehacer.
+     * No restaura: el llamador aplica el memento devuelto.
+     */
+    @Override
+    public synchronized ModeloMemento undo() {
+        return mover(undo, redo);
+    }
+
+    /**
+     * Saca el último estado deshecho y guarda el estado actual del originador para deshacer.
+     * No restaura: el llamador aplica el memento devuelto.
+     */
+    @Override
+    public synchronized ModeloMemento redo() {
+        return mover(redo, undo);
+    }
+
+    /**
+     * Pasa el último registro guardado a la pila de redo sin reescribirlo.
+     * No aplica: el llamador aplica el registro devuelto en sentido deshacer.
+     *
+     * @throws IllegalStateException si era heredado y sus documentos cambiaron desde entonces
+     */
+    @Override
+    public synchronized RegistroCambios undoChanges() {
+        return moverCambios(undo, redo, true);
+    }
+
+    /**
+     * Pasa el último registro deshecho a la pila de undo sin reescribirlo.
+     * No aplica: el llamador aplica el registro devuelto en sentido rehacer.
+     *
+     * @throws IllegalStateException si era heredado y sus documentos cambiaron desde entonces
+     */
+    @Override
+    public synchronized RegistroCambios redoChanges() {
+        return moverCambios(redo, undo, false);
+    }
+
+    @Override
+    public synchronized void discardOldest() {
+        Entrada vieja = undo.pollLast();
+        if (vieja != null) {
+            descartar(vieja);
+            persistir();
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        descartarTodas(undo);
+        descartarTodas(redo);
+        persistir();
+    }
+
+    @Override
+    public synchronized List<String> getUndoDescriptions() {
+        return descripciones(undo);
+    }
+
+    @Override
+    public synchronized List<String> getRedoDescriptions() {
+        return descripciones(redo);
+    }
+
+    // === Métricas ===
+
+    /** @return Bytes de heap estimados de los snapshots retenidos en memoria */
+    public synchronized long getBytesEnMemoria() {
+        return bytesEnMemoria;
+    }
+
+    /** @return Snapshots retenidos en memoria */
+    public synchronized int getEntradasEnMemoria() {
+        int n = 0;
+        for (Entrada e : undo) if (e.enMemoria()) n++;
+        for (Entrada e : redo) if (e.enMemoria()) n++;
+        return n;
+    }
+
+    /** @return Snapshots guardados (undo más redo) */
+    public synchronized int getEntradas() {
+        return undo.size() + redo.size();
+    }
+
+    /** @return Tamaño del archivo de snapshots en uso */
+    public synchronized long getBytesEnDisco() {
+        return datos.getTamano();
+    }
+
+    /** @return Snapshots que hubo que releer del disco por no estar en memoria */
+    public synchronized long getLecturasDisco() {
+        return lecturasDisco;
+    }
+
+    /**
+     * Guarda el índice con la huella del estado actual si el historial tiene mementos completos,
+     * para validarlos en la próxima ejecución.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            Long huella = null;
+            if (tieneMementos()) {
+                try {
+                    ModeloMemento actual = originador.crearMemento();
+                    if (hayHeredadas() && !coincideConCierre(actual)) {
+                        descartarHeredadas(); // nadie las validó y el estado ya no es el de entonces
+                    }
+                    huella = CodificadorMemento.huella(actual);
+                } catch (RuntimeException e) {
+                    logger.warning("No se pudo capturar el estado al cerrar el historial: " + e.getMessage());
+                }
+            }
+            guardarIndice(huella);
+        } finally {
+            datos.close();
+        }
+    }
+
+    // === Internos ===
+
+    private ModeloMemento mover(Deque<Entrada> origen, Deque<Entrada> destino) {
+        Entrada entrada = origen.peek();
+        if (entrada == null) {
+            return null;
+        }
+        ModeloMemento actual = originador.crearMemento();
+        if (entrada.heredada) {
+            if (entrada.incremental || !coincideConCierre(actual)) {
+                throw rechazarHeredadas();
+            }
+            marcarValidadas();
+        } else if (entrada.incremental) {
+            throw new IllegalStateException("La entrada guarda un registro de cambios, no un memento");
+        }
+        origen.poll();
+        ModeloMemento objetivo = leer(entrada);
+        destino.push(escribir(actual, entrada.descripcion));
+        descartar(entrada);
+        persistir();
+        return objetivo;
+    }
+
+    private RegistroCambios moverCambios(Deque<Entrada> origen, Deque<Entrada> destino, boolean deshacer) {
+        Entrada entrada = origen.peek();
+        if (entrada == null) {
+            return null;
+        }
+        if (!entrada.incremental) {
+            if (entrada.heredada) throw rechazarHeredadas();
+            throw new IllegalStateException("La entrada guarda un memento completo, no un registro de cambios");
+        }
+        RegistroCambios cambios = leerCambios(entrada);
+        if (entrada.heredada) {
+            if (!originador.cambiosAplicables(cambios, deshacer)) {
+                throw rechazarHeredadas();
+            }
+            entrada.heredada = false;
+        }
+        origen.poll();
+        destino.push(entrada);
+        persistir();
+        return cambios;
+    }
+
+    private Entrada escribir(ModeloMemento memento, String descripcion) {
+        Entrada entrada = agregar(CodificadorMemento.codificar(memento), CodificadorMemento.estimarBytesHeap(memento),
+            descripcion, false);
+        entrada.enMemoria = memento;
+        bytesEnMemoria += entrada.bytesHeap;
+        return entrada;
+    }
+
+    private Entrada agregar(byte[] codificado, long bytesHeap, String descripcion, boolean incremental) {
+        try {
+            long posicion = datos.agregar(codificado);
+            return new Entrada(++secuencia, posicion, codificado.length, bytesHeap, descripcion, incremental);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo guardar el snapshot en " + datos.getArchivo(), e);
+        }
+    }
+
+    private ModeloMemento leer(Entrada entrada) {
+        if (entrada.enMemoria != null) {
+            return entrada.enMemoria;
+        }
+        lecturasDisco++;
+        return CodificadorMemento.decodificar(datos.leer(entrada.posicion));
+    }
+
+    private RegistroCambios leerCambios(Entrada entrada) {
+        if (entrada.cambiosEnMemoria != null) {
+            return entrada.cambiosEnMemoria;
+        }
+        lecturasDisco++;
+        return CodificadorMemento.decodificarCambios(datos.leer(entrada.posicion));
+    }
+
+    private void descartar(Entrada entrada) {
+        if (entrada.enMemoria()) {
+            bytesEnMemoria -= entrada.bytesHeap;
+            entrada.soltar();
+        }
+        bytesDescartados += 4L + entrada.longitud;
+    }
+
+    // === Historial heredado ===
+
+    private boolean coincideConCierre(ModeloMemento actual) {
+        return huellaHeredada != null && huellaHeredada == CodificadorMemento.huella(actual);
+    }
+
+    /** Los mementos heredados se encadenan: validado el más reciente, valen todos. */
+    private void marcarValidadas() {
+        for (Entrada e : undo) e.heredada = false;
+        for (Entrada e : redo) e.heredada = false;
+    }
+
+    private boolean hayHeredadas() {
+        for (Entrada e : undo) if (e.heredada) return true;
+        for (Entrada e : redo) if (e.heredada) return true;
+        return false;
+    }
+
+    private boolean tieneMementos() {
+        for (Entrada e : undo) if (!e.incremental) return true;
+        for (Entrada e : redo) if (!e.incremental) return true;
+        return false;
+    }
+
+    private int descartarHeredadas() {
+        int descartadas = 0;
+        for (Deque<Entrada> pila : Arrays.asList(undo, redo)) {
+            for (Iterator<Entrada> it = pila.iterator(); it.hasNext(); ) {
+                Entrada e = it.next();
+                if (e.heredada) {
+                    descartar(e);
+                    it.remove();
+                    descartadas++;
+                }
+            }
+        }
+        persistir();
+        logger.warning("El estado cambió desde la ejecución anterior: se descartaron " + descartadas
+            + " acciones del historial heredado");
+        return descartadas;
+    }
+
+    private IllegalStateException rechazarHeredadas() {
+        int descartadas = descartarHeredadas();
+        return new IllegalStateException("El estado cambió desde la ejecución anterior; se descartaron "
+            + descartadas + " acciones del historial para no pisar cambios posteriores");
+    }
+
+    private void descartarTodas(Deque<Entrada> pila) {
+        for (Entrada e : pila) descartar(e);
+        pila.clear();
+    }
+
+    private static List<String> descripciones(Deque<Entrada> pila) {
+        List<String> lista = new ArrayList<>(pila.size());
+        for (Iterator<Entrada> it = pila.descendingIterator(); it.hasNext(); ) {
+            lista.add(it.next().descripcion);
+        }
+        return lista;
+    }
+
+    /**
+     * Ajusta el presupuesto, compacta si hace falta y guarda el índice.
+     */
+    private void persistir() {
+        ajustarPresupuesto();
+        try {
+            long vivos = datos.getTamano() - ArchivoSnapshots.CABECERA - bytesDescartados;
+            if (bytesDescartados > UMBRAL_COMPACTACION && bytesDescartados > vivos) {
+                compactar();
+            } else {
+                guardarIndice(null);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo guardar el índice del historial en " + directorio, e);
+        }
+    }
+
+    /**
+     * Conserva en memoria los snapshots más recientes que quepan en el presupuesto;
+     * los demás quedan solo en el archivo.
+     */
+    private void ajustarPresupuesto() {
+        if (bytesEnMemoria <= presupuestoBytes) return;
+        List<Entrada> todas = new ArrayList<>(undo);
+        todas.addAll(redo);
+        todas.sort((a, b) -> Long.compare(b.secuencia, a.secuencia));
+        long acumulado = 0;
+        for (Entrada e : todas) {
+            if (!e.enMemoria()) continue;
+            if (acumulado + e.bytesHeap <= presupuestoBytes) {
+                acumulado += e.bytesHeap;
+            } else {
+                e.soltar();
+            }
+        }
+        bytesEnMemoria = acumulado;
+    }
+
+    /**
+     * Copia los registros vivos a una generación nueva del archivo y descarta la anterior.
+     */
+    private void compactar() throws IOException {
+        ArchivoSnapshots nuevo = new ArchivoSnapshots(archivoDatos(generacion + 1), 0);
+        List<Entrada> vivas = new ArrayList<>(undo);
+        vivas.addAll(redo);
+        for (Entrada e : vivas) {
+            java.nio.ByteBuffer registro = datos.leer(e.posicion);
+            byte[] copia = new byte[registro.remaining()];
+            registro.get(copia);
+            e.posicion = nuevo.agregar(copia);
+        }
+        ArchivoSnapshots viejo = datos;
+        datos = nuevo;
+        generacion++;
+        bytesDescartados = 0;
+        guardarIndice(null); // a partir de aquí el índice apunta a la generación nueva
+        viejo.close();
+        borrar(viejo.getArchivo());
+    }
+
+    private Path archivoDatos(int gen) {
+        return directorio.resolve(PREFIJO_DATOS + gen + ".dat");
+    }
+
+    /**
+     * @param huellaCierre Huella del estado actual (solo al cerrar); null mientras el historial está
+     *                     en uso, de modo que tras una caída los mementos heredados no se restauran
+     */
+    private void guardarIndice(Long huellaCierre) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGICO_INDICE);
+            out.writeInt(VERSION_INDICE);
+            out.writeInt(generacion);
+            out.writeLong(datos.getTamano());
+            out.writeLong(bytesDescartados);
+            out.writeLong(secuencia);
+            out.writeBoolean(huellaCierre != null);
+            out.writeLong(huellaCierre != null ? huellaCierre : 0L);
+            escribirPila(out, undo);
+            escribirPila(out, redo);
+        }
+        Path temporal = directorio.resolve(INDICE + ".tmp");
+        Files.write(temporal, bytes.toByteArray());
+        try {
+            Files.move(temporal, directorio.resolve(INDICE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, directorio.resolve(INDICE), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void escribirPila(DataOutputStream out, Deque<Entrada> pila) throws IOException {
+        out.writeInt(pila.size());
+        for (Iterator<Entrada> it = pila.descendingIterator(); it.hasNext(); ) { // del más antiguo al más reciente
+            Entrada e = it.next();
+            out.writeLong(e.secuencia);
+            out.writeLong(e.posicion);
+            out.writeInt(e.longitud);
+            out.writeLong(e.bytesHeap);
+            out.writeBoolean(e.incremental);
+            out.writeBoolean(e.descripcion != null);
+            if (e.descripcion != null) out.writeUTF(e.descripcion);
+        }
+    }
+
+    /**
+     * @return true si había un índice válido y se cargó con su archivo de datos
+     */
+    private boolean cargarIndice() {
+        Path indice = directorio.resolve(INDICE);
+        if (!Files.exists(indice)) return false;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(indice))) {
+            if (in.readInt() != MAGICO_INDICE || in.readInt() != VERSION_INDICE) {
+                throw new IOException("Formato de índice desconocido");
+            }
+            generacion = in.readInt();
+            long fin = in.readLong();
+            bytesDescartados = in.readLong();
+            secuencia = in.readLong();
+            boolean conHuella = in.readBoolean();
+            long huella = in.readLong();
+            huellaHeredada = conHuella ? huella : null;
+            leerPila(in, undo);
+            leerPila(in, redo);
+            datos = new ArchivoSnapshots(archivoDatos(generacion), fin);
+            return true;
+        } catch (IOException e) {
+            logger.warning("Historial ilegible en " + directorio + ", se empieza uno nuevo: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void leerPila(DataInputStream in, Deque<Entrada> pila) throws IOException {
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            long sec = in.readLong();
+            long posicion = in.readLong();
+            int longitud = in.readInt();
+            long bytesHeap = in.readLong();
+            boolean incremental = in.readBoolean();
+            String descripcion = in.readBoolean() ? in.readUTF() : null;
+            Entrada entrada = new Entrada(sec, posicion, longitud, bytesHeap, descripcion, incremental);
+            entrada.heredada = true;
+            pila.push(entrada);
+        }
+    }
+
+    private void borrarGeneracionesViejas() throws IOException {
+        Path actual = datos.getArchivo();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, PREFIJO_DATOS + "*.dat")) {
+            for (Path archivo : archivos) {
+                if (!archivo.equals(actual)) borrar(archivo);
+            }
+        }
+    }
+
+    private static void borrar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            // Windows no permite borrar un archivo aún mapeado; se reintenta al salir
+            archivo.toFile().deleteOnExit();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Historial: %d snapshots (%d en memoria, %d KB de %d KB), %d KB en disco",
+            getEntradas(), getEntradasEnMemoria(), bytesEnMemoria / 1024, presupuestoBytes / 1024,
+            datos.getTamano() / 1024);
+    }
+}
@@ -0,0 +1,49 @@
+package memento;
+
+import model.Cliente;
+import java.util.Objects;
+
+/**
+ * Estado inmutable de un {@link Cliente} dentro de un memento.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public final class ClienteInmutable implements Instantanea<Cliente> {
+
+    private final String id;
+    private final String nombre;
+    private final String apellido;
+    private final String cedula;
+    private final String telefono;
+
+    ClienteInmutable(String id, String nombre, String apellido, String cedula, String telefono) {
+        this.id = id;
+        this.nombre = nombre;
+        this.apellido = apellido;
+        this.cedula = cedula;
+        this.telefono = telefono;
+    }
+
+    static ClienteInmutable de(Cliente c) {
+        return new ClienteInmutable(c.getId(), c.getNombre(), c.getApellido(), c.getCedula(), c.getTelefono());
+    }
+
+    @Override public String getId() { return id; }
+    public String getNombre() { return nombre; }
+    public String getApellido() { return apellido; }
+    public String getCedula() { return cedula; }
+    public String getTelefono() { return telefono; }
+
+    @Override
+    public boolean coincideCon(Cliente c) {
+        return Objects.equals(id, c.getId()) && Objects.equals(nombre, c.getNombre())
+            && Objects.equals(apellido, c.getApellido()) && Objects.equals(cedula, c.getCedula())
+            && Objects.equals(telefono, c.getTelefono());
+    }
+
+    @Override
+    public Cliente materializar() {
+        return new Cliente(id, nombre, apellido, cedula, telefono);
+    }
+}
@@ -0,0 +1,262 @@
+package memento;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Formato binario compacto de un {@link ModeloMemento} para guardarlo en disco, y estimación
+ * del espacio que ocupa en el heap. Las cadenas se guardan en UTF-8 con su longitud, las fechas
+ * como milisegundos y los nulos con un marcador, sin nombres de campo.
+ * Los {@link RegistroCambios} se guardan como un documento BSON, el mismo formato de sus documentos.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public final class CodificadorMemento {
+
+    /** Versión del formato; cambiarla invalida los historiales guardados. */
+    static final int VERSION = 1;
+
+    // Estimaciones de heap (JVM de 64 bits con oops comprimidos)
+    private static final int BYTES_LISTA = 40;
+    private static final int BYTES_REFERENCIA = 4;
+    private static final int BYTES_CADENA = 40;
+    private static final int BYTES_FECHA = 24;
+    private static final int BYTES_CLIENTE = 40;
+    private static final int BYTES_HABITACION = 40;
+    private static final int BYTES_RESERVA = 96; // incluye las cinco fechas como long
+    private static final int FACTOR_HEAP_BSON = 4; // un Document ocupa varias veces su tamaño en BSON
+    private static final int CABECERA_MEMENTO = 9; // versión y timestamp
+
+    private CodificadorMemento() {
+    }
+
+    /**
+     * @param memento Memento a codificar
+     * @return Representación binaria
+     * @throws IllegalArgumentException si el memento es parcial
+     */
+    public static byte[] codificar(ModeloMemento memento) {
+        if (memento.isParcial()) {
+            throw new IllegalArgumentException("Solo se codifican mementos completos");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(memento.getTimestamp().getTime());
+            List<ClienteInmutable> clientes = memento.getEstadoClientes();
+            out.writeInt(clientes.size());
+            for (ClienteInmutable c : clientes) {
+                escribir(out, c.getId());
+                escribir(out, c.getNombre());
+                escribir(out, c.getApellido());
+                escribir(out, c.getCedula());
+                escribir(out, c.getTelefono());
+            }
+            List<HabitacionInmutable> habitaciones = memento.getEstadoHabitaciones();
+            out.writeInt(habitaciones.size());
+            for (HabitacionInmutable h : habitaciones) {
+                escribir(out, h.getId());
+                escribir(out, h.getNumero());
+                escribir(out, h.getTipo());
+                out.writeBoolean(h.isOcupada());
+                out.writeDouble(h.getPrecio());
+            }
+            List<ReservaInmutable> reservas = memento.getEstadoReservas();
+            out.writeInt(reservas.size());
+            for (ReservaInmutable r : reservas) {
+                escribir(out, r.getId());
+                escribir(out, r.getIdCliente());
+                escribir(out, r.getIdHabitacion());
+                escribir(out, r.getFechaIngreso());
+                escribir(out, r.getFechaSalida());
+                out.writeDouble(r.getTotal());
+                escribir(out, r.getObservaciones());
+                out.writeBoolean(r.isConfirmada());
+                escribir(out, r.getFechaReserva());
+                escribir(out, r.getFechaInicioPlanificada());
+                escribir(out, r.getFechaFinPlanificada());
+                out.writeInt(r.getNoches());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // no ocurre sobre un arreglo en memoria
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param entrada Buffer posicionado al inicio de un memento codificado
+     * @return Memento leído
+     * @throws IllegalArgumentException si el formato no corresponde a esta versión
+     */
+    public static ModeloMemento decodificar(ByteBuffer entrada) {
+        int version = entrada.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versión de memento no soportada: " + version);
+        }
+        long timestamp = entrada.getLong();
+        int n = entrada.getInt();
+        List<ClienteInmutable> clientes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            clientes.add(new ClienteInmutable(leerCadena(entrada), leerCadena(entrada), leerCadena(entrada),
+                leerCadena(entrada), leerCadena(entrada)));
+        }
+        n = entrada.getInt();
+        List<HabitacionInmutable> habitaciones = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            habitaciones.add(new HabitacionInmutable(leerCadena(entrada), leerCadena(entrada), leerCadena(entrada),
+                entrada.get() != 0, entrada.getDouble()));
+        }
+        n = entrada.getInt();
+        List<ReservaInmutable> reservas = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            reservas.add(new ReservaInmutable(leerCadena(entrada), leerCadena(entrada), leerCadena(entrada),
+                entrada.getLong(), entrada.getLong(), entrada.getDouble(), leerCadena(entrada),
+                entrada.get() != 0, entrada.getLong(), entrada.getLong(), entrada.getLong(), entrada.getInt()));
+        }
+        return new ModeloMemento(clientes, habitaciones, reservas, timestamp);
+    }
+
+    /**
+     * Huella del contenido de un memento, sin su timestamp: dos capturas del mismo estado
+     * (con las entidades en el mismo orden) tienen la misma huella.
+     *
+     * @param memento Memento completo
+     * @return CRC32 del memento codificado
+     */
+    public static long huella(ModeloMemento memento) {
+        byte[] bytes = codificar(memento);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, CABECERA_MEMENTO, bytes.length - CABECERA_MEMENTO);
+        return crc.getValue();
+    }
+
+    /**
+     * @param cambios Registro a codificar
+     * @return Documento BSON con la versión y los cambios en orden de registro
+     */
+    public static byte[] codificarCambios(RegistroCambios cambios) {
+        List<Document> lista = new ArrayList<>(cambios.size());
+        for (RegistroCambios.Cambio c : cambios.getCambios()) {
+            lista.add(new Document("c", c.getColeccion()).append("i", c.getId())
+                .append("a", c.getAntes()).append("d", c.getDespues()));
+        }
+        RawBsonDocument bson = new RawBsonDocument(new Document("v", VERSION).append("cambios", lista), new DocumentCodec());
+        byte[] bytes = new byte[bson.getByteBuffer().remaining()];
+        bson.getByteBuffer().asNIO().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * @param entrada Buffer posicionado al inicio de un registro codificado con {@link #codificarCambios}
+     * @return Registro leído
+     * @throws IllegalArgumentException si el formato no corresponde a esta versión
+     */
+    public static RegistroCambios decodificarCambios(ByteBuffer entrada) {
+        byte[] bytes = new byte[entrada.remaining()];
+        entrada.get(bytes);
+        Document doc = new RawBsonDocument(bytes).decode(new DocumentCodec());
+        if (!Integer.valueOf(VERSION).equals(doc.get("v"))) {
+            throw new IllegalArgumentException("Versión de registro de cambios no soportada: " + doc.get("v"));
+        }
+        RegistroCambios cambios = new RegistroCambios();
+        for (Document c : doc.getList("cambios", Document.class)) {
+            cambios.registrar(c.getString("c"), c.getString("i"), c.get("a", Document.class), c.get("d", Document.class));
+        }
+        return cambios;
+    }
+
+    /**
+     * Estima los bytes de heap que retiene un registro de cambios a partir de su tamaño codificado.
+     *
+     * @param bytesCodificados Longitud de {@link #codificarCambios}
+     * @return Bytes estimados
+     */
+    public static long estimarBytesHeapCambios(int bytesCodificados) {
+        return BYTES_LISTA + (long) FACTOR_HEAP_BSON * bytesCodificados;
+    }
+
+    /**
+     * Estima los bytes de heap que retiene el memento (objetos, cadenas y listas).
+     * Es una aproximación para repartir un presupuesto de memoria, no una medición exacta:
+     * cuenta como propias las entidades que el memento comparte con otros.
+     *
+     * @param memento Memento a medir
+     * @return Bytes estimados
+     */
+    public static long estimarBytesHeap(ModeloMemento memento) {
+        long total = BYTES_FECHA;
+        for (ModeloMemento.Coleccion coleccion : ModeloMemento.Coleccion.values()) {
+            total += estimarBytesHeap(memento, coleccion);
+        }
+        return total;
+    }
+
+    /**
+     * Estima los bytes de heap que retiene una colección del memento.
+     *
+     * @param memento Memento a medir
+     * @param coleccion Colección
+     * @return Bytes estimados (solo la lista vacía si el memento no guarda la colección)
+     */
+    public static long estimarBytesHeap(ModeloMemento memento, ModeloMemento.Coleccion coleccion) {
+        long total = BYTES_LISTA;
+        switch (coleccion) {
+            case CLIENTES:
+                for (ClienteInmutable c : memento.getEstadoClientes()) {
+                    total += BYTES_REFERENCIA + BYTES_CLIENTE + cadena(c.getId()) + cadena(c.getNombre())
+                        + cadena(c.getApellido()) + cadena(c.getCedula()) + cadena(c.getTelefono());
+                }
+                break;
+            case HABITACIONES:
+                for (HabitacionInmutable h : memento.getEstadoHabitaciones()) {
+                    total += BYTES_REFERENCIA + BYTES_HABITACION + cadena(h.getId()) + cadena(h.getNumero())
+                        + cadena(h.getTipo());
+                }
+                break;
+            default:
+                for (ReservaInmutable r : memento.getEstadoReservas()) {
+                    total += BYTES_REFERENCIA + BYTES_RESERVA + cadena(r.getId()) + cadena(r.getIdCliente())
+                        + cadena(r.getIdHabitacion()) + cadena(r.getObservaciones());
+                }
+        }
+        return total;
+    }
+
+    private static long cadena(String s) {
+        return s == null ? 0 : BYTES_CADENA + 2L * s.length();
+    }
+
+    private static void escribir(DataOutputStream out, String valor) throws IOException {
+        if (valor == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = valor.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static void escribir(DataOutputStream out, Date valor) throws IOException {
+        out.writeLong(ReservaInmutable.millis(valor));
+    }
+
+    private static String leerCadena(ByteBuffer entrada) {
+        int longitud = entrada.getInt();
+        if (longitud < 0) return null;
+        byte[] utf8 = new byte[longitud];
+        entrada.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
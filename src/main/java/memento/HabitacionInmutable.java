@@ -0,0 +1,49 @@
+package memento;
+
+import model.Habitacion;
+import java.util.Objects;
+
+/**
+ * Estado inmutable de una {@link Habitacion} dentro de un memento.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public final class HabitacionInmutable implements Instantanea<Habitacion> {
+
+    private final String id;
+    private final String numero;
+    private final String tipo;
+    private final boolean ocupada;
+    private final double precio;
+
+    HabitacionInmutable(String id, String numero, String tipo, boolean ocupada, double precio) {
+        this.id = id;
+        this.numero = numero;
+        this.tipo = tipo;
+        this.ocupada = ocupada;
+        this.precio = precio;
+    }
+
+    static HabitacionInmutable de(Habitacion h) {
+        return new HabitacionInmutable(h.getId(), h.getNumero(), h.getTipo(), h.isOcupada(), h.getPrecio());
+    }
+
+    @Override public String getId() { return id; }
+    public String getNumero() { return numero; }
+    public String getTipo() { return tipo; }
+    public boolean isOcupada() { return ocupada; }
+    public double getPrecio() { return precio; }
+
+    @Override
+    public boolean coincideCon(Habitacion h) {
+        return ocupada == h.isOcupada() && Double.compare(precio, h.getPrecio()) == 0
+            && Objects.equals(id, h.getId()) && Objects.equals(numero, h.getNumero())
+            && Objects.equals(tipo, h.getTipo());
+    }
+
+    @Override
+    public Habitacion materializar() {
+        return new Habitacion(id, numero, tipo, ocupada, precio);
+    }
+}
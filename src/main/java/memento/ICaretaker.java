@@ -1,5 +1,7 @@
 package memento;
 
+import java.util.List;
+
 /**
  * Interfaz para el Caretaker del patrón Memento.
  * Define las operaciones para guardar y restaurar estados del modelo.
@@ -16,6 +18,24 @@ public interface ICaretaker {
      */
     ModeloMemento saveState();
     
+    /**
+     * Guarda un estado ya capturado (por ejemplo antes de ejecutar un comando que terminó bien).
+     * Vacía la pila de redo.
+     * 
+     * @param memento Estado a guardar
+     * @param descripcion Operación que parte de ese estado (se conserva con el historial)
+     */
+    void saveState(ModeloMemento memento, String descripcion);
+    
+    /**
+     * Guarda el registro de cambios de un comando que terminó bien (memento incremental).
+     * Vacía la pila de redo.
+     * 
+     * @param cambios Documentos que modificó el comando
+     * @param descripcion Operación que produjo los cambios
+     */
+    void saveChanges(RegistroCambios cambios, String descripcion);
+    
     /**
      * Restaura un estado previo del modelo.
      * 
@@ -50,4 +70,42 @@ public interface ICaretaker {
      * @return Memento del estado a restaurar
      */
     ModeloMemento redo();
+    
+    /**
+     * Obtiene el último registro de cambios guardado para deshacer y lo deja para rehacer.
+     * 
+     * @return Registro a aplicar en sentido deshacer
+     */
+    RegistroCambios undoChanges();
+    
+    /**
+     * Obtiene el último registro de cambios deshecho para rehacer y lo deja para deshacer.
+     * 
+     * @return Registro a aplicar en sentido rehacer
+     */
+    RegistroCambios redoChanges();
+
+    /**
+     * Descarta el estado más antiguo de la pila de undo (historial recortado).
+     */
+    void discardOldest();
+    
+    /**
+     * Descarta todos los estados guardados.
+     */
+    void clear();
+    
+    /**
+     * Obtiene las descripciones de los estados para deshacer, del más antiguo al más reciente.
+     * 
+     * @return Descripciones (null si el estado se guardó sin descripción)
+     */
+    List<String> getUndoDescriptions();
+    
+    /**
+     * Obtiene las descripciones de los estados para rehacer, del más antiguo al más reciente.
+     * 
+     * @return Descripciones
+     */
+    List<String> getRedoDescriptions();
 }
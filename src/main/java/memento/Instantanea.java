@@ -0,0 +1,23 @@
+package memento;
+
+/**
+ * Copia inmutable de una entidad del modelo guardada en un memento.
+ * Como no cambia nunca, la misma instancia puede compartirse entre mementos consecutivos
+ * mientras la entidad de origen siga teniendo los mismos valores.
+ *
+ * @param <E> Tipo de la entidad de origen
+ */
+interface Instantanea<E> {
+
+    /** @return Identificador de la entidad */
+    String getId();
+
+    /**
+     * @param origen Entidad actual
+     * @return true si la entidad tiene exactamente los valores de esta copia
+     */
+    boolean coincideCon(E origen);
+
+    /** @return Entidad mutable nueva con los valores de esta copia */
+    E materializar();
+}
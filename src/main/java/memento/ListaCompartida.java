@@ -0,0 +1,131 @@
+package memento;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * Lista inmutable persistente para los mementos: los elementos se agrupan en bloques de 32,
+ * y al derivar una lista nueva de la anterior se reutilizan tanto las copias de las entidades
+ * que no cambiaron como los bloques enteros que quedaron iguales. Dos mementos consecutivos
+ * de un hotel donde solo cambió una reserva comparten así casi toda su memoria.
+ *
+ * @param <T> Tipo de los elementos (inmutables)
+ */
+final class ListaCompartida<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int TAMANO_BLOQUE = 1 << BITS;
+    private static final int MASCARA = TAMANO_BLOQUE - 1;
+    private static final ListaCompartida<?> VACIA = new ListaCompartida<>(new Object[0][], 0);
+
+    private final Object[][] bloques;
+    private final int tamano;
+
+    private ListaCompartida(Object[][] bloques, int tamano) {
+        this.bloques = bloques;
+        this.tamano = tamano;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ListaCompartida<T> vacia() {
+        return (ListaCompartida<T>) VACIA;
+    }
+
+    /**
+     * Envuelve elementos ya inmutables, sin compartir con ninguna lista previa.
+     */
+    static <T> ListaCompartida<T> de(List<? extends T> elementos) {
+        return construir(elementos.size(), elementos.iterator(), null, Function.identity());
+    }
+
+    /**
+     * Construye la lista de copias de las entidades actuales reutilizando lo que no cambió.
+     * Primero se compara con el elemento en la misma posición de la lista anterior (el caso normal,
+     * porque las consultas devuelven las entidades en orden estable) y, si no coincide, se busca
+     * por id para tolerar inserciones y borrados intermedios.
+     *
+     * @param anterior Lista del memento previo (null si no hay)
+     * @param origen Entidades actuales
+     * @param idOrigen Id de una entidad actual
+     * @param crear Copia inmutable de una entidad nueva o modificada
+     * @return Lista derivada; la propia lista anterior si nada cambió
+     */
+    static <E, T extends Instantanea<E>> ListaCompartida<T> derivar(ListaCompartida<T> anterior,
+            List<? extends E> origen, Function<? super E, String> idOrigen, Function<? super E, ? extends T> crear) {
+        if (anterior == null) {
+            return construir(origen.size(), origen.iterator(), null, crear);
+        }
+        return construir(origen.size(), origen.iterator(), anterior, new Function<E, T>() {
+            private int posicion;
+            private Map<String, T> porId;
+
+            @Override
+            public T apply(E entidad) {
+                int i = posicion++;
+                if (i < anterior.tamano) {
+                    T candidata = anterior.get(i);
+                    if (candidata.coincideCon(entidad)) return candidata;
+                }
+                if (porId == null) porId = anterior.indexarPorId();
+                T candidata = porId.get(idOrigen.apply(entidad));
+                return candidata != null && candidata.coincideCon(entidad) ? candidata : crear.apply(entidad);
+            }
+        });
+    }
+
+    private static <E, T> ListaCompartida<T> construir(int n, Iterator<? extends E> origen,
+            ListaCompartida<T> anterior, Function<? super E, ? extends T> copia) {
+        if (n == 0) return vacia();
+        Object[][] bloques = new Object[(n + MASCARA) >>> BITS][];
+        boolean todoCompartido = anterior != null && anterior.tamano == n;
+        for (int b = 0; b < bloques.length; b++) {
+            Object[] bloque = new Object[Math.min(TAMANO_BLOQUE, n - (b << BITS))];
+            Object[] previo = anterior != null && b < anterior.bloques.length ? anterior.bloques[b] : null;
+            boolean igual = previo != null && previo.length == bloque.length;
+            for (int k = 0; k < bloque.length; k++) {
+                bloque[k] = copia.apply(origen.next());
+                igual = igual && previo[k] == bloque[k];
+            }
+            bloques[b] = igual ? previo : bloque;
+            todoCompartido &= igual;
+        }
+        return todoCompartido ? anterior : new ListaCompartida<>(bloques, n);
+    }
+
+    private Map<String, T> indexarPorId() {
+        Map<String, T> indice = new HashMap<>(tamano * 2);
+        for (T elemento : this) indice.put(((Instantanea<?>) elemento).getId(), elemento);
+        return indice;
+    }
+
+    /**
+     * @param otra Otra lista
+     * @return Bloques de esta lista que son la misma instancia que en la otra
+     */
+    int bloquesCompartidosCon(ListaCompartida<?> otra) {
+        int compartidos = 0;
+        for (int b = 0; b < Math.min(bloques.length, otra.bloques.length); b++) {
+            if (bloques[b] == otra.bloques[b]) compartidos++;
+        }
+        return compartidos;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int indice) {
+        if (indice < 0 || indice >= tamano) {
+            throw new IndexOutOfBoundsException("Índice: " + indice + ", tamaño: " + tamano);
+        }
+        return (T) bloques[indice >>> BITS][indice & MASCARA];
+    }
+
+    @Override
+    public int size() {
+        return tamano;
+    }
+}
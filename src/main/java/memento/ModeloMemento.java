@@ -5,21 +5,41 @@ import model.Habitacion;
 import model.Reserva;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Memento que guarda el estado completo del modelo del hotel.
  * Implementa el patrón Memento para permitir restaurar estados anteriores.
+ * El estado se guarda como copias inmutables en listas persistentes: un memento derivado del
+ * anterior ({@link #derivar}) comparte todas las entidades que no cambiaron, y las vistas
+ * {@link #getEstadoClientes()}, {@link #getEstadoHabitaciones()} y {@link #getEstadoReservas()}
+ * se leen sin copiar nada.
+ * Un memento parcial ({@link #parcial}) guarda solo algunas colecciones, o algunos documentos
+ * de una colección; se restaura combinándolo con el estado actual ({@link #completarCon}).
  * 
  * @author asdw
- * @version 1.0
+ * @version 2.0
  */
 public class ModeloMemento {
+
+    /**
+     * Colecciones del modelo que puede contener un memento.
+     */
+    public enum Coleccion { CLIENTES, HABITACIONES, RESERVAS }
     
-    private final List<Cliente> clientes;
-    private final List<Habitacion> habitaciones;
-    private final List<Reserva> reservas;
-    private final Date timestamp;
+    private final ListaCompartida<ClienteInmutable> clientes;
+    private final ListaCompartida<HabitacionInmutable> habitaciones;
+    private final ListaCompartida<ReservaInmutable> reservas;
+    private final long timestamp;
+    // null = memento completo; si no, colección capturada -> ids capturados (null = toda la colección)
+    private final Map<Coleccion, Set<String>> alcance;
 
     /**
      * Constructor que crea un snapshot del estado actual.
@@ -29,74 +49,221 @@ public class ModeloMemento {
      * @param reservas Lista actual de reservas
      */
     public ModeloMemento(List<Cliente> clientes, List<Habitacion> habitaciones, List<Reserva> reservas) {
-        // Crear copias profundas para evitar modificaciones externas
-        this.clientes = new ArrayList<>();
-        for (Cliente cliente : clientes) {
-            this.clientes.add(new Cliente(cliente.getId(), cliente.getNombre(), 
-                                        cliente.getApellido(), cliente.getCedula(), cliente.getTelefono()));
+        this(null, clientes, habitaciones, reservas);
+    }
+
+    private ModeloMemento(ModeloMemento anterior, List<Cliente> clientes, List<Habitacion> habitaciones,
+                          List<Reserva> reservas) {
+        this(ListaCompartida.derivar(anterior != null ? anterior.clientes : null,
+                clientes, Cliente::getId, ClienteInmutable::de),
+            ListaCompartida.derivar(anterior != null ? anterior.habitaciones : null,
+                habitaciones, Habitacion::getId, HabitacionInmutable::de),
+            ListaCompartida.derivar(anterior != null ? anterior.reservas : null,
+                reservas, Reserva::getId, ReservaInmutable::de),
+            System.currentTimeMillis(), null);
+    }
+
+    /**
+     * Constructor sobre copias ya inmutables que conserva la fecha original (mementos leídos de disco).
+     */
+    ModeloMemento(List<ClienteInmutable> clientes, List<HabitacionInmutable> habitaciones,
+                  List<ReservaInmutable> reservas, long timestamp) {
+        this(ListaCompartida.de(clientes), ListaCompartida.de(habitaciones), ListaCompartida.de(reservas),
+            timestamp, null);
+    }
+
+    private ModeloMemento(ListaCompartida<ClienteInmutable> clientes, ListaCompartida<HabitacionInmutable> habitaciones,
+                          ListaCompartida<ReservaInmutable> reservas, long timestamp, Map<Coleccion, Set<String>> alcance) {
+        this.clientes = clientes;
+        this.habitaciones = habitaciones;
+        this.reservas = reservas;
+        this.timestamp = timestamp;
+        this.alcance = alcance;
+    }
+
+    /**
+     * Crea un snapshot del estado actual compartiendo con el memento anterior las entidades
+     * que no cambiaron desde entonces. Solo se copian las entidades nuevas o modificadas.
+     * 
+     * @param anterior Memento previo del mismo modelo (null equivale al constructor público)
+     * @param clientes Lista actual de clientes
+     * @param habitaciones Lista actual de habitaciones
+     * @param reservas Lista actual de reservas
+     * @return Memento nuevo
+     */
+    public static ModeloMemento derivar(ModeloMemento anterior, List<Cliente> clientes,
+                                        List<Habitacion> habitaciones, List<Reserva> reservas) {
+        return new ModeloMemento(anterior, clientes, habitaciones, reservas);
+    }
+
+    /**
+     * Crea un memento con solo parte del estado: las colecciones del alcance y, dentro de cada una,
+     * todos los documentos o solo los ids indicados. Los documentos de un id del alcance que no
+     * existan ahora se consideran ausentes, así que restaurar el memento los elimina.
+     * 
+     * @param alcance Colección -> ids a capturar (null = toda la colección)
+     * @param clientes Clientes actuales (puede ser null si el alcance no incluye clientes)
+     * @param habitaciones Habitaciones actuales (puede ser null si el alcance no las incluye)
+     * @param reservas Reservas actuales (puede ser null si el alcance no las incluye)
+     * @return Memento parcial
+     * @throws IllegalArgumentException si falta la lista de una colección del alcance
+     */
+    public static ModeloMemento parcial(Map<Coleccion, Set<String>> alcance, List<Cliente> clientes,
+                                        List<Habitacion> habitaciones, List<Reserva> reservas) {
+        Map<Coleccion, Set<String>> copia = new EnumMap<>(Coleccion.class);
+        for (Map.Entry<Coleccion, Set<String>> e : alcance.entrySet()) {
+            copia.put(e.getKey(), e.getValue() != null ? Collections.unmodifiableSet(new HashSet<>(e.getValue())) : null);
+        }
+        return new ModeloMemento(
+            capturar(copia, Coleccion.CLIENTES, clientes, Cliente::getId, ClienteInmutable::de),
+            capturar(copia, Coleccion.HABITACIONES, habitaciones, Habitacion::getId, HabitacionInmutable::de),
+            capturar(copia, Coleccion.RESERVAS, reservas, Reserva::getId, ReservaInmutable::de),
+            System.currentTimeMillis(), Collections.unmodifiableMap(copia));
+    }
+
+    private static <E, T extends Instantanea<E>> ListaCompartida<T> capturar(Map<Coleccion, Set<String>> alcance,
+            Coleccion coleccion, List<E> origen, Function<E, String> id, Function<E, T> crear) {
+        if (!alcance.containsKey(coleccion)) {
+            return ListaCompartida.vacia();
+        }
+        if (origen == null) {
+            throw new IllegalArgumentException("Falta la colección " + coleccion + " del alcance");
+        }
+        Set<String> ids = alcance.get(coleccion);
+        List<E> elegidos = origen;
+        if (ids != null) {
+            elegidos = new ArrayList<>(ids.size());
+            for (E entidad : origen) {
+                if (ids.contains(id.apply(entidad))) elegidos.add(entidad);
+            }
+        }
+        return ListaCompartida.derivar(null, elegidos, id, crear);
+    }
+
+    /**
+     * @return true si el memento guarda solo parte del estado
+     */
+    public boolean isParcial() {
+        return alcance != null;
+    }
+
+    /**
+     * @param coleccion Colección del modelo
+     * @return true si el memento guarda esa colección (entera o algunos documentos)
+     */
+    public boolean contiene(Coleccion coleccion) {
+        return alcance == null || alcance.containsKey(coleccion);
+    }
+
+    /**
+     * @param coleccion Colección del modelo
+     * @return Ids capturados de la colección, o null si se guardó entera (o no se guardó)
+     */
+    public Set<String> getIdsCapturados(Coleccion coleccion) {
+        return alcance != null ? alcance.get(coleccion) : null;
+    }
+
+    /**
+     * Combina este memento parcial con el estado actual: las colecciones no capturadas y los
+     * documentos fuera del alcance se toman del actual, y el resto de este memento. Las listas
+     * se comparten, no se copian.
+     * 
+     * @param actual Memento completo del estado actual
+     * @return Memento completo listo para restaurar (este mismo si ya era completo)
+     * @throws IllegalArgumentException si el actual también es parcial
+     */
+    public ModeloMemento completarCon(ModeloMemento actual) {
+        if (alcance == null) {
+            return this;
         }
-        
-        this.habitaciones = new ArrayList<>();
-        for (Habitacion hab : habitaciones) {
-            this.habitaciones.add(new Habitacion(hab.getId(), hab.getNumero(), 
-                                               hab.getTipo(), hab.isOcupada(), hab.getPrecio()));
+        if (actual.isParcial()) {
+            throw new IllegalArgumentException("El estado actual debe ser un memento completo");
         }
-        
-        this.reservas = new ArrayList<>();
-        for (Reserva reserva : reservas) {
-            Date fechaIngreso = reserva.getFechaIngreso() != null ? new Date(reserva.getFechaIngreso().getTime()) : null;
-            Date fechaSalida = reserva.getFechaSalida() != null ? new Date(reserva.getFechaSalida().getTime()) : null;
-            this.reservas.add(new Reserva(reserva.getId(), reserva.getIdCliente(), reserva.getIdHabitacion(),
-                                        fechaIngreso, fechaSalida, reserva.getTotal(), 
-                                        reserva.getObservaciones(), reserva.isConfirmada()));
+        return new ModeloMemento(combinar(Coleccion.CLIENTES, clientes, actual.clientes),
+            combinar(Coleccion.HABITACIONES, habitaciones, actual.habitaciones),
+            combinar(Coleccion.RESERVAS, reservas, actual.reservas), timestamp, null);
+    }
+
+    private <T extends Instantanea<?>> ListaCompartida<T> combinar(Coleccion coleccion, ListaCompartida<T> propia,
+                                                                    ListaCompartida<T> actual) {
+        if (!alcance.containsKey(coleccion)) return actual;
+        Set<String> ids = alcance.get(coleccion);
+        if (ids == null) return propia;
+        Map<String, T> guardadas = new LinkedHashMap<>();
+        for (T copia : propia) guardadas.put(copia.getId(), copia);
+        List<T> resultado = new ArrayList<>(actual.size() + guardadas.size());
+        for (T copia : actual) {
+            if (!ids.contains(copia.getId())) {
+                resultado.add(copia);
+            } else {
+                T guardada = guardadas.remove(copia.getId());
+                if (guardada != null) resultado.add(guardada); // ausente en el memento = no existía
+            }
         }
-        
-        this.timestamp = new Date();
+        resultado.addAll(guardadas.values());
+        return ListaCompartida.de(resultado);
+    }
+
+    /**
+     * Vista inmutable de los clientes del memento, sin copia.
+     * 
+     * @return Lista no modificable compartida con el memento
+     */
+    public List<ClienteInmutable> getEstadoClientes() {
+        return clientes;
+    }
+
+    /**
+     * Vista inmutable de las habitaciones del memento, sin copia.
+     * 
+     * @return Lista no modificable compartida con el memento
+     */
+    public List<HabitacionInmutable> getEstadoHabitaciones() {
+        return habitaciones;
+    }
+
+    /**
+     * Vista inmutable de las reservas del memento, sin copia.
+     * 
+     * @return Lista no modificable compartida con el memento
+     */
+    public List<ReservaInmutable> getEstadoReservas() {
+        return reservas;
     }
 
     /**
      * Obtiene la lista de clientes del memento.
      * 
-     * @return Copia de la lista de clientes
+     * @return Clientes nuevos (mutables) con los valores guardados
      */
     public List<Cliente> getClientes() {
-        List<Cliente> copy = new ArrayList<>();
-        for (Cliente cliente : clientes) {
-            copy.add(new Cliente(cliente.getId(), cliente.getNombre(), 
-                               cliente.getApellido(), cliente.getCedula(), cliente.getTelefono()));
-        }
-        return copy;
+        return materializar(clientes);
     }
 
     /**
      * Obtiene la lista de habitaciones del memento.
      * 
-     * @return Copia de la lista de habitaciones
+     * @return Habitaciones nuevas (mutables) con los valores guardados
      */
     public List<Habitacion> getHabitaciones() {
-        List<Habitacion> copy = new ArrayList<>();
-        for (Habitacion hab : habitaciones) {
-            copy.add(new Habitacion(hab.getId(), hab.getNumero(), 
-                                  hab.getTipo(), hab.isOcupada(), hab.getPrecio()));
-        }
-        return copy;
+        return materializar(habitaciones);
     }
 
     /**
-     * Obtiene la lista de reservas del memento.
+     * Obtiene la lista de reservas del memento, incluidos los campos de planificación.
      * 
-     * @return Copia de la lista de reservas
+     * @return Reservas nuevas (mutables) con los valores guardados
      */
     public List<Reserva> getReservas() {
-        List<Reserva> copy = new ArrayList<>();
-        for (Reserva reserva : reservas) {
-            Date fechaIngreso = reserva.getFechaIngreso() != null ? new Date(reserva.getFechaIngreso().getTime()) : null;
-            Date fechaSalida = reserva.getFechaSalida() != null ? new Date(reserva.getFechaSalida().getTime()) : null;
-            copy.add(new Reserva(reserva.getId(), reserva.getIdCliente(), reserva.getIdHabitacion(),
-                               fechaIngreso, fechaSalida, reserva.getTotal(), 
-                               reserva.getObservaciones(), reserva.isConfirmada()));
+        return materializar(reservas);
+    }
+
+    private static <E> List<E> materializar(List<? extends Instantanea<E>> copias) {
+        List<E> lista = new ArrayList<>(copias.size());
+        for (Instantanea<E> copia : copias) {
+            lista.add(copia.materializar());
         }
-        return copy;
+        return lista;
     }
 
     /**
@@ -105,7 +272,7 @@ public class ModeloMemento {
      * @return Fecha y hora de creación
      */
     public Date getTimestamp() {
-        return new Date(timestamp.getTime());
+        return new Date(timestamp);
     }
 
     /**
@@ -114,8 +281,8 @@ public class ModeloMemento {
      * @return Descripción con estadísticas del estado guardado
      */
     public String getDescription() {
-        return String.format("Estado guardado: %d clientes, %d habitaciones, %d reservas - %s",
-                           clientes.size(), habitaciones.size(), reservas.size(), timestamp.toString());
+        return String.format((alcance != null ? "Estado parcial guardado" : "Estado guardado") + ": %d clientes, %d habitaciones, %d reservas - %s",
+                           clientes.size(), habitaciones.size(), reservas.size(), new Date(timestamp).toString());
     }
 
     /**
@@ -0,0 +1,124 @@
+package memento;
+
+import org.bson.Document;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Memento incremental: registra solo los documentos que un comando insertó, actualizó o eliminó,
+ * con su estado antes y después del cambio. Deshacer reaplica los estados "antes" y rehacer los "después",
+ * de modo que el costo de cada entrada del historial es proporcional al cambio y no al tamaño de la base.
+ *
+ * Varios cambios sobre el mismo documento se fusionan conservando el primer "antes" y el último "después".
+ */
+public class RegistroCambios {
+
+    /**
+     * Cambio sobre un documento. antes == null indica inserción; despues == null indica eliminación.
+     */
+    public static final class Cambio {
+        private final String coleccion;
+        private final String id;
+        private final Document antes;
+        private Document despues;
+
+        Cambio(String coleccion, String id, Document antes, Document despues) {
+            this.coleccion = coleccion;
+            this.id = id;
+            this.antes = antes;
+            this.despues = despues;
+        }
+
+        public String getColeccion() { return coleccion; }
+        public String getId() { return id; }
+        public Document getAntes() { return antes; }
+        public Document getDespues() { return despues; }
+
+        /**
+         * Estado a aplicar según el sentido de la operación.
+         *
+         * @param deshacer true para undo (estado anterior), false para redo (estado posterior)
+         * @return Documento a persistir o null si debe eliminarse
+         */
+        public Document estadoObjetivo(boolean deshacer) {
+            return deshacer ? antes : despues;
+        }
+    }
+
+    private final Map<String, Cambio> cambios = new LinkedHashMap<>();
+
+    /**
+     * Registra un cambio sobre un documento.
+     *
+     * @param coleccion Colección afectada
+     * @param id _id del documento
+     * @param antes Estado previo (null si no existía)
+     * @param despues Estado posterior (null si fue eliminado)
+     */
+    public void registrar(String coleccion, String id, Document antes, Document despues) {
+        String clave = coleccion + "/" + id;
+        Cambio previo = cambios.get(clave);
+        if (previo != null) {
+            previo.despues = despues;
+            if (previo.antes == null && despues == null) {
+                cambios.remove(clave); // insertado y eliminado dentro del mismo comando
+            }
+        } else {
+            cambios.put(clave, new Cambio(coleccion, id, antes, despues));
+        }
+    }
+
+    /**
+     * Obtiene los cambios en el orden en que se registraron.
+     *
+     * @return Lista inmutable de cambios
+     */
+    public List<Cambio> getCambios() {
+        return Collections.unmodifiableList(new ArrayList<>(cambios.values()));
+    }
+
+    /**
+     * Obtiene los cambios en el orden en que deben aplicarse (inverso para deshacer).
+     *
+     * @param deshacer true para undo
+     * @return Lista de cambios ordenada
+     */
+    public List<Cambio> getCambiosParaAplicar(boolean deshacer) {
+        List<Cambio> lista = new ArrayList<>(cambios.values());
+        if (deshacer) {
+            Collections.reverse(lista);
+        }
+        return lista;
+    }
+
+    /**
+     * Obtiene las colecciones tocadas.
+     *
+     * @return Conjunto de nombres de colección
+     */
+    public Set<String> getColecciones() {
+        Set<String> colecciones = new LinkedHashSet<>();
+        for (Cambio c : cambios.values()) {
+            colecciones.add(c.getColeccion());
+        }
+        return colecciones;
+    }
+
+    public int size() {
+        return cambios.size();
+    }
+
+    public boolean isEmpty() {
+        return cambios.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "RegistroCambios{" + cambios.size() + " documentos en " + getColecciones() + "}";
+    }
+}
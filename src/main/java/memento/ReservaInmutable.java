@@ -0,0 +1,95 @@
+package memento;
+
+import model.Reserva;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * Estado inmutable de una {@link Reserva} dentro de un memento.
+ * Las fechas se guardan como milisegundos; los getters devuelven un {@link Date} nuevo
+ * para que nadie pueda alterar la copia.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public final class ReservaInmutable implements Instantanea<Reserva> {
+
+    static final long FECHA_NULA = Long.MIN_VALUE;
+
+    private final String id;
+    private final String idCliente;
+    private final String idHabitacion;
+    private final long fechaIngreso;
+    private final long fechaSalida;
+    private final double total;
+    private final String observaciones;
+    private final boolean confirmada;
+    private final long fechaReserva;
+    private final long fechaInicioPlanificada;
+    private final long fechaFinPlanificada;
+    private final int noches;
+
+    ReservaInmutable(String id, String idCliente, String idHabitacion, long fechaIngreso, long fechaSalida,
+                     double total, String observaciones, boolean confirmada, long fechaReserva,
+                     long fechaInicioPlanificada, long fechaFinPlanificada, int noches) {
+        this.id = id;
+        this.idCliente = idCliente;
+        this.idHabitacion = idHabitacion;
+        this.fechaIngreso = fechaIngreso;
+        this.fechaSalida = fechaSalida;
+        this.total = total;
+        this.observaciones = observaciones;
+        this.confirmada = confirmada;
+        this.fechaReserva = fechaReserva;
+        this.fechaInicioPlanificada = fechaInicioPlanificada;
+        this.fechaFinPlanificada = fechaFinPlanificada;
+        this.noches = noches;
+    }
+
+    static ReservaInmutable de(Reserva r) {
+        return new ReservaInmutable(r.getId(), r.getIdCliente(), r.getIdHabitacion(),
+            millis(r.getFechaIngreso()), millis(r.getFechaSalida()), r.getTotal(), r.getObservaciones(),
+            r.isConfirmada(), millis(r.getFechaReserva()), millis(r.getFechaInicioPlanificada()),
+            millis(r.getFechaFinPlanificada()), r.getNoches());
+    }
+
+    static long millis(Date fecha) {
+        return fecha != null ? fecha.getTime() : FECHA_NULA;
+    }
+
+    static Date fecha(long millis) {
+        return millis != FECHA_NULA ? new Date(millis) : null;
+    }
+
+    @Override public String getId() { return id; }
+    public String getIdCliente() { return idCliente; }
+    public String getIdHabitacion() { return idHabitacion; }
+    public Date getFechaIngreso() { return fecha(fechaIngreso); }
+    public Date getFechaSalida() { return fecha(fechaSalida); }
+    public double getTotal() { return total; }
+    public String getObservaciones() { return observaciones; }
+    public boolean isConfirmada() { return confirmada; }
+    public Date getFechaReserva() { return fecha(fechaReserva); }
+    public Date getFechaInicioPlanificada() { return fecha(fechaInicioPlanificada); }
+    public Date getFechaFinPlanificada() { return fecha(fechaFinPlanificada); }
+    public int getNoches() { return noches; }
+
+    @Override
+    public boolean coincideCon(Reserva r) {
+        return fechaIngreso == millis(r.getFechaIngreso()) && fechaSalida == millis(r.getFechaSalida())
+            && Double.compare(total, r.getTotal()) == 0 && confirmada == r.isConfirmada()
+            && fechaReserva == millis(r.getFechaReserva())
+            && fechaInicioPlanificada == millis(r.getFechaInicioPlanificada())
+            && fechaFinPlanificada == millis(r.getFechaFinPlanificada()) && noches == r.getNoches()
+            && Objects.equals(id, r.getId()) && Objects.equals(idCliente, r.getIdCliente())
+            && Objects.equals(idHabitacion, r.getIdHabitacion())
+            && Objects.equals(observaciones, r.getObservaciones());
+    }
+
+    @Override
+    public Reserva materializar() {
+        return new Reserva(id, idCliente, idHabitacion, fecha(fechaIngreso), fecha(fechaSalida), total,
+            observaciones, confirmada, fecha(fechaReserva), fecha(fechaInicioPlanificada),
+            fecha(fechaFinPlanificada), noches);
+    }
+}
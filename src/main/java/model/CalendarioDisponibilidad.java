@@ -0,0 +1,222 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calendario de ocupación por rango de fechas.
+ * Mantiene, por habitación, un conjunto ordenado por fecha de inicio de las estancias
+ * planificadas o en curso (reservas sin fecha de salida). Cada estancia es un intervalo
+ * semiabierto [inicio, fin).
+ *
+ * Como toda estancia dura como mucho {@code duracionMaxima} (la mayor registrada en esa
+ * habitación), las únicas que pueden solaparse con [desde, hasta) son las que empiezan en
+ * (desde - duracionMaxima, hasta): la consulta es una búsqueda O(log n) en el conjunto más
+ * las pocas estancias de esa ventana.
+ */
+public class CalendarioDisponibilidad {
+
+    /**
+     * Estancia de una reserva en una habitación.
+     */
+    public static final class Estancia implements Comparable<Estancia> {
+        private final String idReserva;
+        private final String idHabitacion;
+        private final long inicio;
+        private final long fin;
+
+        Estancia(String idReserva, String idHabitacion, long inicio, long fin) {
+            this.idReserva = idReserva;
+            this.idHabitacion = idHabitacion;
+            this.inicio = inicio;
+            this.fin = fin;
+        }
+
+        public String getIdReserva() { return idReserva; }
+        public String getIdHabitacion() { return idHabitacion; }
+        public Date getInicio() { return new Date(inicio); }
+        public Date getFin() { return new Date(fin); }
+
+        boolean solapa(long desde, long hasta) {
+            return inicio < hasta && fin > desde;
+        }
+
+        @Override
+        public int compareTo(Estancia o) {
+            int c = Long.compare(inicio, o.inicio);
+            return c != 0 ? c : idReserva.compareTo(o.idReserva);
+        }
+
+        @Override
+        public String toString() {
+            return idReserva + "@" + idHabitacion + "[" + getInicio() + ", " + getFin() + ")";
+        }
+    }
+
+    /** Estancias de una habitación y la mayor duración registrada en ella. */
+    private static final class Agenda {
+        final TreeSet<Estancia> estancias = new TreeSet<>();
+        long duracionMaxima;
+    }
+
+    private final Map<String, Agenda> agendas = new HashMap<>();
+    private final Map<String, Estancia> porReserva = new HashMap<>();
+
+    /**
+     * Reemplaza el contenido del calendario con las reservas indicadas.
+     *
+     * @param reservas Reservas del sistema (las finalizadas se ignoran)
+     */
+    public synchronized void cargar(Collection<Reserva> reservas) {
+        agendas.clear();
+        porReserva.clear();
+        for (Reserva r : reservas) {
+            registrar(r);
+        }
+    }
+
+    /**
+     * Agrega o actualiza la estancia de una reserva. Una reserva finalizada o sin fechas
+     * se quita del calendario.
+     *
+     * @param reserva Reserva con su estado actual
+     */
+    public synchronized void registrar(Reserva reserva) {
+        if (reserva == null || reserva.getId() == null) {
+            return;
+        }
+        eliminar(reserva.getId());
+        Estancia e = estanciaDe(reserva);
+        if (e == null) {
+            return;
+        }
+        Agenda agenda = agendas.computeIfAbsent(e.idHabitacion, k -> new Agenda());
+        agenda.estancias.add(e);
+        agenda.duracionMaxima = Math.max(agenda.duracionMaxima, e.fin - e.inicio);
+        porReserva.put(e.idReserva, e);
+    }
+
+    /**
+     * Quita la estancia de una reserva (finalizada, anulada o eliminada).
+     *
+     * @param idReserva ID de la reserva
+     */
+    public synchronized void eliminar(String idReserva) {
+        Estancia e = porReserva.remove(idReserva);
+        if (e == null) {
+            return;
+        }
+        Agenda agenda = agendas.get(e.idHabitacion);
+        agenda.estancias.remove(e);
+        if (agenda.estancias.isEmpty()) {
+            agendas.remove(e.idHabitacion);
+        }
+        // duracionMaxima se conserva: es una cota superior válida aunque ya no sea exacta
+    }
+
+    /**
+     * Indica si la habitación tiene alguna estancia que se solape con [desde, hasta).
+     *
+     * @param idHabitacion ID de la habitación
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusivo)
+     * @return true si hay solapamiento
+     */
+    public synchronized boolean haySolapamiento(String idHabitacion, Date desde, Date hasta) {
+        return !solapadas(idHabitacion, desde, hasta, true).isEmpty();
+    }
+
+    /**
+     * Devuelve las estancias de la habitación que se solapan con [desde, hasta).
+     *
+     * @param idHabitacion ID de la habitación
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusivo)
+     * @return Estancias solapadas ordenadas por inicio
+     */
+    public synchronized List<Estancia> estanciasSolapadas(String idHabitacion, Date desde, Date hasta) {
+        return solapadas(idHabitacion, desde, hasta, false);
+    }
+
+    /**
+     * Filtra las habitaciones libres durante todo el rango [desde, hasta).
+     *
+     * @param candidatas Habitaciones a evaluar (por ejemplo, las de un tipo)
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusivo)
+     * @return Habitaciones sin estancias solapadas, en el orden recibido
+     */
+    public synchronized List<Habitacion> habitacionesLibres(Collection<Habitacion> candidatas, Date desde, Date hasta) {
+        List<Habitacion> libres = new ArrayList<>();
+        for (Habitacion h : candidatas) {
+            if (solapadas(h.getId(), desde, hasta, true).isEmpty()) {
+                libres.add(h);
+            }
+        }
+        return libres;
+    }
+
+    /**
+     * @return Cantidad de estancias registradas
+     */
+    public synchronized int size() {
+        return porReserva.size();
+    }
+
+    private List<Estancia> solapadas(String idHabitacion, Date desde, Date hasta, boolean soloPrimera) {
+        validarRango(desde, hasta);
+        List<Estancia> resultado = new ArrayList<>();
+        Agenda agenda = agendas.get(idHabitacion);
+        if (agenda == null) {
+            return resultado;
+        }
+        long d = desde.getTime(), h = hasta.getTime();
+        Estancia limiteInferior = new Estancia("", idHabitacion, d - agenda.duracionMaxima, d - agenda.duracionMaxima);
+        Estancia limiteSuperior = new Estancia("", idHabitacion, h, h);
+        NavigableSet<Estancia> ventana = agenda.estancias.subSet(limiteInferior, false, limiteSuperior, false);
+        for (Estancia e : ventana) {
+            if (e.solapa(d, h)) {
+                resultado.add(e);
+                if (soloPrimera) break;
+            }
+        }
+        return resultado;
+    }
+
+    private static void validarRango(Date desde, Date hasta) {
+        if (desde == null || hasta == null || !desde.before(hasta)) {
+            throw new IllegalArgumentException("Rango de fechas inválido: 'desde' debe ser anterior a 'hasta'");
+        }
+    }
+
+    /**
+     * Intervalo que ocupa una reserva: inicio planificado (o ingreso real) hasta el fin planificado
+     * (o inicio + noches). Devuelve null si la reserva está finalizada o no tiene fechas.
+     */
+    static Estancia estanciaDe(Reserva r) {
+        if (r.getFechaSalida() != null || r.getIdHabitacion() == null) {
+            return null;
+        }
+        Date inicio = r.getFechaInicioPlanificada() != null ? r.getFechaInicioPlanificada() : r.getFechaIngreso();
+        if (inicio == null) {
+            return null;
+        }
+        long fin;
+        if (r.getFechaFinPlanificada() != null) {
+            fin = r.getFechaFinPlanificada().getTime();
+        } else {
+            fin = inicio.getTime() + TimeUnit.DAYS.toMillis(Math.max(1, r.getNoches()));
+        }
+        if (fin <= inicio.getTime()) {
+            fin = inicio.getTime() + TimeUnit.DAYS.toMillis(1);
+        }
+        return new Estancia(r.getId(), r.getIdHabitacion(), inicio.getTime(), fin);
+    }
+}
@@ -17,13 +17,28 @@ public class ConexionBD {
     public static final String URI = "mongodb://localhost:27017";
     public static final String NOMBRE_BD = "HotelRefactorizado"; 
     
+    private final String uri;
+    private final String nombreBaseDatos;
     private MongoClient mongoClient;
     private MongoDatabase database;
+    private GestorIndices gestorIndices;
 
     /**
      * Constructor que inicializa la conexión a la base de datos.
      */
     public ConexionBD() {
+        this(URI, NOMBRE_BD);
+    }
+
+    /**
+     * Constructor que permite apuntar a otro servidor o base de datos (pruebas, benchmarks).
+     * 
+     * @param uri Cadena de conexión de MongoDB
+     * @param nombreBaseDatos Nombre de la base de datos
+     */
+    public ConexionBD(String uri, String nombreBaseDatos) {
+        this.uri = uri;
+        this.nombreBaseDatos = nombreBaseDatos;
         conectar();
     }
 
@@ -32,14 +47,32 @@ public class ConexionBD {
      */
     private void conectar() {
         try {
-            mongoClient = MongoClients.create(URI);
-            database = mongoClient.getDatabase(NOMBRE_BD);
+            mongoClient = MongoClients.create(uri);
+            database = mongoClient.getDatabase(nombreBaseDatos);
         } catch (Exception e) {
             javax.swing.JOptionPane.showMessageDialog(null, 
                 "Error al conectar a la base de datos: " + e.toString());
+            return;
+        }
+        gestorIndices = new GestorIndices(database);
+        try {
+            gestorIndices.asegurarIndices();
+            gestorIndices.informarIndices();
+        } catch (Exception e) {
+            java.util.logging.Logger.getLogger(ConexionBD.class.getName())
+                .warning("No se pudieron asegurar los índices: " + e.getMessage());
         }
     }
 
+    /**
+     * Obtiene el gestor de índices de la base de datos.
+     * 
+     * @return GestorIndices o null si no hay conexión
+     */
+    public GestorIndices getGestorIndices() {
+        return gestorIndices;
+    }
+
     /**
      * Obtiene una colección de la base de datos por su nombre.
      * 
@@ -77,6 +110,24 @@ public class ConexionBD {
         return getColeccion("reservas");
     }
 
+    /**
+     * Obtiene la base de datos (flujos de cambios sobre varias colecciones).
+     * 
+     * @return MongoDatabase o null si no hay conexión
+     */
+    public MongoDatabase getBaseDatos() {
+        return database;
+    }
+
+    /**
+     * Obtiene el cliente de MongoDB (sesiones, transacciones).
+     * 
+     * @return MongoClient o null si no hay conexión
+     */
+    public MongoClient getCliente() {
+        return mongoClient;
+    }
+
     /**
      * Verifica si la conexión está activa.
      * 
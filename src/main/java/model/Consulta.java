@@ -0,0 +1,128 @@
+package model;
+
+import org.bson.Document;
+
+/**
+ * Especificación de una consulta que se ejecuta íntegramente en el servidor:
+ * filtro, orden, salto, límite y proyección.
+ * Se construye de forma fluida, por ejemplo:
+ * <pre>
+ * new Consulta(new Document("ocupada", true)).ordenarPor("numero", true).limitar(10)
+ * </pre>
+ */
+public class Consulta {
+
+    private final Document filtro;
+    private Document orden;
+    private Document proyeccion;
+    private int limite;
+    private int salto;
+    private int tamanoLote;
+
+    /**
+     * Crea una consulta sin filtro (todos los documentos).
+     */
+    public Consulta() {
+        this(new Document());
+    }
+
+    /**
+     * Crea una consulta con el filtro indicado.
+     *
+     * @param filtro Criterios de búsqueda (null equivale a sin filtro)
+     */
+    public Consulta(Document filtro) {
+        this.filtro = filtro != null ? filtro : new Document();
+    }
+
+    /**
+     * Agrega un campo de ordenamiento (se respetan en el orden en que se agregan).
+     *
+     * @param campo Campo por el que ordenar
+     * @param ascendente true para ascendente, false para descendente
+     * @return Esta consulta
+     */
+    public Consulta ordenarPor(String campo, boolean ascendente) {
+        if (orden == null) {
+            orden = new Document();
+        }
+        orden.append(campo, ascendente ? 1 : -1);
+        return this;
+    }
+
+    /**
+     * Limita la cantidad de documentos devueltos.
+     *
+     * @param limite Máximo de documentos (0 = sin límite)
+     * @return Esta consulta
+     */
+    public Consulta limitar(int limite) {
+        if (limite < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo");
+        }
+        this.limite = limite;
+        return this;
+    }
+
+    /**
+     * Omite los primeros documentos del resultado (paginación).
+     *
+     * @param salto Documentos a omitir
+     * @return Esta consulta
+     */
+    public Consulta saltar(int salto) {
+        if (salto < 0) {
+            throw new IllegalArgumentException("El salto no puede ser negativo");
+        }
+        this.salto = salto;
+        return this;
+    }
+
+    /**
+     * Fija cuántos documentos trae el cursor por viaje al servidor.
+     * Solo afecta la memoria y la latencia de la lectura, no el resultado.
+     *
+     * @param tamanoLote Documentos por lote (0 = valor por defecto del driver)
+     * @return Esta consulta
+     */
+    public Consulta porLotes(int tamanoLote) {
+        if (tamanoLote < 0) {
+            throw new IllegalArgumentException("El tamaño de lote no puede ser negativo");
+        }
+        this.tamanoLote = tamanoLote;
+        return this;
+    }
+
+    /**
+     * Restringe los campos devueltos a los indicados (más _id).
+     *
+     * @param campos Campos a incluir
+     * @return Esta consulta
+     */
+    public Consulta incluir(String... campos) {
+        if (proyeccion == null) {
+            proyeccion = new Document();
+        }
+        for (String campo : campos) {
+            proyeccion.append(campo, 1);
+        }
+        return this;
+    }
+
+    public Document getFiltro() { return filtro; }
+    public Document getOrden() { return orden; }
+    public Document getProyeccion() { return proyeccion; }
+    public int getLimite() { return limite; }
+    public int getSalto() { return salto; }
+    public int getTamanoLote() { return tamanoLote; }
+
+    @Override
+    public String toString() {
+        return "Consulta{filtro=" + filtro.toJson() +
+                (orden != null ? ", orden=" + orden.toJson() : "") +
+                (proyeccion != null ? ", proyeccion=" + proyeccion.toJson() : "") +
+                (salto > 0 ? ", salto=" + salto : "") +
+                (limite > 0 ? ", limite=" + limite : "") +
+                (tamanoLote > 0 ? ", lote=" + tamanoLote : "") + '}';
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import java.util.List;
+
 /**
  * Interfaz para operaciones de eliminación en la base de datos.
  * Aplica el principio ISP (Interface Segregation Principle) de SOLID
@@ -33,4 +35,13 @@ public interface Deletable {
      * @param coleccion Nombre de la colección a limpiar
      */
     void eliminarTodos(String coleccion);
+    
+    /**
+     * Elimina varios documentos por sus IDs ($in), un viaje por lote.
+     * 
+     * @param coleccion Nombre de la colección donde eliminar
+     * @param ids Identificadores de los documentos a eliminar
+     * @return Resultado de cada lote enviado
+     */
+    List<ResultadoLote> eliminarPorIds(String coleccion, List<String> ids);
 }
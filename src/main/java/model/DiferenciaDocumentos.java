@@ -0,0 +1,122 @@
+package model;
+
+import org.bson.Document;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Diferencia entre el contenido actual de una colección y un estado objetivo, comparando por _id.
+ * Indica qué documentos hay que insertar, qué campos cambiar en los existentes y cuáles eliminar,
+ * para que una restauración escriba solo lo que cambió. Solo se comparan los campos presentes
+ * en el documento objetivo (los que la entidad serializa): los campos adicionales guardados en
+ * la base no cuentan como cambio y se conservan, porque los modificados se escriben con $set.
+ */
+public class DiferenciaDocumentos {
+
+    private final List<Document> insertar;
+    private final Map<String, Document> actualizar;
+    private final List<String> eliminar;
+    private final int sinCambios;
+
+    private DiferenciaDocumentos(List<Document> insertar, Map<String, Document> actualizar,
+                                 List<String> eliminar, int sinCambios) {
+        this.insertar = insertar;
+        this.actualizar = actualizar;
+        this.eliminar = eliminar;
+        this.sinCambios = sinCambios;
+    }
+
+    /**
+     * Calcula la diferencia entre dos estados de una colección.
+     *
+     * @param actuales Documentos presentes hoy en la colección
+     * @param objetivo Documentos que debe contener la colección tras restaurar
+     * @return Diferencia a aplicar
+     */
+    public static DiferenciaDocumentos calcular(List<Document> actuales, List<Document> objetivo) {
+        Map<String, Document> actualesPorId = new HashMap<>();
+        for (Document d : actuales) {
+            actualesPorId.put(d.getString("_id"), d);
+        }
+        List<Document> insertar = new ArrayList<>();
+        Map<String, Document> actualizar = new LinkedHashMap<>();
+        int sinCambios = 0;
+        for (Document d : objetivo) {
+            Document actual = actualesPorId.remove(d.getString("_id"));
+            if (actual == null) {
+                insertar.add(d);
+                continue;
+            }
+            Document cambiados = camposCambiados(actual, d);
+            if (cambiados.isEmpty()) {
+                sinCambios++;
+            } else {
+                actualizar.put(d.getString("_id"), cambiados);
+            }
+        }
+        // Lo que queda en el mapa no existe en el estado objetivo
+        List<String> eliminar = new ArrayList<>(actualesPorId.keySet());
+        return new DiferenciaDocumentos(insertar, actualizar, eliminar, sinCambios);
+    }
+
+    /**
+     * Campos del objetivo cuyo valor difiere del documento actual (o que este no tiene).
+     */
+    private static Document camposCambiados(Document actual, Document objetivo) {
+        Document cambiados = new Document();
+        for (Map.Entry<String, Object> campo : objetivo.entrySet()) {
+            if ("_id".equals(campo.getKey())) continue;
+            if (!actual.containsKey(campo.getKey())
+                    || !Objects.equals(actual.get(campo.getKey()), campo.getValue())) {
+                cambiados.append(campo.getKey(), campo.getValue());
+            }
+        }
+        return cambiados;
+    }
+
+    /**
+     * Documentos del objetivo que no existen en la colección.
+     *
+     * @return Documentos completos a insertar
+     */
+    public List<Document> getInsertar() { return Collections.unmodifiableList(insertar); }
+
+    /**
+     * Campos a cambiar ($set) en los documentos existentes, por _id.
+     *
+     * @return Mapa inmutable de _id a campos modificados
+     */
+    public Map<String, Document> getActualizar() { return Collections.unmodifiableMap(actualizar); }
+
+    public List<String> getEliminar() { return Collections.unmodifiableList(eliminar); }
+    public int getSinCambios() { return sinCambios; }
+
+    /**
+     * Cuenta los documentos que hay que escribir.
+     *
+     * @return Inserciones, actualizaciones y eliminaciones
+     */
+    public int getEscrituras() {
+        return insertar.size() + actualizar.size() + eliminar.size();
+    }
+
+    /**
+     * Verifica si no hay nada que escribir.
+     *
+     * @return true si ambos estados son iguales
+     */
+    public boolean isVacia() {
+        return getEscrituras() == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "DiferenciaDocumentos{insertar=" + insertar.size() + ", actualizar=" + actualizar.size()
+                + ", eliminar=" + eliminar.size() + ", sinCambios=" + sinCambios + '}';
+    }
+}
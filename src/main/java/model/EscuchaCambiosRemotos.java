@@ -0,0 +1,127 @@
+package model;
+
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Convierte el flujo de cambios de MongoDB (change streams) en eventos de dominio remotos,
+ * para que los cambios hechos por otras terminales lleguen sin esperar a una consulta periódica.
+ * Los change streams solo existen en replica sets o clusters: sobre un servidor standalone
+ * {@link #iniciar()} devuelve false y los observadores siguen dependiendo del sondeo.
+ * Los cambios propios también vuelven por el flujo; los observadores deben aplicar los eventos
+ * de forma idempotente.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public class EscuchaCambiosRemotos {
+
+    private static final java.util.logging.Logger logger =
+        java.util.logging.Logger.getLogger(EscuchaCambiosRemotos.class.getName());
+    private static final List<String> COLECCIONES = Arrays.asList("reservas", "habitaciones", "clientes");
+    private static final long ESPERA_REINTENTO_MS = 5000;
+
+    private final MongoDatabase baseDatos;
+    private final PublicadorEventos publicador;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+    private volatile boolean detenida;
+    private BsonDocument reanudarDesde; // solo lo usa el hilo de escucha
+
+    /**
+     * @param baseDatos Base de datos a observar
+     * @param publicador Destino de los eventos remotos
+     */
+    public EscuchaCambiosRemotos(MongoDatabase baseDatos, PublicadorEventos publicador) {
+        this.baseDatos = baseDatos;
+        this.publicador = publicador;
+    }
+
+    /**
+     * Abre el flujo de cambios y lanza el hilo que lo recorre.
+     *
+     * @return true si el servidor admite change streams
+     */
+    public boolean iniciar() {
+        if (baseDatos == null) return false;
+        try {
+            cursor = abrir();
+        } catch (RuntimeException e) {
+            logger.info("Flujo de cambios no disponible (se usará sondeo): " + e.getMessage());
+            return false;
+        }
+        Thread hilo = new Thread(this::escuchar, "escucha-cambios-remotos");
+        hilo.setDaemon(true);
+        hilo.start();
+        return true;
+    }
+
+    /**
+     * Cierra el flujo de cambios y termina el hilo de escucha.
+     */
+    public void detener() {
+        detenida = true;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> actual = cursor;
+        if (actual != null) {
+            try {
+                actual.close();
+            } catch (RuntimeException e) {
+                logger.fine("Cerrando flujo de cambios: " + e.getMessage());
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> abrir() {
+        List<Bson> filtro = Collections.singletonList(Aggregates.match(Filters.and(
+            Filters.in("ns.coll", COLECCIONES),
+            Filters.in("operationType", Arrays.asList("insert", "update", "replace", "delete")))));
+        com.mongodb.client.ChangeStreamIterable<Document> flujo = baseDatos.watch(filtro)
+            .fullDocument(FullDocument.UPDATE_LOOKUP);
+        if (reanudarDesde != null) flujo = flujo.resumeAfter(reanudarDesde);
+        return flujo.cursor();
+    }
+
+    private void escuchar() {
+        while (!detenida) {
+            try {
+                if (cursor == null) cursor = abrir();
+                while (!detenida) {
+                    ChangeStreamDocument<Document> cambio = cursor.next();
+                    reanudarDesde = cambio.getResumeToken();
+                    publicar(cambio);
+                }
+            } catch (RuntimeException e) {
+                if (detenida) return;
+                logger.warning("Flujo de cambios interrumpido, se reintentará: " + e.getMessage());
+                cursor = null;
+                try {
+                    Thread.sleep(ESPERA_REINTENTO_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void publicar(ChangeStreamDocument<Document> cambio) {
+        if (cambio.getNamespace() == null || cambio.getOperationType() == null) return;
+        BsonDocument clave = cambio.getDocumentKey();
+        BsonValue id = clave != null ? clave.get("_id") : null;
+        String idTexto = id == null ? null : id.isString() ? id.asString().getValue()
+            : id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.toString();
+        EventoModelo evento = EventoModelo.desdeDocumento(cambio.getNamespace().getCollectionName(),
+            cambio.getOperationType().getValue(), idTexto, cambio.getFullDocument());
+        if (evento != null) publicador.publicar(evento.comoRemoto());
+    }
+}
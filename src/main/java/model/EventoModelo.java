@@ -0,0 +1,172 @@
+package model;
+
+import org.bson.Document;
+import java.util.Date;
+
+/**
+ * Evento de dominio publicado por el servicio del modelo tras un cambio confirmado en la base de datos.
+ * Lleva los datos necesarios para que un observador (por ejemplo el dashboard) se actualice
+ * sin volver a consultar las colecciones completas.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public final class EventoModelo {
+
+    /** Tipos de cambio que se publican. */
+    public enum Tipo {
+        /** Reserva nueva (incluye check-in). */
+        RESERVA_CREADA,
+        /** Reserva con fecha de salida (check-out o anulación). */
+        RESERVA_FINALIZADA,
+        /** Reserva activa con planificación o total modificados. */
+        RESERVA_ACTUALIZADA,
+        /** Cambio de ocupación de una habitación. */
+        HABITACION_CAMBIADA,
+        /** Cliente registrado, modificado o eliminado. */
+        CLIENTE_CAMBIADO,
+        /** Estado restaurado en bloque (undo/redo, memento): los observadores deben recargar. */
+        ESTADO_RESTAURADO
+    }
+
+    private final Tipo tipo;
+    private final Reserva reserva;
+    private final String idHabitacion;
+    private final boolean ocupada;
+    private final String idCliente;
+    private final Cliente cliente;
+    private final boolean remoto;
+    private final long instante = System.currentTimeMillis();
+
+    private EventoModelo(Tipo tipo, Reserva reserva, String idHabitacion, boolean ocupada,
+                         String idCliente, Cliente cliente, boolean remoto) {
+        this.tipo = tipo;
+        this.reserva = reserva;
+        this.idHabitacion = idHabitacion;
+        this.ocupada = ocupada;
+        this.idCliente = idCliente;
+        this.cliente = cliente;
+        this.remoto = remoto;
+    }
+
+    /**
+     * @param reserva Reserva recién insertada
+     * @return Evento RESERVA_CREADA
+     */
+    public static EventoModelo reservaCreada(Reserva reserva) {
+        return deReserva(Tipo.RESERVA_CREADA, reserva);
+    }
+
+    /**
+     * @param reserva Reserva ya con fecha de salida
+     * @return Evento RESERVA_FINALIZADA
+     */
+    public static EventoModelo reservaFinalizada(Reserva reserva) {
+        return deReserva(Tipo.RESERVA_FINALIZADA, reserva);
+    }
+
+    /**
+     * @param reserva Reserva con sus datos actuales
+     * @return Evento RESERVA_ACTUALIZADA
+     */
+    public static EventoModelo reservaActualizada(Reserva reserva) {
+        return deReserva(Tipo.RESERVA_ACTUALIZADA, reserva);
+    }
+
+    /**
+     * @param idHabitacion ID de la habitación
+     * @param ocupada Nuevo estado de ocupación
+     * @return Evento HABITACION_CAMBIADA
+     */
+    public static EventoModelo habitacionCambiada(String idHabitacion, boolean ocupada) {
+        return new EventoModelo(Tipo.HABITACION_CAMBIADA, null, idHabitacion, ocupada, null, null, false);
+    }
+
+    /**
+     * @param idCliente ID del cliente
+     * @param cliente Datos actuales, o null si fue eliminado
+     * @return Evento CLIENTE_CAMBIADO
+     */
+    public static EventoModelo clienteCambiado(String idCliente, Cliente cliente) {
+        return new EventoModelo(Tipo.CLIENTE_CAMBIADO, null, null, false, idCliente, cliente, false);
+    }
+
+    /**
+     * @return Evento ESTADO_RESTAURADO
+     */
+    public static EventoModelo estadoRestaurado() {
+        return new EventoModelo(Tipo.ESTADO_RESTAURADO, null, null, false, null, null, false);
+    }
+
+    /**
+     * Traduce un cambio de documento (por ejemplo del flujo de cambios de MongoDB) a un evento.
+     *
+     * @param coleccion Colección modificada
+     * @param operacion Operación: insert, update, replace o delete
+     * @param id _id del documento
+     * @param documento Documento completo tras el cambio, o null si se eliminó o no está disponible
+     * @return Evento equivalente, o null si la colección no genera eventos
+     */
+    public static EventoModelo desdeDocumento(String coleccion, String operacion, String id, Document documento) {
+        boolean eliminado = "delete".equals(operacion) || documento == null;
+        switch (coleccion == null ? "" : coleccion) {
+            case "reservas":
+                if (eliminado) return estadoRestaurado(); // se desconoce qué reserva era
+                Reserva reserva = Reserva.fromDocument(documento);
+                if (reserva.getFechaSalida() != null) return reservaFinalizada(reserva);
+                return "insert".equals(operacion) ? reservaCreada(reserva) : reservaActualizada(reserva);
+            case "habitaciones":
+                if (eliminado) return estadoRestaurado();
+                return habitacionCambiada(id, documento.getBoolean("ocupada", false));
+            case "clientes":
+                return clienteCambiado(id, eliminado ? null : Cliente.fromDocument(documento));
+            default:
+                return null;
+        }
+    }
+
+    private static EventoModelo deReserva(Tipo tipo, Reserva reserva) {
+        if (reserva == null) {
+            throw new IllegalArgumentException("El evento de reserva necesita la reserva");
+        }
+        return new EventoModelo(tipo, reserva, reserva.getIdHabitacion(), false, reserva.getIdCliente(), null, false);
+    }
+
+    /**
+     * Copia del evento marcada como originada en otra terminal.
+     *
+     * @return Evento equivalente con {@link #isRemoto()} en true
+     */
+    public EventoModelo comoRemoto() {
+        return new EventoModelo(tipo, reserva, idHabitacion, ocupada, idCliente, cliente, true);
+    }
+
+    public Tipo getTipo() { return tipo; }
+
+    /** @return Reserva afectada (solo eventos de reserva) */
+    public Reserva getReserva() { return reserva; }
+
+    /** @return Habitación afectada (eventos de habitación y de reserva) */
+    public String getIdHabitacion() { return idHabitacion; }
+
+    /** @return Nuevo estado de ocupación (solo HABITACION_CAMBIADA) */
+    public boolean isOcupada() { return ocupada; }
+
+    /** @return Cliente afectado (eventos de cliente y de reserva) */
+    public String getIdCliente() { return idCliente; }
+
+    /** @return Datos del cliente, o null si fue eliminado o el evento no es de cliente */
+    public Cliente getCliente() { return cliente; }
+
+    /** @return true si el cambio lo hizo otra terminal y llegó por el flujo de cambios de MongoDB */
+    public boolean isRemoto() { return remoto; }
+
+    /** @return Momento de publicación */
+    public Date getInstante() { return new Date(instante); }
+
+    @Override
+    public String toString() {
+        String objetivo = reserva != null ? reserva.getId() : idHabitacion != null ? idHabitacion : idCliente;
+        return tipo + (objetivo != null ? "[" + objetivo + "]" : "") + (remoto ? " (remoto)" : "");
+    }
+}
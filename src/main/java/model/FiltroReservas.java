@@ -0,0 +1,141 @@
+package model;
+
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.Date;
+
+/**
+ * Criterios de búsqueda del panel de reservas: rango de fechas (por fecha de reserva,
+ * o de ingreso si falta), estado y página. La paginación es por cursor (keyset): el cursor
+ * identifica la última reserva de la página anterior, así que pedir la página siguiente
+ * no recorre las anteriores.
+ * Orden de los resultados: fecha de reserva descendente y luego ID descendente.
+ * <pre>
+ * new FiltroReservas(desde, hasta, "Check-in").conTamanoPagina(200).despuesDe(pagina.getSiguienteCursor())
+ * </pre>
+ */
+public class FiltroReservas {
+
+    public static final int TAMANO_PAGINA_POR_DEFECTO = 500;
+
+    /** Orden de los resultados: más recientes primero, desempate por ID. */
+    public static final Comparator<Reserva> ORDEN = Comparator
+        .comparing(FiltroReservas::fechaBase, Comparator.nullsLast(Comparator.<Date>reverseOrder()))
+        .thenComparing(Reserva::getId, Comparator.nullsLast(Comparator.<String>reverseOrder()));
+
+    private final Date desde;
+    private final Date hasta;
+    private final String estado;
+    private int tamanoPagina = TAMANO_PAGINA_POR_DEFECTO;
+    private String cursor;
+
+    /**
+     * @param desde Día inicial (se toma desde las 00:00), o null sin límite
+     * @param hasta Día final (se toma hasta las 23:59:59.999), o null sin límite
+     * @param estado "Todos", "Activa", "Reservada", "Check-in" o "Finalizada" (null = todos)
+     */
+    public FiltroReservas(Date desde, Date hasta, String estado) {
+        if (desde != null && hasta != null && desde.after(hasta)) {
+            throw new IllegalArgumentException("Rango de fechas inválido: 'Desde' es posterior a 'Hasta'");
+        }
+        this.desde = desde != null ? limiteDia(desde, false) : null;
+        this.hasta = hasta != null ? limiteDia(hasta, true) : null;
+        this.estado = estado != null ? estado : Reserva.FILTRO_TODOS;
+    }
+
+    /**
+     * @param tamanoPagina Reservas por página (mayor que 0)
+     * @return Este filtro
+     */
+    public FiltroReservas conTamanoPagina(int tamanoPagina) {
+        if (tamanoPagina <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo");
+        }
+        this.tamanoPagina = tamanoPagina;
+        return this;
+    }
+
+    /**
+     * @param cursor Cursor devuelto por la página anterior (null = primera página)
+     * @return Este filtro
+     */
+    public FiltroReservas despuesDe(String cursor) {
+        this.cursor = cursor;
+        return this;
+    }
+
+    public Date getDesde() { return desde; }
+    public Date getHasta() { return hasta; }
+    public String getEstado() { return estado; }
+    public int getTamanoPagina() { return tamanoPagina; }
+    public String getCursor() { return cursor; }
+
+    /**
+     * @return Fecha por la que se filtra y ordena: fecha de reserva o, si falta, de ingreso
+     */
+    public static Date fechaBase(Reserva r) {
+        return r.getFechaReserva() != null ? r.getFechaReserva() : r.getFechaIngreso();
+    }
+
+    /**
+     * Evalúa el filtro en memoria (rango, estado y cursor). Lo usan las implementaciones sin base de datos.
+     *
+     * @param r Reserva
+     * @param habitacion Habitación de la reserva (null si no existe)
+     * @return true si la reserva entra en la página pedida o en las siguientes
+     */
+    public boolean cumple(Reserva r, Habitacion habitacion) {
+        Date base = fechaBase(r);
+        if (base == null) return false;
+        if (desde != null && base.before(desde)) return false;
+        if (hasta != null && base.after(hasta)) return false;
+        if (!Reserva.cumpleFiltroEstado(r.calcularEstado(habitacion), estado)) return false;
+        return cursor == null || ORDEN.compare(r, cursorComoReserva()) > 0;
+    }
+
+    /**
+     * @return Cursor que apunta a la reserva indicada (última de una página)
+     */
+    public static String cursorDe(Reserva ultima) {
+        return fechaBase(ultima).getTime() + ":" + ultima.getId();
+    }
+
+    /** @return Fecha codificada en el cursor */
+    public Date getCursorFecha() {
+        return new Date(Long.parseLong(cursor.substring(0, separador())));
+    }
+
+    /** @return ID codificado en el cursor */
+    public String getCursorId() {
+        return cursor.substring(separador() + 1);
+    }
+
+    private int separador() {
+        int i = cursor.indexOf(':');
+        if (i <= 0) throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        return i;
+    }
+
+    private Reserva cursorComoReserva() {
+        Reserva r = new Reserva();
+        r.setId(getCursorId());
+        r.setFechaReserva(getCursorFecha());
+        return r;
+    }
+
+    private static Date limiteDia(Date d, boolean fin) {
+        Calendar c = Calendar.getInstance();
+        c.setTime(d);
+        c.set(Calendar.HOUR_OF_DAY, fin ? 23 : 0);
+        c.set(Calendar.MINUTE, fin ? 59 : 0);
+        c.set(Calendar.SECOND, fin ? 59 : 0);
+        c.set(Calendar.MILLISECOND, fin ? 999 : 0);
+        return c.getTime();
+    }
+
+    @Override
+    public String toString() {
+        return "FiltroReservas{desde=" + desde + ", hasta=" + hasta + ", estado=" + estado
+            + ", tamanoPagina=" + tamanoPagina + (cursor != null ? ", cursor=" + cursor : "") + "}";
+    }
+}
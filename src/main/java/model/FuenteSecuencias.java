@@ -0,0 +1,18 @@
+package model;
+
+/**
+ * Origen de bloques de valores para las secuencias de códigos legibles.
+ * Separa la reserva atómica de rangos (persistencia) del reparto local de valores
+ * que realiza {@link GeneradorCodigos}.
+ */
+public interface FuenteSecuencias {
+
+    /**
+     * Reserva de forma atómica un bloque de valores consecutivos para una secuencia.
+     *
+     * @param secuencia Nombre de la secuencia (ej. "CLI", "RES", "SRV")
+     * @param tamano Cantidad de valores a reservar (&gt;= 1)
+     * @return Último valor del bloque reservado (inclusive); el bloque es (retorno - tamano, retorno]
+     */
+    long reservarBloque(String secuencia, int tamano);
+}
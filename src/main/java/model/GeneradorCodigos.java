@@ -0,0 +1,108 @@
+package model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de códigos legibles (CLI-0001, RES-0001, SRV-0001...) basado en bloques reservados.
+ * Cada proceso reserva un rango de valores en la {@link FuenteSecuencias} y lo reparte localmente,
+ * por lo que la asignación es O(1) y solo requiere un viaje a la base de datos al agotarse el bloque.
+ * Como los rangos se reservan de forma atómica, dos terminales nunca obtienen el mismo valor
+ * (a cambio, los valores no usados de un bloque quedan como huecos en la secuencia).
+ */
+public class GeneradorCodigos {
+
+    public static final int TAMANO_BLOQUE_POR_DEFECTO = 10;
+
+    private final FuenteSecuencias fuente;
+    private final int tamanoBloque;
+    private final Map<String, Bloque> bloques = new ConcurrentHashMap<>();
+    private final AtomicLong bloquesReservados = new AtomicLong();
+
+    // Rango local pendiente de repartir para una secuencia
+    private static class Bloque {
+        long siguiente = 1;
+        long limite = 0; // inclusive
+    }
+
+    /**
+     * Constructor con tamaño de bloque por defecto.
+     *
+     * @param fuente Origen de bloques de valores
+     */
+    public GeneradorCodigos(FuenteSecuencias fuente) {
+        this(fuente, TAMANO_BLOQUE_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor completo.
+     *
+     * @param fuente Origen de bloques de valores
+     * @param tamanoBloque Cantidad de valores reservados por viaje a la fuente (&gt;= 1)
+     */
+    public GeneradorCodigos(FuenteSecuencias fuente, int tamanoBloque) {
+        if (fuente == null) {
+            throw new IllegalArgumentException("La fuente de secuencias no puede ser nula");
+        }
+        if (tamanoBloque < 1) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser >= 1");
+        }
+        this.fuente = fuente;
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    /**
+     * Obtiene el siguiente valor numérico de una secuencia.
+     *
+     * @param secuencia Nombre de la secuencia
+     * @return Valor único dentro de la secuencia
+     */
+    public long siguienteValor(String secuencia) {
+        Bloque bloque = bloques.computeIfAbsent(secuencia, s -> new Bloque());
+        synchronized (bloque) {
+            if (bloque.siguiente > bloque.limite) {
+                long ultimo = fuente.reservarBloque(secuencia, tamanoBloque);
+                bloque.siguiente = ultimo - tamanoBloque + 1;
+                bloque.limite = ultimo;
+                bloquesReservados.incrementAndGet();
+            }
+            return bloque.siguiente++;
+        }
+    }
+
+    /**
+     * Genera el siguiente código legible con el formato PREFIJO-0001.
+     *
+     * @param prefijo Prefijo del código, usado también como nombre de la secuencia
+     * @return Código generado
+     */
+    public String siguienteCodigo(String prefijo) {
+        return String.format("%s-%04d", prefijo, siguienteValor(prefijo));
+    }
+
+    /**
+     * Descarta los bloques locales pendientes (los valores no usados se pierden).
+     */
+    public void descartarBloques() {
+        bloques.clear();
+    }
+
+    /**
+     * Obtiene cuántos bloques se han reservado en la fuente desde la creación del generador.
+     *
+     * @return Número de viajes a la fuente
+     */
+    public long getBloquesReservados() {
+        return bloquesReservados.get();
+    }
+
+    /**
+     * Obtiene el tamaño de bloque configurado.
+     *
+     * @return Valores reservados por viaje
+     */
+    public int getTamanoBloque() {
+        return tamanoBloque;
+    }
+}
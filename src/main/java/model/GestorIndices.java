@@ -0,0 +1,211 @@
+package model;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import org.bson.Document;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Gestor de índices de MongoDB.
+ * Declara los índices que necesitan las consultas de {@link ModeloServiceImpl},
+ * crea los que falten al conectar y permite consultar su uso ($indexStats).
+ */
+public class GestorIndices {
+
+    private static final Logger logger = Logger.getLogger(GestorIndices.class.getName());
+
+    /**
+     * Declaración de un índice requerido.
+     */
+    public static class DefinicionIndice {
+        private final String coleccion;
+        private final String nombre;
+        private final Document claves;
+        private final boolean unico;
+
+        public DefinicionIndice(String coleccion, String nombre, Document claves, boolean unico) {
+            this.coleccion = coleccion;
+            this.nombre = nombre;
+            this.claves = claves;
+            this.unico = unico;
+        }
+
+        public String getColeccion() { return coleccion; }
+        public String getNombre() { return nombre; }
+        public Document getClaves() { return claves; }
+        public boolean isUnico() { return unico; }
+    }
+
+    private final MongoDatabase database;
+    private final List<DefinicionIndice> definiciones;
+    private final Map<String, Long> tiemposCreacionMs = new LinkedHashMap<>();
+
+    /**
+     * Constructor con los índices requeridos por el servicio del modelo.
+     *
+     * @param database Base de datos donde se aseguran los índices
+     */
+    public GestorIndices(MongoDatabase database) {
+        this(database, indicesRequeridos());
+    }
+
+    /**
+     * Constructor con una lista de índices personalizada.
+     *
+     * @param database Base de datos donde se aseguran los índices
+     * @param definiciones Índices a asegurar
+     */
+    public GestorIndices(MongoDatabase database, List<DefinicionIndice> definiciones) {
+        this.database = database;
+        this.definiciones = new ArrayList<>(definiciones);
+    }
+
+    /**
+     * Índices sobre todos los campos por los que filtra el servicio del modelo.
+     *
+     * @return Lista de definiciones
+     */
+    public static List<DefinicionIndice> indicesRequeridos() {
+        return Arrays.asList(
+            new DefinicionIndice("clientes", "ux_cedula", new Document("cedula", 1), true),
+            new DefinicionIndice("clientes", "ux_telefono", new Document("telefono", 1), true),
+            new DefinicionIndice("habitaciones", "ix_numero", new Document("numero", 1), false),
+            new DefinicionIndice("reservas", "ix_idCliente_fechaSalida",
+                new Document("idCliente", 1).append("fechaSalida", 1), false),
+            new DefinicionIndice("reservas", "ix_idHabitacion_fechaSalida",
+                new Document("idHabitacion", 1).append("fechaSalida", 1), false),
+            new DefinicionIndice("reservas", "ix_fechaIngreso", new Document("fechaIngreso", -1), false),
+            // Panel de reservas: rango + orden por fecha de reserva, con y sin igualdad sobre fechaSalida
+            new DefinicionIndice("reservas", "ix_fechaReserva_id",
+                new Document("fechaReserva", -1).append("_id", -1), false),
+            new DefinicionIndice("reservas", "ix_fechaSalida_fechaReserva_id",
+                new Document("fechaSalida", 1).append("fechaReserva", -1).append("_id", -1), false),
+            new DefinicionIndice("servicios", "ix_idReserva", new Document("idReserva", 1), false)
+        );
+    }
+
+    /**
+     * Crea los índices declarados que aún no existan.
+     * Si el servidor no responde se aborta al primer error para no demorar el arranque;
+     * un índice que no puede crearse (p.ej. duplicados previos en un índice único) se registra y se omite.
+     *
+     * @return Cantidad de índices creados
+     */
+    public int asegurarIndices() {
+        int creados = 0;
+        Map<String, Set<String>> existentesPorColeccion = new LinkedHashMap<>();
+        for (DefinicionIndice def : definiciones) {
+            MongoCollection<Document> col = database.getCollection(def.getColeccion());
+            Set<String> existentes = existentesPorColeccion.get(def.getColeccion());
+            if (existentes == null) {
+                existentes = new HashSet<>();
+                for (Document idx : col.listIndexes()) {
+                    existentes.add(idx.getString("name"));
+                }
+                existentesPorColeccion.put(def.getColeccion(), existentes);
+            }
+            if (existentes.contains(def.getNombre())) {
+                continue;
+            }
+            IndexOptions opciones = new IndexOptions().name(def.getNombre());
+            if (def.isUnico()) {
+                // Solo valores no vacíos: clientes antiguos sin teléfono no deben colisionar entre sí
+                String campo = def.getClaves().keySet().iterator().next();
+                opciones.unique(true).partialFilterExpression(new Document(campo, new Document("$gt", "")));
+            }
+            long inicio = System.nanoTime();
+            try {
+                col.createIndex(def.getClaves(), opciones);
+            } catch (MongoCommandException e) {
+                logger.warning("No se pudo crear el índice " + def.getColeccion() + "." + def.getNombre()
+                    + ": " + e.getErrorMessage());
+                continue;
+            }
+            long ms = (System.nanoTime() - inicio) / 1_000_000;
+            tiemposCreacionMs.put(def.getColeccion() + "." + def.getNombre(), ms);
+            existentes.add(def.getNombre());
+            creados++;
+            logger.info("Índice creado " + def.getColeccion() + "." + def.getNombre() + " en " + ms + " ms");
+        }
+        return creados;
+    }
+
+    /**
+     * Obtiene el número de accesos de cada índice de una colección desde el último reinicio del servidor.
+     *
+     * @param coleccion Nombre de la colección
+     * @return Mapa nombre de índice -&gt; número de operaciones que lo usaron
+     */
+    public Map<String, Long> obtenerUsoIndices(String coleccion) {
+        List<Document> pipeline = Collections.singletonList(new Document("$indexStats", new Document()));
+        return leerUsoIndices(database.getCollection(coleccion).aggregate(pipeline));
+    }
+
+    /**
+     * Extrae accesses.ops de los documentos que devuelve $indexStats.
+     *
+     * @param estadisticas Un documento por índice
+     * @return Mapa nombre de índice -&gt; operaciones (0 si el servidor no informa accesos)
+     */
+    static Map<String, Long> leerUsoIndices(Iterable<Document> estadisticas) {
+        Map<String, Long> uso = new LinkedHashMap<>();
+        for (Document stats : estadisticas) {
+            Object accesos = stats.get("accesses");
+            Object ops = accesos instanceof Document ? ((Document) accesos).get("ops") : null;
+            uso.put(stats.getString("name"), ops instanceof Number ? ((Number) ops).longValue() : 0L);
+        }
+        return uso;
+    }
+
+    /**
+     * Registra en el log los tiempos de creación de esta sesión y el uso de los índices de cada
+     * colección declarada, para detectar índices que no usa ninguna consulta.
+     * Un error al consultar una colección se registra y no interrumpe las demás.
+     */
+    public void informarIndices() {
+        if (!tiemposCreacionMs.isEmpty()) {
+            logger.info("Tiempos de creación de índices (ms): " + tiemposCreacionMs);
+        }
+        Set<String> colecciones = new LinkedHashSet<>();
+        for (DefinicionIndice def : definiciones) {
+            colecciones.add(def.getColeccion());
+        }
+        for (String coleccion : colecciones) {
+            try {
+                logger.info("Uso de índices de " + coleccion + ": " + obtenerUsoIndices(coleccion));
+            } catch (MongoException e) {
+                logger.warning("No se pudo consultar el uso de índices de " + coleccion + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Obtiene el tiempo de creación de los índices creados en esta sesión.
+     *
+     * @return Mapa coleccion.indice -&gt; milisegundos
+     */
+    public Map<String, Long> getTiemposCreacionMs() {
+        return Collections.unmodifiableMap(tiemposCreacionMs);
+    }
+
+    /**
+     * Obtiene los índices declarados.
+     *
+     * @return Lista inmutable de definiciones
+     */
+    public List<DefinicionIndice> getDefiniciones() {
+        return Collections.unmodifiableList(definiciones);
+    }
+}
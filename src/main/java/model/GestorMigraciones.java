@@ -0,0 +1,121 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * Ejecuta migraciones versionadas una sola vez.
+ * Consulta el {@link RegistroMigraciones} para saber qué versiones ya se aplicaron, ejecuta
+ * las pendientes en orden ascendente y las registra. Si una falla se detiene: las siguientes
+ * pueden depender de ella y se reintentan en el próximo arranque.
+ *
+ * En un arranque sin pendientes el coste es una única lectura de los metadatos,
+ * independiente del volumen de datos.
+ */
+public class GestorMigraciones {
+
+    private static final Logger logger = Logger.getLogger(GestorMigraciones.class.getName());
+
+    private final RegistroMigraciones registro;
+    private final List<Migracion> migraciones = new ArrayList<>();
+    private volatile CompletableFuture<List<Integer>> enCurso;
+
+    /**
+     * @param registro Persistencia de las versiones aplicadas
+     */
+    public GestorMigraciones(RegistroMigraciones registro) {
+        this.registro = registro;
+    }
+
+    /**
+     * Agrega una migración al conjunto gestionado.
+     *
+     * @param migracion Migración con versión única
+     * @return Este gestor
+     */
+    public synchronized GestorMigraciones registrar(Migracion migracion) {
+        for (Migracion m : migraciones) {
+            if (m.getVersion() == migracion.getVersion()) {
+                throw new IllegalArgumentException("Versión de migración duplicada: " + migracion.getVersion());
+            }
+        }
+        migraciones.add(migracion);
+        return this;
+    }
+
+    /**
+     * @return Migraciones registradas que aún no se aplicaron, en orden de versión
+     */
+    public synchronized List<Migracion> pendientes() {
+        Set<Integer> aplicadas = registro.versionesAplicadas();
+        List<Migracion> pendientes = new ArrayList<>();
+        for (Migracion m : migraciones) {
+            if (!aplicadas.contains(m.getVersion())) {
+                pendientes.add(m);
+            }
+        }
+        pendientes.sort(Comparator.comparingInt(Migracion::getVersion));
+        return pendientes;
+    }
+
+    /**
+     * Ejecuta en el hilo actual las migraciones pendientes.
+     *
+     * @return Versiones aplicadas en esta llamada
+     */
+    public synchronized List<Integer> ejecutarPendientes() {
+        List<Integer> aplicadas = new ArrayList<>();
+        for (Migracion m : pendientes()) {
+            long inicio = System.nanoTime();
+            int documentos;
+            try {
+                documentos = m.aplicar();
+            } catch (RuntimeException e) {
+                logger.warning("Migración " + m.getVersion() + " (" + m.getDescripcion() + ") falló: " + e.getMessage());
+                break;
+            }
+            long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+            registro.marcarAplicada(m, documentos, duracionMs);
+            aplicadas.add(m.getVersion());
+            logger.info("Migración " + m.getVersion() + " aplicada: " + documentos + " documentos en " + duracionMs + " ms");
+        }
+        return aplicadas;
+    }
+
+    /**
+     * Ejecuta las migraciones pendientes en un hilo daemon para no retrasar el arranque.
+     * Si ya hay una ejecución en curso se devuelve la misma.
+     *
+     * @return Futuro con las versiones aplicadas
+     */
+    public synchronized CompletableFuture<List<Integer>> ejecutarEnSegundoPlano() {
+        if (enCurso != null && !enCurso.isDone()) {
+            return enCurso;
+        }
+        CompletableFuture<List<Integer>> futuro = new CompletableFuture<>();
+        Thread hilo = new Thread(() -> {
+            try {
+                futuro.complete(ejecutarPendientes());
+            } catch (Throwable t) {
+                futuro.completeExceptionally(t);
+            }
+        }, "migraciones");
+        hilo.setDaemon(true);
+        enCurso = futuro;
+        hilo.start();
+        return futuro;
+    }
+
+    /**
+     * @return Ejecución en segundo plano más reciente, o un futuro completado vacío si no hubo
+     */
+    public CompletableFuture<List<Integer>> getEjecucionEnCurso() {
+        CompletableFuture<List<Integer>> actual = enCurso;
+        return actual != null ? actual : CompletableFuture.completedFuture(Collections.<Integer>emptyList());
+    }
+}
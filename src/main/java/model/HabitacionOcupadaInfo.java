@@ -30,6 +30,26 @@ public class HabitacionOcupadaInfo {
         this.idReserva = idReserva;
     }
 
+    /**
+     * Crea la información desde un documento proyectado por la agregación de habitaciones ocupadas.
+     * 
+     * @param doc Documento con los campos numeroHabitacion, tipoHabitacion, precioHabitacion,
+     *            nombreCliente, apellidoCliente, cedulaCliente e idReserva
+     * @return Nueva instancia de HabitacionOcupadaInfo
+     */
+    public static HabitacionOcupadaInfo fromDocument(org.bson.Document doc) {
+        Object precio = doc.get("precioHabitacion");
+        return new HabitacionOcupadaInfo(
+            doc.getString("numeroHabitacion"),
+            doc.getString("tipoHabitacion"),
+            precio instanceof Number ? ((Number) precio).doubleValue() : 0.0,
+            doc.getString("nombreCliente"),
+            doc.getString("apellidoCliente"),
+            doc.getString("cedulaCliente"),
+            doc.getString("idReserva")
+        );
+    }
+
     // Getters
     public String getNumeroHabitacion() { return numeroHabitacion; }
     public String getTipoHabitacion() { return tipoHabitacion; }
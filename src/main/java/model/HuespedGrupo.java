@@ -0,0 +1,26 @@
+package model;
+
+/**
+ * Integrante de un check-in grupal: el cliente (nuevo o existente, se identifica por cédula)
+ * y su reserva ya planificada. El servicio asigna los IDs de cliente y reserva al registrarlos.
+ */
+public class HuespedGrupo {
+
+    private final Cliente cliente;
+    private final Reserva reserva;
+
+    /**
+     * @param cliente Datos del cliente (la cédula es obligatoria)
+     * @param reserva Reserva con habitación, fechas, noches y total; su idCliente se completa al registrar
+     */
+    public HuespedGrupo(Cliente cliente, Reserva reserva) {
+        if (cliente == null || reserva == null) {
+            throw new IllegalArgumentException("Cliente y reserva son obligatorios");
+        }
+        this.cliente = cliente;
+        this.reserva = reserva;
+    }
+
+    public Cliente getCliente() { return cliente; }
+    public Reserva getReserva() { return reserva; }
+}
@@ -1,7 +1,11 @@
 package model;
 
 import memento.ModeloMemento;
+import memento.RegistroCambios;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Interfaz de servicio para el modelo del hotel (Dependency Inversion Principle).
@@ -156,6 +160,73 @@ public interface IModeloService {
      */
     boolean finalizarReserva(String idReserva);
     
+    /**
+     * Elimina una reserva por su ID sin cambiar la ocupación de su habitación: quien la elimina
+     * decide si liberarla. Pensado para compensar operaciones interrumpidas y para el Undo,
+     * donde finalizarla dejaría una estancia que nunca ocurrió en el histórico.
+     * 
+     * @param idReserva ID de la reserva a eliminar
+     * @return true si existía y se eliminó
+     */
+    boolean eliminarReserva(String idReserva);
+    
+    /**
+     * Registra el check-in de un grupo: da de alta a los clientes que no existan (por cédula)
+     * y crea una reserva por huésped. Es todo o nada: si algún huésped no puede registrarse
+     * no queda nada del grupo.
+     * La implementación por defecto registra uno a uno y compensa eliminando las reservas y los
+     * clientes ya dados de alta y liberando solo las habitaciones que tomó el grupo;
+     * las implementaciones con acceso a la base de datos deberían usar escrituras en lote.
+     * 
+     * @param huespedes Huéspedes del grupo, cada uno con una habitación distinta
+     * @return Resultado con los IDs de lo creado y el rendimiento
+     */
+    default ResultadoCheckinGrupal registrarCheckinGrupal(List<HuespedGrupo> huespedes) {
+        if (huespedes == null || huespedes.isEmpty()) {
+            return ResultadoCheckinGrupal.rechazado("El grupo está vacío");
+        }
+        long inicio = System.currentTimeMillis();
+        List<String> idsReservas = new java.util.ArrayList<>();
+        List<String> idsClientesNuevos = new java.util.ArrayList<>();
+        List<String> idsHabitaciones = new java.util.ArrayList<>();
+        String error = null;
+        for (HuespedGrupo huesped : huespedes) {
+            Cliente cliente = huesped.getCliente();
+            Cliente existente = buscarClientePorCedula(cliente.getCedula());
+            if (existente != null) {
+                cliente = existente;
+            } else if (registrarCliente(cliente)) {
+                idsClientesNuevos.add(cliente.getId());
+            } else {
+                error = "No se pudo registrar al cliente " + cliente.getCedula();
+                break;
+            }
+            Reserva reserva = huesped.getReserva();
+            reserva.setIdCliente(cliente.getId());
+            if (!crearReserva(reserva)) {
+                error = "No se pudo reservar la habitación " + reserva.getIdHabitacion();
+                break;
+            }
+            idsReservas.add(reserva.getId());
+            idsHabitaciones.add(reserva.getIdHabitacion());
+        }
+        if (error != null) {
+            // Compensación: no debe quedar rastro del grupo
+            for (String id : idsReservas) {
+                eliminarReserva(id);
+            }
+            for (String id : idsClientesNuevos) {
+                eliminarCliente(id);
+            }
+            for (String id : idsHabitaciones) {
+                actualizarEstadoHabitacion(id, false);
+            }
+            return ResultadoCheckinGrupal.rechazado(error);
+        }
+        return new ResultadoCheckinGrupal(true, "Check-in grupal registrado", idsReservas, idsClientesNuevos,
+            idsHabitaciones, System.currentTimeMillis() - inicio);
+    }
+    
     /**
      * Obtiene todas las reservas del sistema.
      * 
@@ -163,6 +234,40 @@ public interface IModeloService {
      */
     List<Reserva> obtenerTodasReservas();
     
+    /**
+     * Recorre todas las reservas sin materializarlas en una lista.
+     * Pensado para reportes y exportaciones: el Stream debe cerrarse (try-with-resources).
+     * La implementación por defecto recorre {@link #obtenerTodasReservas()}.
+     * 
+     * @return Stream cerrable de reservas
+     */
+    default Stream<Reserva> recorrerReservas() {
+        return obtenerTodasReservas().stream();
+    }
+    
+    /**
+     * Busca reservas por rango de fechas y estado, paginadas por cursor y ordenadas
+     * de la más reciente a la más antigua (ver {@link FiltroReservas}).
+     * La implementación por defecto filtra en memoria; las implementaciones con base de datos
+     * deben resolverlo con una consulta indexada para que el costo dependa del resultado y no del histórico.
+     * 
+     * @param filtro Rango, estado, tamaño de página y cursor
+     * @return Página de reservas con el cursor de la siguiente
+     */
+    default PaginaReservas buscarReservas(FiltroReservas filtro) {
+        java.util.Map<String, Habitacion> habitaciones = new java.util.HashMap<>();
+        for (Habitacion h : obtenerTodasHabitaciones()) {
+            habitaciones.put(h.getId(), h);
+        }
+        List<Reserva> coincidentes = new java.util.ArrayList<>();
+        for (Reserva r : obtenerTodasReservas()) {
+            if (filtro.cumple(r, habitaciones.get(r.getIdHabitacion()))) coincidentes.add(r);
+        }
+        coincidentes.sort(FiltroReservas.ORDEN);
+        int leidas = Math.min(coincidentes.size(), filtro.getTamanoPagina() + 1);
+        return PaginaReservas.desdeLectura(coincidentes.subList(0, leidas), filtro.getTamanoPagina());
+    }
+    
     /**
      * Obtiene las reservas más recientes del sistema.
      * 
@@ -183,8 +288,71 @@ public interface IModeloService {
      */
     boolean actualizarPlanificacionReserva(String idReserva, java.util.Date nuevaFechaInicioPlanificada, int noches, String nuevasObservaciones);
     
-    // === OPERACIONES DE MEMENTO ===
+    /**
+     * Obtiene las habitaciones sin estancias planificadas ni en curso en el rango [desde, hasta).
+     * La implementación por defecto arma un {@link CalendarioDisponibilidad} con todas las reservas.
+     * 
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusivo)
+     * @param tipo Tipo de habitación (Suite, Doble, Simple) o null para todas
+     * @return Habitaciones libres durante todo el rango
+     */
+    default List<Habitacion> obtenerHabitacionesLibres(java.util.Date desde, java.util.Date hasta, String tipo) {
+        CalendarioDisponibilidad calendario = new CalendarioDisponibilidad();
+        calendario.cargar(obtenerTodasReservas());
+        List<Habitacion> candidatas = new java.util.ArrayList<>();
+        for (Habitacion h : obtenerTodasHabitaciones()) {
+            if (tipo == null || tipo.equalsIgnoreCase(h.getTipo())) candidatas.add(h);
+        }
+        return calendario.habitacionesLibres(candidatas, desde, hasta);
+    }
     
+    /**
+     * Indica si una habitación no tiene estancias que se solapen con [desde, hasta).
+     * 
+     * @param idHabitacion ID de la habitación
+     * @param desde Inicio del rango (inclusive)
+     * @param hasta Fin del rango (exclusivo)
+     * @return true si está libre durante todo el rango
+     */
+    default boolean estaHabitacionLibre(String idHabitacion, java.util.Date desde, java.util.Date hasta) {
+        CalendarioDisponibilidad calendario = new CalendarioDisponibilidad();
+        calendario.cargar(obtenerTodasReservas());
+        return !calendario.haySolapamiento(idHabitacion, desde, hasta);
+    }
+    
+    // === EVENTOS DE DOMINIO ===
+
+    /**
+     * Suscribe un receptor a los eventos de dominio (reservas creadas y finalizadas, cambios
+     * de habitaciones y de clientes). Los eventos se entregan en el hilo que hizo el cambio.
+     *
+     * @param suscriptor Receptor de eventos
+     * @return true si el servicio publica eventos; false si el observador debe consultar periódicamente
+     */
+    default boolean suscribirEventos(PublicadorEventos.Suscriptor suscriptor) {
+        return false;
+    }
+
+    /**
+     * Quita un receptor de eventos de dominio.
+     *
+     * @param suscriptor Receptor suscrito con suscribirEventos
+     */
+    default void cancelarSuscripcionEventos(PublicadorEventos.Suscriptor suscriptor) {
+    }
+
+    /**
+     * Indica si también se publican los cambios hechos por otras terminales sobre la misma base de datos.
+     *
+     * @return true si llegan eventos remotos
+     */
+    default boolean publicaCambiosRemotos() {
+        return false;
+    }
+
+    // === OPERACIONES DE MEMENTO ===
+
     /**
      * Crea un memento del estado actual del sistema.
      * 
@@ -198,6 +366,92 @@ public interface IModeloService {
      * @param memento Memento con el estado a restaurar
      */
     void restaurarEstadoCompleto(ModeloMemento memento);
+
+    /**
+     * Crea un memento solo de las colecciones (o documentos) indicados.
+     * Por defecto consulta únicamente las colecciones del alcance.
+     * 
+     * @param alcance Colección -> ids a capturar (null = toda la colección)
+     * @return Memento parcial
+     */
+    default ModeloMemento crearMementoParcial(Map<ModeloMemento.Coleccion, Set<String>> alcance) {
+        return ModeloMemento.parcial(alcance,
+            alcance.containsKey(ModeloMemento.Coleccion.CLIENTES) ? obtenerTodosClientes() : null,
+            alcance.containsKey(ModeloMemento.Coleccion.HABITACIONES) ? obtenerTodasHabitaciones() : null,
+            alcance.containsKey(ModeloMemento.Coleccion.RESERVAS) ? obtenerTodasReservas() : null);
+    }
+
+    /**
+     * Restaura lo guardado en un memento parcial dejando intacto el resto del estado.
+     * Por defecto lo combina con el estado actual y restaura el resultado completo.
+     * 
+     * @param memento Memento parcial (o completo)
+     */
+    default void restaurarEstadoParcial(ModeloMemento memento) {
+        restaurarEstadoCompleto(memento.isParcial() ? memento.completarCon(crearMemento()) : memento);
+    }
+    
+    /**
+     * Indica si el servicio puede registrar cambios por documento (memento incremental).
+     * Si es false, el historial de comandos recurre a mementos completos y los métodos de
+     * registro no hacen nada.
+     * 
+     * @return true si soporta iniciarRegistroCambios/aplicarCambios
+     */
+    default boolean soportaRegistroCambios() {
+        return false;
+    }
+    
+    /**
+     * Cuenta los documentos del modelo (clientes, habitaciones y reservas). El historial lo usa
+     * para estimar cuánto costaría un snapshot completo sin llegar a tomarlo.
+     * 
+     * @return Total de documentos, o -1 si el servicio no puede contarlos
+     */
+    default long contarDocumentos() {
+        return -1;
+    }
+    
+    /**
+     * Comienza a registrar los documentos que modifiquen las operaciones siguientes
+     * ejecutadas en el hilo actual. Las escrituras de otros hilos no se registran.
+     */
+    default void iniciarRegistroCambios() {
+        // Sin soporte de registro: nada que iniciar
+    }
+    
+    /**
+     * Detiene el registro de cambios del hilo actual y devuelve lo acumulado.
+     * 
+     * @return Cambios registrados desde iniciarRegistroCambios (vacío si no hay soporte)
+     */
+    default RegistroCambios finalizarRegistroCambios() {
+        return new RegistroCambios();
+    }
+    
+    /**
+     * Reaplica un registro de cambios.
+     * 
+     * @param cambios Cambios a aplicar
+     * @param deshacer true para volver al estado anterior (undo), false para el posterior (redo)
+     */
+    default void aplicarCambios(RegistroCambios cambios, boolean deshacer) {
+        // Sin soporte de registro los registros llegan siempre vacíos
+    }
+    
+    /**
+     * Indica si los documentos de un registro siguen como él los dejó: en su estado posterior para
+     * deshacer o en el anterior para rehacer. Sirve para validar un historial guardado en otra
+     * ejecución antes de reaplicarlo, porque otra terminal pudo cambiarlos después.
+     * Por defecto false: sin registro de cambios no hay cómo comprobarlo.
+     * 
+     * @param cambios Registro a validar
+     * @param deshacer true si se va a deshacer, false si se va a rehacer
+     * @return true si aplicarlo no pisa cambios posteriores
+     */
+    default boolean cambiosAplicables(RegistroCambios cambios, boolean deshacer) {
+        return false;
+    }
     
     /**
      * Verifica la disponibilidad del sistema.
@@ -0,0 +1,27 @@
+package model;
+
+/**
+ * Migración de esquema/datos identificada por un número de versión.
+ * {@link GestorMigraciones} las ejecuta en orden ascendente de versión y registra
+ * las aplicadas para no repetirlas en arranques posteriores.
+ */
+public interface Migracion {
+
+    /**
+     * @return Versión única de la migración (orden de ejecución)
+     */
+    int getVersion();
+
+    /**
+     * @return Descripción legible de lo que hace la migración
+     */
+    String getDescripcion();
+
+    /**
+     * Aplica la migración. Debe ser idempotente: si se interrumpe, se reintenta completa
+     * en el siguiente arranque.
+     *
+     * @return Cantidad de documentos modificados
+     */
+    int aplicar();
+}
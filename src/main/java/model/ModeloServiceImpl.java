@@ -1,11 +1,13 @@
 package model;
 
 import memento.ModeloMemento;
+import memento.RegistroCambios;
 import singleton.GestorDisponibilidad;
 import org.bson.Document;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.stream.Stream;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Updates;
@@ -19,18 +21,105 @@ import com.mongodb.client.model.Updates;
  */
 public class ModeloServiceImpl implements IModeloService {
     
+    private static final java.util.regex.Pattern PATRON_ID_CLIENTE = java.util.regex.Pattern.compile("^CLI-\\d{4,}$");
+    private static final java.util.regex.Pattern PATRON_ID_RESERVA = java.util.regex.Pattern.compile("^RES-\\d{4,}$");
+    /** Documentos por viaje al servidor cuando se recorren colecciones grandes con cursor. */
+    static final int TAMANO_LOTE_LECTURA = 500;
+    /** Documentos migrados por cada bulkWrite. */
+    static final int TAMANO_LOTE_MIGRACION = 500;
+    /**
+     * Propiedad del sistema que habilita la migración 2 (IDs legibles de clientes) al arrancar:
+     * {@code -Dhotel.migrarIdsClientes=true}. Reescribe el _id de todos los clientes que no sigan
+     * el patrón CLI-0001, así que está desactivada por defecto y conviene respaldar antes la base.
+     */
+    public static final String PROPIEDAD_MIGRAR_CLIENTES = "hotel.migrarIdsClientes";
+    /** Campo temporal de la copia de un cliente a medio migrar (ID original, cédula y teléfono). */
+    private static final String CAMPO_MIGRACION = "migracion";
+    
     private final MongoCRUD mongoCRUD;
     private final GestorDisponibilidad gestorDisponibilidad;
+    private final GeneradorCodigos generadorCodigos;
+    private final RestauradorEstado restauradorEstado;
+    private final GestorMigraciones gestorMigraciones;
+    private final CalendarioDisponibilidad calendario = new CalendarioDisponibilidad();
+    private boolean calendarioCargado; // protegido por calendario
+    private final PublicadorEventos eventos = new PublicadorEventos();
+    private final EscuchaCambiosRemotos escuchaRemota;
+    private boolean escuchaIntentada; // protegido por escuchaRemota
+    private boolean cambiosRemotos; // protegido por escuchaRemota
+    private volatile ModeloMemento ultimoMemento; // base de la compartición estructural entre mementos
     
     /**
      * Constructor que inyecta las dependencias necesarias.
      */
     public ModeloServiceImpl() {
-        ConexionBD conexion = new ConexionBD();
-        this.mongoCRUD = new MongoCRUD(conexion);
+        this(new ConexionBD());
+    }
+    
+    /**
+     * Constructor sobre una conexión existente (otra base de datos, benchmarks).
+     * 
+     * @param conexion Conexión a MongoDB
+     */
+    public ModeloServiceImpl(ConexionBD conexion) {
+        this(conexion, false);
+    }
+    
+    /**
+     * Constructor que permite aplicar las migraciones pendientes en segundo plano
+     * (el arranque no espera a que terminen).
+     * 
+     * @param conexion Conexión a MongoDB
+     * @param migrarEnSegundoPlano true para no bloquear el constructor con las migraciones
+     */
+    public ModeloServiceImpl(ConexionBD conexion, boolean migrarEnSegundoPlano) {
+        this(conexion, new MongoCRUD(conexion), migrarEnSegundoPlano);
+    }
+    
+    /**
+     * Constructor con la capa CRUD ya creada (pruebas sobre una CRUD en memoria).
+     * 
+     * @param conexion Conexión a MongoDB
+     * @param mongoCRUD Operaciones CRUD sobre esa conexión
+     * @param migrarEnSegundoPlano true para no bloquear el constructor con las migraciones
+     */
+    ModeloServiceImpl(ConexionBD conexion, MongoCRUD mongoCRUD, boolean migrarEnSegundoPlano) {
+        this.mongoCRUD = mongoCRUD;
         this.gestorDisponibilidad = GestorDisponibilidad.getInstance();
-    // Migraciones de IDs legibles
-    migrarIdsReservasLegibles();
+        this.generadorCodigos = new GeneradorCodigos(new MongoFuenteSecuencias(conexion));
+        this.restauradorEstado = new RestauradorEstado(conexion);
+        this.escuchaRemota = new EscuchaCambiosRemotos(conexion.getBaseDatos(), eventos);
+        this.gestorMigraciones = new GestorMigraciones(new MongoRegistroMigraciones(conexion))
+            .registrar(migracion(1, "IDs legibles y planificación de reservas", this::migrarReservas));
+        if (Boolean.getBoolean(PROPIEDAD_MIGRAR_CLIENTES)) {
+            // Sin la propiedad queda pendiente y se aplica en el primer arranque que la active
+            gestorMigraciones.registrar(migracion(2, "IDs legibles de clientes", this::migrarClientes));
+        }
+        // Migraciones pendientes (en arranques posteriores solo se lee la colección de metadatos)
+        try {
+            if (migrarEnSegundoPlano) {
+                gestorMigraciones.ejecutarEnSegundoPlano();
+            } else {
+                gestorMigraciones.ejecutarPendientes();
+            }
+        } catch (Exception e) {
+            System.err.println("Error ejecutando migraciones: " + e.getMessage());
+        }
+    }
+
+    private static Migracion migracion(int version, String descripcion, java.util.function.IntSupplier accion) {
+        return new Migracion() {
+            @Override public int getVersion() { return version; }
+            @Override public String getDescripcion() { return descripcion; }
+            @Override public int aplicar() { return accion.getAsInt(); }
+        };
+    }
+
+    /**
+     * @return Gestor de migraciones versionadas (permite lanzar las pendientes en segundo plano)
+     */
+    public GestorMigraciones getGestorMigraciones() {
+        return gestorMigraciones;
     }
     
     // === OPERACIONES DE CLIENTES ===
@@ -48,11 +137,12 @@ public class ModeloServiceImpl implements IModeloService {
         
         try {
             // Generar / normalizar ID si no existe o no es legible (patrón CLI-0001)
-            if (cliente.getId() == null || !cliente.getId().matches("CLI-\\d{4}")) {
+            if (cliente.getId() == null || !cliente.getId().matches("CLI-\\d{4,}")) {
                 cliente.setId(generarCodigoCliente());
             }
             
             mongoCRUD.insertar("clientes", cliente.toDocument());
+            eventos.publicar(EventoModelo.clienteCambiado(cliente.getId(), cliente));
             return true;
         } catch (Exception e) {
             System.err.println("Error al registrar cliente: " + e.getMessage());
@@ -64,34 +154,101 @@ public class ModeloServiceImpl implements IModeloService {
      * MIGRACIÓN: Convierte IDs de clientes existentes que no sigan el formato CLI-0001
      * a uno nuevo incremental, actualizando además las reservas que apunten al ID antiguo.
      * Es idempotente: si todos los IDs son legibles no hace cambios.
+     * {@link GestorMigraciones} la ejecuta una única vez (versión 2) solo si se arranca con
+     * {@link #PROPIEDAD_MIGRAR_CLIENTES}; si no, hay que invocarla explícitamente.
      */
     public void migrarIdsClientesLegibles(){
         try {
-            List<Document> docs = mongoCRUD.listarTodos("clientes");
-            MongoCollection<Document> colClientes = mongoCRUD.getConexion().getColeccion("clientes");
-            MongoCollection<Document> colReservas = mongoCRUD.getConexion().getColeccion("reservas");
-            for (Document doc : docs){
-                String oldId = doc.getString("_id");
-                if (oldId == null || !oldId.matches("CLI-\\d{4}")) {
-                    // Generar nuevo ID legible evitando colisiones actuales
-                    String nuevoId = generarCodigoCliente();
-                    // Crear nuevo documento con el mismo contenido excepto _id
-                    Document nuevo = new Document("_id", nuevoId)
-                            .append("nombre", doc.getString("nombre"))
-                            .append("apellido", doc.getString("apellido"))
-                            .append("cedula", doc.getString("cedula"))
-                            .append("telefono", doc.getString("telefono"));
-                    // Eliminar antiguo e insertar nuevo (no se puede modificar _id)
-                    colClientes.deleteOne(Filters.eq("_id", oldId));
-                    colClientes.insertOne(nuevo);
-                    // Actualizar reservas que referencian al cliente
-                    colReservas.updateMany(Filters.eq("idCliente", oldId), Updates.set("idCliente", nuevoId));
-                }
-            }
+            migrarClientes();
         } catch (Exception e){
             System.err.println("Error en migrarIdsClientesLegibles: "+e.getMessage());
         }
     }
+
+    /**
+     * Reescribe los clientes pendientes por lotes sin perder ninguno si el proceso se interrumpe.
+     * Como _id no se puede modificar, cada lote se copia primero con el ID nuevo, guardando
+     * cédula y teléfono en un campo temporal para no chocar con sus índices únicos; después
+     * {@link #completarClientesMigrados()} remapea las reservas, elimina los originales y mueve
+     * cédula y teléfono a la copia. Las copias que dejó una ejecución interrumpida se completan
+     * antes de empezar.
+     *
+     * @return Documentos escritos
+     */
+    private int migrarClientes(){
+        int escritos = completarClientesMigrados();
+        Document pendientes = new Document("_id", new Document("$not", PATRON_ID_CLIENTE));
+        // Los clientes migrados dejan de cumplir el filtro: cada vuelta lee el siguiente lote
+        List<Document> lote;
+        while (!(lote = mongoCRUD.buscar("clientes", new Consulta(pendientes).limitar(TAMANO_LOTE_MIGRACION))).isEmpty()) {
+            List<OperacionLote> copias = new ArrayList<>();
+            for (Document doc : lote) {
+                copias.add(OperacionLote.insertar(new Document("_id", generarCodigoCliente())
+                        .append("nombre", doc.getString("nombre"))
+                        .append("apellido", doc.getString("apellido"))
+                        .append(CAMPO_MIGRACION, new Document("de", doc.getString("_id"))
+                            .append("cedula", doc.getString("cedula"))
+                            .append("telefono", doc.getString("telefono")))));
+            }
+            int escritosLote = contarEscritos(mongoCRUD.escribirEnLote("clientes", copias, false));
+            if (escritosLote == 0) break;
+            escritos += escritosLote + completarClientesMigrados();
+        }
+        return escritos;
+    }
+
+    /**
+     * Termina de migrar las copias que aún tienen el campo temporal: remapea las reservas al ID
+     * nuevo, elimina el cliente original y pasa cédula y teléfono a la copia. Cada paso es
+     * idempotente, así que se puede repetir tras una interrupción en cualquier punto.
+     *
+     * @return Documentos escritos
+     */
+    private int completarClientesMigrados(){
+        List<Document> copias = mongoCRUD.buscar("clientes",
+            new Consulta(new Document(CAMPO_MIGRACION, new Document("$exists", true))));
+        if (copias.isEmpty()) return 0;
+        java.util.Map<String,String> nuevosIds = new java.util.HashMap<>();
+        List<OperacionLote> originales = new ArrayList<>();
+        List<OperacionLote> completar = new ArrayList<>();
+        for (Document copia : copias) {
+            Document datos = copia.get(CAMPO_MIGRACION, Document.class);
+            nuevosIds.put(datos.getString("de"), copia.getString("_id"));
+            originales.add(OperacionLote.eliminar(datos.getString("de")));
+            completar.add(OperacionLote.actualizar(copia.getString("_id"), Updates.combine(
+                Updates.set("cedula", datos.getString("cedula")),
+                Updates.set("telefono", datos.getString("telefono")),
+                Updates.unset(CAMPO_MIGRACION))));
+        }
+        // El original se elimina solo cuando ninguna reserva apunta ya a él
+        int escritos = remapearReferencias("reservas", "idCliente", nuevosIds);
+        escritos += contarEscritos(mongoCRUD.escribirEnLote("clientes", originales, false));
+        escritos += contarEscritos(mongoCRUD.escribirEnLote("clientes", completar, false));
+        return escritos;
+    }
+
+    /**
+     * Actualiza en un bulkWrite los documentos cuyo campo de referencia apunta a un ID migrado.
+     */
+    private int remapearReferencias(String coleccion, String campo, java.util.Map<String,String> nuevosIds){
+        if (nuevosIds.isEmpty()) return 0;
+        List<OperacionLote> ops = new ArrayList<>();
+        Consulta referencias = new Consulta(new Document(campo, new Document("$in", new ArrayList<>(nuevosIds.keySet()))))
+            .incluir(campo).porLotes(TAMANO_LOTE_MIGRACION);
+        try (Stream<Document> docs = mongoCRUD.recorrer(coleccion, referencias)) {
+            docs.forEach(d -> ops.add(OperacionLote.actualizar(d.getString("_id"),
+                Updates.set(campo, nuevosIds.get(d.getString(campo))))));
+        }
+        return ops.isEmpty() ? 0 : contarEscritos(mongoCRUD.escribirEnLote(coleccion, ops, false));
+    }
+
+    private static int contarEscritos(List<ResultadoLote> resultados){
+        ResultadoLote total = ResultadoLote.total(resultados);
+        if (!total.isExitoso()) {
+            throw new IllegalStateException("Lote de migración con " + total.getErrores() + " errores");
+        }
+        return total.getInsertados() + total.getCoincidentes() + total.getEliminados() + total.getUpserts();
+    }
     
     @Override
     public boolean eliminarCliente(String idCliente) {
@@ -100,7 +257,11 @@ public class ModeloServiceImpl implements IModeloService {
         }
         
         try {
-            return mongoCRUD.eliminarPorIdConResultado("clientes", idCliente);
+            boolean eliminado = mongoCRUD.eliminarPorIdConResultado("clientes", idCliente);
+            if (eliminado) {
+                eventos.publicar(EventoModelo.clienteCambiado(idCliente, null));
+            }
+            return eliminado;
         } catch (Exception e) {
             System.err.println("Error al eliminar cliente: " + e.getMessage());
             return false;
@@ -114,11 +275,9 @@ public class ModeloServiceImpl implements IModeloService {
         }
         
         try {
-            Document filtro = new Document("cedula", cedula);
-            List<Document> documentos = mongoCRUD.buscarPorFiltro("clientes", filtro);
-            
-            if (!documentos.isEmpty()) {
-                return Cliente.fromDocument(documentos.get(0));
+            Document doc = mongoCRUD.buscarPrimero("clientes", new Consulta(new Document("cedula", cedula)));
+            if (doc != null) {
+                return Cliente.fromDocument(doc);
             }
         } catch (Exception e) {
             System.err.println("Error al buscar cliente por cédula: " + e.getMessage());
@@ -161,7 +320,11 @@ public class ModeloServiceImpl implements IModeloService {
                 .append("apellido", cliente.getApellido())
                 .append("cedula", cliente.getCedula())
                 .append("telefono", cliente.getTelefono()));
-            return mongoCRUD.actualizarPorId("clientes", cliente.getId(), update);
+            boolean actualizado = mongoCRUD.actualizarPorId("clientes", cliente.getId(), update);
+            if (actualizado) {
+                eventos.publicar(EventoModelo.clienteCambiado(cliente.getId(), cliente));
+            }
+            return actualizado;
         } catch (Exception e) {
             System.err.println("Error al actualizar cliente: " + e.getMessage());
             return false;
@@ -170,7 +333,18 @@ public class ModeloServiceImpl implements IModeloService {
     
     @Override
     public boolean existeCedula(String cedula) {
-        return buscarClientePorCedula(cedula) != null;
+        if (cedula == null || cedula.trim().isEmpty()) {
+            return false;
+        }
+        
+        try {
+            // Solo se necesita saber si existe: se proyecta únicamente el _id
+            Consulta consulta = new Consulta(new Document("cedula", cedula)).incluir("_id");
+            return mongoCRUD.buscarPrimero("clientes", consulta) != null;
+        } catch (Exception e) {
+            System.err.println("Error al verificar cédula: " + e.getMessage());
+            return false;
+        }
     }
     
     @Override
@@ -180,9 +354,8 @@ public class ModeloServiceImpl implements IModeloService {
         }
         
         try {
-            Document filtro = new Document("telefono", telefono);
-            List<Document> documentos = mongoCRUD.buscarPorFiltro("clientes", filtro);
-            return !documentos.isEmpty();
+            Consulta consulta = new Consulta(new Document("telefono", telefono)).incluir("_id");
+            return mongoCRUD.buscarPrimero("clientes", consulta) != null;
         } catch (Exception e) {
             System.err.println("Error al verificar teléfono: " + e.getMessage());
             return false;
@@ -190,62 +363,66 @@ public class ModeloServiceImpl implements IModeloService {
     }
 
     // === GENERACIÓN DE CÓDIGOS LEGIBLES ===
-    /** Genera código incremental CLI-0001, CLI-0002 ... basándose en los IDs existentes. */
+    /** Genera código incremental CLI-0001, CLI-0002 ... a partir del contador atómico "CLI". */
     private String generarCodigoCliente(){
-        try {
-            List<Document> docs = mongoCRUD.listarTodos("clientes");
-            int max = 0;
-            for (Document d: docs){
-                String id = d.getString("_id");
-                if (id != null && id.startsWith("CLI-")){
-                    try {int n = Integer.parseInt(id.substring(4)); if (n>max) max=n;} catch(Exception ignore){}
-                }
-            }
-            return String.format("CLI-%04d", max+1);
-        } catch (Exception e){
-            return "CLI-"+java.util.UUID.randomUUID().toString().substring(0,8).toUpperCase();
-        }
+        return generarCodigo("CLI");
     }
 
     /** Genera código incremental RES-0001, RES-0002 ... */
     private String generarCodigoReserva(){
+        return generarCodigo("RES");
+    }
+
+    /**
+     * Obtiene el siguiente código de la secuencia indicada. Si la base de datos no responde
+     * se recurre a un sufijo aleatorio para no bloquear la operación.
+     */
+    private String generarCodigo(String prefijo){
         try {
-            List<Document> docs = mongoCRUD.listarTodos("reservas");
-            int max = 0;
-            for (Document d: docs){
-                String id = d.getString("_id");
-                if (id != null && id.startsWith("RES-")){
-                    try {int n = Integer.parseInt(id.substring(4)); if (n>max) max=n;} catch(Exception ignore){}
-                }
-            }
-            return String.format("RES-%04d", max+1);
+            return generadorCodigos.siguienteCodigo(prefijo);
         } catch (Exception e){
-            return "RES-"+java.util.UUID.randomUUID().toString().substring(0,8).toUpperCase();
+            System.err.println("Error generando código " + prefijo + ": " + e.getMessage());
+            return prefijo+"-"+java.util.UUID.randomUUID().toString().substring(0,8).toUpperCase();
         }
     }
 
     /**
      * MIGRACIÓN: Convierte IDs de reservas existentes que no sigan el formato RES-0001
-     * a uno nuevo incremental. Es idempotente.
+     * a uno nuevo incremental y completa los campos de planificación. Es idempotente.
+     * Normalmente la ejecuta {@link GestorMigraciones} una única vez (versión 1).
      */
     public void migrarIdsReservasLegibles(){
         try {
-            List<Document> docs = mongoCRUD.listarTodos("reservas");
-            if (docs.isEmpty()) return;
-            MongoCollection<Document> colReservas = mongoCRUD.getConexion().getColeccion("reservas");
-            // Obtener max actual para continuar secuencia
-            int max = 0;
-            for (Document d: docs){
-                String id = d.getString("_id");
-                if (id != null && id.startsWith("RES-")){
-                    try {int n=Integer.parseInt(id.substring(4)); if(n>max) max=n;} catch(Exception ignore){}
-                }
-            }
-            for (Document doc : docs){
+            migrarReservas();
+        } catch (Exception e){
+            System.err.println("Error en migrarIdsReservasLegibles: "+e.getMessage());
+        }
+    }
+
+    /**
+     * Reescribe las reservas pendientes por lotes (un bulkWrite de reservas y uno de
+     * servicios por lote). Los servicios que apuntaban a un ID antiguo se actualizan.
+     *
+     * @return Documentos escritos
+     */
+    private int migrarReservas(){
+        // Solo reservas con ID no legible o sin campos de planificación
+        Document pendientes = new Document("$or", java.util.Arrays.asList(
+            new Document("_id", new Document("$not", PATRON_ID_RESERVA)),
+            new Document("fechaReserva", new Document("$exists", false)),
+            new Document("fechaInicioPlanificada", new Document("$exists", false)),
+            new Document("fechaFinPlanificada", new Document("$exists", false)),
+            new Document("noches", new Document("$exists", false))));
+        int escritos = 0;
+        List<Document> lote;
+        while (!(lote = mongoCRUD.buscar("reservas", new Consulta(pendientes).limitar(TAMANO_LOTE_MIGRACION))).isEmpty()) {
+            List<OperacionLote> ops = new ArrayList<>();
+            java.util.Map<String,String> nuevosIds = new java.util.HashMap<>();
+            for (Document doc : lote){
                 String oldId = doc.getString("_id");
-                boolean necesitaNuevoId = (oldId == null || !oldId.matches("RES-\\d{4}"));
-                if (necesitaNuevoId) { max++; }
-                String nuevoId = necesitaNuevoId? String.format("RES-%04d", max) : oldId;
+                boolean necesitaNuevoId = (oldId == null || !PATRON_ID_RESERVA.matcher(oldId).matches());
+                // Los nuevos IDs salen del mismo contador que las reservas nuevas para no colisionar
+                String nuevoId = necesitaNuevoId? generarCodigoReserva() : oldId;
                 // Asegurar campos de planificación
                 Date fechaReserva = doc.getDate("fechaReserva");
                 Date inicioPlan = doc.getDate("fechaInicioPlanificada");
@@ -258,53 +435,42 @@ public class ModeloServiceImpl implements IModeloService {
                     cal.setTime(inicioPlan); cal.add(java.util.Calendar.DATE, noches!=null?noches:1);
                     finPlan = cal.getTime();
                 }
-                Document nuevo = new Document("_id", nuevoId)
-                        .append("idCliente", doc.getString("idCliente"))
-                        .append("idHabitacion", doc.getString("idHabitacion"))
-                        .append("fechaIngreso", doc.getDate("fechaIngreso"))
-                        .append("fechaSalida", doc.getDate("fechaSalida"))
-                        .append("total", doc.get("total"))
-                        .append("observaciones", doc.getString("observaciones"))
-                        .append("confirmada", doc.get("confirmada"))
-                        .append("fechaReserva", fechaReserva)
-                        .append("fechaInicioPlanificada", inicioPlan)
-                        .append("fechaFinPlanificada", finPlan)
-                        .append("noches", noches!=null?noches:1);
                 if (necesitaNuevoId){
-                    colReservas.deleteOne(Filters.eq("_id", oldId));
-                    colReservas.insertOne(nuevo);
+                    Document nuevo = new Document("_id", nuevoId)
+                            .append("idCliente", doc.getString("idCliente"))
+                            .append("idHabitacion", doc.getString("idHabitacion"))
+                            .append("fechaIngreso", doc.getDate("fechaIngreso"))
+                            .append("fechaSalida", doc.getDate("fechaSalida"))
+                            .append("total", doc.get("total"))
+                            .append("observaciones", doc.getString("observaciones"))
+                            .append("confirmada", doc.get("confirmada"))
+                            .append("fechaReserva", fechaReserva)
+                            .append("fechaInicioPlanificada", inicioPlan)
+                            .append("fechaFinPlanificada", finPlan)
+                            .append("noches", noches!=null?noches:1);
+                    // Primero la copia: si la inserción falla, el lote ordenado no elimina el original
+                    ops.add(OperacionLote.insertar(nuevo));
+                    ops.add(OperacionLote.eliminar(oldId));
+                    nuevosIds.put(oldId, nuevoId);
                 } else {
-                    // Actualizar documento existente solo si faltan campos de planificación
-                    boolean faltanCampos = !doc.containsKey("fechaReserva") || !doc.containsKey("fechaInicioPlanificada") || !doc.containsKey("fechaFinPlanificada") || !doc.containsKey("noches");
-                    if (faltanCampos){
-                        colReservas.updateOne(Filters.eq("_id", oldId), new Document("$set", new Document()
-                                .append("fechaReserva", fechaReserva)
-                                .append("fechaInicioPlanificada", inicioPlan)
-                                .append("fechaFinPlanificada", finPlan)
-                                .append("noches", noches!=null?noches:1)));
-                    }
+                    // Solo faltan campos de planificación
+                    ops.add(OperacionLote.actualizar(oldId, new Document("$set", new Document()
+                            .append("fechaReserva", fechaReserva)
+                            .append("fechaInicioPlanificada", inicioPlan)
+                            .append("fechaFinPlanificada", finPlan)
+                            .append("noches", noches!=null?noches:1))));
                 }
             }
-        } catch (Exception e){
-            System.err.println("Error en migrarIdsReservasLegibles: "+e.getMessage());
+            int escritosLote = contarEscritos(mongoCRUD.escribirEnLote("reservas", ops, true));
+            if (escritosLote == 0) break;
+            escritos += escritosLote + remapearReferencias("servicios", "idReserva", nuevosIds);
         }
+        return escritos;
     }
 
     @Override
     public String generarCodigoServicio(){
-        try {
-            List<Document> docs = mongoCRUD.listarTodos("servicios");
-            int max = 0;
-            for (Document d: docs){
-                String id = d.getString("_id");
-                if (id != null && id.startsWith("SRV-")) {
-                    try {int n = Integer.parseInt(id.substring(4)); if (n>max) max=n;} catch(Exception ignore){}
-                }
-            }
-            return String.format("SRV-%04d", max+1);
-        } catch (Exception e){
-            return "SRV-"+java.util.UUID.randomUUID().toString().substring(0,8).toUpperCase();
-        }
+        return generarCodigo("SRV");
     }
     
     // === OPERACIONES DE HABITACIONES ===
@@ -312,14 +478,12 @@ public class ModeloServiceImpl implements IModeloService {
     @Override
     public List<Habitacion> obtenerHabitacionesDisponibles() {
         try {
-            List<Document> documentos = mongoCRUD.listarTodos("habitaciones");
+            // ocupada ausente equivale a disponible (ver Habitacion.fromDocument)
+            Consulta consulta = new Consulta(new Document("ocupada", new Document("$ne", true)))
+                .ordenarPor("numero", true);
             List<Habitacion> disponibles = new ArrayList<>();
-            
-            for (Document doc : documentos) {
-                Habitacion hab = Habitacion.fromDocument(doc);
-                if (!hab.isOcupada()) {
-                    disponibles.add(hab);
-                }
+            for (Document doc : mongoCRUD.buscar("habitaciones", consulta)) {
+                disponibles.add(Habitacion.fromDocument(doc));
             }
             return disponibles;
         } catch (Exception e) {
@@ -331,14 +495,10 @@ public class ModeloServiceImpl implements IModeloService {
     @Override
     public List<Habitacion> obtenerHabitacionesOcupadas() {
         try {
-            List<Document> documentos = mongoCRUD.listarTodos("habitaciones");
+            Consulta consulta = new Consulta(new Document("ocupada", true)).ordenarPor("numero", true);
             List<Habitacion> ocupadas = new ArrayList<>();
-            
-            for (Document doc : documentos) {
-                Habitacion hab = Habitacion.fromDocument(doc);
-                if (hab.isOcupada()) {
-                    ocupadas.add(hab);
-                }
+            for (Document doc : mongoCRUD.buscar("habitaciones", consulta)) {
+                ocupadas.add(Habitacion.fromDocument(doc));
             }
             return ocupadas;
         } catch (Exception e) {
@@ -352,36 +512,10 @@ public class ModeloServiceImpl implements IModeloService {
         List<HabitacionOcupadaInfo> resultado = new ArrayList<>();
         
         try {
-            // Obtener habitaciones ocupadas
-            List<Habitacion> habitacionesOcupadas = obtenerHabitacionesOcupadas();
-            
-            // Obtener todas las reservas activas
-            List<Reserva> reservas = obtenerTodasReservas();
-            
-            for (Habitacion habitacion : habitacionesOcupadas) {
-                // Buscar la reserva activa para esta habitación
-                for (Reserva reserva : reservas) {
-                    if (habitacion.getId().equals(reserva.getIdHabitacion()) && reserva.getFechaSalida() == null) {
-                        // Buscar el cliente de esta reserva por ID
-                        Cliente cliente = buscarClientePorId(reserva.getIdCliente());
-                        
-                        if (cliente != null) {
-                            HabitacionOcupadaInfo info = new HabitacionOcupadaInfo(
-                                habitacion.getNumero(),
-                                habitacion.getTipo(),
-                                habitacion.getPrecio(),
-                                cliente.getNombre(),
-                                cliente.getApellido(),
-                                cliente.getCedula(),
-                                reserva.getId()
-                            );
-                            resultado.add(info);
-                        }
-                        break; // Ya encontramos la reserva para esta habitación
-                    }
-                }
+            // Un solo viaje: habitaciones ocupadas + reserva activa + cliente, resuelto en el servidor
+            for (Document doc : mongoCRUD.agregar("habitaciones", pipelineHabitacionesOcupadasConCliente())) {
+                resultado.add(HabitacionOcupadaInfo.fromDocument(doc));
             }
-            
         } catch (Exception e) {
             System.err.println("Error al obtener habitaciones ocupadas con cliente: " + e.getMessage());
         }
@@ -389,6 +523,45 @@ public class ModeloServiceImpl implements IModeloService {
         return resultado;
     }
     
+    /**
+     * Pipeline: $match habitaciones ocupadas, $lookup de su reserva activa (fechaSalida nula o ausente),
+     * $lookup del cliente de esa reserva y $project directo a los campos de {@link HabitacionOcupadaInfo}.
+     * Las habitaciones sin reserva activa o sin cliente se descartan (igual que la versión anterior).
+     * 
+     * @return Etapas de la agregación sobre la colección "habitaciones"
+     */
+    static List<Document> pipelineHabitacionesOcupadasConCliente() {
+        Document reservaActiva = new Document("$expr", new Document("$and", java.util.Arrays.asList(
+            new Document("$eq", java.util.Arrays.asList("$idHabitacion", "$$idHab")),
+            new Document("$eq", java.util.Arrays.asList(
+                new Document("$ifNull", java.util.Arrays.asList("$fechaSalida", null)), null)))));
+        return java.util.Arrays.asList(
+            new Document("$match", new Document("ocupada", true)),
+            new Document("$sort", new Document("numero", 1)),
+            new Document("$lookup", new Document("from", "reservas")
+                .append("let", new Document("idHab", "$_id"))
+                .append("pipeline", java.util.Arrays.asList(
+                    new Document("$match", reservaActiva),
+                    new Document("$limit", 1),
+                    new Document("$project", new Document("_id", 1).append("idCliente", 1))))
+                .append("as", "reserva")),
+            new Document("$unwind", "$reserva"),
+            new Document("$lookup", new Document("from", "clientes")
+                .append("localField", "reserva.idCliente")
+                .append("foreignField", "_id")
+                .append("as", "cliente")),
+            new Document("$unwind", "$cliente"),
+            new Document("$project", new Document("_id", 0)
+                .append("numeroHabitacion", "$numero")
+                .append("tipoHabitacion", "$tipo")
+                .append("precioHabitacion", "$precio")
+                .append("nombreCliente", "$cliente.nombre")
+                .append("apellidoCliente", "$cliente.apellido")
+                .append("cedulaCliente", "$cliente.cedula")
+                .append("idReserva", "$reserva._id"))
+        );
+    }
+    
     @Override
     public List<Habitacion> obtenerTodasHabitaciones() {
         try {
@@ -411,12 +584,15 @@ public class ModeloServiceImpl implements IModeloService {
             return null;
         }
         
+        // Lectura directa: índice en memoria y, si falla, una lectura puntual que lo completa
+        Habitacion cacheada = gestorDisponibilidad.buscarHabitacionPorNumero(numero);
+        if (cacheada != null) {
+            return cacheada;
+        }
         try {
-            Document filtro = new Document("numero", numero);
-            List<Document> documentos = mongoCRUD.buscarPorFiltro("habitaciones", filtro);
-            
-            if (!documentos.isEmpty()) {
-                return Habitacion.fromDocument(documentos.get(0));
+            Document doc = mongoCRUD.buscarPrimero("habitaciones", new Consulta(new Document("numero", numero)));
+            if (doc != null) {
+                return cachear(doc);
             }
         } catch (Exception e) {
             System.err.println("Error al buscar habitación: " + e.getMessage());
@@ -424,11 +600,44 @@ public class ModeloServiceImpl implements IModeloService {
         return null;
     }
     
+    /**
+     * Busca una habitación por su ID en el índice de GestorDisponibilidad; si no está,
+     * la lee de la base de datos y la agrega al índice. El índice solo refleja lo que vio esta
+     * terminal: una habitación que aparece libre debe reclamarse en la base antes de ocuparla.
+     * 
+     * @param idHabitacion ID de la habitación
+     * @return Habitación encontrada o null si no existe
+     */
+    private Habitacion buscarHabitacionPorId(String idHabitacion) {
+        if (idHabitacion == null) {
+            return null;
+        }
+        Habitacion cacheada = gestorDisponibilidad.buscarHabitacion(idHabitacion);
+        if (cacheada != null) {
+            return cacheada;
+        }
+        Document doc = mongoCRUD.buscarPorId("habitaciones", idHabitacion);
+        return doc != null ? cachear(doc) : null;
+    }
+    
+    /**
+     * Registra en el índice la habitación leída y devuelve una instancia independiente.
+     */
+    private Habitacion cachear(Document doc) {
+        gestorDisponibilidad.registrarHabitacion(Habitacion.fromDocument(doc));
+        return Habitacion.fromDocument(doc);
+    }
+    
     @Override
     public boolean actualizarEstadoHabitacion(String idHabitacion, boolean ocupada) {
         try {
             Document actualizacion = new Document("$set", new Document("ocupada", ocupada));
-            return mongoCRUD.actualizarPorId("habitaciones", idHabitacion, actualizacion);
+            boolean actualizada = mongoCRUD.actualizarPorId("habitaciones", idHabitacion, actualizacion);
+            if (actualizada) {
+                gestorDisponibilidad.actualizarDisponibilidad(idHabitacion, !ocupada);
+                eventos.publicar(EventoModelo.habitacionCambiada(idHabitacion, ocupada));
+            }
+            return actualizada;
         } catch (Exception e) {
             System.err.println("Error al actualizar habitación: " + e.getMessage());
             return false;
@@ -438,17 +647,13 @@ public class ModeloServiceImpl implements IModeloService {
     @Override
     public void inicializarHabitaciones() {
         try {
-            List<Habitacion> habitaciones = obtenerTodasHabitaciones();
-            
             // Si hay menos de 20 habitaciones, reinicializar todas
-            if (habitaciones.size() < 20) {
+            if (mongoCRUD.contar("habitaciones", new Document()) < 20) {
                 // Limpiar habitaciones existentes
-                List<Document> docs = mongoCRUD.listarTodos("habitaciones");
-                for (Document doc : docs) {
-                    mongoCRUD.eliminarPorId("habitaciones", doc.getString("_id"));
-                }
+                mongoCRUD.eliminarTodos("habitaciones");
                 
-                // Crear las 20 habitaciones como en el código original
+                // Crear las 20 habitaciones como en el código original (un solo insertMany)
+                List<Document> nuevas = new ArrayList<>();
                 for (int i = 1; i <= 20; i++) {
                     String numero = String.format("%03d", i); // 001, 002, 003...
                     String id = "HAB-" + numero; // ID legible
@@ -456,12 +661,12 @@ public class ModeloServiceImpl implements IModeloService {
                     double precio = (i <= 5) ? 120.0 : (i <= 12) ? 80.0 : 50.0;
                     
                     Habitacion hab = new Habitacion(id, numero, tipo, false, precio);
-                    mongoCRUD.insertar("habitaciones", hab.toDocument());
+                    nuevas.add(hab.toDocument());
                 }
-                
-                // Inicializar gestor de disponibilidad
-                gestorDisponibilidad.inicializar(obtenerTodasHabitaciones());
+                mongoCRUD.insertarVarios("habitaciones", nuevas);
             }
+            // Cargar el índice de habitaciones (también cuando ya existían)
+            gestorDisponibilidad.inicializar(obtenerTodasHabitaciones());
         } catch (Exception e) {
             System.err.println("Error al inicializar habitaciones: " + e.getMessage());
         }
@@ -480,39 +685,285 @@ public class ModeloServiceImpl implements IModeloService {
             return false;
         }
         
-        // Verificar que la habitación existe y está disponible (buscar por ID)
-        List<Habitacion> todasHabitaciones = obtenerTodasHabitaciones();
-        Habitacion habitacion = todasHabitaciones.stream()
-            .filter(h -> h.getId().equals(reserva.getIdHabitacion()))
-            .findFirst()
-            .orElse(null);
+        // Comprobación rápida en el índice local: si esta terminal ya la ve ocupada no se consulta
+        // la base. Que la vea libre no basta: otra terminal pudo ocuparla
+        Habitacion habitacion = buscarHabitacionPorId(reserva.getIdHabitacion());
             
         if (habitacion == null || habitacion.isOcupada()) {
             return false;
         }
         
+        // Reclamo local atómico (CAS sobre el bitset): de los hilos de esta terminal que pidan
+        // la misma habitación solo uno continúa, y ninguno escribe si no la obtuvo
+        if (!gestorDisponibilidad.reservarHabitacion(habitacion.getId())) {
+            return false;
+        }
+        boolean ocupadaEnBase = false;
         try {
             // Generar ID si no existe
             if (reserva.getId() == null || reserva.getId().trim().isEmpty()) {
                 reserva.setId(generarCodigoReserva());
             }
             
+            // La base decide entre terminales: la habitación solo se ocupa si sigue libre allí
+            if (!ocuparHabitacionSiLibre(habitacion.getId())) {
+                refrescarHabitacion(habitacion.getId());
+                return false;
+            }
+            ocupadaEnBase = true;
+            
             // Crear la reserva
             mongoCRUD.insertar("reservas", reserva.toDocument());
+            actualizarCalendario(reserva);
             
-            // Marcar habitación como ocupada
-            actualizarEstadoHabitacion(habitacion.getId(), true);
-            
-            // Actualizar gestor de disponibilidad
-            gestorDisponibilidad.reservarHabitacion(habitacion.getId());
-            
+            eventos.publicar(EventoModelo.habitacionCambiada(habitacion.getId(), true));
+            eventos.publicar(EventoModelo.reservaCreada(reserva));
             return true;
         } catch (Exception e) {
             System.err.println("Error al crear reserva: " + e.getMessage());
+            // La reserva no se guardó: devolver la habitación (como en registrarCheckinGrupal)
+            if (ocupadaEnBase) {
+                actualizarEstadoHabitacion(habitacion.getId(), false);
+            }
+            gestorDisponibilidad.liberarHabitacion(habitacion.getId());
             return false;
         }
     }
     
+    /**
+     * Ocupa la habitación con una actualización condicional ({_id, ocupada != true}):
+     * entre dos terminales que la reclaman a la vez solo una coincide.
+     * 
+     * @param idHabitacion ID de la habitación
+     * @return true si estaba libre en la base y quedó ocupada
+     */
+    private boolean ocuparHabitacionSiLibre(String idHabitacion) {
+        // ocupada ausente equivale a libre (ver Habitacion.fromDocument)
+        return mongoCRUD.actualizarSi("habitaciones", idHabitacion,
+            new Document("ocupada", new Document("$ne", true)), Updates.set("ocupada", true));
+    }
+    
+    /**
+     * Vuelve a leer la habitación de la base y corrige el índice local (ocupada por otra
+     * terminal o eliminada).
+     */
+    private void refrescarHabitacion(String idHabitacion) {
+        Document doc = mongoCRUD.buscarPorId("habitaciones", idHabitacion);
+        if (doc != null) {
+            cachear(doc);
+        } else {
+            gestorDisponibilidad.eliminarHabitacion(idHabitacion);
+        }
+    }
+    
+    /**
+     * Check-in grupal con escrituras en lote: valida todas las habitaciones, las toma de una vez
+     * en el gestor de disponibilidad (todo o nada), resuelve los clientes existentes con una sola
+     * consulta por cédula y rechaza IDs de reserva ya usados. Antes de insertar nada ocupa cada
+     * habitación en la base con la misma actualización condicional que {@link #crearReserva(Reserva)};
+     * después escribe clientes nuevos y reservas en dos bulkWrite. Si algo falla se eliminan solo
+     * los documentos que el servidor llegó a insertar y se liberan las habitaciones ocupadas.
+     */
+    @Override
+    public ResultadoCheckinGrupal registrarCheckinGrupal(List<HuespedGrupo> huespedes) {
+        if (huespedes == null || huespedes.isEmpty()) {
+            return ResultadoCheckinGrupal.rechazado("El grupo está vacío");
+        }
+        long inicio = System.currentTimeMillis();
+        
+        // 1. Habitaciones distintas, existentes y libres
+        java.util.Set<String> idsHabitaciones = new java.util.LinkedHashSet<>();
+        List<String> cedulas = new ArrayList<>();
+        for (HuespedGrupo huesped : huespedes) {
+            String cedula = huesped.getCliente().getCedula();
+            if (cedula == null || cedula.trim().isEmpty()) {
+                return ResultadoCheckinGrupal.rechazado("Todos los huéspedes deben tener cédula");
+            }
+            cedulas.add(cedula);
+            String idHabitacion = huesped.getReserva().getIdHabitacion();
+            if (idHabitacion == null || !idsHabitaciones.add(idHabitacion)) {
+                return ResultadoCheckinGrupal.rechazado("Habitación sin indicar o repetida: " + idHabitacion);
+            }
+            Habitacion habitacion = buscarHabitacionPorId(idHabitacion);
+            if (habitacion == null || habitacion.isOcupada()) {
+                return ResultadoCheckinGrupal.rechazado("La habitación " + idHabitacion + " no está disponible");
+            }
+        }
+        
+        // 2. Tomar todas las habitaciones de forma atómica frente a otros check-in concurrentes
+        if (!gestorDisponibilidad.reservarHabitaciones(idsHabitaciones)) {
+            return ResultadoCheckinGrupal.rechazado("Alguna habitación del grupo fue ocupada por otra operación");
+        }
+        
+        List<String> idsClientesNuevos = new ArrayList<>();
+        List<String> idsReservas = new ArrayList<>();
+        List<String> ocupadasEnBase = new ArrayList<>();
+        String ocupadaPorOtra = null;
+        try {
+            // 3. Clientes: existentes con una consulta $in, nuevos validando teléfonos con otra
+            java.util.Map<String, Cliente> porCedula = new java.util.HashMap<>();
+            Consulta existentes = new Consulta(new Document("cedula", new Document("$in", cedulas)));
+            for (Document doc : mongoCRUD.buscar("clientes", existentes)) {
+                Cliente cliente = Cliente.fromDocument(doc);
+                porCedula.put(cliente.getCedula(), cliente);
+            }
+            // IDs indicados por quien llama (p. ej. al rehacer): los de reserva no pueden existir ya;
+            // los de cliente ya usados se sustituyen por uno nuevo, como en el modelo en memoria
+            java.util.Set<String> idsClienteUsados = idsExistentes("clientes", idsIndicados(huespedes, true));
+            java.util.Set<String> idsReservaUsados = idsExistentes("reservas", idsIndicados(huespedes, false));
+            java.util.Set<String> idsReservaGrupo = new java.util.HashSet<>();
+            List<Document> clientesNuevos = new ArrayList<>();
+            List<String> telefonos = new ArrayList<>();
+            List<Document> reservas = new ArrayList<>();
+            for (HuespedGrupo huesped : huespedes) {
+                Cliente cliente = porCedula.get(huesped.getCliente().getCedula());
+                if (cliente == null) {
+                    cliente = huesped.getCliente();
+                    if (cliente.getTelefono() != null && telefonos.contains(cliente.getTelefono())) {
+                        throw new IllegalStateException("Teléfono repetido en el grupo: " + cliente.getTelefono());
+                    }
+                    if (cliente.getTelefono() != null) {
+                        telefonos.add(cliente.getTelefono());
+                    }
+                    if (cliente.getId() == null || !PATRON_ID_CLIENTE.matcher(cliente.getId()).matches()
+                        || !idsClienteUsados.add(cliente.getId())) {
+                        cliente.setId(generarCodigoCliente());
+                    }
+                    porCedula.put(cliente.getCedula(), cliente);
+                    clientesNuevos.add(cliente.toDocument());
+                }
+                Reserva reserva = huesped.getReserva();
+                reserva.setIdCliente(cliente.getId());
+                if (reserva.getId() == null || reserva.getId().trim().isEmpty()) {
+                    reserva.setId(generarCodigoReserva());
+                } else if (idsReservaUsados.contains(reserva.getId()) || !idsReservaGrupo.add(reserva.getId())) {
+                    throw new IllegalStateException("La reserva " + reserva.getId() + " ya existe");
+                }
+                reservas.add(reserva.toDocument());
+            }
+            if (!telefonos.isEmpty()) {
+                Consulta repetidos = new Consulta(new Document("telefono", new Document("$in", telefonos))).incluir("telefono");
+                Document repetido = mongoCRUD.buscarPrimero("clientes", repetidos);
+                if (repetido != null) {
+                    throw new IllegalStateException("El teléfono " + repetido.getString("telefono") + " ya está registrado");
+                }
+            }
+            
+            // 4. La base decide entre terminales: cada habitación solo se ocupa si sigue libre allí
+            for (String idHabitacion : idsHabitaciones) {
+                if (!ocuparHabitacionSiLibre(idHabitacion)) {
+                    ocupadaPorOtra = idHabitacion;
+                    throw new IllegalStateException("La habitación " + idHabitacion + " no está disponible");
+                }
+                ocupadasEnBase.add(idHabitacion);
+            }
+            
+            // 5. Escrituras en lote: clientes nuevos y reservas; solo se anota lo que el servidor insertó
+            if (!clientesNuevos.isEmpty()) {
+                List<ResultadoLote> lotes = mongoCRUD.insertarVarios("clientes", clientesNuevos);
+                idsClientesNuevos.addAll(idsInsertados(clientesNuevos, lotes));
+                exigirLote(lotes, "clientes");
+            }
+            List<ResultadoLote> lotes = mongoCRUD.insertarVarios("reservas", reservas);
+            idsReservas.addAll(idsInsertados(reservas, lotes));
+            exigirLote(lotes, "reservas");
+            
+            for (HuespedGrupo huesped : huespedes) {
+                actualizarCalendario(huesped.getReserva());
+            }
+            // Eventos solo cuando el grupo quedó completo (un grupo revertido no publica nada)
+            for (Document doc : clientesNuevos) {
+                eventos.publicar(EventoModelo.clienteCambiado(doc.getString("_id"), Cliente.fromDocument(doc)));
+            }
+            for (String idHabitacion : idsHabitaciones) {
+                eventos.publicar(EventoModelo.habitacionCambiada(idHabitacion, true));
+            }
+            for (HuespedGrupo huesped : huespedes) {
+                eventos.publicar(EventoModelo.reservaCreada(huesped.getReserva()));
+            }
+            return new ResultadoCheckinGrupal(true, "Check-in grupal registrado", idsReservas,
+                idsClientesNuevos, new ArrayList<>(idsHabitaciones), System.currentTimeMillis() - inicio);
+        } catch (Exception e) {
+            System.err.println("Error en check-in grupal: " + e.getMessage());
+            revertirCheckinGrupal(idsClientesNuevos, idsReservas, ocupadasEnBase);
+            for (String idHabitacion : idsHabitaciones) {
+                gestorDisponibilidad.liberarHabitacion(idHabitacion);
+            }
+            if (ocupadaPorOtra != null) {
+                refrescarHabitacion(ocupadaPorOtra); // el índice local pasa a verla ocupada
+            }
+            return ResultadoCheckinGrupal.rechazado(e.getMessage());
+        }
+    }
+    
+    /**
+     * IDs que trae el grupo: de cliente (solo los que siguen el formato CLI-NNNN) o de reserva.
+     */
+    private static List<String> idsIndicados(List<HuespedGrupo> huespedes, boolean clientes) {
+        List<String> ids = new ArrayList<>();
+        for (HuespedGrupo huesped : huespedes) {
+            String id = clientes ? huesped.getCliente().getId() : huesped.getReserva().getId();
+            if (id != null && !id.trim().isEmpty() && (!clientes || PATRON_ID_CLIENTE.matcher(id).matches())) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * @return Los IDs de la lista que ya existen en la colección (una consulta $in)
+     */
+    private java.util.Set<String> idsExistentes(String coleccion, List<String> ids) {
+        java.util.Set<String> existentes = new java.util.HashSet<>();
+        if (ids.isEmpty()) {
+            return existentes;
+        }
+        Consulta consulta = new Consulta(new Document("_id", new Document("$in", ids))).incluir("_id");
+        for (Document doc : mongoCRUD.buscar(coleccion, consulta)) {
+            existentes.add(doc.getString("_id"));
+        }
+        return existentes;
+    }
+    
+    /**
+     * IDs de los documentos que el servidor insertó: se excluyen las posiciones que rechazó
+     * (por ejemplo, por _id repetido), cuyo documento existente no es de esta operación.
+     */
+    static List<String> idsInsertados(List<Document> documentos, List<ResultadoLote> lotes) {
+        java.util.Set<Integer> rechazados = new java.util.HashSet<>(ResultadoLote.total(lotes).getIndicesConError());
+        List<String> ids = new ArrayList<>(documentos.size());
+        for (int i = 0; i < documentos.size(); i++) {
+            if (!rechazados.contains(i)) ids.add(documentos.get(i).getString("_id"));
+        }
+        return ids;
+    }
+    
+    private static void exigirLote(List<ResultadoLote> lotes, String coleccion) {
+        if (!ResultadoLote.total(lotes).isExitoso()) {
+            throw new IllegalStateException("Fallo la escritura en lote de " + coleccion);
+        }
+    }
+    
+    /**
+     * Compensa un check-in grupal interrumpido eliminando lo insertado y liberando las habitaciones
+     * que llegó a ocupar en la base.
+     */
+    private void revertirCheckinGrupal(List<String> idsClientes, List<String> idsReservas, java.util.Collection<String> idsHabitaciones) {
+        try {
+            if (!idsReservas.isEmpty()) mongoCRUD.eliminarPorIds("reservas", idsReservas);
+            if (!idsClientes.isEmpty()) mongoCRUD.eliminarPorIds("clientes", idsClientes);
+            if (!idsHabitaciones.isEmpty()) {
+                List<OperacionLote> liberar = new ArrayList<>(idsHabitaciones.size());
+                for (String idHabitacion : idsHabitaciones) {
+                    liberar.add(OperacionLote.actualizar(idHabitacion, Updates.set("ocupada", false)));
+                }
+                mongoCRUD.escribirEnLote("habitaciones", liberar, false);
+            }
+        } catch (Exception e) {
+            System.err.println("Error revirtiendo check-in grupal: " + e.getMessage());
+        }
+    }
+    
     @Override
     public Reserva buscarReservaActivaPorCedula(String cedula) {
         if (cedula == null || cedula.trim().isEmpty()) {
@@ -528,9 +979,9 @@ public class ModeloServiceImpl implements IModeloService {
             
             // Luego buscar la reserva activa por ID del cliente
             Document filtro = new Document("idCliente", cliente.getId()).append("fechaSalida", null);
-            List<Document> documentos = mongoCRUD.buscarPorFiltro("reservas", filtro);
-            if (!documentos.isEmpty()) {
-                return Reserva.fromDocument(documentos.get(0));
+            Document doc = mongoCRUD.buscarPrimero("reservas", new Consulta(filtro));
+            if (doc != null) {
+                return Reserva.fromDocument(doc);
             }
         } catch (Exception e) {
             System.err.println("Error al buscar reserva activa: " + e.getMessage());
@@ -545,22 +996,20 @@ public class ModeloServiceImpl implements IModeloService {
             boolean actualizada = mongoCRUD.actualizarPorId("reservas", idReserva, actualizacion);
             
             if (actualizada) {
+                quitarDelCalendario(idReserva);
                 // Buscar la reserva para obtener el ID de habitación
                 Document reservaDoc = mongoCRUD.buscarPorId("reservas", idReserva);
                 if (reservaDoc != null) {
                     Reserva reserva = Reserva.fromDocument(reservaDoc);
                     // Buscar habitación por ID, no por número
-                    List<Habitacion> todasHabitaciones = obtenerTodasHabitaciones();
-                    Habitacion habitacion = todasHabitaciones.stream()
-                        .filter(h -> h.getId().equals(reserva.getIdHabitacion()))
-                        .findFirst()
-                        .orElse(null);
+                    Habitacion habitacion = buscarHabitacionPorId(reserva.getIdHabitacion());
                     
                     if (habitacion != null) {
                         // Liberar habitación
                         actualizarEstadoHabitacion(habitacion.getId(), false);
                         gestorDisponibilidad.liberarHabitacion(habitacion.getId());
                     }
+                    eventos.publicar(EventoModelo.reservaFinalizada(reserva));
                 }
             }
             return actualizada;
@@ -570,6 +1019,27 @@ public class ModeloServiceImpl implements IModeloService {
         }
     }
     
+    @Override
+    public boolean eliminarReserva(String idReserva) {
+        if (idReserva == null || idReserva.trim().isEmpty()) {
+            return false;
+        }
+        
+        try {
+            Document reservaDoc = mongoCRUD.buscarPorId("reservas", idReserva);
+            if (reservaDoc == null || !mongoCRUD.eliminarPorIdConResultado("reservas", idReserva)) {
+                return false;
+            }
+            quitarDelCalendario(idReserva);
+            // No hay evento de borrado de reservas: como en EventoModelo.desdeDocumento, se pide recargar
+            eventos.publicar(EventoModelo.estadoRestaurado());
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error al eliminar reserva: " + e.getMessage());
+            return false;
+        }
+    }
+    
     @Override
     public List<Reserva> obtenerTodasReservas() {
         try {
@@ -586,24 +1056,131 @@ public class ModeloServiceImpl implements IModeloService {
         }
     }
     
+    /**
+     * Recorre las reservas directamente sobre el cursor de MongoDB, de a
+     * {@link #TAMANO_LOTE_LECTURA} documentos por viaje, sin copiarlas a una lista.
+     */
     @Override
-    public List<Reserva> obtenerReservasRecientes(int limite) {
+    public Stream<Reserva> recorrerReservas() {
+        return mongoCRUD.recorrer("reservas", new Consulta().porLotes(TAMANO_LOTE_LECTURA))
+            .map(Reserva::fromDocument);
+    }
+    
+    // === CALENDARIO DE OCUPACIÓN ===
+    
+    @Override
+    public List<Habitacion> obtenerHabitacionesLibres(Date desde, Date hasta, String tipo) {
+        List<Habitacion> candidatas = new ArrayList<>();
+        for (Habitacion h : obtenerTodasHabitaciones()) {
+            if (tipo == null || tipo.equalsIgnoreCase(h.getTipo())) candidatas.add(h);
+        }
+        return calendarioCargado().habitacionesLibres(candidatas, desde, hasta);
+    }
+    
+    @Override
+    public boolean estaHabitacionLibre(String idHabitacion, Date desde, Date hasta) {
+        return !calendarioCargado().haySolapamiento(idHabitacion, desde, hasta);
+    }
+    
+    /**
+     * Devuelve el calendario, cargándolo la primera vez con las reservas no finalizadas
+     * (una sola lectura por cursor; después se mantiene en cada escritura).
+     */
+    private CalendarioDisponibilidad calendarioCargado() {
+        synchronized (calendario) {
+            if (!calendarioCargado) {
+                List<Reserva> activas = new ArrayList<>();
+                Consulta consulta = new Consulta(new Document("fechaSalida", null)).porLotes(TAMANO_LOTE_LECTURA);
+                try (Stream<Document> docs = mongoCRUD.recorrer("reservas", consulta)) {
+                    docs.forEach(d -> activas.add(Reserva.fromDocument(d)));
+                }
+                calendario.cargar(activas);
+                calendarioCargado = true;
+            }
+            return calendario;
+        }
+    }
+    
+    /** Refleja en el calendario (si ya está cargado) el estado actual de una reserva. */
+    private void actualizarCalendario(Reserva reserva) {
+        synchronized (calendario) {
+            if (calendarioCargado) calendario.registrar(reserva);
+        }
+    }
+    
+    private void quitarDelCalendario(String idReserva) {
+        synchronized (calendario) {
+            if (calendarioCargado) calendario.eliminar(idReserva);
+        }
+    }
+    
+    /**
+     * Consulta indexada (ix_fechaReserva_id / ix_fechaSalida_fechaReserva_id) con paginación por cursor.
+     * El estado Check-in/Reservada se resuelve con los IDs de habitaciones ocupadas ($in / $nin).
+     * Filtra por fechaReserva, que la migración v1 completa en todas las reservas.
+     */
+    @Override
+    public PaginaReservas buscarReservas(FiltroReservas filtro) {
         try {
-            List<Document> documentos = mongoCRUD.listarTodos("reservas");
-            List<Reserva> reservas = new ArrayList<>();
+            List<Document> condiciones = new ArrayList<>();
+            Document rango = new Document();
+            if (filtro.getDesde() != null) rango.append("$gte", filtro.getDesde());
+            if (filtro.getHasta() != null) rango.append("$lte", filtro.getHasta());
+            condiciones.add(new Document("fechaReserva", rango.isEmpty() ? new Document("$ne", null) : rango));
             
-            for (Document doc : documentos) {
-                reservas.add(Reserva.fromDocument(doc));
+            String estado = filtro.getEstado();
+            if (Reserva.ESTADO_FINALIZADA.equalsIgnoreCase(estado)) {
+                condiciones.add(new Document("fechaSalida", new Document("$ne", null)));
+            } else if (!Reserva.FILTRO_TODOS.equalsIgnoreCase(estado)) {
+                condiciones.add(new Document("fechaSalida", null));
+                boolean checkin = Reserva.ESTADO_CHECKIN.equalsIgnoreCase(estado);
+                if (checkin || Reserva.ESTADO_RESERVADA.equalsIgnoreCase(estado)) {
+                    List<String> ocupadas = new ArrayList<>();
+                    for (Document d : mongoCRUD.buscar("habitaciones", new Consulta(new Document("ocupada", true)).incluir("_id"))) {
+                        ocupadas.add(d.getString("_id"));
+                    }
+                    condiciones.add(new Document("idHabitacion", new Document(checkin ? "$in" : "$nin", ocupadas)));
+                } else if (!Reserva.FILTRO_ACTIVA.equalsIgnoreCase(estado)) {
+                    return new PaginaReservas(new ArrayList<>(), null); // estado desconocido
+                }
             }
             
-            // Ordenar por fecha de ingreso (más recientes primero)
-            reservas.sort((r1, r2) -> r2.getFechaIngreso().compareTo(r1.getFechaIngreso()));
+            if (filtro.getCursor() != null) {
+                Date fecha = filtro.getCursorFecha();
+                condiciones.add(new Document("$or", java.util.Arrays.asList(
+                    new Document("fechaReserva", new Document("$lt", fecha)),
+                    new Document("fechaReserva", fecha).append("_id", new Document("$lt", filtro.getCursorId())))));
+            }
             
-            // Limitar el resultado
-            return reservas.stream()
-                .limit(limite)
-                .collect(java.util.stream.Collectors.toList());
-                
+            Consulta consulta = new Consulta(new Document("$and", condiciones))
+                .ordenarPor("fechaReserva", false)
+                .ordenarPor("_id", false)
+                .limitar(filtro.getTamanoPagina() + 1);
+            List<Reserva> leidas = new ArrayList<>();
+            for (Document doc : mongoCRUD.buscar("reservas", consulta)) {
+                leidas.add(Reserva.fromDocument(doc));
+            }
+            return PaginaReservas.desdeLectura(leidas, filtro.getTamanoPagina());
+        } catch (Exception e) {
+            System.err.println("Error al buscar reservas: " + e.getMessage());
+            return new PaginaReservas(new ArrayList<>(), null);
+        }
+    }
+    
+    @Override
+    public List<Reserva> obtenerReservasRecientes(int limite) {
+        try {
+            // Ordenar por fecha de ingreso (más recientes primero) y limitar en el servidor
+            Consulta consulta = new Consulta().ordenarPor("fechaIngreso", false).limitar(Math.max(0, limite));
+            List<Reserva> reservas = new ArrayList<>();
+            if (limite <= 0) {
+                return reservas;
+            }
+            for (Document doc : mongoCRUD.buscar("reservas", consulta)) {
+                reservas.add(Reserva.fromDocument(doc));
+            }
+            return reservas;
+
         } catch (Exception e) {
             System.err.println("Error al obtener reservas recientes: " + e.getMessage());
             return new ArrayList<>();
@@ -619,8 +1196,7 @@ public class ModeloServiceImpl implements IModeloService {
             Reserva reserva = Reserva.fromDocument(actual);
             if (reserva.getFechaSalida() != null) return false; // ya finalizada
             // Obtener habitación para precio actual
-            List<Habitacion> habitaciones = obtenerTodasHabitaciones();
-            Habitacion hab = habitaciones.stream().filter(h -> h.getId().equals(reserva.getIdHabitacion())).findFirst().orElse(null);
+            Habitacion hab = buscarHabitacionPorId(reserva.getIdHabitacion());
             if (hab == null) return false;
             // Calcular fecha fin planificada = inicio + noches
             java.util.Calendar cal = java.util.Calendar.getInstance();
@@ -634,7 +1210,17 @@ public class ModeloServiceImpl implements IModeloService {
                     .append("total", nuevoTotal)
                     .append("observaciones", nuevasObservaciones);
             Document set = new Document("$set", update);
-            return mongoCRUD.actualizarPorId("reservas", idReserva, set);
+            boolean actualizada = mongoCRUD.actualizarPorId("reservas", idReserva, set);
+            if (actualizada) {
+                reserva.setFechaInicioPlanificada(nuevaFechaInicioPlanificada);
+                reserva.setFechaFinPlanificada(fechaFinPlanificada);
+                reserva.setNoches(noches);
+                reserva.setTotal(nuevoTotal);
+                reserva.setObservaciones(nuevasObservaciones);
+                actualizarCalendario(reserva);
+                eventos.publicar(EventoModelo.reservaActualizada(reserva));
+            }
+            return actualizada;
         } catch (Exception e){
             System.err.println("Error actualizando planificación reserva: "+e.getMessage());
             return false;
@@ -649,7 +1235,10 @@ public class ModeloServiceImpl implements IModeloService {
         List<Habitacion> habitaciones = obtenerTodasHabitaciones();
         List<Reserva> reservas = obtenerTodasReservas();
         
-        return new ModeloMemento(clientes, habitaciones, reservas);
+        // Comparte con el último memento las entidades que no cambiaron
+        ModeloMemento memento = ModeloMemento.derivar(ultimoMemento, clientes, habitaciones, reservas);
+        ultimoMemento = memento;
+        return memento;
     }
     
     @Override
@@ -659,38 +1248,150 @@ public class ModeloServiceImpl implements IModeloService {
         }
         
         try {
-            // Limpiar colecciones existentes
-            mongoCRUD.eliminarTodos("clientes");
-            mongoCRUD.eliminarTodos("habitaciones");
-            mongoCRUD.eliminarTodos("reservas");
+            // Aplicar solo las diferencias (un bulkWrite por colección); métricas en getRestauradorEstado().
+            // Si un comando de este hilo está registrando cambios, la restauración también se anota
+            restauradorEstado.restaurar(memento, mongoCRUD.getRegistroActivo());
+            ultimoMemento = memento; // el modelo vuelve a coincidir con él
             
-            // Restaurar datos del memento
-            for (Cliente cliente : memento.getClientes()) {
-                mongoCRUD.insertar("clientes", cliente.toDocument());
+            // Actualizar gestor de disponibilidad y calendario
+            gestorDisponibilidad.inicializar(memento.getHabitaciones());
+            synchronized (calendario) {
+                if (calendarioCargado) calendario.cargar(memento.getReservas());
             }
+            eventos.publicar(EventoModelo.estadoRestaurado());
             
-            for (Habitacion habitacion : memento.getHabitaciones()) {
-                mongoCRUD.insertar("habitaciones", habitacion.toDocument());
+        } catch (Exception e) {
+            System.err.println("Error al restaurar estado: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Obtiene el motor de restauración (métricas y activación de transacciones).
+     * 
+     * @return RestauradorEstado del servicio
+     */
+    public RestauradorEstado getRestauradorEstado() {
+        return restauradorEstado;
+    }
+    
+    @Override
+    public boolean soportaRegistroCambios() {
+        return true;
+    }
+    
+    @Override
+    public long contarDocumentos() {
+        try {
+            return mongoCRUD.contar("clientes", null) + mongoCRUD.contar("habitaciones", null)
+                + mongoCRUD.contar("reservas", null);
+        } catch (Exception e) {
+            System.err.println("No se pudieron contar los documentos: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    @Override
+    public void iniciarRegistroCambios() {
+        mongoCRUD.iniciarRegistro(new RegistroCambios());
+    }
+    
+    @Override
+    public RegistroCambios finalizarRegistroCambios() {
+        RegistroCambios registro = mongoCRUD.detenerRegistro();
+        return registro != null ? registro : new RegistroCambios();
+    }
+    
+    @Override
+    public void aplicarCambios(RegistroCambios cambios, boolean deshacer) {
+        if (cambios == null) {
+            return;
+        }
+        for (RegistroCambios.Cambio cambio : cambios.getCambiosParaAplicar(deshacer)) {
+            Document objetivo = cambio.estadoObjetivo(deshacer);
+            boolean esHabitacion = "habitaciones".equals(cambio.getColeccion());
+            boolean esReserva = "reservas".equals(cambio.getColeccion());
+            if (objetivo == null) {
+                mongoCRUD.eliminarPorId(cambio.getColeccion(), cambio.getId());
+                if (esHabitacion) {
+                    gestorDisponibilidad.eliminarHabitacion(cambio.getId());
+                } else if (esReserva) {
+                    quitarDelCalendario(cambio.getId());
+                }
+            } else {
+                mongoCRUD.reemplazarPorId(cambio.getColeccion(), cambio.getId(), objetivo);
+                if (esHabitacion) {
+                    gestorDisponibilidad.registrarHabitacion(Habitacion.fromDocument(objetivo));
+                } else if (esReserva) {
+                    actualizarCalendario(Reserva.fromDocument(objetivo));
+                }
             }
-            
-            for (Reserva reserva : memento.getReservas()) {
-                mongoCRUD.insertar("reservas", reserva.toDocument());
+        }
+        if (!cambios.isEmpty()) {
+            eventos.publicar(EventoModelo.estadoRestaurado());
+        }
+    }
+    
+    @Override
+    public boolean cambiosAplicables(RegistroCambios cambios, boolean deshacer) {
+        try {
+            for (RegistroCambios.Cambio cambio : cambios.getCambios()) {
+                Document actual = mongoCRUD.buscarPorId(cambio.getColeccion(), cambio.getId());
+                if (!java.util.Objects.equals(actual, cambio.estadoObjetivo(!deshacer))) {
+                    return false;
+                }
             }
-            
-            // Actualizar gestor de disponibilidad
-            gestorDisponibilidad.inicializar(memento.getHabitaciones());
-            
+            return true;
         } catch (Exception e) {
-            System.err.println("Error al restaurar estado: " + e.getMessage());
+            System.err.println("Error al validar cambios: " + e.getMessage());
+            return false;
         }
     }
     
+    // === EVENTOS DE DOMINIO ===
+    
+    /**
+     * Suscribe al receptor y, la primera vez, intenta abrir el flujo de cambios de MongoDB
+     * para recibir también los cambios de otras terminales.
+     */
+    @Override
+    public boolean suscribirEventos(PublicadorEventos.Suscriptor suscriptor) {
+        eventos.suscribir(suscriptor);
+        synchronized (escuchaRemota) {
+            if (!escuchaIntentada) {
+                escuchaIntentada = true;
+                cambiosRemotos = escuchaRemota.iniciar();
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public void cancelarSuscripcionEventos(PublicadorEventos.Suscriptor suscriptor) {
+        eventos.cancelarSuscripcion(suscriptor);
+    }
+    
+    @Override
+    public boolean publicaCambiosRemotos() {
+        synchronized (escuchaRemota) {
+            return cambiosRemotos;
+        }
+    }
+    
+    /**
+     * Obtiene el publicador de eventos de dominio (métricas de publicación).
+     * 
+     * @return PublicadorEventos del servicio
+     */
+    public PublicadorEventos getPublicadorEventos() {
+        return eventos;
+    }
+    
     @Override
     public boolean verificarDisponibilidad() {
         try {
-            // Verificar conectividad de base de datos
-            List<Document> test = mongoCRUD.listarTodos("habitaciones");
-            return test != null;
+            // Verificar conectividad de base de datos (un solo documento, solo _id)
+            mongoCRUD.buscarPrimero("habitaciones", new Consulta().incluir("_id"));
+            return true;
         } catch (Exception e) {
             System.err.println("Error en verificación de disponibilidad: " + e.getMessage());
             return false;
@@ -710,8 +1411,7 @@ public class ModeloServiceImpl implements IModeloService {
             if (reserva.getFechaSalida() != null) return false; // ya finalizada
             if (!reserva.getIdHabitacion().equals(servicio.getIdHabitacion())) return false; // mismatch
             // Validar habitación ocupada
-            List<Habitacion> habitaciones = obtenerTodasHabitaciones();
-            Habitacion hab = habitaciones.stream().filter(h -> h.getId().equals(servicio.getIdHabitacion())).findFirst().orElse(null);
+            Habitacion hab = buscarHabitacionPorId(servicio.getIdHabitacion());
             if (hab == null || !hab.isOcupada()) return false;
             if (servicio.getId()==null || servicio.getId().trim().isEmpty()) {
                 servicio.setId(generarCodigoServicio());
@@ -732,8 +1432,8 @@ public class ModeloServiceImpl implements IModeloService {
         List<ServicioHabitacion> lista = new ArrayList<>();
         if (idReserva == null) return lista;
         try {
-            Document filtro = new Document("idReserva", idReserva);
-            List<Document> docs = mongoCRUD.buscarPorFiltro("servicios", filtro);
+            Consulta consulta = new Consulta(new Document("idReserva", idReserva)).ordenarPor("fecha", true);
+            List<Document> docs = mongoCRUD.buscar("servicios", consulta);
             for (Document d: docs) lista.add(ServicioHabitacion.fromDocument(d));
         } catch (Exception e){
             System.err.println("Error listando servicios: " + e.getMessage());
@@ -0,0 +1,1189 @@
+package model;
+
+import memento.ModeloMemento;
+import memento.RegistroCambios;
+import singleton.GestorDisponibilidad;
+import org.bson.Document;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Implementación del servicio del modelo que guarda todo en memoria, sin base de datos.
+ * Aplica las mismas validaciones que {@link ModeloServiceImpl} (cédula y teléfono únicos,
+ * códigos legibles CLI-/RES-/SRV-, una reserva activa por habitación, planificación solo de
+ * reservas abiertas) y publica los mismos eventos, por lo que sirve para el modo sin conexión,
+ * para las pruebas y para medir la aplicación con millones de registros.
+ * <p>
+ * Concurrencia: un {@link ReentrantReadWriteLock}; las consultas comparten el bloqueo de lectura
+ * y cada escritura valida y aplica bajo el de escritura, así que es atómica frente a las demás.
+ * Los eventos se publican después de liberar el bloqueo. Las entidades se copian al entrar y al
+ * salir: modificar un objeto devuelto no altera el estado del servicio.
+ * <p>
+ * Índices (los mismos campos que declara {@link GestorIndices}):
+ * <ul>
+ * <li>hash: clientes por ID, cédula y teléfono; habitaciones por ID y número; reservas por ID
+ *     y reservas activas por cliente y por habitación;</li>
+ * <li>ordenados: habitaciones por número, reservas por fecha de reserva e ID (orden de
+ *     {@link FiltroReservas#ORDEN}, para paginar por cursor) y por fecha de ingreso (recientes).</li>
+ * </ul>
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public class ModeloServiceMemoria implements IModeloService {
+
+    private static final Pattern PATRON_ID_CLIENTE = Pattern.compile("^CLI-\\d{4,}$");
+    private static final Pattern PATRON_CODIGO = Pattern.compile("^([A-Z]+)-(\\d{1,18})$");
+    private static final String CLIENTES = "clientes";
+    private static final String HABITACIONES = "habitaciones";
+    private static final String RESERVAS = "reservas";
+    private static final String SERVICIOS = "servicios";
+
+    /** Orden de las habitaciones: número y, para números repetidos, ID. */
+    static final Comparator<Habitacion> POR_NUMERO = Comparator
+        .comparing(Habitacion::getNumero, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+        .thenComparing(Habitacion::getId);
+
+    /** Orden de {@link #obtenerReservasRecientes(int)}: ingreso más reciente primero (sin fecha al final). */
+    static final Comparator<Reserva> POR_INGRESO = Comparator
+        .comparing(Reserva::getFechaIngreso, Comparator.nullsLast(Comparator.<Date>reverseOrder()))
+        .thenComparing(Reserva::getId, Comparator.reverseOrder());
+
+    private final ReentrantReadWriteLock bloqueo = new ReentrantReadWriteLock();
+
+    // Estado e índices, protegidos por bloqueo
+    private final Map<String, Cliente> clientes = new LinkedHashMap<>();
+    private final Map<String, String> clientePorCedula = new HashMap<>();
+    private final Map<String, String> clientePorTelefono = new HashMap<>();
+    private final Map<String, Habitacion> habitaciones = new LinkedHashMap<>();
+    private final Map<String, String> habitacionPorNumero = new HashMap<>();
+    private final NavigableSet<Habitacion> habitacionesPorNumero = new TreeSet<>(POR_NUMERO);
+    private final Map<String, Reserva> reservas = new LinkedHashMap<>();
+    private final Map<String, Set<String>> activasPorCliente = new HashMap<>();
+    private final Map<String, Set<String>> activasPorHabitacion = new HashMap<>();
+    private final NavigableSet<Reserva> reservasPorFecha = new TreeSet<>(FiltroReservas.ORDEN);
+    private final NavigableSet<Reserva> reservasPorIngreso = new TreeSet<>(POR_INGRESO);
+    private final Map<String, List<ServicioHabitacion>> serviciosPorReserva = new HashMap<>();
+    private final Map<String, ServicioHabitacion> servicios = new HashMap<>();
+    private final CalendarioDisponibilidad calendario = new CalendarioDisponibilidad();
+
+    // Registro de cambios del hilo que ejecuta un comando: lo que escriben otros hilos no entra en él
+    private final ThreadLocal<RegistroCambios> registroActivo = new ThreadLocal<>();
+
+    private final Map<String, AtomicLong> secuencias = new ConcurrentHashMap<>();
+    private final PublicadorEventos eventos = new PublicadorEventos();
+    private final GestorDisponibilidad gestorDisponibilidad;
+    private volatile ModeloMemento ultimoMemento; // base de la compartición estructural entre mementos
+
+    /**
+     * Constructor que mantiene al día el gestor de disponibilidad de la aplicación.
+     */
+    public ModeloServiceMemoria() {
+        this(GestorDisponibilidad.getInstance());
+    }
+
+    /**
+     * Constructor con un gestor de disponibilidad explícito.
+     *
+     * @param gestorDisponibilidad Gestor que refleja el estado de las habitaciones
+     */
+    public ModeloServiceMemoria(GestorDisponibilidad gestorDisponibilidad) {
+        if (gestorDisponibilidad == null) {
+            throw new IllegalArgumentException("El gestor de disponibilidad no puede ser nulo");
+        }
+        this.gestorDisponibilidad = gestorDisponibilidad;
+    }
+
+    // === OPERACIONES DE CLIENTES ===
+
+    @Override
+    public boolean registrarCliente(Cliente cliente) {
+        if (cliente == null || vacio(cliente.getCedula())) {
+            return false;
+        }
+        bloqueo.writeLock().lock();
+        try {
+            if (clientePorCedula.containsKey(cliente.getCedula()) || telefonoRegistrado(cliente.getTelefono())) {
+                return false;
+            }
+            if (cliente.getId() == null || !PATRON_ID_CLIENTE.matcher(cliente.getId()).matches()) {
+                cliente.setId(generarCodigo("CLI"));
+            } else if (clientes.containsKey(cliente.getId())) {
+                return false; // clave duplicada
+            }
+            guardarCliente(copiar(cliente));
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        eventos.publicar(EventoModelo.clienteCambiado(cliente.getId(), cliente));
+        return true;
+    }
+
+    @Override
+    public boolean eliminarCliente(String idCliente) {
+        if (vacio(idCliente)) {
+            return false;
+        }
+        bloqueo.writeLock().lock();
+        try {
+            if (quitarCliente(idCliente) == null) {
+                return false;
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        eventos.publicar(EventoModelo.clienteCambiado(idCliente, null));
+        return true;
+    }
+
+    @Override
+    public Cliente buscarClientePorCedula(String cedula) {
+        if (vacio(cedula)) {
+            return null;
+        }
+        bloqueo.readLock().lock();
+        try {
+            String id = clientePorCedula.get(cedula);
+            return id != null ? copiar(clientes.get(id)) : null;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Cliente buscarClientePorId(String id) {
+        if (vacio(id)) {
+            return null;
+        }
+        bloqueo.readLock().lock();
+        try {
+            Cliente cliente = clientes.get(id);
+            return cliente != null ? copiar(cliente) : null;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Cliente> obtenerTodosClientes() {
+        bloqueo.readLock().lock();
+        try {
+            List<Cliente> lista = new ArrayList<>(clientes.size());
+            for (Cliente c : clientes.values()) {
+                lista.add(copiar(c));
+            }
+            return lista;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Igual que en MongoDB: false si el cliente no existe, si no cambia nada o si la nueva
+     * cédula o teléfono pertenecen a otro cliente (índices únicos).
+     */
+    @Override
+    public boolean actualizarCliente(Cliente cliente) {
+        if (cliente == null || cliente.getId() == null) {
+            return false;
+        }
+        bloqueo.writeLock().lock();
+        try {
+            Cliente actual = clientes.get(cliente.getId());
+            if (actual == null || actual.toDocument().equals(cliente.toDocument())) {
+                return false;
+            }
+            if (ocupadoPorOtro(clientePorCedula, cliente.getCedula(), cliente.getId())
+                || ocupadoPorOtro(clientePorTelefono, cliente.getTelefono(), cliente.getId())) {
+                return false;
+            }
+            guardarCliente(copiar(cliente));
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        eventos.publicar(EventoModelo.clienteCambiado(cliente.getId(), cliente));
+        return true;
+    }
+
+    @Override
+    public boolean existeCedula(String cedula) {
+        if (vacio(cedula)) {
+            return false;
+        }
+        bloqueo.readLock().lock();
+        try {
+            return clientePorCedula.containsKey(cedula);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean existeTelefono(String telefono) {
+        if (vacio(telefono)) {
+            return false;
+        }
+        bloqueo.readLock().lock();
+        try {
+            return clientePorTelefono.containsKey(telefono);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    // === OPERACIONES DE HABITACIONES ===
+
+    @Override
+    public List<Habitacion> obtenerHabitacionesDisponibles() {
+        return habitacionesPorEstado(false);
+    }
+
+    @Override
+    public List<Habitacion> obtenerHabitacionesOcupadas() {
+        return habitacionesPorEstado(true);
+    }
+
+    private List<Habitacion> habitacionesPorEstado(boolean ocupada) {
+        bloqueo.readLock().lock();
+        try {
+            List<Habitacion> lista = new ArrayList<>();
+            for (Habitacion h : habitacionesPorNumero) {
+                if (h.isOcupada() == ocupada) lista.add(copiar(h));
+            }
+            return lista;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Habitaciones ocupadas por número, con su reserva activa y el cliente de esa reserva.
+     * Las que no tienen reserva activa o cliente se descartan, como en la agregación de MongoDB.
+     */
+    @Override
+    public List<HabitacionOcupadaInfo> obtenerHabitacionesOcupadasConCliente() {
+        bloqueo.readLock().lock();
+        try {
+            List<HabitacionOcupadaInfo> resultado = new ArrayList<>();
+            for (Habitacion h : habitacionesPorNumero) {
+                if (!h.isOcupada()) continue;
+                Reserva reserva = primera(activasPorHabitacion.get(h.getId()));
+                Cliente cliente = reserva != null ? clientes.get(reserva.getIdCliente()) : null;
+                if (cliente == null) continue;
+                resultado.add(new HabitacionOcupadaInfo(h.getNumero(), h.getTipo(), h.getPrecio(),
+                    cliente.getNombre(), cliente.getApellido(), cliente.getCedula(), reserva.getId()));
+            }
+            return resultado;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Habitacion> obtenerTodasHabitaciones() {
+        bloqueo.readLock().lock();
+        try {
+            return copiasHabitaciones();
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Habitacion buscarHabitacionPorNumero(String numero) {
+        if (vacio(numero)) {
+            return null;
+        }
+        bloqueo.readLock().lock();
+        try {
+            String id = habitacionPorNumero.get(numero);
+            return id != null ? copiar(habitaciones.get(id)) : null;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean actualizarEstadoHabitacion(String idHabitacion, boolean ocupada) {
+        List<EventoModelo> pendientes = new ArrayList<>(1);
+        bloqueo.writeLock().lock();
+        try {
+            if (!cambiarEstadoHabitacion(idHabitacion, ocupada, pendientes)) {
+                return false;
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        publicar(pendientes);
+        return true;
+    }
+
+    /**
+     * Con menos de 20 habitaciones recrea HAB-001..HAB-020 (mismos tipos y precios que con
+     * MongoDB) y carga el gestor de disponibilidad.
+     */
+    @Override
+    public void inicializarHabitaciones() {
+        bloqueo.writeLock().lock();
+        try {
+            if (habitaciones.size() < 20) {
+                for (String id : new ArrayList<>(habitaciones.keySet())) {
+                    quitarHabitacion(id);
+                }
+                for (int i = 1; i <= 20; i++) {
+                    String numero = String.format("%03d", i);
+                    String tipo = (i <= 5) ? "Suite" : (i <= 12) ? "Doble" : "Simple";
+                    double precio = (i <= 5) ? 120.0 : (i <= 12) ? 80.0 : 50.0;
+                    guardarHabitacion(new Habitacion("HAB-" + numero, numero, tipo, false, precio));
+                }
+            }
+            gestorDisponibilidad.inicializar(copiasHabitaciones());
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    // === OPERACIONES DE RESERVAS ===
+
+    @Override
+    public boolean crearReserva(Reserva reserva) {
+        if (reserva == null || reserva.getIdCliente() == null || reserva.getIdHabitacion() == null) {
+            return false;
+        }
+        List<EventoModelo> pendientes = new ArrayList<>(2);
+        bloqueo.writeLock().lock();
+        try {
+            Habitacion habitacion = habitaciones.get(reserva.getIdHabitacion());
+            if (!clientes.containsKey(reserva.getIdCliente()) || habitacion == null || habitacion.isOcupada()) {
+                return false;
+            }
+            if (vacio(reserva.getId())) {
+                reserva.setId(generarCodigo("RES"));
+            } else if (reservas.containsKey(reserva.getId())) {
+                return false; // clave duplicada
+            }
+            guardarReserva(copiar(reserva));
+            cambiarEstadoHabitacion(habitacion.getId(), true, pendientes);
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        pendientes.add(EventoModelo.reservaCreada(reserva));
+        publicar(pendientes);
+        return true;
+    }
+
+    /**
+     * Check-in grupal todo o nada: valida el grupo completo bajo el bloqueo de escritura y solo
+     * entonces da de alta clientes, reservas y ocupación, así que nunca queda un grupo a medias.
+     * Los mensajes de rechazo son los de {@link ModeloServiceImpl#registrarCheckinGrupal(List)}.
+     */
+    @Override
+    public ResultadoCheckinGrupal registrarCheckinGrupal(List<HuespedGrupo> huespedes) {
+        if (huespedes == null || huespedes.isEmpty()) {
+            return ResultadoCheckinGrupal.rechazado("El grupo está vacío");
+        }
+        long inicio = System.currentTimeMillis();
+        List<EventoModelo> pendientes = new ArrayList<>();
+        List<String> idsReservas = new ArrayList<>();
+        List<String> idsClientesNuevos = new ArrayList<>();
+        Set<String> idsHabitaciones = new LinkedHashSet<>();
+        bloqueo.writeLock().lock();
+        try {
+            // 1. Validación completa antes de escribir
+            Set<String> telefonos = new HashSet<>();
+            Set<String> cedulasNuevas = new HashSet<>();
+            Set<String> idsReservaGrupo = new HashSet<>();
+            for (HuespedGrupo huesped : huespedes) {
+                Cliente cliente = huesped.getCliente();
+                if (vacio(cliente.getCedula())) {
+                    return ResultadoCheckinGrupal.rechazado("Todos los huéspedes deben tener cédula");
+                }
+                String idHabitacion = huesped.getReserva().getIdHabitacion();
+                if (idHabitacion == null || !idsHabitaciones.add(idHabitacion)) {
+                    return ResultadoCheckinGrupal.rechazado("Habitación sin indicar o repetida: " + idHabitacion);
+                }
+                Habitacion habitacion = habitaciones.get(idHabitacion);
+                if (habitacion == null || habitacion.isOcupada()) {
+                    return ResultadoCheckinGrupal.rechazado("La habitación " + idHabitacion + " no está disponible");
+                }
+                String idReserva = huesped.getReserva().getId();
+                if (!vacio(idReserva) && (reservas.containsKey(idReserva) || !idsReservaGrupo.add(idReserva))) {
+                    return ResultadoCheckinGrupal.rechazado("La reserva " + idReserva + " ya existe");
+                }
+                if (clientePorCedula.containsKey(cliente.getCedula()) || !cedulasNuevas.add(cliente.getCedula())) {
+                    continue;
+                }
+                if (cliente.getTelefono() != null && !telefonos.add(cliente.getTelefono())) {
+                    return ResultadoCheckinGrupal.rechazado("Teléfono repetido en el grupo: " + cliente.getTelefono());
+                }
+                if (telefonoRegistrado(cliente.getTelefono())) {
+                    return ResultadoCheckinGrupal.rechazado("El teléfono " + cliente.getTelefono() + " ya está registrado");
+                }
+            }
+
+            // 2. Escritura: clientes nuevos, reservas y ocupación
+            for (HuespedGrupo huesped : huespedes) {
+                Cliente cliente = huesped.getCliente();
+                String idCliente = clientePorCedula.get(cliente.getCedula());
+                if (idCliente == null) {
+                    if (cliente.getId() == null || !PATRON_ID_CLIENTE.matcher(cliente.getId()).matches()
+                        || clientes.containsKey(cliente.getId())) {
+                        cliente.setId(generarCodigo("CLI"));
+                    }
+                    idCliente = cliente.getId();
+                    guardarCliente(copiar(cliente));
+                    pendientes.add(EventoModelo.clienteCambiado(idCliente, cliente));
+                    idsClientesNuevos.add(idCliente);
+                }
+                Reserva reserva = huesped.getReserva();
+                reserva.setIdCliente(idCliente);
+                if (vacio(reserva.getId())) {
+                    reserva.setId(generarCodigo("RES"));
+                }
+                guardarReserva(copiar(reserva));
+                idsReservas.add(reserva.getId());
+            }
+            for (String idHabitacion : idsHabitaciones) {
+                cambiarEstadoHabitacion(idHabitacion, true, pendientes);
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        for (HuespedGrupo huesped : huespedes) {
+            pendientes.add(EventoModelo.reservaCreada(huesped.getReserva()));
+        }
+        publicar(pendientes);
+        return new ResultadoCheckinGrupal(true, "Check-in grupal registrado", idsReservas,
+            idsClientesNuevos, new ArrayList<>(idsHabitaciones), System.currentTimeMillis() - inicio);
+    }
+
+    @Override
+    public Reserva buscarReservaActivaPorCedula(String cedula) {
+        if (vacio(cedula)) {
+            return null;
+        }
+        bloqueo.readLock().lock();
+        try {
+            String idCliente = clientePorCedula.get(cedula);
+            Reserva activa = idCliente != null ? primera(activasPorCliente.get(idCliente)) : null;
+            return activa != null ? copiar(activa) : null;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean finalizarReserva(String idReserva) {
+        List<EventoModelo> pendientes = new ArrayList<>(2);
+        bloqueo.writeLock().lock();
+        try {
+            Reserva actual = reservas.get(idReserva);
+            if (actual == null) {
+                return false;
+            }
+            Reserva finalizada = copiar(actual);
+            finalizada.setFechaSalida(new Date());
+            guardarReserva(finalizada);
+            cambiarEstadoHabitacion(finalizada.getIdHabitacion(), false, pendientes);
+            pendientes.add(EventoModelo.reservaFinalizada(copiar(finalizada)));
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        publicar(pendientes);
+        return true;
+    }
+
+    @Override
+    public boolean eliminarReserva(String idReserva) {
+        if (vacio(idReserva)) {
+            return false;
+        }
+        bloqueo.writeLock().lock();
+        try {
+            if (!reservas.containsKey(idReserva)) {
+                return false;
+            }
+            quitarReserva(idReserva);
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        // No hay evento de borrado de reservas: como en EventoModelo.desdeDocumento, se pide recargar
+        eventos.publicar(EventoModelo.estadoRestaurado());
+        return true;
+    }
+
+    @Override
+    public List<Reserva> obtenerTodasReservas() {
+        bloqueo.readLock().lock();
+        try {
+            List<Reserva> lista = new ArrayList<>(reservas.size());
+            for (Reserva r : reservas.values()) {
+                lista.add(copiar(r));
+            }
+            return lista;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre el índice ordenado por fecha de reserva desde el cursor (o desde el fin del rango)
+     * y se detiene al completar la página o al salir del rango: el costo depende de la página,
+     * no del total de reservas (salvo estados poco frecuentes, que recorren más entradas).
+     */
+    @Override
+    public PaginaReservas buscarReservas(FiltroReservas filtro) {
+        String estado = filtro.getEstado();
+        if (!Reserva.FILTRO_TODOS.equalsIgnoreCase(estado) && !Reserva.FILTRO_ACTIVA.equalsIgnoreCase(estado)
+            && !Reserva.ESTADO_FINALIZADA.equalsIgnoreCase(estado) && !Reserva.ESTADO_CHECKIN.equalsIgnoreCase(estado)
+            && !Reserva.ESTADO_RESERVADA.equalsIgnoreCase(estado)) {
+            return new PaginaReservas(new ArrayList<>(), null); // estado desconocido
+        }
+        int leer = filtro.getTamanoPagina() + 1;
+        List<Reserva> leidas = new ArrayList<>(Math.min(leer, 1024));
+        bloqueo.readLock().lock();
+        try {
+            Reserva desde = null;
+            if (filtro.getHasta() != null) {
+                // Sin ID queda detrás de todas las reservas del milisegundo siguiente a 'hasta'
+                desde = sonda(new Date(filtro.getHasta().getTime() + 1), null);
+            }
+            if (filtro.getCursor() != null) {
+                Reserva cursor = sonda(filtro.getCursorFecha(), filtro.getCursorId());
+                if (desde == null || FiltroReservas.ORDEN.compare(cursor, desde) > 0) desde = cursor;
+            }
+            Iterable<Reserva> recorrido = desde != null ? reservasPorFecha.tailSet(desde, false) : reservasPorFecha;
+            for (Reserva r : recorrido) {
+                Date base = FiltroReservas.fechaBase(r);
+                if (base == null || (filtro.getDesde() != null && base.before(filtro.getDesde()))) break;
+                if (Reserva.cumpleFiltroEstado(r.calcularEstado(habitaciones.get(r.getIdHabitacion())), estado)) {
+                    leidas.add(copiar(r));
+                    if (leidas.size() == leer) break;
+                }
+            }
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+        return PaginaReservas.desdeLectura(leidas, filtro.getTamanoPagina());
+    }
+
+    private static Reserva sonda(Date fecha, String id) {
+        Reserva r = new Reserva();
+        r.setId(id);
+        r.setFechaReserva(fecha);
+        return r;
+    }
+
+    @Override
+    public List<Reserva> obtenerReservasRecientes(int limite) {
+        List<Reserva> lista = new ArrayList<>();
+        if (limite <= 0) {
+            return lista;
+        }
+        bloqueo.readLock().lock();
+        try {
+            Iterator<Reserva> it = reservasPorIngreso.iterator();
+            while (it.hasNext() && lista.size() < limite) {
+                lista.add(copiar(it.next()));
+            }
+            return lista;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean actualizarPlanificacionReserva(String idReserva, Date nuevaFechaInicioPlanificada, int noches, String nuevasObservaciones) {
+        if (idReserva == null || nuevaFechaInicioPlanificada == null || noches < 1) return false;
+        Reserva actualizada;
+        bloqueo.writeLock().lock();
+        try {
+            Reserva actual = reservas.get(idReserva);
+            if (actual == null || actual.getFechaSalida() != null) return false; // inexistente o ya finalizada
+            Habitacion hab = habitaciones.get(actual.getIdHabitacion());
+            if (hab == null) return false;
+            Calendar cal = Calendar.getInstance();
+            cal.setTime(nuevaFechaInicioPlanificada);
+            cal.add(Calendar.DATE, noches); // fin exclusiva
+            actualizada = copiar(actual);
+            actualizada.setFechaInicioPlanificada(new Date(nuevaFechaInicioPlanificada.getTime()));
+            actualizada.setFechaFinPlanificada(cal.getTime());
+            actualizada.setNoches(noches);
+            actualizada.setTotal(hab.getPrecio() * noches);
+            actualizada.setObservaciones(nuevasObservaciones);
+            if (actual.toDocument().equals(actualizada.toDocument())) return false; // sin cambios
+            guardarReserva(actualizada);
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        eventos.publicar(EventoModelo.reservaActualizada(copiar(actualizada)));
+        return true;
+    }
+
+    // === CALENDARIO DE OCUPACIÓN ===
+
+    @Override
+    public List<Habitacion> obtenerHabitacionesLibres(Date desde, Date hasta, String tipo) {
+        bloqueo.readLock().lock();
+        try {
+            List<Habitacion> candidatas = new ArrayList<>();
+            for (Habitacion h : habitaciones.values()) {
+                if (tipo == null || tipo.equalsIgnoreCase(h.getTipo())) candidatas.add(copiar(h));
+            }
+            return calendario.habitacionesLibres(candidatas, desde, hasta);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean estaHabitacionLibre(String idHabitacion, Date desde, Date hasta) {
+        bloqueo.readLock().lock();
+        try {
+            return !calendario.haySolapamiento(idHabitacion, desde, hasta);
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    // === CARGA MASIVA ===
+
+    /**
+     * Agrega clientes y reservas finalizadas generados (históricos) para probar la aplicación
+     * y los benchmarks a gran escala. No registra cambios ni publica un evento por registro:
+     * al terminar publica un único estadoRestaurado. Crea las habitaciones si faltan.
+     *
+     * @param cantidadClientes Clientes a generar
+     * @param reservasPorCliente Reservas finalizadas por cliente
+     * @return Registros creados (clientes + reservas)
+     */
+    public int generarDatosSinteticos(int cantidadClientes, int reservasPorCliente) {
+        if (cantidadClientes < 0 || reservasPorCliente < 0) {
+            throw new IllegalArgumentException("Las cantidades no pueden ser negativas");
+        }
+        inicializarHabitaciones();
+        int creados = 0;
+        long dia = 24L * 60 * 60 * 1000;
+        long ahora = System.currentTimeMillis();
+        bloqueo.writeLock().lock();
+        RegistroCambios registro = suspenderRegistro();
+        try {
+            List<Habitacion> lista = new ArrayList<>(habitaciones.values());
+            for (int i = 0; i < cantidadClientes; i++) {
+                long n = secuencia("CLI").incrementAndGet();
+                String idCliente = String.format("CLI-%04d", n);
+                String cedula = String.format("9%09d", n);
+                String telefono = String.format("09%08d", n);
+                if (clientePorCedula.containsKey(cedula) || clientePorTelefono.containsKey(telefono)) {
+                    continue; // el código queda como hueco en la secuencia
+                }
+                guardarCliente(new Cliente(idCliente, "Cliente", "Sintético " + n, cedula, telefono));
+                creados++;
+                for (int j = 0; j < reservasPorCliente; j++) {
+                    Habitacion hab = lista.get((int) ((n + j) % lista.size()));
+                    int noches = 1 + (i + j) % 7;
+                    // Estancias ya terminadas repartidas en los últimos diez años
+                    long diasAtras = 1 + noches + (i + 31L * j) % 3650;
+                    Date ingreso = new Date(ahora - diasAtras * dia - (i % 86_400) * 1000L);
+                    Date salida = new Date(ingreso.getTime() + noches * dia);
+                    guardarReserva(new Reserva(generarCodigo("RES"), idCliente, hab.getId(), ingreso, salida,
+                        hab.getPrecio() * noches, "", true, new Date(ingreso.getTime()), ingreso, salida, noches));
+                    creados++;
+                }
+            }
+        } finally {
+            reanudarRegistro(registro);
+            bloqueo.writeLock().unlock();
+        }
+        eventos.publicar(EventoModelo.estadoRestaurado());
+        return creados;
+    }
+
+    /**
+     * @return Cantidad de clientes, habitaciones y reservas (en ese orden)
+     */
+    public int[] getTamanos() {
+        bloqueo.readLock().lock();
+        try {
+            return new int[] {clientes.size(), habitaciones.size(), reservas.size()};
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    // === OPERACIONES DE MEMENTO ===
+
+    /**
+     * Deriva el memento directamente de las entidades internas (sin copiarlas antes),
+     * compartiendo con el anterior las que no cambiaron.
+     */
+    @Override
+    public ModeloMemento crearMemento() {
+        bloqueo.readLock().lock();
+        try {
+            ModeloMemento memento = ModeloMemento.derivar(ultimoMemento, new ArrayList<>(clientes.values()),
+                new ArrayList<>(habitaciones.values()), new ArrayList<>(reservas.values()));
+            ultimoMemento = memento;
+            return memento;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void restaurarEstadoCompleto(ModeloMemento memento) {
+        if (memento == null) {
+            return;
+        }
+        bloqueo.writeLock().lock();
+        RegistroCambios registro = suspenderRegistro(); // como RestauradorEstado, la restauración no se registra
+        try {
+            for (String id : new ArrayList<>(clientes.keySet())) quitarCliente(id);
+            for (String id : new ArrayList<>(habitaciones.keySet())) quitarHabitacion(id);
+            for (String id : new ArrayList<>(reservas.keySet())) quitarReserva(id);
+            for (Cliente c : memento.getClientes()) guardarCliente(c);
+            for (Habitacion h : memento.getHabitaciones()) guardarHabitacion(h);
+            for (Reserva r : memento.getReservas()) guardarReserva(r);
+            ultimoMemento = memento;
+            gestorDisponibilidad.inicializar(copiasHabitaciones());
+        } finally {
+            reanudarRegistro(registro);
+            bloqueo.writeLock().unlock();
+        }
+        eventos.publicar(EventoModelo.estadoRestaurado());
+    }
+
+    @Override
+    public boolean soportaRegistroCambios() {
+        return true;
+    }
+
+    @Override
+    public long contarDocumentos() {
+        int[] tamanos = getTamanos();
+        return (long) tamanos[0] + tamanos[1] + tamanos[2];
+    }
+
+    /**
+     * Empieza a registrar lo que escriba el hilo actual; las escrituras de otros hilos no entran.
+     */
+    @Override
+    public void iniciarRegistroCambios() {
+        registroActivo.set(new RegistroCambios());
+    }
+
+    @Override
+    public RegistroCambios finalizarRegistroCambios() {
+        RegistroCambios registro = suspenderRegistro();
+        return registro != null ? registro : new RegistroCambios();
+    }
+
+    private RegistroCambios suspenderRegistro() {
+        RegistroCambios registro = registroActivo.get();
+        registroActivo.remove();
+        return registro;
+    }
+
+    private void reanudarRegistro(RegistroCambios registro) {
+        if (registro != null) registroActivo.set(registro);
+    }
+
+    @Override
+    public void aplicarCambios(RegistroCambios cambios, boolean deshacer) {
+        if (cambios == null) {
+            return;
+        }
+        bloqueo.writeLock().lock();
+        try {
+            for (RegistroCambios.Cambio cambio : cambios.getCambiosParaAplicar(deshacer)) {
+                Document objetivo = cambio.estadoObjetivo(deshacer);
+                String id = cambio.getId();
+                switch (cambio.getColeccion()) {
+                    case CLIENTES:
+                        if (objetivo == null) quitarCliente(id);
+                        else guardarCliente(Cliente.fromDocument(objetivo));
+                        break;
+                    case HABITACIONES:
+                        if (objetivo == null) {
+                            quitarHabitacion(id);
+                            gestorDisponibilidad.eliminarHabitacion(id);
+                        } else {
+                            guardarHabitacion(Habitacion.fromDocument(objetivo));
+                            gestorDisponibilidad.registrarHabitacion(Habitacion.fromDocument(objetivo));
+                        }
+                        break;
+                    case RESERVAS:
+                        if (objetivo == null) quitarReserva(id);
+                        else guardarReserva(Reserva.fromDocument(objetivo));
+                        break;
+                    case SERVICIOS:
+                        if (objetivo == null) quitarServicio(id);
+                        else guardarServicio(ServicioHabitacion.fromDocument(objetivo));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+        if (!cambios.isEmpty()) {
+            eventos.publicar(EventoModelo.estadoRestaurado());
+        }
+    }
+
+    @Override
+    public boolean cambiosAplicables(RegistroCambios cambios, boolean deshacer) {
+        bloqueo.readLock().lock();
+        try {
+            for (RegistroCambios.Cambio cambio : cambios.getCambios()) {
+                if (!java.util.Objects.equals(documentoActual(cambio.getColeccion(), cambio.getId()),
+                        cambio.estadoObjetivo(!deshacer))) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /** Documento vigente con la misma forma que los que se registran (null si no existe). */
+    private Document documentoActual(String coleccion, String id) {
+        switch (coleccion) {
+            case CLIENTES:
+                Cliente cliente = clientes.get(id);
+                return cliente != null ? cliente.toDocument() : null;
+            case HABITACIONES:
+                Habitacion habitacion = habitaciones.get(id);
+                return habitacion != null ? habitacion.toDocument() : null;
+            case RESERVAS:
+                Reserva reserva = reservas.get(id);
+                return reserva != null ? reserva.toDocument() : null;
+            case SERVICIOS:
+                ServicioHabitacion servicio = servicios.get(id);
+                return servicio != null ? servicio.toDocument() : null;
+            default:
+                return null;
+        }
+    }
+
+    // === EVENTOS DE DOMINIO ===
+
+    @Override
+    public boolean suscribirEventos(PublicadorEventos.Suscriptor suscriptor) {
+        eventos.suscribir(suscriptor);
+        return true;
+    }
+
+    @Override
+    public void cancelarSuscripcionEventos(PublicadorEventos.Suscriptor suscriptor) {
+        eventos.cancelarSuscripcion(suscriptor);
+    }
+
+    /**
+     * Obtiene el publicador de eventos de dominio (métricas de publicación).
+     *
+     * @return PublicadorEventos del servicio
+     */
+    public PublicadorEventos getPublicadorEventos() {
+        return eventos;
+    }
+
+    @Override
+    public boolean verificarDisponibilidad() {
+        return true;
+    }
+
+    // === SERVICIOS A HABITACIÓN ===
+
+    @Override
+    public boolean registrarServicioHabitacion(ServicioHabitacion servicio) {
+        if (servicio == null || servicio.getIdHabitacion() == null || servicio.getIdReserva() == null) return false;
+        if (!ServicioHabitacion.tipoValido(servicio.getTipo())) return false;
+        bloqueo.writeLock().lock();
+        try {
+            // La reserva debe estar activa, corresponder a la habitación y la habitación estar ocupada
+            Reserva reserva = reservas.get(servicio.getIdReserva());
+            if (reserva == null || reserva.getFechaSalida() != null) return false;
+            if (!reserva.getIdHabitacion().equals(servicio.getIdHabitacion())) return false;
+            Habitacion hab = habitaciones.get(servicio.getIdHabitacion());
+            if (hab == null || !hab.isOcupada()) return false;
+            if (vacio(servicio.getId())) {
+                servicio.setId(generarCodigo("SRV"));
+            } else if (servicios.containsKey(servicio.getId())) {
+                return false; // clave duplicada
+            }
+            if (servicio.getFecha() == null) servicio.setFecha(new Date());
+            servicio.setCosto(ServicioHabitacion.costoPorTipo(servicio.getTipo()));
+            guardarServicio(ServicioHabitacion.fromDocument(servicio.toDocument()));
+            return true;
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ServicioHabitacion> obtenerServiciosPorReserva(String idReserva) {
+        List<ServicioHabitacion> lista = new ArrayList<>();
+        if (idReserva == null) return lista;
+        bloqueo.readLock().lock();
+        try {
+            List<ServicioHabitacion> guardados = serviciosPorReserva.get(idReserva);
+            if (guardados != null) {
+                for (ServicioHabitacion s : guardados) lista.add(ServicioHabitacion.fromDocument(s.toDocument()));
+            }
+            return lista;
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String generarCodigoServicio() {
+        return generarCodigo("SRV");
+    }
+
+    // === ESTADO E ÍNDICES (con el bloqueo de escritura tomado) ===
+
+    private void guardarCliente(Cliente nuevo) {
+        Cliente anterior = clientes.put(nuevo.getId(), nuevo);
+        if (anterior != null) {
+            quitarDeIndice(clientePorCedula, anterior.getCedula(), anterior.getId());
+            quitarDeIndice(clientePorTelefono, anterior.getTelefono(), anterior.getId());
+        }
+        agregarAIndice(clientePorCedula, nuevo.getCedula(), nuevo.getId());
+        agregarAIndice(clientePorTelefono, nuevo.getTelefono(), nuevo.getId());
+        avanzarSecuencia(nuevo.getId());
+        registrar(CLIENTES, nuevo.getId(), anterior != null ? anterior.toDocument() : null, nuevo.toDocument());
+    }
+
+    private Cliente quitarCliente(String id) {
+        Cliente anterior = clientes.remove(id);
+        if (anterior != null) {
+            quitarDeIndice(clientePorCedula, anterior.getCedula(), id);
+            quitarDeIndice(clientePorTelefono, anterior.getTelefono(), id);
+            registrar(CLIENTES, id, anterior.toDocument(), null);
+        }
+        return anterior;
+    }
+
+    private void guardarHabitacion(Habitacion nueva) {
+        Habitacion anterior = habitaciones.put(nueva.getId(), nueva);
+        if (anterior != null) {
+            desindexarHabitacion(anterior);
+        }
+        habitacionesPorNumero.add(nueva);
+        if (nueva.getNumero() != null) habitacionPorNumero.putIfAbsent(nueva.getNumero(), nueva.getId());
+        registrar(HABITACIONES, nueva.getId(), anterior != null ? anterior.toDocument() : null, nueva.toDocument());
+    }
+
+    private void quitarHabitacion(String id) {
+        Habitacion anterior = habitaciones.remove(id);
+        if (anterior != null) {
+            desindexarHabitacion(anterior);
+            registrar(HABITACIONES, id, anterior.toDocument(), null);
+        }
+    }
+
+    private void desindexarHabitacion(Habitacion anterior) {
+        habitacionesPorNumero.remove(anterior);
+        if (anterior.getNumero() != null && habitacionPorNumero.remove(anterior.getNumero(), anterior.getId())) {
+            // Número repetido: pasa a la siguiente habitación con ese número, si queda alguna
+            Habitacion otra = habitacionesPorNumero.ceiling(new Habitacion("", anterior.getNumero(), null, false, 0));
+            if (otra != null && anterior.getNumero().equals(otra.getNumero())) {
+                habitacionPorNumero.put(otra.getNumero(), otra.getId());
+            }
+        }
+    }
+
+    private void guardarReserva(Reserva nueva) {
+        Reserva anterior = reservas.put(nueva.getId(), nueva);
+        if (anterior != null) {
+            desindexarReserva(anterior);
+        }
+        reservasPorFecha.add(nueva);
+        reservasPorIngreso.add(nueva);
+        if (nueva.getFechaSalida() == null) {
+            activasPorCliente.computeIfAbsent(nueva.getIdCliente(), k -> new LinkedHashSet<>()).add(nueva.getId());
+            activasPorHabitacion.computeIfAbsent(nueva.getIdHabitacion(), k -> new LinkedHashSet<>()).add(nueva.getId());
+        }
+        calendario.registrar(nueva);
+        avanzarSecuencia(nueva.getId());
+        registrar(RESERVAS, nueva.getId(), anterior != null ? anterior.toDocument() : null, nueva.toDocument());
+    }
+
+    private void quitarReserva(String id) {
+        Reserva anterior = reservas.remove(id);
+        if (anterior != null) {
+            desindexarReserva(anterior);
+            calendario.eliminar(id);
+            registrar(RESERVAS, id, anterior.toDocument(), null);
+        }
+    }
+
+    private void guardarServicio(ServicioHabitacion nuevo) {
+        ServicioHabitacion anterior = servicios.put(nuevo.getId(), nuevo);
+        if (anterior != null) {
+            desindexarServicio(anterior);
+        }
+        List<ServicioHabitacion> lista = serviciosPorReserva.computeIfAbsent(nuevo.getIdReserva(), k -> new ArrayList<>());
+        // Ordenada por fecha; a igual fecha, por orden de registro
+        int pos = lista.size();
+        while (pos > 0 && lista.get(pos - 1).getFecha().after(nuevo.getFecha())) pos--;
+        lista.add(pos, nuevo);
+        avanzarSecuencia(nuevo.getId());
+        registrar(SERVICIOS, nuevo.getId(), anterior != null ? anterior.toDocument() : null, nuevo.toDocument());
+    }
+
+    private void quitarServicio(String id) {
+        ServicioHabitacion anterior = servicios.remove(id);
+        if (anterior != null) {
+            desindexarServicio(anterior);
+            registrar(SERVICIOS, id, anterior.toDocument(), null);
+        }
+    }
+
+    private void desindexarServicio(ServicioHabitacion anterior) {
+        List<ServicioHabitacion> lista = serviciosPorReserva.get(anterior.getIdReserva());
+        if (lista == null) return;
+        lista.remove(anterior);
+        if (lista.isEmpty()) serviciosPorReserva.remove(anterior.getIdReserva());
+    }
+
+    private void desindexarReserva(Reserva anterior) {
+        reservasPorFecha.remove(anterior);
+        reservasPorIngreso.remove(anterior);
+        quitarActiva(activasPorCliente, anterior.getIdCliente(), anterior.getId());
+        quitarActiva(activasPorHabitacion, anterior.getIdHabitacion(), anterior.getId());
+    }
+
+    /**
+     * Cambia la ocupación de una habitación y refleja el cambio en el gestor de disponibilidad.
+     *
+     * @return false si la habitación no existe o ya estaba en ese estado (nada que modificar)
+     */
+    private boolean cambiarEstadoHabitacion(String idHabitacion, boolean ocupada, List<EventoModelo> pendientes) {
+        Habitacion actual = habitaciones.get(idHabitacion);
+        if (actual == null || actual.isOcupada() == ocupada) {
+            return false;
+        }
+        Habitacion nueva = copiar(actual);
+        nueva.setOcupada(ocupada);
+        guardarHabitacion(nueva);
+        gestorDisponibilidad.actualizarDisponibilidad(idHabitacion, !ocupada);
+        pendientes.add(EventoModelo.habitacionCambiada(idHabitacion, ocupada));
+        return true;
+    }
+
+    private void registrar(String coleccion, String id, Document antes, Document despues) {
+        RegistroCambios registro = registroActivo.get();
+        if (registro != null) {
+            registro.registrar(coleccion, id, antes, despues);
+        }
+    }
+
+    private Reserva primera(Set<String> ids) {
+        return ids == null || ids.isEmpty() ? null : reservas.get(ids.iterator().next());
+    }
+
+    private List<Habitacion> copiasHabitaciones() {
+        List<Habitacion> lista = new ArrayList<>(habitaciones.size());
+        for (Habitacion h : habitaciones.values()) {
+            lista.add(copiar(h));
+        }
+        return lista;
+    }
+
+    private boolean telefonoRegistrado(String telefono) {
+        return !vacio(telefono) && clientePorTelefono.containsKey(telefono);
+    }
+
+    // Los índices únicos de MongoDB son parciales: solo valores no vacíos
+    private static void agregarAIndice(Map<String, String> indice, String clave, String id) {
+        if (clave != null && !clave.isEmpty()) indice.put(clave, id);
+    }
+
+    private static void quitarDeIndice(Map<String, String> indice, String clave, String id) {
+        if (clave != null) indice.remove(clave, id);
+    }
+
+    private static boolean ocupadoPorOtro(Map<String, String> indice, String clave, String id) {
+        String dueno = clave != null && !clave.isEmpty() ? indice.get(clave) : null;
+        return dueno != null && !dueno.equals(id);
+    }
+
+    private static void quitarActiva(Map<String, Set<String>> indice, String clave, String idReserva) {
+        Set<String> ids = indice.get(clave);
+        if (ids != null && ids.remove(idReserva) && ids.isEmpty()) {
+            indice.remove(clave);
+        }
+    }
+
+    // === GENERACIÓN DE CÓDIGOS LEGIBLES ===
+
+    /** Genera códigos PREFIJO-0001 con el mismo formato que {@link GeneradorCodigos}. */
+    private String generarCodigo(String prefijo) {
+        return String.format("%s-%04d", prefijo, secuencia(prefijo).incrementAndGet());
+    }
+
+    /** Los IDs cargados (restauración, deshacer) adelantan su secuencia para que no se repitan. */
+    private void avanzarSecuencia(String id) {
+        Matcher m = id != null ? PATRON_CODIGO.matcher(id) : null;
+        if (m != null && m.matches()) {
+            secuencia(m.group(1)).accumulateAndGet(Long.parseLong(m.group(2)), Math::max);
+        }
+    }
+
+    private AtomicLong secuencia(String prefijo) {
+        return secuencias.computeIfAbsent(prefijo, p -> new AtomicLong());
+    }
+
+    // === COPIAS ===
+
+    private void publicar(List<EventoModelo> pendientes) {
+        for (EventoModelo evento : pendientes) {
+            eventos.publicar(evento);
+        }
+    }
+
+    private static boolean vacio(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+
+    private static Cliente copiar(Cliente c) {
+        return new Cliente(c.getId(), c.getNombre(), c.getApellido(), c.getCedula(), c.getTelefono());
+    }
+
+    private static Habitacion copiar(Habitacion h) {
+        return new Habitacion(h.getId(), h.getNumero(), h.getTipo(), h.isOcupada(), h.getPrecio());
+    }
+
+    private static Reserva copiar(Reserva r) {
+        return new Reserva(r.getId(), r.getIdCliente(), r.getIdHabitacion(), fecha(r.getFechaIngreso()),
+            fecha(r.getFechaSalida()), r.getTotal(), r.getObservaciones(), r.isConfirmada(),
+            fecha(r.getFechaReserva()), fecha(r.getFechaInicioPlanificada()), fecha(r.getFechaFinPlanificada()),
+            r.getNoches());
+    }
+
+    private static Date fecha(Date d) {
+        return d != null ? new Date(d.getTime()) : null;
+    }
+}
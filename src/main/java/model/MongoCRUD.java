@@ -1,13 +1,33 @@
 package model;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.UpdateResult;
 import org.bson.Document;
 import org.bson.conversions.Bson;
+import memento.RegistroCambios;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementación de operaciones CRUD para MongoDB.
@@ -21,7 +41,13 @@ import java.util.List;
  */
 public class MongoCRUD implements Readable, Writable, Deletable {
 
+    public static final int TAMANO_LOTE_POR_DEFECTO = 1000;
+
     private final ConexionBD conexion;
+    private volatile int tamanoLote;
+    // Registro de cambios del hilo que ejecuta un comando; las escrituras de otros hilos
+    // (escucha de cambios remotos, cargadores) no entran en él
+    private final ThreadLocal<RegistroCambios> registroActivo = new ThreadLocal<>();
 
     /**
      * Constructor que recibe la conexión a la base de datos.
@@ -30,13 +56,75 @@ public class MongoCRUD implements Readable, Writable, Deletable {
      * @param conexion Instancia de conexión a MongoDB
      */
     public MongoCRUD(ConexionBD conexion) {
+        this(conexion, TAMANO_LOTE_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor con tamaño de lote para las escrituras masivas.
+     * 
+     * @param conexion Instancia de conexión a MongoDB
+     * @param tamanoLote Operaciones por viaje en insertarVarios/escribirEnLote/eliminarPorIds
+     */
+    public MongoCRUD(ConexionBD conexion, int tamanoLote) {
         this.conexion = conexion;
+        setTamanoLote(tamanoLote);
+    }
+
+    /**
+     * Cambia el tamaño de lote de las escrituras masivas.
+     * 
+     * @param tamanoLote Operaciones por viaje (&gt;= 1)
+     */
+    public void setTamanoLote(int tamanoLote) {
+        if (tamanoLote < 1) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser >= 1");
+        }
+        this.tamanoLote = tamanoLote;
+    }
+
+    public int getTamanoLote() {
+        return tamanoLote;
+    }
+
+    /**
+     * Comienza a registrar los documentos modificados por las operaciones de escritura
+     * que ejecute el hilo actual.
+     * 
+     * @param registro Registro donde acumular los cambios
+     */
+    public void iniciarRegistro(RegistroCambios registro) {
+        registroActivo.set(registro);
+    }
+
+    /**
+     * Detiene el registro de cambios del hilo actual.
+     * 
+     * @return Registro acumulado o null si no había uno activo
+     */
+    public RegistroCambios detenerRegistro() {
+        RegistroCambios registro = registroActivo.get();
+        registroActivo.remove();
+        return registro;
+    }
+
+    /**
+     * Obtiene el registro activo del hilo actual, para que quien escriba directamente sobre
+     * las colecciones de {@link #getConexion()} anote también sus cambios.
+     * 
+     * @return Registro del hilo actual o null si no hay uno activo
+     */
+    public RegistroCambios getRegistroActivo() {
+        return registroActivo.get();
     }
 
     @Override
     public void insertar(String nombreColeccion, Document doc) {
         MongoCollection<Document> col = conexion.getColeccion(nombreColeccion);
         col.insertOne(doc);
+        RegistroCambios registro = registroActivo.get();
+        if (registro != null) {
+            registro.registrar(nombreColeccion, doc.getString("_id"), null, doc);
+        }
     }
 
     @Override
@@ -58,29 +146,244 @@ public class MongoCRUD implements Readable, Writable, Deletable {
     @Override
     public boolean actualizarPorId(String nombreColeccion, String id, Bson actualizacion) {
         MongoCollection<Document> col = conexion.getColeccion(nombreColeccion);
-        UpdateResult res = col.updateOne(Filters.eq("_id", id), actualizacion);
-        return res.getModifiedCount() > 0;
+        RegistroCambios registro = registroActivo.get();
+        if (registro == null) {
+            UpdateResult res = col.updateOne(Filters.eq("_id", id), actualizacion);
+            return res.getModifiedCount() > 0;
+        }
+        // Con registro: capturar el estado previo y el posterior del documento
+        Document antes = col.findOneAndUpdate(Filters.eq("_id", id), actualizacion,
+            new FindOneAndUpdateOptions().returnDocument(ReturnDocument.BEFORE));
+        if (antes == null) {
+            return false;
+        }
+        Document despues = col.find(Filters.eq("_id", id)).first();
+        if (antes.equals(despues)) {
+            return false;
+        }
+        registro.registrar(nombreColeccion, id, antes, despues);
+        return true;
     }
 
     @Override
-    public void eliminarPorId(String nombreColeccion, String id) {
+    public boolean actualizarSi(String nombreColeccion, String id, Bson condicion, Bson actualizacion) {
         MongoCollection<Document> col = conexion.getColeccion(nombreColeccion);
-        col.deleteOne(Filters.eq("_id", id));
+        Bson filtro = Filters.and(Filters.eq("_id", id), condicion);
+        RegistroCambios registro = registroActivo.get();
+        if (registro == null) {
+            return col.updateOne(filtro, actualizacion).getMatchedCount() > 0;
+        }
+        Document antes = col.findOneAndUpdate(filtro, actualizacion,
+            new FindOneAndUpdateOptions().returnDocument(ReturnDocument.BEFORE));
+        if (antes == null) {
+            return false;
+        }
+        Document despues = col.find(Filters.eq("_id", id)).first();
+        if (!antes.equals(despues)) {
+            registro.registrar(nombreColeccion, id, antes, despues);
+        }
+        return true;
+    }
+
+    @Override
+    public void reemplazarPorId(String nombreColeccion, String id, Document documento) {
+        MongoCollection<Document> col = conexion.getColeccion(nombreColeccion);
+        RegistroCambios registro = registroActivo.get();
+        Document antes = registro != null ? col.find(Filters.eq("_id", id)).first() : null;
+        col.replaceOne(Filters.eq("_id", id), documento, new ReplaceOptions().upsert(true));
+        if (registro != null) {
+            registro.registrar(nombreColeccion, id, antes, documento);
+        }
+    }
+
+    @Override
+    public void eliminarPorId(String nombreColeccion, String id) {
+        eliminarPorIdConResultado(nombreColeccion, id);
     }
 
     @Override
     public boolean eliminarPorIdConResultado(String nombreColeccion, String id) {
         MongoCollection<Document> col = conexion.getColeccion(nombreColeccion);
-        DeleteResult res = col.deleteOne(Filters.eq("_id", id));
-        return res.getDeletedCount() > 0;
+        RegistroCambios registro = registroActivo.get();
+        if (registro == null) {
+            DeleteResult res = col.deleteOne(Filters.eq("_id", id));
+            return res.getDeletedCount() > 0;
+        }
+        Document antes = col.findOneAndDelete(Filters.eq("_id", id));
+        if (antes == null) {
+            return false;
+        }
+        registro.registrar(nombreColeccion, id, antes, null);
+        return true;
     }
 
     @Override
     public void eliminarTodos(String nombreColeccion) {
         MongoCollection<Document> col = conexion.getColeccion(nombreColeccion);
+        RegistroCambios registro = registroActivo.get();
+        if (registro != null) {
+            for (Document antes : col.find()) {
+                registro.registrar(nombreColeccion, antes.getString("_id"), antes, null);
+            }
+        }
         col.deleteMany(new Document());
     }
 
+    @Override
+    public List<ResultadoLote> insertarVarios(String nombreColeccion, List<Document> documentos) {
+        List<OperacionLote> operaciones = new ArrayList<>(documentos.size());
+        for (Document d : documentos) {
+            operaciones.add(OperacionLote.insertar(d));
+        }
+        return escribirEnLote(nombreColeccion, operaciones, false);
+    }
+
+    @Override
+    public List<ResultadoLote> eliminarPorIds(String nombreColeccion, List<String> ids) {
+        if (registroActivo.get() != null) {
+            // Con registro de cambios se pasa por escribirEnLote, que captura los documentos previos
+            List<OperacionLote> ops = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                ops.add(OperacionLote.eliminar(id));
+            }
+            return escribirEnLote(nombreColeccion, ops, false);
+        }
+        List<ResultadoLote> resultados = new ArrayList<>();
+        MongoCollection<Document> col = conexion.getColeccion(nombreColeccion);
+        int lote = 0;
+        for (int desde = 0; desde < ids.size(); desde += tamanoLote) {
+            List<String> parte = ids.subList(desde, Math.min(desde + tamanoLote, ids.size()));
+            long inicio = System.nanoTime();
+            DeleteResult res = col.deleteMany(Filters.in("_id", parte));
+            resultados.add(new ResultadoLote(++lote, parte.size(), 0, 0, 0, (int) res.getDeletedCount(), 0, 0,
+                (System.nanoTime() - inicio) / 1_000_000));
+        }
+        return resultados;
+    }
+
+    @Override
+    public List<ResultadoLote> escribirEnLote(String nombreColeccion, List<OperacionLote> operaciones, boolean ordenado) {
+        RegistroCambios registro = registroActivo.get();
+        MongoCollection<Document> col = conexion.getColeccion(nombreColeccion);
+        BulkWriteOptions opciones = new BulkWriteOptions().ordered(ordenado);
+        return enviarPorLotes(operaciones, tamanoLote, ordenado, parte -> {
+            List<WriteModel<Document>> modelos = new ArrayList<>(parte.size());
+            for (OperacionLote op : parte) {
+                modelos.add(aModelo(op));
+            }
+            // Con registro activo: una lectura de los documentos previos y otra de los resultantes por lote.
+            // Las inserciones también se leen antes: una rechazada por _id repetido no cambia nada
+            List<String> ids = registro != null ? idsDe(parte) : null;
+            Map<String, Document> antes = registro != null ? leerPorIds(col, ids) : null;
+            try {
+                return col.bulkWrite(modelos, opciones);
+            } finally {
+                if (registro != null) {
+                    Map<String, Document> despues = leerPorIds(col, ids);
+                    for (String id : ids) {
+                        if (!java.util.Objects.equals(antes.get(id), despues.get(id))) {
+                            registro.registrar(nombreColeccion, id, antes.get(id), despues.get(id));
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Envía un lote de operaciones al servidor.
+     */
+    interface EnvioLote {
+        /**
+         * @param parte Operaciones del lote
+         * @return Resultado del servidor
+         * @throws MongoBulkWriteException si alguna operación del lote fue rechazada
+         */
+        BulkWriteResult enviar(List<OperacionLote> parte);
+    }
+
+    /**
+     * Divide las operaciones en lotes de {@code tamanoLote} y los envía en orden. Con semántica
+     * ordenada se detiene tras el primer lote con errores, porque el servidor ya dejó sin aplicar
+     * el resto de ese lote. Las actualizaciones y reemplazos que encuentran su documento se cuentan
+     * como coincidentes y solo los que lo crean como upserts.
+     *
+     * @return Un resultado por lote enviado
+     */
+    static List<ResultadoLote> enviarPorLotes(List<OperacionLote> operaciones, int tamanoLote, boolean ordenado,
+                                              EnvioLote envio) {
+        List<ResultadoLote> resultados = new ArrayList<>();
+        int lote = 0;
+        for (int desde = 0; desde < operaciones.size(); desde += tamanoLote) {
+            List<OperacionLote> parte = operaciones.subList(desde, Math.min(desde + tamanoLote, operaciones.size()));
+            long inicio = System.nanoTime();
+            BulkWriteResult res;
+            List<Integer> indicesConError = new ArrayList<>();
+            try {
+                res = envio.enviar(parte);
+            } catch (MongoBulkWriteException e) {
+                res = e.getWriteResult();
+                for (BulkWriteError error : e.getWriteErrors()) {
+                    indicesConError.add(desde + error.getIndex());
+                }
+            }
+            int errores = indicesConError.size();
+            long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+            if (res.wasAcknowledged()) {
+                resultados.add(new ResultadoLote(++lote, parte.size(), res.getInsertedCount(), res.getMatchedCount(),
+                    res.getModifiedCount(), res.getDeletedCount(), res.getUpserts().size(), errores, duracionMs,
+                    indicesConError));
+            } else {
+                resultados.add(new ResultadoLote(++lote, parte.size(), 0, 0, 0, 0, 0, errores, duracionMs, indicesConError));
+            }
+            if (ordenado && errores > 0) {
+                break; // semántica ordenada: no continuar tras un error
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Traduce una operación de lote a su modelo del driver.
+     */
+    private static WriteModel<Document> aModelo(OperacionLote op) {
+        switch (op.getTipo()) {
+            case INSERTAR:
+                return new InsertOneModel<>(op.getDocumento());
+            case ACTUALIZAR:
+                return new UpdateOneModel<>(Filters.eq("_id", op.getId()), op.getActualizacion());
+            case REEMPLAZAR:
+                return new ReplaceOneModel<>(Filters.eq("_id", op.getId()), op.getDocumento(),
+                    new ReplaceOptions().upsert(true));
+            case ELIMINAR:
+            default:
+                return new DeleteOneModel<>(Filters.eq("_id", op.getId()));
+        }
+    }
+
+    /**
+     * IDs (sin repetir, en orden) que tocan las operaciones.
+     */
+    private static List<String> idsDe(List<OperacionLote> operaciones) {
+        java.util.LinkedHashSet<String> ids = new java.util.LinkedHashSet<>();
+        for (OperacionLote op : operaciones) {
+            if (op.getId() != null) {
+                ids.add(op.getId());
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private static Map<String, Document> leerPorIds(MongoCollection<Document> col, List<String> ids) {
+        Map<String, Document> docs = new java.util.HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Document d : col.find(Filters.in("_id", ids))) {
+                docs.put(d.getString("_id"), d);
+            }
+        }
+        return docs;
+    }
+
     @Override
     public List<Document> listarTodos(String nombreColeccion) {
         MongoCollection<Document> col = conexion.getColeccion(nombreColeccion);
@@ -91,8 +394,62 @@ public class MongoCRUD implements Readable, Writable, Deletable {
         return lista;
     }
 
+    @Override
+    public List<Document> buscar(String nombreColeccion, Consulta consulta) {
+        List<Document> lista = new ArrayList<>();
+        for (Document doc : aplicar(nombreColeccion, consulta)) {
+            lista.add(doc);
+        }
+        return lista;
+    }
+
+    @Override
+    public Stream<Document> recorrer(String nombreColeccion, Consulta consulta) {
+        MongoCursor<Document> cursor = aplicar(nombreColeccion, consulta).iterator();
+        Spliterator<Document> spliterator = Spliterators.spliteratorUnknownSize(cursor,
+            Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+    }
+
+    @Override
+    public Document buscarPrimero(String nombreColeccion, Consulta consulta) {
+        return aplicar(nombreColeccion, consulta).first();
+    }
+
+    @Override
+    public long contar(String nombreColeccion, Document filtro) {
+        MongoCollection<Document> col = conexion.getColeccion(nombreColeccion);
+        return col.countDocuments(filtro != null ? filtro : new Document());
+    }
+
+    @Override
+    public List<Document> agregar(String nombreColeccion, List<Document> pipeline) {
+        MongoCollection<Document> col = conexion.getColeccion(nombreColeccion);
+        List<Document> lista = new ArrayList<>();
+        for (Document doc : col.aggregate(pipeline)) {
+            lista.add(doc);
+        }
+        return lista;
+    }
+
+    /**
+     * Traduce una Consulta a un cursor del driver con todas sus opciones aplicadas.
+     */
+    private FindIterable<Document> aplicar(String nombreColeccion, Consulta consulta) {
+        MongoCollection<Document> col = conexion.getColeccion(nombreColeccion);
+        FindIterable<Document> it = col.find(consulta.getFiltro());
+        if (consulta.getOrden() != null) it = it.sort(consulta.getOrden());
+        if (consulta.getProyeccion() != null) it = it.projection(consulta.getProyeccion());
+        if (consulta.getSalto() > 0) it = it.skip(consulta.getSalto());
+        if (consulta.getLimite() > 0) it = it.limit(consulta.getLimite());
+        if (consulta.getTamanoLote() > 0) it = it.batchSize(consulta.getTamanoLote());
+        return it;
+    }
+
     /**
      * Obtiene la conexión actual para operaciones avanzadas.
+     * Las escrituras hechas directamente sobre sus colecciones no pasan por el registro de
+     * cambios; quien las haga debe anotarlas en {@link #getRegistroActivo()}.
      * 
      * @return Instancia de ConexionBD
      */
@@ -0,0 +1,96 @@
+package model;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fuente de secuencias respaldada por la colección "counters" de MongoDB.
+ * Cada secuencia es un documento {_id: nombre, valor: long} que se incrementa con
+ * findOneAndUpdate + $inc, operación atómica en el servidor y segura entre terminales.
+ *
+ * La primera vez que se usa una secuencia sin contador, este se siembra con el máximo
+ * ID legible existente en su colección (única lectura completa, solo de _id).
+ */
+public class MongoFuenteSecuencias implements FuenteSecuencias {
+
+    public static final String COLECCION_CONTADORES = "counters";
+
+    private final ConexionBD conexion;
+    private final Map<String, String> coleccionPorSecuencia = new ConcurrentHashMap<>();
+    private final Set<String> sembradas = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor que registra las secuencias estándar del hotel (CLI, RES, SRV).
+     *
+     * @param conexion Conexión a MongoDB
+     */
+    public MongoFuenteSecuencias(ConexionBD conexion) {
+        this.conexion = conexion;
+        registrarSecuencia("CLI", "clientes");
+        registrarSecuencia("RES", "reservas");
+        registrarSecuencia("SRV", "servicios");
+    }
+
+    /**
+     * Asocia una secuencia con la colección cuyos IDs (PREFIJO-n) se usan para sembrarla.
+     *
+     * @param secuencia Nombre/prefijo de la secuencia
+     * @param coleccion Colección que contiene los IDs existentes
+     */
+    public final void registrarSecuencia(String secuencia, String coleccion) {
+        coleccionPorSecuencia.put(secuencia, coleccion);
+    }
+
+    @Override
+    public long reservarBloque(String secuencia, int tamano) {
+        MongoCollection<Document> contadores = conexion.getColeccion(COLECCION_CONTADORES);
+        if (!sembradas.contains(secuencia)) {
+            sembrar(contadores, secuencia);
+            sembradas.add(secuencia);
+        }
+        Document actualizado = contadores.findOneAndUpdate(
+            Filters.eq("_id", secuencia),
+            Updates.inc("valor", (long) tamano),
+            new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        Object valor = actualizado != null ? actualizado.get("valor") : null;
+        if (!(valor instanceof Number)) {
+            throw new IllegalStateException("Contador inválido para la secuencia " + secuencia);
+        }
+        return ((Number) valor).longValue();
+    }
+
+    /**
+     * Crea el contador con el máximo ID existente si aún no existe.
+     * Usa $max para que una siembra concurrente nunca retroceda el contador.
+     */
+    private void sembrar(MongoCollection<Document> contadores, String secuencia) {
+        if (contadores.find(Filters.eq("_id", secuencia)).first() != null) {
+            return;
+        }
+        String coleccion = coleccionPorSecuencia.get(secuencia);
+        long max = 0;
+        if (coleccion != null) {
+            String prefijo = secuencia + "-";
+            for (Document d : conexion.getColeccion(coleccion).find().projection(Projections.include("_id"))) {
+                Object id = d.get("_id");
+                if (id instanceof String && ((String) id).startsWith(prefijo)) {
+                    try {
+                        long n = Long.parseLong(((String) id).substring(prefijo.length()));
+                        if (n > max) max = n;
+                    } catch (NumberFormatException ignore) {}
+                }
+            }
+        }
+        contadores.updateOne(Filters.eq("_id", secuencia), Updates.max("valor", max),
+            new UpdateOptions().upsert(true));
+    }
+}
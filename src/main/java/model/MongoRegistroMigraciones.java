@@ -0,0 +1,51 @@
+package model;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
+import org.bson.Document;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Registro de migraciones en la colección de metadatos "migraciones".
+ * Cada migración aplicada es un documento {_id: version, descripcion, aplicadaEn, documentos, duracionMs}.
+ */
+public class MongoRegistroMigraciones implements RegistroMigraciones {
+
+    public static final String COLECCION_MIGRACIONES = "migraciones";
+
+    private final ConexionBD conexion;
+
+    /**
+     * @param conexion Conexión a MongoDB
+     */
+    public MongoRegistroMigraciones(ConexionBD conexion) {
+        this.conexion = conexion;
+    }
+
+    @Override
+    public Set<Integer> versionesAplicadas() {
+        Set<Integer> versiones = new HashSet<>();
+        for (Document doc : coleccion().find().projection(Projections.include("_id"))) {
+            versiones.add(doc.getInteger("_id"));
+        }
+        return versiones;
+    }
+
+    @Override
+    public void marcarAplicada(Migracion migracion, int documentos, long duracionMs) {
+        Document doc = new Document("_id", migracion.getVersion())
+            .append("descripcion", migracion.getDescripcion())
+            .append("aplicadaEn", new Date())
+            .append("documentos", documentos)
+            .append("duracionMs", duracionMs);
+        coleccion().replaceOne(Filters.eq("_id", migracion.getVersion()), doc, new ReplaceOptions().upsert(true));
+    }
+
+    private MongoCollection<Document> coleccion() {
+        return conexion.getColeccion(COLECCION_MIGRACIONES);
+    }
+}
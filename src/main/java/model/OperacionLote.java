@@ -0,0 +1,83 @@
+package model;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+/**
+ * Operación individual dentro de una escritura en lote (bulkWrite) mixta.
+ * Se crea mediante las fábricas estáticas {@link #insertar}, {@link #actualizar},
+ * {@link #reemplazar} y {@link #eliminar}.
+ */
+public final class OperacionLote {
+
+    /** Tipos de operación soportados. */
+    public enum Tipo { INSERTAR, ACTUALIZAR, REEMPLAZAR, ELIMINAR }
+
+    private final Tipo tipo;
+    private final String id;
+    private final Document documento;
+    private final Bson actualizacion;
+
+    private OperacionLote(Tipo tipo, String id, Document documento, Bson actualizacion) {
+        this.tipo = tipo;
+        this.id = id;
+        this.documento = documento;
+        this.actualizacion = actualizacion;
+    }
+
+    /**
+     * Inserción de un documento nuevo.
+     *
+     * @param documento Documento a insertar (debe incluir _id)
+     * @return Operación de inserción
+     */
+    public static OperacionLote insertar(Document documento) {
+        if (documento == null) throw new IllegalArgumentException("El documento no puede ser nulo");
+        return new OperacionLote(Tipo.INSERTAR, documento.getString("_id"), documento, null);
+    }
+
+    /**
+     * Actualización parcial por ID ($set, $inc...).
+     *
+     * @param id _id del documento
+     * @param actualizacion Operadores de actualización
+     * @return Operación de actualización
+     */
+    public static OperacionLote actualizar(String id, Bson actualizacion) {
+        if (id == null || actualizacion == null) throw new IllegalArgumentException("ID y actualización son obligatorios");
+        return new OperacionLote(Tipo.ACTUALIZAR, id, null, actualizacion);
+    }
+
+    /**
+     * Reemplazo completo por ID, creando el documento si no existe.
+     *
+     * @param id _id del documento
+     * @param documento Contenido completo
+     * @return Operación de reemplazo
+     */
+    public static OperacionLote reemplazar(String id, Document documento) {
+        if (id == null || documento == null) throw new IllegalArgumentException("ID y documento son obligatorios");
+        return new OperacionLote(Tipo.REEMPLAZAR, id, documento, null);
+    }
+
+    /**
+     * Eliminación por ID.
+     *
+     * @param id _id del documento
+     * @return Operación de eliminación
+     */
+    public static OperacionLote eliminar(String id) {
+        if (id == null) throw new IllegalArgumentException("El ID no puede ser nulo");
+        return new OperacionLote(Tipo.ELIMINAR, id, null, null);
+    }
+
+    public Tipo getTipo() { return tipo; }
+    public String getId() { return id; }
+    public Document getDocumento() { return documento; }
+    public Bson getActualizacion() { return actualizacion; }
+
+    @Override
+    public String toString() {
+        return tipo + "(" + id + ")";
+    }
+}
@@ -0,0 +1,46 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados de {@link IModeloService#buscarReservas(FiltroReservas)}.
+ */
+public class PaginaReservas {
+
+    private final List<Reserva> reservas;
+    private final String siguienteCursor;
+
+    /**
+     * @param reservas Reservas de la página, ya ordenadas
+     * @param siguienteCursor Cursor para pedir la página siguiente, o null si no hay más
+     */
+    public PaginaReservas(List<Reserva> reservas, String siguienteCursor) {
+        this.reservas = Collections.unmodifiableList(reservas);
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    /**
+     * Arma la página a partir de los resultados leídos con un elemento de más
+     * (el sobrante solo indica que existe una página siguiente).
+     *
+     * @param leidas Hasta tamanoPagina + 1 reservas ordenadas
+     * @param tamanoPagina Tamaño de página pedido
+     * @return Página con su cursor siguiente
+     */
+    public static PaginaReservas desdeLectura(List<Reserva> leidas, int tamanoPagina) {
+        if (leidas.size() <= tamanoPagina) {
+            return new PaginaReservas(leidas, null);
+        }
+        List<Reserva> pagina = leidas.subList(0, tamanoPagina);
+        return new PaginaReservas(pagina, FiltroReservas.cursorDe(pagina.get(tamanoPagina - 1)));
+    }
+
+    public List<Reserva> getReservas() { return reservas; }
+    public String getSiguienteCursor() { return siguienteCursor; }
+
+    /** @return true si hay una página siguiente */
+    public boolean hayMas() {
+        return siguienteCursor != null;
+    }
+}
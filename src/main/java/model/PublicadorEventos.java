@@ -0,0 +1,71 @@
+package model;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica los eventos de dominio del modelo a sus suscriptores.
+ * Los eventos se entregan en el hilo que hizo el cambio (normalmente el hilo escritor de comandos),
+ * así que un suscriptor de interfaz debe pasar al EDT por su cuenta. Un suscriptor que falla
+ * no impide la entrega a los demás ni afecta a la operación que publicó.
+ *
+ * @author asdw
+ * @version 1.0
+ */
+public class PublicadorEventos {
+
+    /**
+     * Receptor de eventos del modelo.
+     */
+    @FunctionalInterface
+    public interface Suscriptor {
+        void alPublicar(EventoModelo evento);
+    }
+
+    private static final java.util.logging.Logger logger =
+        java.util.logging.Logger.getLogger(PublicadorEventos.class.getName());
+
+    // Las suscripciones cambian rara vez y la publicación ocurre en cada escritura
+    private final CopyOnWriteArrayList<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+    private final AtomicLong publicados = new AtomicLong();
+
+    /**
+     * @param suscriptor Receptor a agregar (se ignora si ya estaba)
+     */
+    public void suscribir(Suscriptor suscriptor) {
+        if (suscriptor != null) suscriptores.addIfAbsent(suscriptor);
+    }
+
+    /**
+     * @param suscriptor Receptor a quitar
+     */
+    public void cancelarSuscripcion(Suscriptor suscriptor) {
+        suscriptores.remove(suscriptor);
+    }
+
+    /**
+     * Entrega el evento a todos los suscriptores.
+     *
+     * @param evento Evento a publicar
+     */
+    public void publicar(EventoModelo evento) {
+        publicados.incrementAndGet();
+        for (Suscriptor suscriptor : suscriptores) {
+            try {
+                suscriptor.alPublicar(evento);
+            } catch (RuntimeException e) {
+                logger.warning("Suscriptor falló procesando " + evento + ": " + e);
+            }
+        }
+    }
+
+    /** @return Número de suscriptores */
+    public int getSuscriptores() {
+        return suscriptores.size();
+    }
+
+    /** @return Eventos publicados desde la creación */
+    public long getPublicados() {
+        return publicados.get();
+    }
+}
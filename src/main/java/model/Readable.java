@@ -2,6 +2,7 @@ package model;
 
 import org.bson.Document;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interfaz para operaciones de lectura en la base de datos.
@@ -38,4 +39,52 @@ public interface Readable {
      * @return Lista de documentos que coinciden con el filtro
      */
     List<Document> buscarPorFiltro(String coleccion, Document filtro);
+    
+    /**
+     * Ejecuta una consulta completa en el servidor (filtro, orden, salto, límite y proyección).
+     * 
+     * @param coleccion Nombre de la colección donde buscar
+     * @param consulta Especificación de la consulta
+     * @return Lista de documentos resultantes
+     */
+    List<Document> buscar(String coleccion, Consulta consulta);
+    
+    /**
+     * Recorre el resultado de una consulta de forma perezosa sobre el cursor del servidor.
+     * Los documentos se traen por lotes (ver {@link Consulta#porLotes(int)}) a medida que se
+     * consumen, por lo que la memoria usada no depende del tamaño del resultado.
+     * El Stream mantiene el cursor abierto: debe cerrarse (try-with-resources).
+     * 
+     * @param coleccion Nombre de la colección donde buscar
+     * @param consulta Especificación de la consulta
+     * @return Stream secuencial y cerrable de documentos
+     */
+    Stream<Document> recorrer(String coleccion, Consulta consulta);
+    
+    /**
+     * Obtiene el primer documento de una consulta.
+     * 
+     * @param coleccion Nombre de la colección donde buscar
+     * @param consulta Especificación de la consulta (se ignora su límite)
+     * @return Primer documento o null si no hay resultados
+     */
+    Document buscarPrimero(String coleccion, Consulta consulta);
+    
+    /**
+     * Cuenta los documentos que coinciden con un filtro.
+     * 
+     * @param coleccion Nombre de la colección
+     * @param filtro Criterios de búsqueda
+     * @return Cantidad de documentos
+     */
+    long contar(String coleccion, Document filtro);
+    
+    /**
+     * Ejecuta un pipeline de agregación en el servidor.
+     * 
+     * @param coleccion Colección de origen del pipeline
+     * @param pipeline Etapas de la agregación ($match, $lookup, $project, ...)
+     * @return Documentos producidos por la última etapa
+     */
+    List<Document> agregar(String coleccion, List<Document> pipeline);
 }
@@ -0,0 +1,25 @@
+package model;
+
+import java.util.Set;
+
+/**
+ * Persistencia de las migraciones ya aplicadas.
+ * Separa el almacenamiento de los metadatos de la lógica de ordenación y ejecución
+ * que realiza {@link GestorMigraciones}.
+ */
+public interface RegistroMigraciones {
+
+    /**
+     * @return Versiones aplicadas con éxito
+     */
+    Set<Integer> versionesAplicadas();
+
+    /**
+     * Marca una migración como aplicada.
+     *
+     * @param migracion Migración ejecutada
+     * @param documentos Documentos modificados
+     * @param duracionMs Duración de la ejecución
+     */
+    void marcarAplicada(Migracion migracion, int documentos, long duracionMs);
+}
@@ -11,6 +11,15 @@ import java.util.Date;
  * @version 1.0
  */
 public class Reserva {
+    /** Estados de una reserva tal como se muestran y filtran en los paneles. */
+    public static final String ESTADO_RESERVADA = "Reservada";
+    public static final String ESTADO_CHECKIN = "Check-in";
+    public static final String ESTADO_FINALIZADA = "Finalizada";
+    /** Filtro de panel que acepta cualquier reserva sin fecha de salida. */
+    public static final String FILTRO_ACTIVA = "Activa";
+    /** Filtro de panel que acepta todas las reservas. */
+    public static final String FILTRO_TODOS = "Todos";
+
     private String id;
     private String idCliente;
     private String idHabitacion;
@@ -188,6 +197,33 @@ public class Reserva {
         return fechaSalida == null && confirmada;
     }
 
+    /**
+     * Calcula el estado de la reserva: finalizada si tiene fecha de salida, check-in si su
+     * habitación está ocupada y reservada (pendiente de check-in) en otro caso.
+     * No consulta la base de datos: el llamador resuelve la habitación una vez por carga.
+     * 
+     * @param habitacion Habitación de la reserva (null si no existe)
+     * @return Uno de ESTADO_FINALIZADA, ESTADO_CHECKIN o ESTADO_RESERVADA
+     */
+    public String calcularEstado(Habitacion habitacion) {
+        if (fechaSalida != null) return ESTADO_FINALIZADA;
+        if (habitacion != null && habitacion.isOcupada()) return ESTADO_CHECKIN;
+        return ESTADO_RESERVADA;
+    }
+
+    /**
+     * Indica si un estado cumple el filtro elegido en el panel de reservas.
+     * 
+     * @param estado Estado calculado con {@link #calcularEstado(Habitacion)}
+     * @param filtro "Todos", "Activa" o un estado concreto (null equivale a "Todos")
+     * @return true si la reserva debe mostrarse
+     */
+    public static boolean cumpleFiltroEstado(String estado, String filtro) {
+        if (filtro == null || FILTRO_TODOS.equalsIgnoreCase(filtro)) return true;
+        if (FILTRO_ACTIVA.equalsIgnoreCase(filtro)) return !ESTADO_FINALIZADA.equals(estado);
+        return filtro.equalsIgnoreCase(estado);
+    }
+
     /**
      * Finaliza la reserva estableciendo la fecha de salida.
      */
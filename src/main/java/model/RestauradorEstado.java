@@ -0,0 +1,269 @@
+package model;
+
+import com.mongodb.MongoClientException;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import memento.ModeloMemento;
+import memento.RegistroCambios;
+import org.bson.Document;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Motor de restauración de mementos por diferencias.
+ * En lugar de vaciar las colecciones y reinsertar documento a documento, compara el memento con
+ * el estado actual y aplica solo los cambios con un bulkWrite por colección, opcionalmente
+ * dentro de una transacción (requiere un replica set; si el servidor no la admite se desactiva
+ * sola, y cualquier otro error se propaga sin desactivarla).
+ * La base nunca queda vacía durante la restauración.
+ */
+public class RestauradorEstado {
+
+    private static final Logger logger = Logger.getLogger(RestauradorEstado.class.getName());
+    // IllegalOperation: "Transaction numbers are only allowed on a replica set member or mongos"
+    private static final int CODIGO_OPERACION_ILEGAL = 20;
+
+    /**
+     * Métricas de una restauración.
+     */
+    public static class ResultadoRestauracion {
+        private final Map<String, DiferenciaDocumentos> diferencias = new LinkedHashMap<>();
+        private long duracionMs;
+        private boolean transaccional;
+
+        public Map<String, DiferenciaDocumentos> getDiferencias() { return diferencias; }
+        public long getDuracionMs() { return duracionMs; }
+        public boolean isTransaccional() { return transaccional; }
+
+        public int getDocumentosEscritos() {
+            int total = 0;
+            for (DiferenciaDocumentos d : diferencias.values()) {
+                total += d.getEscrituras();
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            return "ResultadoRestauracion{" + diferencias + ", duracionMs=" + duracionMs
+                    + ", transaccional=" + transaccional + '}';
+        }
+    }
+
+    private final ConexionBD conexion;
+    private volatile boolean usarTransaccion;
+    private volatile ResultadoRestauracion ultimoResultado;
+    private long restauraciones;
+    private long duracionTotalMs;
+
+    /**
+     * Constructor sin transacciones.
+     *
+     * @param conexion Conexión a MongoDB
+     */
+    public RestauradorEstado(ConexionBD conexion) {
+        this(conexion, false);
+    }
+
+    /**
+     * Constructor completo.
+     *
+     * @param conexion Conexión a MongoDB
+     * @param usarTransaccion true para aplicar los cambios de las tres colecciones en una transacción
+     */
+    public RestauradorEstado(ConexionBD conexion, boolean usarTransaccion) {
+        this.conexion = conexion;
+        this.usarTransaccion = usarTransaccion;
+    }
+
+    /**
+     * Restaura clientes, habitaciones y reservas al estado del memento.
+     *
+     * @param memento Estado a restaurar
+     * @return Métricas de la restauración
+     */
+    public ResultadoRestauracion restaurar(ModeloMemento memento) {
+        return restaurar(memento, null);
+    }
+
+    /**
+     * Restaura el estado del memento anotando cada documento escrito en un registro de cambios,
+     * para que una restauración hecha dentro de un comando también se pueda deshacer.
+     *
+     * @param memento Estado a restaurar
+     * @param registro Registro donde anotar los cambios (null = sin registro)
+     * @return Métricas de la restauración
+     */
+    public ResultadoRestauracion restaurar(ModeloMemento memento, RegistroCambios registro) {
+        long inicio = System.nanoTime();
+        ResultadoRestauracion resultado = new ResultadoRestauracion();
+        for (Map.Entry<String, List<Document>> e : objetivo(memento).entrySet()) {
+            List<Document> actuales = new ArrayList<>();
+            for (Document d : conexion.getColeccion(e.getKey()).find()) actuales.add(d);
+            DiferenciaDocumentos dif = DiferenciaDocumentos.calcular(actuales, e.getValue());
+            resultado.diferencias.put(e.getKey(), dif);
+            if (registro != null && !dif.isVacia()) {
+                anotar(registro, e.getKey(), actuales, dif);
+            }
+        }
+
+        if (usarTransaccion && conexion.getCliente() != null) {
+            try (ClientSession sesion = conexion.getCliente().startSession()) {
+                sesion.withTransaction(() -> {
+                    aplicar(resultado, sesion);
+                    return null;
+                });
+                resultado.transaccional = true;
+            } catch (RuntimeException ex) {
+                if (!sinSoporteTransacciones(ex)) {
+                    throw ex; // la transacción se abortó: nada quedó escrito
+                }
+                // Servidor sin soporte de transacciones (standalone): continuar sin ellas
+                logger.warning("Restauración sin transacción: " + ex.getMessage());
+                usarTransaccion = false;
+                aplicar(resultado, null);
+            }
+        } else {
+            aplicar(resultado, null);
+        }
+
+        resultado.duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        synchronized (this) {
+            restauraciones++;
+            duracionTotalMs += resultado.duracionMs;
+        }
+        ultimoResultado = resultado;
+        return resultado;
+    }
+
+    /**
+     * Documentos que deben quedar en cada colección según el memento.
+     *
+     * @param memento Estado a restaurar
+     * @return Mapa colección -&gt; documentos, en el orden clientes, habitaciones, reservas
+     */
+    static Map<String, List<Document>> objetivo(ModeloMemento memento) {
+        Map<String, List<Document>> objetivo = new LinkedHashMap<>();
+        List<Document> clientes = new ArrayList<>();
+        for (Cliente c : memento.getClientes()) clientes.add(c.toDocument());
+        List<Document> habitaciones = new ArrayList<>();
+        for (Habitacion h : memento.getHabitaciones()) habitaciones.add(h.toDocument());
+        List<Document> reservas = new ArrayList<>();
+        for (Reserva r : memento.getReservas()) reservas.add(r.toDocument());
+        objetivo.put("clientes", clientes);
+        objetivo.put("habitaciones", habitaciones);
+        objetivo.put("reservas", reservas);
+        return objetivo;
+    }
+
+    /**
+     * Reconoce el error de un servidor que no admite sesiones o transacciones (standalone).
+     * Cualquier otro fallo no desactiva las transacciones de las restauraciones siguientes.
+     *
+     * @param error Excepción lanzada al abrir o ejecutar la transacción
+     * @return true si el servidor no soporta transacciones
+     */
+    static boolean sinSoporteTransacciones(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof MongoServerException
+                    && ((MongoServerException) t).getCode() == CODIGO_OPERACION_ILEGAL
+                    && String.valueOf(t.getMessage()).contains("Transaction numbers")) {
+                return true;
+            }
+            if (t instanceof MongoClientException
+                    && String.valueOf(t.getMessage()).contains("not supported")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Anota en el registro el estado previo y el resultante de cada documento de la diferencia.
+     */
+    static void anotar(RegistroCambios registro, String coleccion, List<Document> actuales,
+                               DiferenciaDocumentos dif) {
+        Map<String, Document> antes = new HashMap<>();
+        for (Document d : actuales) antes.put(d.getString("_id"), d);
+        for (String id : dif.getEliminar()) {
+            registro.registrar(coleccion, id, antes.get(id), null);
+        }
+        for (Document d : dif.getInsertar()) {
+            registro.registrar(coleccion, d.getString("_id"), null, d);
+        }
+        for (Map.Entry<String, Document> e : dif.getActualizar().entrySet()) {
+            Document previo = antes.get(e.getKey());
+            Document despues = new Document(previo);
+            despues.putAll(e.getValue());
+            registro.registrar(coleccion, e.getKey(), previo, despues);
+        }
+    }
+
+    /**
+     * Operaciones de escritura de una diferencia: eliminaciones, reemplazos con upsert para los
+     * documentos que faltan y $set con solo los campos cambiados para el resto.
+     *
+     * @param dif Diferencia de una colección
+     * @return Operaciones para un bulkWrite
+     */
+    static List<WriteModel<Document>> operaciones(DiferenciaDocumentos dif) {
+        List<WriteModel<Document>> operaciones = new ArrayList<>();
+        for (String id : dif.getEliminar()) {
+            operaciones.add(new DeleteOneModel<>(Filters.eq("_id", id)));
+        }
+        for (Document d : dif.getInsertar()) {
+            operaciones.add(new ReplaceOneModel<>(Filters.eq("_id", d.get("_id")), d,
+                new ReplaceOptions().upsert(true)));
+        }
+        // Solo los campos cambiados: se conservan los campos que la entidad no conoce
+        for (Map.Entry<String, Document> cambio : dif.getActualizar().entrySet()) {
+            operaciones.add(new UpdateOneModel<>(Filters.eq("_id", cambio.getKey()),
+                new Document("$set", cambio.getValue())));
+        }
+        return operaciones;
+    }
+
+    /**
+     * Un bulkWrite no ordenado por colección con reemplazos (upsert) y eliminaciones.
+     */
+    private void aplicar(ResultadoRestauracion resultado, ClientSession sesion) {
+        for (Map.Entry<String, DiferenciaDocumentos> e : resultado.diferencias.entrySet()) {
+            DiferenciaDocumentos dif = e.getValue();
+            if (dif.isVacia()) continue;
+            List<WriteModel<Document>> operaciones = operaciones(dif);
+            MongoCollection<Document> col = conexion.getColeccion(e.getKey());
+            BulkWriteOptions opciones = new BulkWriteOptions().ordered(false);
+            if (sesion != null) {
+                col.bulkWrite(sesion, operaciones, opciones);
+            } else {
+                col.bulkWrite(operaciones, opciones);
+            }
+        }
+    }
+
+    public void setUsarTransaccion(boolean usarTransaccion) { this.usarTransaccion = usarTransaccion; }
+    public boolean isUsarTransaccion() { return usarTransaccion; }
+    public ResultadoRestauracion getUltimoResultado() { return ultimoResultado; }
+    public synchronized long getRestauraciones() { return restauraciones; }
+
+    /**
+     * Obtiene el tiempo medio de restauración.
+     *
+     * @return Milisegundos promedio por restauración (0 si no hubo ninguna)
+     */
+    public synchronized double getDuracionPromedioMs() {
+        return restauraciones == 0 ? 0 : (double) duracionTotalMs / restauraciones;
+    }
+}
@@ -0,0 +1,67 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de un check-in grupal: reservas creadas, clientes nuevos y rendimiento.
+ */
+public class ResultadoCheckinGrupal {
+
+    private final boolean exitoso;
+    private final String mensaje;
+    private final List<String> idsReservas;
+    private final List<String> idsClientesNuevos;
+    private final List<String> idsHabitaciones;
+    private final long duracionMs;
+
+    /**
+     * @param exitoso true si el grupo quedó registrado completo
+     * @param mensaje Mensaje para el usuario
+     * @param idsReservas Reservas creadas
+     * @param idsClientesNuevos Clientes dados de alta por el check-in (no los que ya existían)
+     * @param idsHabitaciones Habitaciones ocupadas por el grupo
+     * @param duracionMs Duración de la operación
+     */
+    public ResultadoCheckinGrupal(boolean exitoso, String mensaje, List<String> idsReservas,
+                                  List<String> idsClientesNuevos, List<String> idsHabitaciones, long duracionMs) {
+        this.exitoso = exitoso;
+        this.mensaje = mensaje;
+        this.idsReservas = Collections.unmodifiableList(idsReservas);
+        this.idsClientesNuevos = Collections.unmodifiableList(idsClientesNuevos);
+        this.idsHabitaciones = Collections.unmodifiableList(idsHabitaciones);
+        this.duracionMs = duracionMs;
+    }
+
+    /**
+     * @param mensaje Motivo del rechazo
+     * @return Resultado fallido sin reservas
+     */
+    public static ResultadoCheckinGrupal rechazado(String mensaje) {
+        return new ResultadoCheckinGrupal(false, mensaje, Collections.<String>emptyList(),
+            Collections.<String>emptyList(), Collections.<String>emptyList(), 0);
+    }
+
+    public boolean isExitoso() { return exitoso; }
+    public String getMensaje() { return mensaje; }
+    public List<String> getIdsReservas() { return idsReservas; }
+    public List<String> getIdsClientesNuevos() { return idsClientesNuevos; }
+    public List<String> getIdsHabitaciones() { return idsHabitaciones; }
+    public int getClientesNuevos() { return idsClientesNuevos.size(); }
+    public long getDuracionMs() { return duracionMs; }
+
+    /**
+     * @return Huéspedes registrados por segundo (0 si no hubo o duró menos de 1 ms)
+     */
+    public double getHuespedesPorSegundo() {
+        return duracionMs <= 0 ? 0 : idsReservas.size() * 1000.0 / duracionMs;
+    }
+
+    @Override
+    public String toString() {
+        return exitoso
+            ? String.format("%d huéspedes (%d clientes nuevos) en %d ms, %.1f huéspedes/s",
+                idsReservas.size(), idsClientesNuevos.size(), duracionMs, getHuespedesPorSegundo())
+            : "Rechazado: " + mensaje;
+    }
+}
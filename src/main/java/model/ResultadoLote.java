@@ -0,0 +1,113 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de un lote enviado al servidor en una escritura masiva.
+ * Las operaciones se dividen en lotes de tamaño configurable; cada uno produce un resultado.
+ */
+public class ResultadoLote {
+
+    private final int numeroLote;
+    private final int operaciones;
+    private final int insertados;
+    private final int coincidentes;
+    private final int modificados;
+    private final int eliminados;
+    private final int upserts;
+    private final int errores;
+    private final long duracionMs;
+    private final List<Integer> indicesConError;
+
+    /**
+     * Constructor completo.
+     *
+     * @param numeroLote Posición del lote (desde 1)
+     * @param operaciones Operaciones enviadas en el lote
+     * @param insertados Documentos insertados
+     * @param coincidentes Documentos existentes que coincidieron con una actualización o reemplazo
+     * @param modificados Documentos que cambiaron de contenido (&lt;= coincidentes)
+     * @param eliminados Documentos eliminados
+     * @param upserts Documentos creados por actualizaciones o reemplazos sin coincidencia
+     * @param errores Operaciones rechazadas por el servidor
+     * @param duracionMs Tiempo del viaje al servidor
+     */
+    public ResultadoLote(int numeroLote, int operaciones, int insertados, int coincidentes, int modificados,
+                         int eliminados, int upserts, int errores, long duracionMs) {
+        this(numeroLote, operaciones, insertados, coincidentes, modificados, eliminados, upserts, errores, duracionMs,
+            Collections.<Integer>emptyList());
+    }
+
+    /**
+     * Constructor con las posiciones de las operaciones rechazadas.
+     *
+     * @param indicesConError Posiciones (en la lista completa de operaciones) que el servidor rechazó
+     */
+    public ResultadoLote(int numeroLote, int operaciones, int insertados, int coincidentes, int modificados,
+                         int eliminados, int upserts, int errores, long duracionMs, List<Integer> indicesConError) {
+        this.numeroLote = numeroLote;
+        this.operaciones = operaciones;
+        this.insertados = insertados;
+        this.coincidentes = coincidentes;
+        this.modificados = modificados;
+        this.eliminados = eliminados;
+        this.upserts = upserts;
+        this.errores = errores;
+        this.duracionMs = duracionMs;
+        this.indicesConError = Collections.unmodifiableList(new ArrayList<>(indicesConError));
+    }
+
+    /**
+     * Suma los resultados de varios lotes.
+     *
+     * @param lotes Resultados por lote
+     * @return Resultado agregado (numeroLote = cantidad de lotes)
+     */
+    public static ResultadoLote total(List<ResultadoLote> lotes) {
+        int operaciones = 0, insertados = 0, coincidentes = 0, modificados = 0, eliminados = 0, upserts = 0, errores = 0;
+        long duracion = 0;
+        List<Integer> indices = new ArrayList<>();
+        for (ResultadoLote r : lotes) {
+            indices.addAll(r.indicesConError);
+            operaciones += r.operaciones;
+            insertados += r.insertados;
+            coincidentes += r.coincidentes;
+            modificados += r.modificados;
+            eliminados += r.eliminados;
+            upserts += r.upserts;
+            errores += r.errores;
+            duracion += r.duracionMs;
+        }
+        return new ResultadoLote(lotes.size(), operaciones, insertados, coincidentes, modificados, eliminados, upserts, errores, duracion, indices);
+    }
+
+    public int getNumeroLote() { return numeroLote; }
+    public int getOperaciones() { return operaciones; }
+    public int getInsertados() { return insertados; }
+    public int getCoincidentes() { return coincidentes; }
+    public int getModificados() { return modificados; }
+    public int getEliminados() { return eliminados; }
+    public int getUpserts() { return upserts; }
+    public int getErrores() { return errores; }
+    public long getDuracionMs() { return duracionMs; }
+    /** @return Posiciones de las operaciones rechazadas, contadas desde el inicio de la escritura masiva */
+    public List<Integer> getIndicesConError() { return indicesConError; }
+
+    /**
+     * Verifica si el lote se aplicó sin errores.
+     *
+     * @return true si no hubo errores de escritura
+     */
+    public boolean isExitoso() {
+        return errores == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoLote{lote=" + numeroLote + ", operaciones=" + operaciones + ", insertados=" + insertados
+                + ", coincidentes=" + coincidentes + ", modificados=" + modificados + ", eliminados=" + eliminados + ", upserts=" + upserts
+                + ", errores=" + errores + ", duracionMs=" + duracionMs + '}';
+    }
+}
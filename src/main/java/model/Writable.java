@@ -2,6 +2,7 @@ package model;
 
 import org.bson.Document;
 import org.bson.conversions.Bson;
+import java.util.List;
 
 /**
  * Interfaz para operaciones de escritura en la base de datos.
@@ -30,4 +31,45 @@ public interface Writable {
      * @return true si se actualizó correctamente, false en caso contrario
      */
     boolean actualizarPorId(String coleccion, String id, Bson actualizacion);
+    
+    /**
+     * Actualiza un documento por su ID solo si además cumple una condición, en una única
+     * operación atómica del servidor (por ejemplo, ocupar una habitación solo si sigue libre).
+     * 
+     * @param coleccion Nombre de la colección donde actualizar
+     * @param id Identificador único del documento a actualizar
+     * @param condicion Filtro adicional que el documento debe cumplir
+     * @param actualizacion Operación de actualización a realizar
+     * @return true si el documento existía y cumplía la condición
+     */
+    boolean actualizarSi(String coleccion, String id, Bson condicion, Bson actualizacion);
+    
+    /**
+     * Reemplaza por completo un documento por su ID, creándolo si no existe.
+     * 
+     * @param coleccion Nombre de la colección
+     * @param id Identificador único del documento
+     * @param documento Contenido completo del documento
+     */
+    void reemplazarPorId(String coleccion, String id, Document documento);
+    
+    /**
+     * Inserta varios documentos en lotes (insertMany), un viaje por lote.
+     * 
+     * @param coleccion Nombre de la colección donde insertar
+     * @param documentos Documentos a insertar
+     * @return Resultado de cada lote enviado
+     */
+    List<ResultadoLote> insertarVarios(String coleccion, List<Document> documentos);
+    
+    /**
+     * Aplica una mezcla de inserciones, actualizaciones, reemplazos y eliminaciones en lotes (bulkWrite).
+     * 
+     * @param coleccion Nombre de la colección
+     * @param operaciones Operaciones a aplicar
+     * @param ordenado true para detenerse en el primer error (y no enviar más lotes),
+     *                 false para aplicar todo lo posible en paralelo en el servidor
+     * @return Resultado de cada lote enviado
+     */
+    List<ResultadoLote> escribirEnLote(String coleccion, List<OperacionLote> operaciones, boolean ordenado);
 }
@@ -4,6 +4,8 @@ import view.VentanaSelector;
 import model.*;
 import command.*;
 import singleton.GestorDisponibilidad;
+import memento.CaretakerPersistente;
+import java.nio.file.Paths;
 
 /**
  * Clase principal del sistema de gestión hotelera.
@@ -26,7 +28,8 @@ import singleton.GestorDisponibilidad;
  * 
  * Mejores prácticas aplicadas:
  * - DIP: la UI y controladores solo conocen interfaces (ej. {@link command.ICommandInvoker}, {@link model.IModeloService}).
- * - Cohesión alta: lógica de persistencia encapsulada en {@link model.ModeloServiceImpl}.
+ * - Cohesión alta: lógica de persistencia encapsulada en {@link model.ModeloServiceImpl}
+ *   ({@link model.ModeloServiceMemoria} con -Dhotel.modelo=memoria para trabajar sin MongoDB).
  * - Separación de responsabilidades: nuevos paneles modulares (Clientes, Reservas, Habitaciones, Servicios, Reportes).
  * - Extensibilidad: nuevos comandos pueden agregarse sin modificar el invoker.
  * 
@@ -40,11 +43,29 @@ public class P3ProyectoPooFinal {
         javax.swing.SwingUtilities.invokeLater(() -> {
             try {
                 // Inicializar componentes con inyección de dependencias
-                // Crear servicio del modelo (implementación de DIP)
-                IModeloService modeloService = new ModeloServiceImpl();
+                // Crear servicio del modelo (implementación de DIP): MongoDB o en memoria (-Dhotel.modelo=memoria)
+                IModeloService modeloService = crearModeloService();
+                boolean enMemoria = modeloService instanceof ModeloServiceMemoria;
                 
-                // Crear el command invoker para Undo/Redo
-                ICommandInvoker commandInvoker = new CommandInvoker(modeloService);
+                // Crear el command invoker para Undo/Redo; las escrituras corren en un hilo
+                // dedicado para que el EDT no espere a MongoDB
+                // Los registros de cambios (o mementos completos) se custodian con presupuesto de
+                // memoria y se conservan en disco entre ejecuciones
+                CaretakerPersistente caretaker = new CaretakerPersistente(modeloService,
+                    Paths.get(System.getProperty("user.home"), ".hotel", enMemoria ? "historial-memoria" : "historial"),
+                    CaretakerPersistente.PRESUPUESTO_POR_DEFECTO);
+                // Diario de comandos: auditoría y detección de comandos cortados por una caída
+                DiarioComandos diario = new DiarioComandos(
+                    Paths.get(System.getProperty("user.home"), ".hotel", enMemoria ? "diario-memoria" : "diario"));
+                avisarComandosIncompletos(diario);
+                CommandInvoker invoker = new CommandInvoker(100, modeloService, caretaker);
+                reproducirDiarioSiSePide(diario, modeloService, caretaker, invoker);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    informarMetricasHuella(invoker.getMetricasHuella());
+                    try { diario.close(); } catch (java.io.IOException ignored) { }
+                    try { caretaker.close(); } catch (java.io.IOException ignored) { }
+                }, "cierre-diario"));
+                ICommandInvoker commandInvoker = new AsyncCommandInvoker(new InvokerConDiario(invoker, diario));
                 
                 // Inicializar el gestor de disponibilidad (Singleton)
                 GestorDisponibilidad gestor = GestorDisponibilidad.getInstance();
@@ -66,4 +87,74 @@ public class P3ProyectoPooFinal {
             }
         });
     }
+
+    /**
+     * Elige la implementación del modelo según la propiedad del sistema hotel.modelo:
+     * "memoria" trabaja sin base de datos (modo sin conexión, demostraciones y pruebas de carga);
+     * cualquier otro valor usa MongoDB. En memoria, hotel.memoria.clientes y
+     * hotel.memoria.reservasPorCliente precargan datos generados.
+     */
+    private static IModeloService crearModeloService() {
+        if (!"memoria".equalsIgnoreCase(System.getProperty("hotel.modelo"))) {
+            return new ModeloServiceImpl();
+        }
+        ModeloServiceMemoria memoria = new ModeloServiceMemoria();
+        memoria.inicializarHabitaciones();
+        int clientes = Integer.getInteger("hotel.memoria.clientes", 0);
+        if (clientes > 0) {
+            long inicio = System.currentTimeMillis();
+            int creados = memoria.generarDatosSinteticos(clientes, Integer.getInteger("hotel.memoria.reservasPorCliente", 1));
+            java.util.logging.Logger.getLogger(P3ProyectoPooFinal.class.getName())
+                .info("Modelo en memoria: " + creados + " registros generados en " + (System.currentTimeMillis() - inicio) + " ms");
+        }
+        return memoria;
+    }
+
+    /**
+     * Con -Dhotel.diario.reproducir=true reejecuta los comandos confirmados del diario (con sus
+     * deshacer y rehacer) antes de abrir la interfaz. Pensado para -Dhotel.modelo=memoria, donde
+     * cada arranque parte del mismo estado inicial y sin esto se pierde lo hecho en la sesión
+     * anterior; con MongoDB solo tiene sentido sobre una base vacía, porque los datos ya persisten.
+     * El historial heredado se descarta: la reconstrucción lo vuelve a armar.
+     */
+    private static void reproducirDiarioSiSePide(DiarioComandos diario, IModeloService modeloService,
+                                                 CaretakerPersistente caretaker, CommandInvoker invoker) {
+        if (!Boolean.getBoolean("hotel.diario.reproducir")) return;
+        java.util.logging.Logger logger = java.util.logging.Logger.getLogger(P3ProyectoPooFinal.class.getName());
+        caretaker.clear();
+        long inicio = System.currentTimeMillis();
+        try {
+            int ejecutados = diario.reconstruir(new FabricaComandos(modeloService), invoker);
+            logger.info("Diario reproducido: " + ejecutados + " comandos en " + (System.currentTimeMillis() - inicio) + " ms");
+        } catch (RuntimeException e) {
+            // El estado de partida no era el del diario: se sigue con lo reproducido hasta el fallo
+            logger.warning("La reproducción del diario se detuvo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deja en el log, al cerrar, lo que costó el historial de deshacer por tipo de comando y lo que
+     * se ahorró frente a guardar snapshots completos.
+     */
+    private static void informarMetricasHuella(MetricasHuella metricas) {
+        java.util.logging.Logger logger = java.util.logging.Logger.getLogger(P3ProyectoPooFinal.class.getName());
+        for (MetricasHuella.PorTipo porTipo : metricas.getPorTipo()) {
+            logger.info("Historial " + porTipo);
+        }
+    }
+
+    /**
+     * Informa los comandos que quedaron a medias en la ejecución anterior: pudieron aplicarse
+     * solo en parte y conviene revisarlos.
+     */
+    private static void avisarComandosIncompletos(DiarioComandos diario) {
+        if (diario.getIncompletos().isEmpty()) return;
+        StringBuilder mensaje = new StringBuilder("Estas operaciones no terminaron en la sesión anterior; revise su estado:\n");
+        for (DiarioComandos.Registro r : diario.getIncompletos()) {
+            mensaje.append("\n- ").append(new java.util.Date(r.getInstante())).append(": ").append(r.getDescripcion());
+        }
+        java.util.logging.Logger.getLogger(P3ProyectoPooFinal.class.getName()).warning(mensaje.toString());
+        javax.swing.JOptionPane.showMessageDialog(null, mensaje.toString(), "Recuperación",
+            javax.swing.JOptionPane.WARNING_MESSAGE);
+    }
 }
@@ -4,27 +4,169 @@ import model.Habitacion;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.ArrayList;
 
 /**
  * Gestor global de disponibilidad de habitaciones usando patrón Singleton.
  * Mantiene un estado centralizado de la disponibilidad de todas las habitaciones.
  * Thread-safe para aplicaciones concurrentes.
  * 
+ * La disponibilidad se guarda en un bitset atómico: cada habitación recibe un slot denso
+ * con dos bits (activa, disponible) dentro de una palabra de 64 bits. Reservar y liberar son
+ * operaciones CAS sobre esa palabra, sin monitor global, y los contadores de disponibles y
+ * ocupadas se mantienen en O(1). Los slots no se mueven nunca (el bitset crece por segmentos);
+ * solo la asignación y retirada de slots se serializan. Los slots retirados se reutilizan, así que
+ * dar de alta y de baja habitaciones no hace crecer el bitset.
+ * 
+ * Además sirve de índice en memoria de habitaciones por ID y por número para las
+ * búsquedas de lectura directa del servicio, con métricas de aciertos y fallos.
+ * 
  * @author asdw
  * @version 1.0
  */
 public class GestorDisponibilidad {
     
     private static volatile GestorDisponibilidad instance;
-    private final Map<String, Boolean> disponibilidadHabitaciones;
     private final Map<String, Habitacion> habitacionesCache;
+    private final Map<String, String> idPorNumero;
+    private volatile Tabla tabla = new Tabla();
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+
+    /**
+     * Asignación ID → slot y bitset de ocupación. inicializar() y reset() publican una tabla
+     * nueva; el resto de cambios estructurales se hacen sobre la vigente con el monitor tomado.
+     */
+    private static final class Tabla {
+        static final int SLOTS_POR_PALABRA = 32;
+        static final int PALABRAS_POR_SEGMENTO = 32;
+        static final long ACTIVA = 0b10;
+        static final long DISPONIBLE = 0b01;
+
+        final Map<String, Integer> slotPorId = new ConcurrentHashMap<>();
+        final AtomicInteger disponibles = new AtomicInteger();
+        final AtomicInteger activas = new AtomicInteger();
+        volatile AtomicLongArray[] segmentos = new AtomicLongArray[0];
+        int siguienteSlot; // protegido por el monitor del gestor
+        final java.util.ArrayDeque<Integer> libres = new java.util.ArrayDeque<>(); // idem
+        // Cambios CAS sin monitor en curso: pueden llevar el slot de un ID ya retirado
+        final AtomicInteger cambiosEnCurso = new AtomicInteger();
+
+        private AtomicLongArray segmento(int slot) {
+            return segmentos[slot / (SLOTS_POR_PALABRA * PALABRAS_POR_SEGMENTO)];
+        }
+
+        private static int palabra(int slot) {
+            return (slot / SLOTS_POR_PALABRA) % PALABRAS_POR_SEGMENTO;
+        }
+
+        private static int desplazamiento(int slot) {
+            return (slot % SLOTS_POR_PALABRA) * 2;
+        }
+
+        long estado(int slot) {
+            return (segmento(slot).get(palabra(slot)) >>> desplazamiento(slot)) & 0b11;
+        }
+
+        boolean disponible(Integer slot) {
+            return slot != null && estado(slot) == (ACTIVA | DISPONIBLE);
+        }
+
+        /**
+         * Asigna un slot, reutilizando uno retirado si lo hay (llamar con el monitor del gestor tomado).
+         * Un retirado solo se reutiliza si no hay ningún cambio en curso: uno que leyó el slot antes
+         * de retirarlo escribiría sobre la habitación nueva. Los cambios que empiecen después ya no
+         * encuentran el ID retirado en el mapa.
+         */
+        void asignar(String id, boolean disponible) {
+            Integer libre = !libres.isEmpty() && cambiosEnCurso.get() == 0 ? libres.pop() : null;
+            int slot = libre != null ? libre : siguienteSlot++;
+            int seg = slot / (SLOTS_POR_PALABRA * PALABRAS_POR_SEGMENTO);
+            if (seg >= segmentos.length) {
+                AtomicLongArray[] nuevos = java.util.Arrays.copyOf(segmentos, seg + 1);
+                nuevos[seg] = new AtomicLongArray(PALABRAS_POR_SEGMENTO);
+                segmentos = nuevos;
+            }
+            escribir(slot, ACTIVA | (disponible ? DISPONIBLE : 0));
+            activas.incrementAndGet();
+            if (disponible) disponibles.incrementAndGet();
+            // Se publica en el mapa después de preparar el bitset
+            slotPorId.put(id, slot);
+        }
+
+        /**
+         * Retira un slot: deja de estar activo y queda libre para otra habitación
+         * (llamar con el monitor del gestor tomado).
+         */
+        void retirar(String id) {
+            Integer slot = slotPorId.remove(id);
+            if (slot == null) return;
+            long anterior = escribir(slot, 0);
+            if ((anterior & ACTIVA) != 0) {
+                activas.decrementAndGet();
+                if ((anterior & DISPONIBLE) != 0) disponibles.decrementAndGet();
+            }
+            libres.push(slot);
+        }
+
+        /**
+         * @return Slots creados en el bitset (activos más libres)
+         */
+        int slotsCreados() {
+            return siguienteSlot;
+        }
+
+        private long escribir(int slot, long bits) {
+            AtomicLongArray seg = segmento(slot);
+            int p = palabra(slot), d = desplazamiento(slot);
+            while (true) {
+                long actual = seg.get(p);
+                long nuevo = (actual & ~(0b11L << d)) | (bits << d);
+                if (seg.compareAndSet(p, actual, nuevo)) {
+                    return (actual >>> d) & 0b11;
+                }
+            }
+        }
+
+        /**
+         * Cambia el bit de disponibilidad con CAS si el slot sigue activo.
+         *
+         * @return true si hubo transición, false si ya estaba en ese estado, null si no hay slot activo
+         */
+        Boolean cambiar(String id, boolean disponible) {
+            cambiosEnCurso.incrementAndGet();
+            try {
+                Integer slot = slotPorId.get(id);
+                if (slot == null) return null;
+                AtomicLongArray seg = segmento(slot);
+                int p = palabra(slot), d = desplazamiento(slot);
+                long mascara = DISPONIBLE << d;
+                while (true) {
+                    long actual = seg.get(p);
+                    if ((actual & (ACTIVA << d)) == 0) return null;
+                    boolean estaba = (actual & mascara) != 0;
+                    if (estaba == disponible) return false;
+                    long nuevo = disponible ? actual | mascara : actual & ~mascara;
+                    if (seg.compareAndSet(p, actual, nuevo)) {
+                        disponibles.addAndGet(disponible ? 1 : -1);
+                        return true;
+                    }
+                }
+            } finally {
+                cambiosEnCurso.decrementAndGet();
+            }
+        }
+    }
 
     /**
      * Constructor privado para implementar Singleton.
      */
     private GestorDisponibilidad() {
-        this.disponibilidadHabitaciones = new ConcurrentHashMap<>();
         this.habitacionesCache = new ConcurrentHashMap<>();
+        this.idPorNumero = new ConcurrentHashMap<>();
     }
 
     /**
@@ -49,15 +191,55 @@ public class GestorDisponibilidad {
      * @param habitaciones Lista de habitaciones del sistema
      */
     public synchronized void inicializar(List<Habitacion> habitaciones) {
-        disponibilidadHabitaciones.clear();
         habitacionesCache.clear();
-        
+        idPorNumero.clear();
+        Tabla nueva = new Tabla();
         for (Habitacion hab : habitaciones) {
-            disponibilidadHabitaciones.put(hab.getId(), hab.isDisponible());
             habitacionesCache.put(hab.getId(), hab);
+            if (!nueva.slotPorId.containsKey(hab.getId())) {
+                nueva.asignar(hab.getId(), hab.isDisponible());
+            } else {
+                nueva.cambiar(hab.getId(), hab.isDisponible());
+            }
+            if (hab.getNumero() != null) {
+                idPorNumero.put(hab.getNumero(), hab.getId());
+            }
+        }
+        tabla = nueva;
+    }
+
+    /**
+     * Agrega o reemplaza una habitación en el índice (lectura desde la base de datos,
+     * restauración de un cambio, etc.).
+     * 
+     * @param hab Habitación con su estado actual
+     */
+    public synchronized void registrarHabitacion(Habitacion hab) {
+        Habitacion anterior = habitacionesCache.put(hab.getId(), hab);
+        if (anterior != null && anterior.getNumero() != null && !anterior.getNumero().equals(hab.getNumero())) {
+            idPorNumero.remove(anterior.getNumero());
+        }
+        if (hab.getNumero() != null) {
+            idPorNumero.put(hab.getNumero(), hab.getId());
+        }
+        if (tabla.cambiar(hab.getId(), hab.isDisponible()) == null) {
+            tabla.asignar(hab.getId(), hab.isDisponible());
         }
     }
 
+    /**
+     * Quita una habitación del índice.
+     * 
+     * @param idHabitacion ID de la habitación
+     */
+    public synchronized void eliminarHabitacion(String idHabitacion) {
+        Habitacion anterior = habitacionesCache.remove(idHabitacion);
+        if (anterior != null && anterior.getNumero() != null) {
+            idPorNumero.remove(anterior.getNumero(), idHabitacion);
+        }
+        tabla.retirar(idHabitacion);
+    }
+
     /**
      * Verifica si una habitación está disponible.
      * 
@@ -65,7 +247,8 @@ public class GestorDisponibilidad {
      * @return true si está disponible, false en caso contrario
      */
     public boolean isHabitacionDisponible(String idHabitacion) {
-        return disponibilidadHabitaciones.getOrDefault(idHabitacion, false);
+        Tabla t = tabla;
+        return t.disponible(t.slotPorId.get(idHabitacion));
     }
 
     /**
@@ -74,10 +257,22 @@ public class GestorDisponibilidad {
      * @param idHabitacion ID de la habitación
      * @param disponible Nuevo estado de disponibilidad
      */
-    public synchronized void actualizarDisponibilidad(String idHabitacion, boolean disponible) {
-        disponibilidadHabitaciones.put(idHabitacion, disponible);
-        
-        // Actualizar también el cache de habitaciones
+    public void actualizarDisponibilidad(String idHabitacion, boolean disponible) {
+        if (tabla.cambiar(idHabitacion, disponible) == null) {
+            synchronized (this) {
+                // Habitación sin slot: se le asigna uno
+                if (tabla.cambiar(idHabitacion, disponible) == null) {
+                    tabla.asignar(idHabitacion, disponible);
+                }
+            }
+        }
+        reflejarEnEntidad(idHabitacion, disponible);
+    }
+
+    /**
+     * Mantiene el campo ocupada de la entidad cacheada alineado con el bitset (mejor esfuerzo).
+     */
+    private void reflejarEnEntidad(String idHabitacion, boolean disponible) {
         Habitacion hab = habitacionesCache.get(idHabitacion);
         if (hab != null) {
             hab.setOcupada(!disponible);
@@ -85,14 +280,22 @@ public class GestorDisponibilidad {
     }
 
     /**
-     * Obtiene el número de habitaciones disponibles.
+     * Obtiene el número de habitaciones disponibles en O(1).
      * 
      * @return Cantidad de habitaciones disponibles
      */
     public int getNumeroHabitacionesDisponibles() {
-        return (int) disponibilidadHabitaciones.values().stream()
-                .mapToInt(disponible -> disponible ? 1 : 0)
-                .sum();
+        return tabla.disponibles.get();
+    }
+
+    /**
+     * Obtiene el número de habitaciones ocupadas en O(1).
+     * 
+     * @return Cantidad de habitaciones ocupadas
+     */
+    public int getNumeroHabitacionesOcupadas() {
+        Tabla t = tabla;
+        return Math.max(0, t.activas.get() - t.disponibles.get());
     }
 
     /**
@@ -101,29 +304,51 @@ public class GestorDisponibilidad {
      * @return Cantidad total de habitaciones
      */
     public int getNumeroTotalHabitaciones() {
-        return disponibilidadHabitaciones.size();
+        return tabla.activas.get();
     }
 
     /**
-     * Reserva una habitación (la marca como no disponible).
+     * Reserva una habitación (la marca como no disponible) con una operación CAS.
+     * De varios hilos que compiten por la misma habitación solo uno obtiene true.
      * 
      * @param idHabitacion ID de la habitación a reservar
      * @return true si se reservó correctamente, false si no estaba disponible
      */
-    public synchronized boolean reservarHabitacion(String idHabitacion) {
-        if (isHabitacionDisponible(idHabitacion)) {
-            actualizarDisponibilidad(idHabitacion, false);
+    public boolean reservarHabitacion(String idHabitacion) {
+        if (Boolean.TRUE.equals(tabla.cambiar(idHabitacion, false))) {
+            reflejarEnEntidad(idHabitacion, false);
             return true;
         }
         return false;
     }
 
+    /**
+     * Reserva un conjunto de habitaciones con semántica todo o nada: si alguna no está
+     * disponible se liberan las que ya se habían tomado y se devuelve false.
+     * 
+     * @param idsHabitaciones IDs de las habitaciones a reservar
+     * @return true si se reservaron todas
+     */
+    public boolean reservarHabitaciones(java.util.Collection<String> idsHabitaciones) {
+        List<String> tomadas = new ArrayList<>();
+        for (String id : idsHabitaciones) {
+            if (!reservarHabitacion(id)) {
+                for (String t : tomadas) {
+                    liberarHabitacion(t);
+                }
+                return false;
+            }
+            tomadas.add(id);
+        }
+        return true;
+    }
+
     /**
      * Libera una habitación (la marca como disponible).
      * 
      * @param idHabitacion ID de la habitación a liberar
      */
-    public synchronized void liberarHabitacion(String idHabitacion) {
+    public void liberarHabitacion(String idHabitacion) {
         actualizarDisponibilidad(idHabitacion, true);
     }
 
@@ -137,15 +362,83 @@ public class GestorDisponibilidad {
         return habitacionesCache.get(idHabitacion);
     }
 
+    /**
+     * Busca una habitación por ID en el índice, contabilizando acierto o fallo.
+     * Devuelve una copia para que el llamador no altere el estado compartido.
+     * 
+     * @param idHabitacion ID de la habitación
+     * @return Copia de la habitación o null si no está en el índice
+     */
+    public Habitacion buscarHabitacion(String idHabitacion) {
+        Habitacion hab = idHabitacion != null ? habitacionesCache.get(idHabitacion) : null;
+        return contabilizar(hab);
+    }
+
+    /**
+     * Busca una habitación por número en el índice, contabilizando acierto o fallo.
+     * 
+     * @param numero Número de la habitación (ej. "001")
+     * @return Copia de la habitación o null si no está en el índice
+     */
+    public Habitacion buscarHabitacionPorNumero(String numero) {
+        String id = numero != null ? idPorNumero.get(numero) : null;
+        Habitacion hab = id != null ? habitacionesCache.get(id) : null;
+        return contabilizar(hab);
+    }
+
+    private Habitacion contabilizar(Habitacion hab) {
+        if (hab == null) {
+            fallos.incrementAndGet();
+            return null;
+        }
+        aciertos.incrementAndGet();
+        // La ocupación se toma del bitset, que es la fuente de verdad
+        return new Habitacion(hab.getId(), hab.getNumero(), hab.getTipo(),
+            !isHabitacionDisponible(hab.getId()), hab.getPrecio());
+    }
+
+    /**
+     * @return Búsquedas resueltas desde el índice
+     */
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    /**
+     * @return Búsquedas que no encontraron la habitación en el índice
+     */
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    /**
+     * @return Proporción de aciertos (0 si no hubo búsquedas)
+     */
+    public double getTasaAciertos() {
+        long a = aciertos.get();
+        long total = a + fallos.get();
+        return total == 0 ? 0.0 : (double) a / total;
+    }
+
+    /**
+     * Pone a cero las métricas de aciertos y fallos.
+     */
+    public void reiniciarMetricas() {
+        aciertos.set(0);
+        fallos.set(0);
+    }
+
     /**
      * Obtiene todas las habitaciones disponibles.
      * 
      * @return Lista de habitaciones disponibles
      */
     public List<Habitacion> getHabitacionesDisponibles() {
-        return habitacionesCache.values().stream()
-                .filter(hab -> disponibilidadHabitaciones.getOrDefault(hab.getId(), false))
-                .toList();
+        List<Habitacion> lista = new ArrayList<>();
+        for (Habitacion hab : habitacionesCache.values()) {
+            if (isHabitacionDisponible(hab.getId())) lista.add(hab);
+        }
+        return lista;
     }
 
     /**
@@ -154,16 +447,27 @@ public class GestorDisponibilidad {
      * @return Lista de habitaciones ocupadas
      */
     public List<Habitacion> getHabitacionesOcupadas() {
-        return habitacionesCache.values().stream()
-                .filter(hab -> !disponibilidadHabitaciones.getOrDefault(hab.getId(), false))
-                .toList();
+        List<Habitacion> lista = new ArrayList<>();
+        for (Habitacion hab : habitacionesCache.values()) {
+            if (!isHabitacionDisponible(hab.getId())) lista.add(hab);
+        }
+        return lista;
     }
 
     /**
      * Limpia el estado del gestor (para testing).
      */
-    protected synchronized void reset() {
-        disponibilidadHabitaciones.clear();
+    /**
+     * @return Slots creados en el bitset vigente, incluidos los libres para reutilizar
+     */
+    synchronized int getSlotsCreados() {
+        return tabla.slotsCreados();
+    }
+
+        protected synchronized void reset() {
         habitacionesCache.clear();
+        idPorNumero.clear();
+        tabla = new Tabla();
+        reiniciarMetricas();
     }
 }
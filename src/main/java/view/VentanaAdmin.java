@@ -200,9 +200,9 @@ public class VentanaAdmin extends javax.swing.JFrame {
      * Crea el header superior
      */
     private JLabel headerTitle; // para actualizar dinámicamente
+    private JProgressBar barraCarga; // visible mientras hay cargas en segundo plano
     private JButton btnUndo; 
     private JButton btnRedo;
-    private Timer undoRedoTooltipTimer;
 
     private JPanel createHeader() {
         JPanel header = new JPanel(new BorderLayout());
@@ -222,6 +222,10 @@ public class VentanaAdmin extends javax.swing.JFrame {
         headerTitle.setForeground(TEXT_COLOR);
         leftGroup.add(btnVolverSelector);
         leftGroup.add(headerTitle);
+        barraCarga = new JProgressBar(0, 100);
+        barraCarga.setPreferredSize(new Dimension(120, 12));
+        barraCarga.setVisible(false);
+        leftGroup.add(barraCarga);
         header.add(leftGroup, BorderLayout.WEST);
 
         JPanel acciones = new JPanel(new FlowLayout(FlowLayout.RIGHT,10,5));
@@ -234,39 +238,49 @@ public class VentanaAdmin extends javax.swing.JFrame {
             b.setBackground(ACCENT_COLOR);
             b.setForeground(Color.WHITE);
         }
+        // El estado de los botones lo actualiza el controlador con los eventos del historial
         btnUndo.addActionListener(e -> {
             if (controlador!=null) controlador.ejecutarUndo();
-            actualizarEstadoUndoRedo();
         });
         btnRedo.addActionListener(e -> {
             if (controlador!=null) controlador.ejecutarRedo();
-            actualizarEstadoUndoRedo();
         });
     btnUndo.setToolTipText("Deshacer la última operación (revierte cambios realizados, como creación o finalización de reservas).");
     btnRedo.setToolTipText("Rehacer la operación deshecha (vuelve a aplicar el cambio revertido). ");
         acciones.add(btnUndo);
         acciones.add(btnRedo);
         header.add(acciones, BorderLayout.EAST);
-        iniciarActualizacionUndoRedo();
         return header;
     }
 
-    public void actualizarTitulo(String titulo){
-        SwingUtilities.invokeLater(() -> headerTitle.setText(titulo));
+    /**
+     * Muestra el indicador de carga mientras haya consultas en segundo plano. Debe llamarse en el EDT.
+     * 
+     * @param cargasEnCurso Consultas sin terminar (0 oculta el indicador)
+     * @param progreso Progreso 0-100; 0 muestra la barra indeterminada
+     */
+    public void mostrarCarga(int cargasEnCurso, int progreso){
+        boolean cargando = cargasEnCurso > 0;
+        barraCarga.setVisible(cargando);
+        barraCarga.setIndeterminate(cargando && progreso <= 0);
+        barraCarga.setValue(progreso);
+        barraCarga.setToolTipText(cargando ? "Cargando datos (" + cargasEnCurso + ")" : null);
+        setCursor(cargando ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
     }
 
-    private void iniciarActualizacionUndoRedo(){
-        undoRedoTooltipTimer = new Timer(1500, e -> actualizarEstadoUndoRedo());
-        undoRedoTooltipTimer.setRepeats(true);
-        undoRedoTooltipTimer.start();
+    public void actualizarTitulo(String titulo){
+        SwingUtilities.invokeLater(() -> headerTitle.setText(titulo));
     }
 
-    private void actualizarEstadoUndoRedo(){
-        if (controlador==null) return;
-        String siguienteUndo = controlador.getCommandInvoker().getNextUndoDescription();
-        String siguienteRedo = controlador.getCommandInvoker().getNextRedoDescription();
-        boolean canUndo = controlador.puedeDeshacer();
-        boolean canRedo = controlador.puedeRehacer();
+    /**
+     * Muestra el estado del historial Undo/Redo en los botones. Debe llamarse en el EDT.
+     * 
+     * @param canUndo Hay una operación para deshacer
+     * @param canRedo Hay una operación para rehacer
+     * @param siguienteUndo Descripción de la operación a deshacer
+     * @param siguienteRedo Descripción de la operación a rehacer
+     */
+    public void mostrarEstadoUndoRedo(boolean canUndo, boolean canRedo, String siguienteUndo, String siguienteRedo){
         btnUndo.setEnabled(canUndo);
         btnRedo.setEnabled(canRedo);
         btnUndo.setText(canUndo?"⮪ Undo" : "⮪ Undo");
@@ -20,12 +20,16 @@ public class PanelClientes extends javax.swing.JPanel {
     private JTextField txtBuscarCedula;
     private JButton btnBuscarCedula;
     private JButton btnLimpiarBusqueda;
+    private final view.util.ModeloTablaClientes modeloClientes = new view.util.ModeloTablaClientes();
 
     /**
      * Creates new form PanelClientes
      */
     public PanelClientes() {
         initComponents();
+        // El modelo generado por el editor se reemplaza por uno sin filas Object[] ni copias
+        tablaClientes.setModel(modeloClientes);
+        modeloClientes.ordenarAlPulsarCabecera(tablaClientes);
         estilizar();
     }
 
@@ -111,6 +115,10 @@ public class PanelClientes extends javax.swing.JPanel {
         return tablaClientes;
     }
 
+    public view.util.ModeloTablaClientes getModeloClientes() {
+        return modeloClientes;
+    }
+
     public JTextField getTxtBuscarCedula(){return txtBuscarCedula;}
     public JButton getBtnBuscarCedula(){return btnBuscarCedula;}
     public JButton getBtnLimpiarBusqueda(){return btnLimpiarBusqueda;}
@@ -2,7 +2,7 @@ package view.panels;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
+import view.util.ModeloTablaReservas;
 import java.awt.*;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
@@ -14,6 +14,7 @@ import javax.swing.event.ListSelectionListener;
 public class PanelReservas extends JPanel {
 
 	private final JTable tablaReservas;
+	private final ModeloTablaReservas modeloReservas;
 	private final JButton btnNuevaReserva;
 	private final JButton btnFinalizarReserva;
 	private final JButton btnAjustarReserva;
@@ -35,10 +36,8 @@ public class PanelReservas extends JPanel {
 		add(titulo, BorderLayout.NORTH);
 
 		// Tabla de reservas
-		String[] cols = {"ID", "Cliente", "Hab.", "Reserva", "Inicio Plan", "Fin Plan", "Ingreso", "Salida", "Noches", "Estado", "Total"};
-		tablaReservas = new JTable(new DefaultTableModel(cols, 0) {
-			public boolean isCellEditable(int r, int c) {return false;}
-		});
+		modeloReservas = new ModeloTablaReservas();
+		tablaReservas = new JTable(modeloReservas);
 		tablaReservas.setRowHeight(26);
 		tablaReservas.getTableHeader().setReorderingAllowed(false);
 		JScrollPane sp = new JScrollPane(tablaReservas);
@@ -80,7 +79,7 @@ public class PanelReservas extends JPanel {
 		header.setFont(new Font("Segoe UI", Font.BOLD, 12));
 		tablaReservas.setSelectionBackground(new Color(72,126,176));
 		tablaReservas.setSelectionForeground(Color.WHITE);
-		tablaReservas.setAutoCreateRowSorter(true);
+		modeloReservas.ordenarAlPulsarCabecera(tablaReservas); // ordena fechas e importes por valor, no por texto
 		// Anchos sugeridos
 		int[] widths = {160,140,45,90,90,90,80,80,60,80,70};
 		for (int i=0;i<widths.length && i<tablaReservas.getColumnCount();i++){
@@ -118,6 +117,7 @@ public class PanelReservas extends JPanel {
 	}
 
 	public JTable getTablaReservas() {return tablaReservas;}
+	public ModeloTablaReservas getModeloReservas() {return modeloReservas;}
 	public JButton getBtnNuevaReserva() {return btnNuevaReserva;}
 	public JButton getBtnFinalizarReserva() {return btnFinalizarReserva;}
 	public JButton getBtnAjustarReserva() {return btnAjustarReserva;}
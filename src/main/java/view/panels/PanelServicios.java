@@ -1,7 +1,7 @@
 package view.panels;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import view.util.ModeloTablaServicios;
 import java.awt.*;
 
 /**
@@ -10,6 +10,7 @@ import java.awt.*;
  */
 public class PanelServicios extends JPanel {
     private final JTable tablaServicios;
+    private final ModeloTablaServicios modeloServicios;
     private final JComboBox<String> comboHabitacionesOcupadas; // listado de habitaciones ocupadas
     private final JButton btnAgregarServicio;
     private final JButton btnRefrescar;
@@ -32,16 +33,16 @@ public class PanelServicios extends JPanel {
         top.add(btnVolver);
         add(top, BorderLayout.NORTH);
 
-        String[] cols = {"ID","Fecha","Tipo","Descripción","Costo"};
-        tablaServicios = new JTable(new DefaultTableModel(cols,0){
-            @Override public boolean isCellEditable(int r,int c){return false;}
-        });
+        modeloServicios = new ModeloTablaServicios();
+        tablaServicios = new JTable(modeloServicios);
+        modeloServicios.ordenarAlPulsarCabecera(tablaServicios);
         tablaServicios.setRowHeight(26);
         JScrollPane scroll = new JScrollPane(tablaServicios);
         add(scroll, BorderLayout.CENTER);
     }
 
     public JTable getTablaServicios(){return tablaServicios;}
+    public ModeloTablaServicios getModeloServicios(){return modeloServicios;}
     public JComboBox<String> getComboHabitacionesOcupadas(){return comboHabitacionesOcupadas;}
     public JButton getBtnAgregarServicio(){return btnAgregarServicio;}
     public JButton getBtnRefrescar(){return btnRefrescar;}
@@ -0,0 +1,17 @@
+package view.util;
+
+import model.Cliente;
+
+/**
+ * Modelo de la tabla de clientes (ID, Nombre, Apellido, Cédula, Teléfono).
+ */
+public class ModeloTablaClientes extends ModeloTablaLista<Cliente> {
+
+    public ModeloTablaClientes() {
+        super(Columna.de("ID", Cliente::getId),
+              Columna.de("Nombre", Cliente::getNombre),
+              Columna.de("Apellido", Cliente::getApellido),
+              Columna.de("Cédula", Cliente::getCedula),
+              Columna.de("Teléfono", Cliente::getTelefono));
+    }
+}
@@ -0,0 +1,179 @@
+package view.util;
+
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Modelo de tabla sobre una lista de objetos de dominio.
+ * No copia filas ni guarda Object[]: cada celda se calcula (y formatea) en {@link #getValueAt}
+ * solo cuando la tabla la pinta. Ordenar y filtrar reordenan un arreglo de índices sobre
+ * la lista original, y cada recarga emite un único evento de cambio.
+ *
+ * @param <T> Tipo de objeto mostrado en cada fila
+ */
+public class ModeloTablaLista<T> extends AbstractTableModel {
+
+    /**
+     * Definición de una columna: nombre, valor mostrado y clave de orden.
+     *
+     * @param <T> Tipo de la fila
+     */
+    public static final class Columna<T> {
+        private final String nombre;
+        private final Function<T, ?> celda;
+        private final Comparator<T> orden;
+
+        /**
+         * @param nombre Encabezado
+         * @param celda Valor mostrado (se evalúa al pintar)
+         * @param orden Comparador para ordenar por la columna, o null si no es ordenable
+         */
+        public Columna(String nombre, Function<T, ?> celda, Comparator<T> orden) {
+            this.nombre = nombre;
+            this.celda = celda;
+            this.orden = orden;
+        }
+
+        /**
+         * Columna cuyo valor natural sirve a la vez para mostrar y ordenar.
+         */
+        public static <T, C extends Comparable<? super C>> Columna<T> de(String nombre, Function<T, C> valor) {
+            return new Columna<>(nombre, valor, Comparator.comparing(valor, Comparator.nullsFirst(Comparator.<C>naturalOrder())));
+        }
+
+        /**
+         * Columna que se muestra formateada pero se ordena por su valor natural (fechas, importes).
+         */
+        public static <T, C extends Comparable<? super C>> Columna<T> formateada(String nombre, Function<T, C> valor,
+                                                                                  Function<C, String> formato) {
+            return new Columna<>(nombre, fila -> formato.apply(valor.apply(fila)),
+                Comparator.comparing(valor, Comparator.nullsFirst(Comparator.<C>naturalOrder())));
+        }
+    }
+
+    private final List<Columna<T>> columnas;
+    private List<T> datos = Collections.emptyList();
+    private int[] indices = new int[0]; // fila visible -> posición en datos
+    private Predicate<? super T> filtro;
+    private int columnaOrden = -1;
+    private boolean ascendente = true;
+
+    /**
+     * @param columnas Columnas de la tabla, en orden
+     */
+    @SafeVarargs
+    public ModeloTablaLista(Columna<T>... columnas) {
+        // Copia elemento a elemento: el arreglo genérico no sale de este constructor
+        this.columnas = new ArrayList<>(columnas.length);
+        for (Columna<T> columna : columnas) {
+            this.columnas.add(columna);
+        }
+    }
+
+    /**
+     * Reemplaza los datos (sin copiarlos) reaplicando filtro y orden vigentes.
+     *
+     * @param datos Lista de dominio; no debe modificarse mientras el modelo la use
+     */
+    public void setDatos(List<T> datos) {
+        this.datos = datos != null ? datos : Collections.<T>emptyList();
+        reindexar();
+    }
+
+    /**
+     * Muestra solo las filas que cumplen el predicado (null quita el filtro).
+     */
+    public void filtrar(Predicate<? super T> filtro) {
+        this.filtro = filtro;
+        reindexar();
+    }
+
+    /**
+     * Ordena por una columna (-1 vuelve al orden original de los datos).
+     */
+    public void ordenar(int columna, boolean ascendente) {
+        this.columnaOrden = columna >= 0 && columnas.get(columna).orden != null ? columna : -1;
+        this.ascendente = ascendente;
+        reindexar();
+    }
+
+    /**
+     * Ordena la tabla al pulsar un encabezado: primer clic ascendente, segundo descendente.
+     * Reemplaza al RowSorter de la tabla, que compararía los textos ya formateados.
+     */
+    public void ordenarAlPulsarCabecera(JTable tabla) {
+        tabla.setRowSorter(null);
+        tabla.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override public void mouseClicked(MouseEvent e) {
+                int columna = tabla.convertColumnIndexToModel(tabla.columnAtPoint(e.getPoint()));
+                if (columna < 0) return;
+                ordenar(columna, columna != columnaOrden || !ascendente);
+            }
+        });
+    }
+
+    /**
+     * @param fila Fila visible
+     * @return Objeto de dominio mostrado en esa fila
+     */
+    public T getFila(int fila) {
+        return datos.get(indices[fila]);
+    }
+
+    /** @return Número de filas sin filtrar */
+    public int getTotalDatos() {
+        return datos.size();
+    }
+
+    private void reindexar() {
+        int[] nuevos = new int[datos.size()];
+        int n = 0;
+        for (int i = 0; i < datos.size(); i++) {
+            if (filtro == null || filtro.test(datos.get(i))) nuevos[n++] = i;
+        }
+        if (columnaOrden >= 0) {
+            Comparator<T> comparador = columnas.get(columnaOrden).orden;
+            if (!ascendente) comparador = comparador.reversed();
+            Integer[] orden = new Integer[n];
+            for (int i = 0; i < n; i++) orden[i] = nuevos[i];
+            final Comparator<T> c = comparador;
+            java.util.Arrays.sort(orden, (a, b) -> c.compare(datos.get(a), datos.get(b)));
+            for (int i = 0; i < n; i++) nuevos[i] = orden[i];
+        }
+        indices = n == nuevos.length ? nuevos : java.util.Arrays.copyOf(nuevos, n);
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return indices.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnas.size();
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return columnas.get(columna).nombre;
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        return columnas.get(columna).celda.apply(getFila(fila));
+    }
+
+    @Override
+    public boolean isCellEditable(int fila, int columna) {
+        return false;
+    }
+}
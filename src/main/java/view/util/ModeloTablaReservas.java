@@ -0,0 +1,80 @@
+package view.util;
+
+import model.Cliente;
+import model.Habitacion;
+import model.Reserva;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modelo de la tabla de reservas del panel de administración.
+ * El nombre del cliente, el número de habitación y el estado se resuelven al pintar
+ * con los mapas de búsqueda recibidos en {@link #setDatos(List, Map, Map)}.
+ */
+public class ModeloTablaReservas extends ModeloTablaLista<Reserva> {
+
+    /** Mapas de búsqueda compartidos con las columnas. */
+    private static final class Referencias {
+        Map<String, Cliente> clientes = Collections.emptyMap();
+        Map<String, Habitacion> habitaciones = Collections.emptyMap();
+
+        String cliente(Reserva r) {
+            Cliente c = clientes.get(r.getIdCliente());
+            return c != null ? c.getNombre() + " " + c.getApellido() : "?";
+        }
+
+        String habitacion(Reserva r) {
+            Habitacion h = habitaciones.get(r.getIdHabitacion());
+            return h != null ? h.getNumero() : "?";
+        }
+
+        String estado(Reserva r) {
+            return r.calcularEstado(habitaciones.get(r.getIdHabitacion()));
+        }
+    }
+
+    private final Referencias referencias;
+
+    public ModeloTablaReservas() {
+        this(new Referencias(), new SimpleDateFormat("dd/MM/yyyy"));
+    }
+
+    private ModeloTablaReservas(Referencias ref, SimpleDateFormat sdf) {
+        super(Columna.de("ID", Reserva::getId),
+              Columna.de("Cliente", ref::cliente),
+              Columna.de("Hab.", ref::habitacion),
+              Columna.formateada("Reserva", Reserva::getFechaReserva, (Date d) -> d != null ? sdf.format(d) : "--"),
+              Columna.formateada("Inicio Plan", Reserva::getFechaInicioPlanificada, (Date d) -> d != null ? sdf.format(d) : "--"),
+              Columna.formateada("Fin Plan", Reserva::getFechaFinPlanificada, (Date d) -> d != null ? sdf.format(d) : "--"),
+              Columna.formateada("Ingreso", Reserva::getFechaIngreso, (Date d) -> d != null ? sdf.format(d) : "--"),
+              Columna.formateada("Salida", Reserva::getFechaSalida, (Date d) -> d != null ? sdf.format(d) : "--"),
+              Columna.de("Noches", (Reserva r) -> r.getNoches() > 0 ? r.getNoches() : 1),
+              Columna.de("Estado", ref::estado),
+              Columna.formateada("Total", Reserva::getTotal, (Double t) -> String.format("$%.2f", t)));
+        this.referencias = ref;
+    }
+
+    /**
+     * Reemplaza reservas y mapas de búsqueda con un único evento de cambio.
+     *
+     * @param reservas Reservas a mostrar
+     * @param clientes Clientes por ID
+     * @param habitaciones Habitaciones por ID
+     */
+    public void setDatos(List<Reserva> reservas, Map<String, Cliente> clientes, Map<String, Habitacion> habitaciones) {
+        referencias.clientes = clientes;
+        referencias.habitaciones = habitaciones;
+        setDatos(reservas);
+    }
+
+    /**
+     * @param reserva Reserva cargada en el modelo
+     * @return Estado mostrado (Finalizada, Check-in o Reservada)
+     */
+    public String getEstado(Reserva reserva) {
+        return referencias.estado(reserva);
+    }
+}
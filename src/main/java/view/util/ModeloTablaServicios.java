@@ -0,0 +1,24 @@
+package view.util;
+
+import model.ServicioHabitacion;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Modelo de la tabla de servicios a la habitación (ID, Fecha, Tipo, Descripción, Costo).
+ * Fecha y costo se formatean al pintar y se ordenan por su valor.
+ */
+public class ModeloTablaServicios extends ModeloTablaLista<ServicioHabitacion> {
+
+    public ModeloTablaServicios() {
+        this(new SimpleDateFormat("dd/MM HH:mm"));
+    }
+
+    private ModeloTablaServicios(SimpleDateFormat sdf) {
+        super(Columna.de("ID", ServicioHabitacion::getId),
+              Columna.formateada("Fecha", ServicioHabitacion::getFecha, (Date d) -> d != null ? sdf.format(d) : "--"),
+              Columna.de("Tipo", ServicioHabitacion::getTipo),
+              Columna.de("Descripción", ServicioHabitacion::getDescripcion),
+              Columna.formateada("Costo", ServicioHabitacion::getCosto, (Double c) -> String.format("$%.2f", c)));
+    }
+}
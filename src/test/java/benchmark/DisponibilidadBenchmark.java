@@ -0,0 +1,127 @@
+package benchmark;
+
+import model.Habitacion;
+import singleton.GestorDisponibilidad;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark manual de GestorDisponibilidad: compara la implementación anterior
+ * (ConcurrentHashMap&lt;String, Boolean&gt; + monitor global + conteo recorriendo el mapa)
+ * con el bitset atómico actual, midiendo ciclos reservar/liberar y lecturas del contador
+ * con 1, 4 y 8 hilos sobre 500 habitaciones.
+ *
+ * No requiere base de datos ni forma parte de la suite de tests. Ejecución:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=benchmark.DisponibilidadBenchmark
+ * </pre>
+ */
+public class DisponibilidadBenchmark {
+
+    private static final int HABITACIONES = 500;
+    private static final int[] HILOS = {1, 4, 8};
+    private static final int OPERACIONES_POR_HILO = 2_000_000;
+    private static final int RONDAS = 5;
+
+    /** Operaciones comunes a ambas implementaciones. */
+    interface Disponibilidad {
+        boolean reservar(String id);
+        void liberar(String id);
+        int disponibles();
+    }
+
+    /** Réplica de la implementación anterior, como línea base. */
+    static final class Anterior implements Disponibilidad {
+        private final Map<String, Boolean> mapa = new ConcurrentHashMap<>();
+
+        Anterior(List<String> ids) {
+            for (String id : ids) mapa.put(id, true);
+        }
+
+        @Override public synchronized boolean reservar(String id) {
+            if (mapa.getOrDefault(id, false)) {
+                mapa.put(id, false);
+                return true;
+            }
+            return false;
+        }
+
+        @Override public synchronized void liberar(String id) {
+            mapa.put(id, true);
+        }
+
+        @Override public int disponibles() {
+            return mapa.values().stream().mapToInt(d -> d ? 1 : 0).sum();
+        }
+    }
+
+    /** Adaptador sobre el gestor actual. */
+    static final class Actual implements Disponibilidad {
+        private final GestorDisponibilidad gestor = GestorDisponibilidad.getInstance();
+
+        Actual(List<String> ids) {
+            List<Habitacion> habitaciones = new ArrayList<>();
+            for (String id : ids) habitaciones.add(new Habitacion(id, id, "Simple", false, 50));
+            gestor.inicializar(habitaciones);
+        }
+
+        @Override public boolean reservar(String id) { return gestor.reservarHabitacion(id); }
+        @Override public void liberar(String id) { gestor.liberarHabitacion(id); }
+        @Override public int disponibles() { return gestor.getNumeroHabitacionesDisponibles(); }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < HABITACIONES; i++) ids.add(String.format("HAB-%04d", i));
+        System.out.printf("%-6s %-22s %-22s%n", "hilos", "anterior (Mops/s)", "bitset (Mops/s)");
+        for (int hilos : HILOS) {
+            double anterior = mejorRonda(() -> new Anterior(ids), ids, hilos);
+            double actual = mejorRonda(() -> new Actual(ids), ids, hilos);
+            System.out.printf("%-6d %-22.2f %-22.2f%n", hilos, anterior, actual);
+        }
+    }
+
+    private static double mejorRonda(Callable<Disponibilidad> fabrica, List<String> ids, int hilos) throws Exception {
+        double mejor = 0;
+        for (int r = 0; r < RONDAS; r++) {
+            mejor = Math.max(mejor, medir(fabrica.call(), ids, hilos));
+        }
+        return mejor;
+    }
+
+    /**
+     * Cada hilo alterna reservar/liberar sobre habitaciones aleatorias y consulta el contador
+     * cada 16 operaciones (como haría el dashboard).
+     *
+     * @return Millones de operaciones por segundo
+     */
+    private static double medir(Disponibilidad d, List<String> ids, int hilos) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicLong sumidero = new AtomicLong();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            tareas.add(pool.submit(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long local = 0;
+                salida.await();
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    String id = ids.get(rnd.nextInt(ids.size()));
+                    if (d.reservar(id)) d.liberar(id);
+                    if ((i & 15) == 0) local += d.disponibles();
+                }
+                sumidero.addAndGet(local);
+                return null;
+            }));
+        }
+        long inicio = System.nanoTime();
+        salida.countDown();
+        for (Future<?> f : tareas) f.get();
+        long ns = System.nanoTime() - inicio;
+        pool.shutdown();
+        // Consumir el acumulado evita que el JIT descarte las lecturas del contador
+        if (sumidero.get() == Long.MIN_VALUE) System.out.print("");
+        return (double) OPERACIONES_POR_HILO * hilos / ns * 1_000;
+    }
+}
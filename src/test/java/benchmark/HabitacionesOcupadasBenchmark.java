@@ -0,0 +1,113 @@
+package benchmark;
+
+import model.*;
+import org.bson.Document;
+import java.util.*;
+
+/**
+ * Benchmark manual de obtenerHabitacionesOcupadasConCliente: compara la versión
+ * N+1 anterior (todas las habitaciones + todas las reservas + un buscarClientePorId por habitación)
+ * con la agregación de un solo viaje, con 20, 500 y 5000 habitaciones.
+ *
+ * Requiere un MongoDB local; usa (y borra) la base "HotelBenchmark". No forma parte de la suite de tests.
+ * Ejecución:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=benchmark.HabitacionesOcupadasBenchmark
+ * </pre>
+ */
+public class HabitacionesOcupadasBenchmark {
+
+    private static final String BD = "HotelBenchmark";
+    private static final int[] TAMANOS = {20, 500, 5000};
+    private static final int CALENTAMIENTO = 5;
+    private static final int ITERACIONES = 20;
+
+    public static void main(String[] args) {
+        ConexionBD conexion = new ConexionBD(ConexionBD.URI, BD);
+        try {
+            System.out.printf("%-12s %-14s %-14s %-10s%n", "habitaciones", "N+1 (ms)", "agregación (ms)", "filas");
+            for (int n : TAMANOS) {
+                sembrar(conexion, n);
+                ModeloServiceImpl servicio = new ModeloServiceImpl(conexion);
+                MongoCRUD crud = new MongoCRUD(conexion);
+                double legacy = medianaMs(() -> versionNMasUno(crud).size());
+                int filas = servicio.obtenerHabitacionesOcupadasConCliente().size();
+                double agregacion = medianaMs(() -> servicio.obtenerHabitacionesOcupadasConCliente().size());
+                System.out.printf("%-12d %-14.2f %-14.2f %-10d%n", n, legacy, agregacion, filas);
+            }
+        } finally {
+            for (String c : Arrays.asList("habitaciones", "reservas", "clientes", "counters")) {
+                conexion.getColeccion(c).drop();
+            }
+            conexion.cerrar();
+        }
+    }
+
+    /** Mitad de las habitaciones ocupadas con reserva activa y cliente, más dos reservas históricas por habitación. */
+    private static void sembrar(ConexionBD conexion, int n) {
+        for (String c : Arrays.asList("habitaciones", "reservas", "clientes", "counters")) {
+            conexion.getColeccion(c).drop();
+        }
+        List<Document> habitaciones = new ArrayList<>();
+        List<Document> clientes = new ArrayList<>();
+        List<Document> reservas = new ArrayList<>();
+        Date hoy = new Date();
+        int res = 0;
+        for (int i = 1; i <= n; i++) {
+            String idHab = String.format("HAB-%05d", i);
+            boolean ocupada = i % 2 == 0;
+            habitaciones.add(new Habitacion(idHab, String.format("%05d", i), "Simple", ocupada, 50).toDocument());
+            String idCli = String.format("CLI-%05d", i);
+            clientes.add(new Cliente(idCli, "N" + i, "A" + i, String.format("%010d", i), String.format("09%08d", i)).toDocument());
+            for (int h = 0; h < 2; h++) {
+                reservas.add(new Reserva(String.format("RES-%06d", ++res), idCli, idHab, hoy, hoy, 50).toDocument());
+            }
+            if (ocupada) {
+                reservas.add(new Reserva(String.format("RES-%06d", ++res), idCli, idHab, hoy, null, 50).toDocument());
+            }
+        }
+        conexion.getColeccion("habitaciones").insertMany(habitaciones);
+        conexion.getColeccion("clientes").insertMany(clientes);
+        conexion.getColeccion("reservas").insertMany(reservas);
+        // drop() elimina también los índices: se vuelven a crear como al conectar
+        conexion.getGestorIndices().asegurarIndices();
+    }
+
+    /** Réplica de la implementación anterior (N+1 viajes). */
+    private static List<HabitacionOcupadaInfo> versionNMasUno(MongoCRUD crud) {
+        List<HabitacionOcupadaInfo> resultado = new ArrayList<>();
+        List<Reserva> reservas = new ArrayList<>();
+        for (Document d : crud.listarTodos("reservas")) reservas.add(Reserva.fromDocument(d));
+        for (Document d : crud.listarTodos("habitaciones")) {
+            Habitacion habitacion = Habitacion.fromDocument(d);
+            if (!habitacion.isOcupada()) continue;
+            for (Reserva reserva : reservas) {
+                if (habitacion.getId().equals(reserva.getIdHabitacion()) && reserva.getFechaSalida() == null) {
+                    Document c = crud.buscarPorId("clientes", reserva.getIdCliente());
+                    if (c != null) {
+                        Cliente cliente = Cliente.fromDocument(c);
+                        resultado.add(new HabitacionOcupadaInfo(habitacion.getNumero(), habitacion.getTipo(),
+                            habitacion.getPrecio(), cliente.getNombre(), cliente.getApellido(),
+                            cliente.getCedula(), reserva.getId()));
+                    }
+                    break;
+                }
+            }
+        }
+        return resultado;
+    }
+
+    private interface Operacion { int ejecutar(); }
+
+    private static double medianaMs(Operacion op) {
+        for (int i = 0; i < CALENTAMIENTO; i++) op.ejecutar();
+        double[] tiempos = new double[ITERACIONES];
+        for (int i = 0; i < ITERACIONES; i++) {
+            long inicio = System.nanoTime();
+            op.ejecutar();
+            tiempos[i] = (System.nanoTime() - inicio) / 1_000_000.0;
+        }
+        Arrays.sort(tiempos);
+        return tiempos[ITERACIONES / 2];
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import model.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark manual de {@link ModeloServiceMemoria} a gran escala: carga N clientes con
+ * 4 reservas históricas cada uno y mide búsquedas por cédula, páginas del panel de reservas
+ * (primera, con rango de fechas y siguiente por cursor), reservas recientes y ciclos
+ * check-in/check-out con 1, 4 y 8 hilos.
+ *
+ * No requiere base de datos ni forma parte de la suite de tests. Ejecución (N opcional, por defecto 250000,
+ * es decir un millón de reservas):
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=benchmark.ModeloMemoriaBenchmark -Dexec.args=250000
+ * </pre>
+ */
+public class ModeloMemoriaBenchmark {
+
+    private static final int RESERVAS_POR_CLIENTE = 4;
+    private static final int[] HILOS = {1, 4, 8};
+    private static final int BUSQUEDAS = 1_000_000;
+    private static final int CICLOS_POR_HILO = 20_000;
+    private static final int CALENTAMIENTO = 5;
+    private static final int ITERACIONES = 20;
+
+    public static void main(String[] args) throws Exception {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 250_000;
+        ModeloServiceMemoria servicio = new ModeloServiceMemoria();
+        long inicio = System.nanoTime();
+        int creados = servicio.generarDatosSinteticos(clientes, RESERVAS_POR_CLIENTE);
+        System.out.printf("Carga: %d registros en %.0f ms%n", creados, (System.nanoTime() - inicio) / 1e6);
+
+        Random azar = new Random(42);
+        inicio = System.nanoTime();
+        int encontrados = 0;
+        for (int i = 0; i < BUSQUEDAS; i++) {
+            if (servicio.buscarClientePorCedula(String.format("9%09d", 1 + azar.nextInt(clientes))) != null) encontrados++;
+        }
+        System.out.printf("buscarClientePorCedula: %.0f ns/op (%d encontrados)%n",
+            (System.nanoTime() - inicio) / (double) BUSQUEDAS, encontrados);
+
+        Calendar c = Calendar.getInstance();
+        Date hasta = c.getTime();
+        c.add(Calendar.DATE, -90);
+        Date desde = c.getTime();
+        PaginaReservas primera = servicio.buscarReservas(new FiltroReservas(null, null, null).conTamanoPagina(500));
+        System.out.printf("buscarReservas primera página: %.3f ms%n",
+            medianaMs(() -> servicio.buscarReservas(new FiltroReservas(null, null, null).conTamanoPagina(500)).getReservas().size()));
+        System.out.printf("buscarReservas últimos 90 días: %.3f ms%n",
+            medianaMs(() -> servicio.buscarReservas(new FiltroReservas(desde, hasta, "Finalizada").conTamanoPagina(500)).getReservas().size()));
+        System.out.printf("buscarReservas página siguiente: %.3f ms%n",
+            medianaMs(() -> servicio.buscarReservas(new FiltroReservas(null, null, null).conTamanoPagina(500)
+                .despuesDe(primera.getSiguienteCursor())).getReservas().size()));
+        System.out.printf("obtenerReservasRecientes(50): %.3f ms%n",
+            medianaMs(() -> servicio.obtenerReservasRecientes(50).size()));
+
+        System.out.printf("%-6s %-16s%n", "hilos", "check-in+out/s");
+        List<Habitacion> habitaciones = servicio.obtenerTodasHabitaciones();
+        for (int hilos : HILOS) {
+            ExecutorService pool = Executors.newFixedThreadPool(hilos);
+            AtomicLong ciclos = new AtomicLong();
+            CountDownLatch salida = new CountDownLatch(1);
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                final int hilo = h;
+                futuros.add(pool.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < CICLOS_POR_HILO; i++) {
+                        Habitacion hab = habitaciones.get((hilo + i * hilos) % habitaciones.size());
+                        Reserva r = new Reserva(null, String.format("CLI-%04d", 1 + (i % clientes)), hab.getId(), new Date(), null, hab.getPrecio());
+                        if (servicio.crearReserva(r) && servicio.finalizarReserva(r.getId())) ciclos.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            long t0 = System.nanoTime();
+            salida.countDown();
+            for (Future<?> f : futuros) f.get();
+            double segundos = (System.nanoTime() - t0) / 1e9;
+            pool.shutdown();
+            System.out.printf("%-6d %-16.0f%n", hilos, ciclos.get() / segundos);
+        }
+    }
+
+    private interface Operacion { int ejecutar(); }
+
+    private static double medianaMs(Operacion op) {
+        for (int i = 0; i < CALENTAMIENTO; i++) op.ejecutar();
+        double[] tiempos = new double[ITERACIONES];
+        for (int i = 0; i < ITERACIONES; i++) {
+            long inicio = System.nanoTime();
+            op.ejecutar();
+            tiempos[i] = (System.nanoTime() - inicio) / 1_000_000.0;
+        }
+        Arrays.sort(tiempos);
+        return tiempos[ITERACIONES / 2];
+    }
+}
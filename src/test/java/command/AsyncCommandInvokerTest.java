@@ -0,0 +1,105 @@
+package command;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncCommandInvokerTest {
+
+    /** Comando que registra su ejecución y opcionalmente espera un latch. */
+    static class ComandoRegistro implements ICommand {
+        final String nombre;
+        final List<String> log;
+        final CountDownLatch espera;
+        ComandoRegistro(String nombre, List<String> log, CountDownLatch espera){ this.nombre = nombre; this.log = log; this.espera = espera; }
+        @Override public void execute(){
+            try { if (espera != null) espera.await(5, TimeUnit.SECONDS); } catch (InterruptedException ignored) {}
+            log.add(nombre + "@" + Thread.currentThread().getName());
+        }
+        @Override public void undo(){ log.add("undo " + nombre); }
+        @Override public String getDescription(){ return nombre; }
+        @Override public long getExecutionTime(){ return 0; }
+    }
+
+    @Test
+    void ejecutaEnOrdenEnElHiloEscritorYPublicaElHistorial() throws Exception {
+        List<String> log = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch liberar = new CountDownLatch(1);
+        AsyncCommandInvoker invoker = new AsyncCommandInvoker(new CommandInvoker(), Runnable::run);
+        CompletableFuture<Void> a = invoker.executeCommandAsync(new ComandoRegistro("A", log, liberar));
+        CompletableFuture<Void> b = invoker.executeCommandAsync(new ComandoRegistro("B", log, null));
+        CompletableFuture<Boolean> u = invoker.undoAsync();
+        assertEquals(3, invoker.getOperacionesPendientes());
+        assertFalse(invoker.canUndo()); // aún no se ejecutó nada
+        liberar.countDown();
+        CompletableFuture.allOf(a, b, u).get(5, TimeUnit.SECONDS);
+        assertTrue(u.get());
+        assertEquals(Arrays.asList("A@command-writer", "B@command-writer", "undo B"), log);
+        assertEquals(0, invoker.getOperacionesPendientes());
+        assertEquals("A", invoker.getNextUndoDescription());
+        assertEquals("B", invoker.getNextRedoDescription());
+        assertEquals(Arrays.asList("A", "B"), invoker.getCommandHistory());
+        assertEquals(2, invoker.getMetricas().get("ComandoRegistro").getEjecuciones());
+        assertEquals(1, invoker.getMetricas().get("undo").getEjecuciones());
+        assertTrue(invoker.getMetricas().get("undo").toString().contains("1 ejecuciones"));
+        invoker.cerrar();
+    }
+
+    @Test
+    void llamadaSincronaEsperaLaColaYCorreEnElLlamador() throws Exception {
+        List<String> log = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch liberar = new CountDownLatch(1);
+        AsyncCommandInvoker invoker = new AsyncCommandInvoker(new CommandInvoker(), Runnable::run);
+        invoker.executeCommandAsync(new ComandoRegistro("A", log, liberar));
+        Thread desbloqueo = new Thread(() -> {
+            try { Thread.sleep(50); } catch (InterruptedException ignored) {}
+            liberar.countDown();
+        });
+        desbloqueo.start();
+        invoker.executeCommand(new ComandoRegistro("S", log, null));
+        assertEquals("A@command-writer", log.get(0));
+        assertEquals("S@" + Thread.currentThread().getName(), log.get(1));
+        assertTrue(invoker.redo() == false && invoker.undo());
+        invoker.clearHistory();
+        assertFalse(invoker.canUndo());
+        assertFalse(invoker.canRedo());
+        invoker.cerrar();
+    }
+
+    @Test
+    void errorDelComandoCompletaElFuturoExcepcionalmente() throws Exception {
+        AsyncCommandInvoker invoker = new AsyncCommandInvoker(new CommandInvoker(), Runnable::run);
+        ICommand falla = new ComandoRegistro("X", new ArrayList<>(), null) {
+            @Override public void execute(){ throw new IllegalStateException("boom"); }
+        };
+        CompletableFuture<Void> f = invoker.executeCommandAsync(falla);
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause().getMessage().contains("X"));
+        assertFalse(invoker.canUndo());
+        assertThrows(IllegalArgumentException.class, () -> invoker.executeCommandAsync(null));
+        invoker.cerrar();
+    }
+
+    @Test
+    void llamadaSincronaDesdeElEdtSeRechaza() throws Exception {
+        AsyncCommandInvoker invoker = new AsyncCommandInvoker(new CommandInvoker(), Runnable::run);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        javax.swing.SwingUtilities.invokeAndWait(() -> {
+            try {
+                invoker.undo();
+            } catch (Throwable t) {
+                error.set(t);
+            }
+        });
+        assertTrue(error.get() instanceof IllegalStateException);
+        invoker.cerrar();
+    }
+}
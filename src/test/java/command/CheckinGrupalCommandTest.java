@@ -0,0 +1,97 @@
+package command;
+
+import org.junit.jupiter.api.Test;
+import support.FakeModeloService;
+import model.*;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckinGrupalCommandTest {
+
+    private static HuespedGrupo huesped(String cedula, String idHabitacion) {
+        Cliente c = new Cliente(null, "N" + cedula, "A" + cedula, cedula, "TEL-" + cedula);
+        return new HuespedGrupo(c, new Reserva(null, null, idHabitacion, new Date(), null, 50.0));
+    }
+
+    private static long activas(IModeloService s) {
+        return s.obtenerTodasReservas().stream().filter(r -> r.getFechaSalida() == null).count();
+    }
+
+    @Test
+    void registraGrupoYUnUndoLoRevierteCompleto() {
+        FakeModeloService service = new FakeModeloService();
+        Cliente existente = new Cliente(null, "X", "Y", "C1", "TEL-C1");
+        service.registrarCliente(existente);
+        CommandInvoker invoker = new CommandInvoker();
+        CheckinGrupalCommand cmd = new CheckinGrupalCommand(service,
+            Arrays.asList(huesped("C1", "HAB-001"), huesped("C2", "HAB-002"), huesped("C3", "HAB-003")));
+
+        invoker.executeCommand(cmd);
+
+        ResultadoCheckinGrupal r = cmd.getResultado();
+        assertTrue(r.isExitoso());
+        assertEquals(3, r.getIdsReservas().size());
+        assertEquals(2, r.getClientesNuevos());
+        assertEquals(3, service.obtenerTodosClientes().size());
+        assertEquals(existente.getId(), service.obtenerTodasReservas().get(0).getIdCliente());
+        assertTrue(service.obtenerHabitacionesDisponibles().isEmpty());
+        assertEquals(1, invoker.getUndoStackSize());
+        assertEquals("Check-in grupal de 3 huéspedes", invoker.getNextUndoDescription());
+
+        assertEquals(Arrays.asList("HAB-001", "HAB-002", "HAB-003"), r.getIdsHabitaciones());
+        List<String> idsReservas = r.getIdsReservas();
+        Date ingreso = service.obtenerTodasReservas().get(0).getFechaIngreso();
+
+        assertTrue(invoker.undo());
+        assertTrue(service.obtenerTodasReservas().isEmpty());
+        assertEquals(Collections.singletonList(existente), service.obtenerTodosClientes());
+        assertEquals(3, service.obtenerHabitacionesDisponibles().size());
+
+        assertTrue(invoker.redo());
+        assertEquals(3, activas(service));
+        assertEquals(3, service.obtenerTodosClientes().size());
+        assertEquals(idsReservas, cmd.getResultado().getIdsReservas());
+        assertEquals(ingreso, service.obtenerTodasReservas().get(0).getFechaIngreso());
+    }
+
+    @Test
+    void fallaDeUnHuespedCompensaAlGrupo() {
+        FakeModeloService service = new FakeModeloService() {
+            @Override public boolean crearReserva(Reserva r) {
+                return !"HAB-003".equals(r.getIdHabitacion()) && super.crearReserva(r);
+            }
+        };
+        // HAB-003 la ocupa otra estancia: la compensación no debe liberarla
+        service.actualizarEstadoHabitacion("HAB-003", true);
+        CheckinGrupalCommand cmd = new CheckinGrupalCommand(service,
+            Arrays.asList(huesped("C1", "HAB-001"), huesped("C2", "HAB-003")));
+
+        RuntimeException e = assertThrows(RuntimeException.class, cmd::execute);
+        assertTrue(e.getMessage().contains("HAB-003"));
+        assertFalse(cmd.canUndo());
+        assertTrue(service.obtenerTodasReservas().isEmpty());
+        assertTrue(service.obtenerTodosClientes().isEmpty());
+        assertEquals(2, service.obtenerHabitacionesDisponibles().size());
+        assertEquals("HAB-003", service.obtenerHabitacionesOcupadas().get(0).getId());
+    }
+
+    @Test
+    void grupoVacioSeRechaza() {
+        FakeModeloService service = new FakeModeloService();
+        assertThrows(IllegalArgumentException.class, () -> new CheckinGrupalCommand(service, Collections.emptyList()));
+        assertFalse(service.registrarCheckinGrupal(Collections.emptyList()).isExitoso());
+    }
+
+    @Test
+    void resultadoCalculaRendimiento() {
+        ResultadoCheckinGrupal r = new ResultadoCheckinGrupal(true, "ok", Arrays.asList("R1", "R2"),
+            Arrays.asList("C1"), Arrays.asList("H1", "H2"), 4);
+        assertEquals(1, r.getClientesNuevos());
+        assertEquals(500.0, r.getHuespedesPorSegundo(), 0.001);
+        assertTrue(r.toString().contains("2 huéspedes"));
+        assertEquals(0, new ResultadoCheckinGrupal(true, "ok", Arrays.asList("R1"),
+            Collections.<String>emptyList(), Arrays.asList("H1"), 0).getHuespedesPorSegundo(), 0.001);
+        assertTrue(ResultadoCheckinGrupal.rechazado("no").toString().contains("no"));
+        assertThrows(IllegalArgumentException.class, () -> new HuespedGrupo(null, null));
+    }
+}
@@ -22,4 +22,17 @@ public class CheckinRapidoAdminCommandTest {
         assertFalse(service.obtenerTodasHabitaciones().get(0).isOcupada(), "Habitación debe quedar libre tras undo");
         assertNotNull(service.obtenerTodasReservas().get(0).getFechaSalida(), "Reserva debe marcar salida");
     }
+
+    @Test
+    void nochesIndicadasAlCrearElComandoFijanTotalYPlanificacion(){
+        FakeModeloService service = new FakeModeloService();
+        Cliente cliente = new Cliente(null, "Ana", "Ruiz", "C-ABC", "888");
+        Habitacion hab = service.obtenerHabitacionesDisponibles().get(0);
+        CheckinRapidoAdminCommand cmd = new CheckinRapidoAdminCommand(service, cliente, hab, 3);
+        cmd.execute();
+        Reserva reserva = service.obtenerTodasReservas().get(0);
+        assertEquals(3, reserva.getNoches());
+        assertEquals(hab.getPrecio() * 3, reserva.getTotal(), 0.001);
+        assertEquals("3", cmd.getParametros().get("noches"));
+    }
 }
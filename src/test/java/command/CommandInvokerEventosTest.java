@@ -0,0 +1,99 @@
+package command;
+
+import org.junit.jupiter.api.Test;
+import support.FakeModeloService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandInvokerEventosTest {
+
+    private static ICommand comando(String nombre) {
+        return new AsyncCommandInvokerTest.ComandoRegistro(nombre, Collections.synchronizedList(new ArrayList<>()), null);
+    }
+
+    private static List<String> tipos(List<EventoHistorial> eventos) {
+        List<String> tipos = new ArrayList<>();
+        for (EventoHistorial e : eventos) tipos.add(e.toString());
+        return tipos;
+    }
+
+    @Test
+    void publicaCadaCambioDelHistorialConSuEstado() {
+        CommandInvoker invoker = new CommandInvoker(2);
+        List<EventoHistorial> eventos = new ArrayList<>();
+        invoker.agregarObservador(eventos::add);
+        invoker.agregarObservador(e -> { throw new IllegalStateException("observador roto"); });
+        invoker.agregarObservador(null);
+
+        invoker.clearHistory(); // vacío: no hay cambio que notificar
+        invoker.undo();         // nada que deshacer
+        assertTrue(eventos.isEmpty());
+
+        invoker.executeCommand(comando("A"));
+        invoker.executeCommand(comando("B"));
+        invoker.executeCommand(comando("C")); // supera el máximo: se recorta A
+        invoker.undo();
+        invoker.redo();
+        invoker.clearHistory();
+        assertEquals(Arrays.asList("EJECUTADO[A]", "EJECUTADO[B]", "EJECUTADO[C]", "RECORTADO[A]",
+            "DESHECHO[C]", "REHECHO[C]", "LIMPIADO"), tipos(eventos));
+
+        EventoHistorial deshecho = eventos.get(4);
+        assertTrue(deshecho.isCanUndo());
+        assertTrue(deshecho.isCanRedo());
+        assertEquals("B", deshecho.getSiguienteUndo());
+        assertEquals("C", deshecho.getSiguienteRedo());
+        assertEquals(2, deshecho.getTamanoHistorial());
+        EventoHistorial limpiado = eventos.get(6);
+        assertEquals(EventoHistorial.Tipo.LIMPIADO, limpiado.getTipo());
+        assertNull(limpiado.getDescripcion());
+        assertFalse(limpiado.isCanUndo() || limpiado.isCanRedo());
+        assertEquals(0, limpiado.getTamanoHistorial());
+    }
+
+    @Test
+    void comandoFallidoNoPublicaYObservadorQuitadoNoRecibe() {
+        CommandInvoker invoker = new CommandInvoker();
+        List<EventoHistorial> eventos = new ArrayList<>();
+        ICommandInvoker.ObservadorHistorial observador = eventos::add;
+        invoker.agregarObservador(observador);
+        ICommand falla = new AsyncCommandInvokerTest.ComandoRegistro("X", null, null); // log null: NPE al ejecutar
+        assertThrows(RuntimeException.class, () -> invoker.executeCommand(falla));
+        assertTrue(eventos.isEmpty());
+        invoker.quitarObservador(observador);
+        invoker.executeCommand(comando("A"));
+        assertTrue(eventos.isEmpty());
+    }
+
+    @Test
+    void limpiarHistorialLiberaLosSnapshots() {
+        FakeModeloService servicio = new FakeModeloService();
+        CommandInvoker invoker = new CommandInvoker(servicio);
+        invoker.executeCommand(comando("A"));
+        invoker.executeCommand(comando("B"));
+        invoker.undo();
+        assertEquals(2, invoker.getSnapshotsRetenidos());
+        invoker.clearHistory();
+        assertEquals(0, invoker.getSnapshotsRetenidos());
+        assertFalse(invoker.canRedo());
+    }
+
+    @Test
+    void asincronoReenviaEventosDespuesDePublicarElEstado() throws Exception {
+        AsyncCommandInvoker invoker = new AsyncCommandInvoker(new CommandInvoker(), Runnable::run);
+        List<String> vistos = Collections.synchronizedList(new ArrayList<>());
+        // El observador consulta al invoker asíncrono: debe ver ya el estado nuevo
+        invoker.agregarObservador(e -> vistos.add(e + " canUndo=" + invoker.canUndo() + " canRedo=" + invoker.canRedo()));
+        invoker.executeCommandAsync(comando("A")).get(5, TimeUnit.SECONDS);
+        invoker.undoAsync().get(5, TimeUnit.SECONDS);
+        invoker.clearHistory();
+        assertEquals(Arrays.asList("EJECUTADO[A] canUndo=true canRedo=false",
+            "DESHECHO[A] canUndo=false canRedo=true",
+            "LIMPIADO canUndo=false canRedo=false"), vistos);
+        invoker.cerrar();
+    }
+}
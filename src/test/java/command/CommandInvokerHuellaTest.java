@@ -0,0 +1,207 @@
+package command;
+
+import memento.ModeloMemento;
+import memento.ModeloMemento.Coleccion;
+import memento.RegistroCambios;
+import model.*;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import support.FakeModeloService;
+
+import java.util.*;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandInvokerHuellaTest {
+
+    /** Comando sin huella declarada: fuerza una captura completa que fija las referencias. */
+    private static final class ComandoCompleto implements ICommand {
+        private final IModeloService service;
+        ComandoCompleto(IModeloService service) { this.service = service; }
+        @Override public void execute() { service.registrarCliente(new Cliente(null, "X", "Y", "CED-X", "TX")); }
+        @Override public void undo() { }
+        @Override public String getDescription() { return "Completo"; }
+        @Override public long getExecutionTime() { return 0; }
+    }
+
+    private static FakeModeloService servicio() {
+        FakeModeloService service = new FakeModeloService();
+        for (int i = 0; i < 20; i++) service.registrarCliente(new Cliente(null, "N" + i, "A" + i, "CED" + i, "TEL" + i));
+        return service;
+    }
+
+    @Test
+    void finalizarNoCapturaNiRestauraClientes() {
+        FakeModeloService service = servicio();
+        CommandInvoker invoker = new CommandInvoker(service);
+        invoker.executeCommand(new ComandoCompleto(service));
+        String hab = service.obtenerHabitacionesDisponibles().get(0).getId();
+        invoker.executeCommand(new CrearReservaCommand(service, "CLI-1", hab, 50.0, "R1"));
+        String idReserva = service.obtenerTodasReservas().get(0).getId();
+
+        invoker.executeCommand(new FinalizarReservaCommand(service, idReserva));
+        service.buscarClientePorId("CLI-2").setNombre("Cambiado fuera del historial");
+        assertTrue(invoker.undo());
+
+        assertNull(service.obtenerTodasReservas().get(0).getFechaSalida());
+        assertTrue(service.obtenerTodasHabitaciones().get(0).isOcupada());
+        assertEquals("Cambiado fuera del historial", service.buscarClientePorId("CLI-2").getNombre());
+
+        MetricasHuella.PorTipo finalizar = invoker.getMetricasHuella().get("FinalizarReservaCommand");
+        assertEquals(1, finalizar.getComandos());
+        assertTrue(finalizar.getBytesAhorrados() > finalizar.getBytesCapturados(),
+            "20 clientes pesan más que una reserva y tres habitaciones");
+        assertEquals(0, invoker.getMetricasHuella().get("ComandoCompleto").getBytesAhorrados());
+        assertTrue(invoker.getMetricasHuella().getBytesAhorrados() > 0);
+    }
+
+    @Test
+    void crearReservaSoloRestauraSuHabitacion() {
+        FakeModeloService service = servicio();
+        List<Habitacion> habs = service.obtenerTodasHabitaciones();
+        CommandInvoker invoker = new CommandInvoker(service);
+        invoker.executeCommand(new CrearReservaCommand(service, "CLI-1", habs.get(0).getId(), 50.0, "R1"));
+        service.actualizarEstadoHabitacion(habs.get(1).getId(), true); // fuera de la huella
+
+        assertTrue(invoker.undo());
+        assertTrue(service.obtenerTodasReservas().isEmpty());
+        assertFalse(service.obtenerTodasHabitaciones().get(0).isOcupada());
+        assertTrue(service.obtenerTodasHabitaciones().get(1).isOcupada());
+
+        assertTrue(invoker.redo());
+        assertEquals(1, service.obtenerTodasReservas().size());
+        assertTrue(service.obtenerTodasHabitaciones().get(0).isOcupada());
+        assertEquals(3, service.obtenerTodasHabitaciones().size());
+    }
+
+    @Test
+    void huellaAcumulaIdsYColeccionEnteraPrevalece() {
+        HuellaComando huella = HuellaComando.vacia().lee(Coleccion.CLIENTES)
+            .escribe(Coleccion.HABITACIONES, "H1").escribe(Coleccion.HABITACIONES, "H2");
+        assertEquals(new HashSet<>(Arrays.asList("H1", "H2")), huella.getEscrituras().get(Coleccion.HABITACIONES));
+        assertEquals(EnumSet.of(Coleccion.CLIENTES), huella.getLecturas());
+        assertEquals(EnumSet.allOf(Coleccion.class), HuellaComando.completa().getLecturas());
+        assertFalse(huella.isCompleta());
+
+        HuellaComando entera = huella.escribe(Coleccion.HABITACIONES).escribe(Coleccion.HABITACIONES, "H3");
+        assertNull(entera.getEscrituras().get(Coleccion.HABITACIONES));
+        assertTrue(HuellaComando.completa().isCompleta());
+        assertFalse(HuellaComando.vacia().isCompleta());
+    }
+
+    @Test
+    void mementoParcialSeCombinaConElEstadoActual() {
+        FakeModeloService service = servicio();
+        Map<Coleccion, Set<String>> alcance = new EnumMap<>(Coleccion.class);
+        alcance.put(Coleccion.HABITACIONES, Collections.singleton("HAB-002"));
+        alcance.put(Coleccion.RESERVAS, Collections.singleton("RES-X"));
+        ModeloMemento parcial = service.crearMementoParcial(alcance);
+        assertTrue(parcial.isParcial());
+        assertFalse(parcial.contiene(Coleccion.CLIENTES));
+        assertEquals(1, parcial.getEstadoHabitaciones().size());
+        assertTrue(parcial.getEstadoReservas().isEmpty());
+
+        service.actualizarEstadoHabitacion("HAB-002", true);
+        service.actualizarEstadoHabitacion("HAB-003", true);
+        Reserva creada = new Reserva("RES-X", "CLI-1", "HAB-001", new Date(), null, 1.0);
+        service.crearReserva(creada);
+        service.restaurarEstadoParcial(parcial);
+
+        assertTrue(service.obtenerTodasReservas().isEmpty(), "RES-X no existía: restaurar la elimina");
+        assertEquals(Arrays.asList("HAB-001", "HAB-002", "HAB-003"),
+            Arrays.asList(service.obtenerTodasHabitaciones().stream().map(Habitacion::getId).toArray()));
+        assertTrue(service.obtenerTodasHabitaciones().get(0).isOcupada(), "HAB-001 fuera del alcance");
+        assertFalse(service.obtenerTodasHabitaciones().get(1).isOcupada());
+        assertTrue(service.obtenerTodasHabitaciones().get(2).isOcupada());
+        assertEquals(20, service.obtenerTodosClientes().size());
+
+        assertThrows(IllegalArgumentException.class, () -> parcial.completarCon(parcial));
+        assertThrows(IllegalArgumentException.class, () -> memento.CodificadorMemento.codificar(parcial));
+    }
+
+    @Test
+    void noDeclaradosSigueLasReglasDeLaCapturaParcial() {
+        RegistroCambios cambios = new RegistroCambios();
+        cambios.registrar("habitaciones", "H1", new Document("_id", "H1"), new Document("_id", "H1").append("ocupada", true));
+        cambios.registrar("habitaciones", "H9", null, new Document("_id", "H9")); // creada
+        cambios.registrar("reservas", "R1", null, new Document("_id", "R1"));
+        cambios.registrar("servicios", "S1", null, new Document("_id", "S1"));
+
+        HuellaComando huella = HuellaComando.vacia().escribe(Coleccion.RESERVAS).escribe(Coleccion.HABITACIONES, "H1", "H9");
+        List<String> fuera = new ArrayList<>();
+        for (RegistroCambios.Cambio c : huella.noDeclarados(cambios)) fuera.add(c.getColeccion() + "/" + c.getId());
+        assertEquals(Arrays.asList("habitaciones/H9", "servicios/S1"), fuera);
+        assertTrue(HuellaComando.completa().noDeclarados(cambios).isEmpty());
+    }
+
+    @Test
+    void huellasDeLosComandosCubrenLoQueEscribenConRegistro() {
+        ModeloServiceMemoria service = new ModeloServiceMemoria();
+        service.inicializarHabitaciones();
+        Cliente ana = new Cliente(null, "Ana", "Ruiz", "0102030405", "0991234567");
+        service.registrarCliente(ana);
+        List<String> avisos = new ArrayList<>();
+        Handler captura = new Handler() {
+            @Override public void publish(LogRecord r) { avisos.add(r.getMessage()); }
+            @Override public void flush() { }
+            @Override public void close() { }
+        };
+        Logger logger = Logger.getLogger(CommandInvoker.class.getName());
+        logger.addHandler(captura);
+        try {
+            CommandInvoker invoker = new CommandInvoker(service);
+            invoker.executeCommand(new CrearReservaCommand(service, ana.getId(), "HAB-001", 50.0, "R1"));
+            String idReserva = service.obtenerTodasReservas().get(0).getId();
+            invoker.executeCommand(new FinalizarReservaCommand(service, idReserva));
+            invoker.executeCommand(new CheckinRapidoAdminCommand(service,
+                new Cliente(null, "Luis", "Paz", "0203040506", "0997654321"), service.buscarHabitacionPorNumero("002")));
+            assertEquals(Collections.emptyList(), avisos);
+
+            // Una huella incompleta no impide deshacer (el registro es completo) pero se avisa
+            invoker.executeCommand(new ICommand() {
+                @Override public void execute() { service.actualizarEstadoHabitacion("HAB-003", true); }
+                @Override public void undo() { }
+                @Override public String getDescription() { return "Incompleta"; }
+                @Override public long getExecutionTime() { return 0; }
+                @Override public HuellaComando getHuella() { return HuellaComando.vacia().escribe(Coleccion.RESERVAS); }
+            });
+            assertEquals(1, avisos.size());
+            assertTrue(avisos.get(0).contains("habitaciones/HAB-003"), avisos.get(0));
+            assertTrue(invoker.undo());
+            assertFalse(service.buscarHabitacionPorNumero("003").isOcupada());
+        } finally {
+            logger.removeHandler(captura);
+        }
+    }
+
+    @Test
+    void metricasDelRegistroDeCambiosPorTipoDeComando() {
+        ModeloServiceMemoria service = new ModeloServiceMemoria();
+        service.inicializarHabitaciones();
+        for (int i = 0; i < 50; i++) {
+            service.registrarCliente(new Cliente(null, "N" + i, "A" + i, String.format("01%08d", i), String.format("09%08d", i)));
+        }
+        String idCliente = service.obtenerTodosClientes().get(0).getId();
+        CommandInvoker invoker = new CommandInvoker(service);
+        invoker.executeCommand(new CrearReservaCommand(service, idCliente, "HAB-001", 50.0, "R1"));
+        invoker.executeCommand(new CrearReservaCommand(service, idCliente, "HAB-002", 50.0, "R2"));
+        invoker.executeCommand(new FinalizarReservaCommand(service, service.obtenerTodasReservas().get(0).getId()));
+
+        MetricasHuella metricas = invoker.getMetricasHuella();
+        assertTrue(metricas.getBytesReferencia() > 0, "se midió un snapshot completo de referencia");
+        MetricasHuella.PorTipo crear = metricas.get("CrearReservaCommand");
+        assertEquals(2, crear.getComandos());
+        assertTrue(crear.getBytesCapturados() > 0);
+        assertEquals(2 * metricas.getBytesReferencia() - crear.getBytesCapturados(), crear.getBytesAhorrados(),
+            "una reserva y una habitación frente a 50 clientes, 20 habitaciones y las reservas");
+        assertTrue(crear.getBytesAhorrados() > crear.getBytesCapturados());
+        assertEquals(1, metricas.get("FinalizarReservaCommand").getComandos());
+        assertEquals(Arrays.asList("CrearReservaCommand", "FinalizarReservaCommand"),
+            Arrays.asList(metricas.getPorTipo().get(0).getTipo(), metricas.getPorTipo().get(1).getTipo()));
+        assertNull(metricas.get("CheckinCommand"));
+        assertTrue(crear.toString().startsWith("CrearReservaCommand: 2 comandos"));
+    }
+}
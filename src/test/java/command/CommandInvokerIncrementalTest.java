@@ -0,0 +1,64 @@
+package command;
+
+import org.junit.jupiter.api.Test;
+import support.FakeModeloService;
+import memento.ModeloMemento;
+import memento.RegistroCambios;
+import model.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandInvokerIncrementalTest {
+
+    // Servicio que registra cambios por documento sobre los clientes del fake
+    static class ServicioIncremental extends FakeModeloService {
+        RegistroCambios actual;
+        int mementosCreados = 0;
+        @Override public boolean soportaRegistroCambios(){ return true; }
+        @Override public void iniciarRegistroCambios(){ actual = new RegistroCambios(); }
+        @Override public RegistroCambios finalizarRegistroCambios(){ RegistroCambios r = actual; actual = null; return r; }
+        @Override public boolean registrarCliente(Cliente c){
+            boolean ok = super.registrarCliente(c);
+            if (ok && actual != null) actual.registrar("clientes", c.getId(), null, c.toDocument());
+            return ok;
+        }
+        @Override public void aplicarCambios(RegistroCambios cambios, boolean deshacer){
+            for (RegistroCambios.Cambio c : cambios.getCambiosParaAplicar(deshacer)) {
+                if (c.estadoObjetivo(deshacer) == null) eliminarCliente(c.getId());
+                else super.registrarCliente(Cliente.fromDocument(c.estadoObjetivo(deshacer)));
+            }
+        }
+        @Override public ModeloMemento crearMemento(){ mementosCreados++; return super.crearMemento(); }
+    }
+
+    static class RegistrarClienteCommand implements ICommand {
+        private final IModeloService servicio; private final Cliente cliente;
+        RegistrarClienteCommand(IModeloService servicio, Cliente cliente){ this.servicio = servicio; this.cliente = cliente; }
+        @Override public void execute(){ servicio.registrarCliente(cliente); }
+        @Override public void undo(){ servicio.eliminarCliente(cliente.getId()); }
+        @Override public String getDescription(){ return "Registrar cliente"; }
+        @Override public long getExecutionTime(){ return 0; }
+    }
+
+    @Test
+    void undoRedoReaplicanSoloLosCambiosSinMementosCompletos(){
+        ServicioIncremental service = new ServicioIncremental();
+        CommandInvoker invoker = new CommandInvoker(service);
+        invoker.executeCommand(new RegistrarClienteCommand(service, new Cliente("CLI-0001","A","B","111","222")));
+        assertEquals(1, service.obtenerTodosClientes().size());
+        assertTrue(invoker.undo());
+        assertEquals(0, service.obtenerTodosClientes().size());
+        assertTrue(invoker.redo());
+        assertEquals("111", service.buscarClientePorId("CLI-0001").getCedula());
+        assertEquals(0, service.mementosCreados);
+    }
+
+    @Test
+    void registroSeCierraAunqueElComandoFalle(){
+        ServicioIncremental service = new ServicioIncremental();
+        CommandInvoker invoker = new CommandInvoker(service);
+        ICommand fallido = new RegistrarClienteCommand(service, null);
+        assertThrows(RuntimeException.class, () -> invoker.executeCommand(fallido));
+        assertNull(service.actual);
+        assertFalse(invoker.canUndo());
+    }
+}
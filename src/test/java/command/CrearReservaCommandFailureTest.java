@@ -29,6 +29,7 @@ public class CrearReservaCommandFailureTest {
         @Override public void inicializarHabitaciones(){}
         @Override public Reserva buscarReservaActivaPorCedula(String ced){ return null; }
         @Override public boolean finalizarReserva(String id){ return false; }
+        @Override public boolean eliminarReserva(String id){ return false; }
         @Override public List<Reserva> obtenerTodasReservas(){ return Collections.emptyList(); }
         @Override public List<Reserva> obtenerReservasRecientes(int limite){ return Collections.emptyList(); }
         @Override public ModeloMemento crearMemento(){ return null; }
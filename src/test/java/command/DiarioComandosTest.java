@@ -0,0 +1,227 @@
+package command;
+
+import model.Cliente;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import support.FakeModeloService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiarioComandosTest {
+
+    @TempDir
+    Path dir;
+
+    private static FakeModeloService servicio() {
+        FakeModeloService service = new FakeModeloService();
+        service.registrarCliente(new Cliente(null, "Ana", "Ruiz", "0102", "0991"));
+        return service;
+    }
+
+    /** Diario cuyo disco falla las próximas {@code fallos} escrituras dejando medio registro escrito. */
+    private static DiarioComandos conFallos(Path dir, AtomicInteger fallos) {
+        return new DiarioComandos(dir, 0) {
+            @Override
+            long escribirEn(FileChannel canal, ByteBuffer[] buffers) throws IOException {
+                if (fallos.getAndDecrement() <= 0) return super.escribirEn(canal, buffers);
+                ByteBuffer mitad = buffers[0].duplicate();
+                mitad.limit(mitad.position() + mitad.remaining() / 2);
+                canal.write(mitad);
+                throw new IOException("disco lleno");
+            }
+        };
+    }
+
+    private static List<DiarioComandos.Registro> leer(DiarioComandos diario) {
+        List<DiarioComandos.Registro> registros = new ArrayList<>();
+        diario.reproducir(registros::add);
+        return registros;
+    }
+
+    @Test
+    void anotaComandosConParametrosYCierre() throws Exception {
+        FakeModeloService service = servicio();
+        String hab = service.obtenerHabitacionesDisponibles().get(0).getId();
+        try (DiarioComandos diario = new DiarioComandos(dir)) {
+            InvokerConDiario invoker = new InvokerConDiario(new CommandInvoker(service), diario);
+            invoker.executeCommand(new CrearReservaCommand(service, "CLI-1", hab, 40.0, "R1"));
+            assertTrue(invoker.undo());
+            assertTrue(invoker.redo());
+            invoker.clearHistory();
+
+            List<DiarioComandos.Registro> registros = leer(diario);
+            assertEquals(5, registros.size());
+            DiarioComandos.Registro inicio = registros.get(0);
+            assertEquals(DiarioComandos.Tipo.INICIADO, inicio.getTipo());
+            assertEquals("CrearReservaCommand", inicio.getComando());
+            assertEquals(hab, inicio.getParametros().get("idHabitacion"));
+            assertEquals(DiarioComandos.Tipo.CONFIRMADO, registros.get(1).getTipo());
+            assertEquals(inicio.getSecuencia(), registros.get(1).getReferencia());
+            assertEquals(DiarioComandos.Tipo.DESHECHO, registros.get(2).getTipo());
+            assertEquals("Crear reserva: R1", registros.get(2).getDescripcion());
+            assertEquals(DiarioComandos.Tipo.REHECHO, registros.get(3).getTipo());
+            assertEquals(DiarioComandos.Tipo.LIMPIADO, registros.get(4).getTipo());
+            assertTrue(diario.getLotes() >= 1 && diario.getLotes() <= diario.getRegistrosEscritos());
+            assertTrue(diario.getSobrecargaPromedioNanos() > 0);
+        }
+    }
+
+    @Test
+    void comandoQueFallaQuedaComoFallido() throws Exception {
+        FakeModeloService service = servicio();
+        try (DiarioComandos diario = new DiarioComandos(dir)) {
+            InvokerConDiario invoker = new InvokerConDiario(new CommandInvoker(service), diario);
+            assertThrows(RuntimeException.class,
+                () -> invoker.executeCommand(new FinalizarReservaCommand(service, "NO-EXISTE")));
+            List<DiarioComandos.Registro> registros = leer(diario);
+            assertEquals(DiarioComandos.Tipo.FALLIDO, registros.get(1).getTipo());
+            assertEquals("NO-EXISTE", registros.get(0).getParametros().get("idReserva"));
+        }
+        try (DiarioComandos diario = new DiarioComandos(dir)) {
+            assertTrue(diario.getIncompletos().isEmpty());
+        }
+    }
+
+    @Test
+    void detectaComandosCortadosYDescartaColaRota() throws Exception {
+        try (DiarioComandos diario = new DiarioComandos(dir)) {
+            long inicio = diario.registrar(DiarioComandos.Tipo.INICIADO, 0, "CheckinCommand", "Check-in de Ana", null);
+            diario.registrar(DiarioComandos.Tipo.CONFIRMADO, inicio, "CheckinCommand", null, null);
+            diario.registrar(DiarioComandos.Tipo.INICIADO, 0, "AnularReservaCommand", "Anular 0102", null);
+        }
+        Path segmento;
+        try (java.util.stream.Stream<Path> archivos = Files.list(dir)) {
+            segmento = archivos.findFirst().get();
+        }
+        long valido = Files.size(segmento);
+        Files.write(segmento, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND); // escritura cortada
+
+        try (DiarioComandos diario = new DiarioComandos(dir)) {
+            assertEquals(1, diario.getIncompletos().size());
+            assertEquals("Anular 0102", diario.getIncompletos().get(0).getDescripcion());
+            assertEquals(valido, Files.size(segmento));
+            long siguiente = diario.registrar(DiarioComandos.Tipo.LIMPIADO, 0, null, null, null);
+            assertEquals(4, siguiente, "la secuencia continúa tras reabrir");
+            assertEquals(4, leer(diario).size());
+        }
+    }
+
+    @Test
+    void registrosConcurrentesSeAgrupanEnLotes() throws Exception {
+        try (DiarioComandos diario = new DiarioComandos(dir, 0)) {
+            int hilos = 8, porHilo = 200;
+            CountDownLatch listo = new CountDownLatch(hilos);
+            List<Thread> lista = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                Thread t = new Thread(() -> {
+                    for (int i = 0; i < porHilo; i++) {
+                        diario.registrar(DiarioComandos.Tipo.INICIADO, 0, "X", "d" + i, null);
+                    }
+                    listo.countDown();
+                });
+                lista.add(t);
+                t.start();
+            }
+            listo.await();
+            assertTrue(diario.sincronizar());
+            assertEquals(hilos * porHilo, diario.getRegistrosEscritos());
+            assertTrue(diario.getLotes() < diario.getRegistrosEscritos(), "group commit: menos fsync que registros");
+            assertEquals(hilos * porHilo, leer(diario).size());
+        }
+    }
+
+    @Test
+    void reconstruyeElHistorialEnOtroModelo() throws Exception {
+        FakeModeloService service = servicio();
+        String hab1 = service.obtenerTodasHabitaciones().get(0).getId();
+        String hab2 = service.obtenerTodasHabitaciones().get(1).getId();
+        try (DiarioComandos diario = new DiarioComandos(dir)) {
+            InvokerConDiario invoker = new InvokerConDiario(new CommandInvoker(service), diario);
+            invoker.executeCommand(new CrearReservaCommand(service, "CLI-1", hab1, 40.0, "R1"));
+            invoker.executeCommand(new CrearReservaCommand(service, "CLI-1", hab2, 40.0, "R2"));
+            invoker.undo();
+
+            FakeModeloService nuevo = servicio();
+            CommandInvoker destino = new CommandInvoker(nuevo);
+            int ejecutados = diario.reconstruir((tipo, p) -> "CrearReservaCommand".equals(tipo)
+                ? new CrearReservaCommand(nuevo, p.get("idCliente"), p.get("idHabitacion"), 40.0, p.get("descripcion"))
+                : null, destino);
+
+            assertEquals(2, ejecutados);
+            assertEquals(1, nuevo.obtenerTodasReservas().size());
+            assertEquals(hab1, nuevo.obtenerTodasReservas().get(0).getIdHabitacion());
+            assertTrue(destino.canRedo());
+            Map<String, String> parametros = leer(diario).get(0).getParametros();
+            assertEquals("R1", parametros.get("descripcion"));
+        }
+    }
+
+    @Test
+    void diarioCerradoRechazaRegistros() throws Exception {
+        DiarioComandos diario = new DiarioComandos(dir);
+        diario.close();
+        diario.close();
+        assertThrows(IllegalStateException.class,
+            () -> diario.registrar(DiarioComandos.Tipo.LIMPIADO, 0, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new DiarioComandos(dir, -1));
+    }
+
+    @Test
+    void loteFallidoSeRecortaYSeReintentaSinDarloPorDurable() throws Exception {
+        AtomicInteger fallos = new AtomicInteger();
+        try (DiarioComandos diario = conFallos(dir, fallos)) {
+            assertTrue(diario.esperarDurable(diario.registrar(DiarioComandos.Tipo.LIMPIADO, 0, null, "antes", null), 5_000_000_000L));
+            fallos.set(2);
+            long inicio = diario.registrar(DiarioComandos.Tipo.INICIADO, 0, "X", "durante", null);
+            assertTrue(diario.esperarDurable(inicio, 5_000_000_000L));
+            diario.registrar(DiarioComandos.Tipo.CONFIRMADO, inicio, "X", null, null);
+            assertTrue(diario.sincronizar());
+            assertEquals(2, diario.getFallosEscritura());
+            assertFalse(diario.isAveriado());
+        }
+        try (DiarioComandos diario = new DiarioComandos(dir)) {
+            List<DiarioComandos.Registro> registros = leer(diario);
+            assertEquals(3, registros.size(), "el medio registro no corta los siguientes");
+            assertEquals("durante", registros.get(1).getDescripcion());
+            assertTrue(diario.getIncompletos().isEmpty());
+        }
+    }
+
+    @Test
+    void discoQueSigueFallandoAveriaElDiario() throws Exception {
+        AtomicInteger fallos = new AtomicInteger();
+        Path segmento;
+        long valido;
+        try (DiarioComandos diario = conFallos(dir, fallos)) {
+            assertTrue(diario.esperarDurable(diario.registrar(DiarioComandos.Tipo.LIMPIADO, 0, null, "antes", null), 5_000_000_000L));
+            try (java.util.stream.Stream<Path> archivos = Files.list(dir)) {
+                segmento = archivos.findFirst().get();
+            }
+            valido = Files.size(segmento);
+            fallos.set(Integer.MAX_VALUE);
+            long perdido = diario.registrar(DiarioComandos.Tipo.INICIADO, 0, "X", "perdido", null);
+            assertFalse(diario.esperarDurable(perdido, 5_000_000_000L));
+            assertTrue(diario.isAveriado());
+            fallos.set(0);
+            long posterior = diario.registrar(DiarioComandos.Tipo.CONFIRMADO, perdido, "X", null, null);
+            assertFalse(diario.esperarDurable(posterior, 0), "nada posterior a un registro perdido es durable");
+            assertFalse(diario.sincronizar());
+        }
+        assertEquals(valido, Files.size(segmento), "sin restos del lote fallido");
+        try (DiarioComandos diario = new DiarioComandos(dir)) {
+            assertEquals(1, leer(diario).size());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package command;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FabricaComandosTest {
+
+    @TempDir
+    Path dir;
+
+    private static ModeloServiceMemoria modelo() {
+        ModeloServiceMemoria service = new ModeloServiceMemoria();
+        service.inicializarHabitaciones();
+        service.registrarCliente(new Cliente(null, "Ana", "Ruiz", "0102", "0991"));
+        return service;
+    }
+
+    private static HuespedGrupo huesped(String cedula, String idHabitacion) {
+        return new HuespedGrupo(new Cliente(null, "N" + cedula, "A" + cedula, cedula, "TEL-" + cedula),
+            new Reserva(null, null, idHabitacion, new Date(), null, 50.0));
+    }
+
+    private static Set<String> reservas(IModeloService s) {
+        return s.obtenerTodasReservas().stream()
+            .map(r -> r.getId() + ":" + r.getIdCliente() + ":" + r.getIdHabitacion() + ":" + (r.getFechaSalida() != null))
+            .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static Set<String> clientes(IModeloService s) {
+        return s.obtenerTodosClientes().stream().map(c -> c.getId() + ":" + c.getCedula() + ":" + c.getNombre())
+            .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    @Test
+    void reconstruyeLaSesionEnUnModeloNuevo() throws Exception {
+        ModeloServiceMemoria service = modelo();
+        String ana = service.buscarClientePorCedula("0102").getId();
+        Habitacion hab3 = service.obtenerTodasHabitaciones().get(2);
+        try (DiarioComandos diario = new DiarioComandos(dir)) {
+            InvokerConDiario invoker = new InvokerConDiario(new CommandInvoker(service), diario);
+            invoker.executeCommand(new CrearReservaCommand(service, ana, "HAB-001", 40.0, "R1", 2, 3));
+            invoker.executeCommand(new CheckinRapidoAdminCommand(service,
+                new Cliente(null, "Luis", "Paz", "0303", "0993"), hab3, 2));
+            invoker.executeCommand(new CheckinGrupalCommand(service,
+                Arrays.asList(huesped("0404", "HAB-004"), huesped("0102", "HAB-005"))));
+            invoker.executeCommand(new FinalizarReservaCommand(service, service.obtenerTodasReservas().get(0).getId()));
+            invoker.executeCommand(new CrearReservaCommand(service, ana, "HAB-006", 40.0, "R2"));
+            assertTrue(invoker.undo());
+
+            ModeloServiceMemoria nuevo = modelo();
+            CommandInvoker destino = new CommandInvoker(nuevo);
+            int ejecutados = diario.reconstruir(new FabricaComandos(nuevo), destino);
+
+            assertEquals(5, ejecutados);
+            assertEquals(reservas(service), reservas(nuevo));
+            assertEquals(clientes(service), clientes(nuevo));
+            assertEquals(4, destino.getUndoStackSize());
+            assertTrue(destino.redo());
+            assertTrue(reservas(nuevo).stream().anyMatch(r -> r.contains(":HAB-006:")));
+        }
+    }
+
+    @Test
+    void unComandoQueFallaDetieneLaReconstruccionConError() throws Exception {
+        ModeloServiceMemoria service = modelo();
+        String ana = service.buscarClientePorCedula("0102").getId();
+        try (DiarioComandos diario = new DiarioComandos(dir)) {
+            InvokerConDiario invoker = new InvokerConDiario(new CommandInvoker(service), diario);
+            invoker.executeCommand(new CrearReservaCommand(service, ana, "HAB-001", 40.0, "R1", 1, 0));
+
+            // El modelo de destino no parte del mismo estado: falta la cliente
+            ModeloServiceMemoria distinto = new ModeloServiceMemoria();
+            distinto.inicializarHabitaciones();
+            assertThrows(RuntimeException.class,
+                () -> diario.reconstruir(new FabricaComandos(distinto), new CommandInvoker(distinto)));
+            assertEquals(2, diario.getRegistrosEscritos(), "el diario sigue completo");
+        }
+    }
+
+    @Test
+    void checkinGrupalExponeSusParametros() {
+        CheckinGrupalCommand cmd = new CheckinGrupalCommand(modelo(),
+            Arrays.asList(huesped("0404", "HAB-004"), new HuespedGrupo(new Cliente("CLI-9", "B", "C", "0505", "T"),
+                new Reserva("RES-X", null, "HAB-005", new Date(1000L), null, 30.0))));
+        Map<String, String> p = cmd.getParametros();
+        assertEquals("2", p.get("huespedes"));
+        assertEquals("0404", p.get("huesped.0.cedula"));
+        assertEquals("HAB-004", p.get("huesped.0.idHabitacion"));
+        assertFalse(p.containsKey("huesped.0.idReserva"), "el servicio asigna el ID");
+        assertEquals("CLI-9", p.get("huesped.1.idCliente"));
+        assertEquals("RES-X", p.get("huesped.1.idReserva"));
+        assertEquals("1000", p.get("huesped.1.fechaIngreso"));
+
+        CheckinGrupalCommand copia = (CheckinGrupalCommand) new FabricaComandos(modelo()).crear("CheckinGrupalCommand", p);
+        assertEquals(p, copia.getParametros());
+    }
+
+    @Test
+    void tiposDesconocidosOParametrosIncompletosNoSeRecrean() {
+        FabricaComandos fabrica = new FabricaComandos(modelo());
+        assertNull(fabrica.crear("ComandoInventado", Collections.emptyMap()));
+        assertNull(fabrica.crear(null, Collections.emptyMap()));
+        assertNull(fabrica.crear("FinalizarReservaCommand", Collections.emptyMap()));
+        assertNull(fabrica.crear("CrearReservaCommand",
+            new HashMap<>(Map.of("idCliente", "CLI-1", "idHabitacion", "HAB-001", "total", "no es número"))));
+        assertNull(fabrica.crear("CheckinRapidoAdminCommand", Map.of("idHabitacion", "HAB-999", "cedula", "1")));
+        assertTrue(fabrica.crear("AnularReservaCommand", Map.of("cedula", "0102")) instanceof AnularReservaCommand);
+        assertThrows(IllegalArgumentException.class, () -> new FabricaComandos(null));
+    }
+}
@@ -0,0 +1,60 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+import javax.swing.SwingUtilities;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CargadorDatosTest {
+
+    @Test
+    void entregaElResultadoEnElEdt() throws Exception {
+        CargadorDatos cargador = new CargadorDatos();
+        CompletableFuture<Boolean> enEdt = new CompletableFuture<>();
+        AtomicBoolean consultaEnEdt = new AtomicBoolean(true);
+        cargador.cargar("clientes", avance -> {
+            consultaEnEdt.set(SwingUtilities.isEventDispatchThread());
+            return 42;
+        }, r -> enEdt.complete(SwingUtilities.isEventDispatchThread() && r == 42), enEdt::completeExceptionally);
+        assertTrue(enEdt.get(5, TimeUnit.SECONDS));
+        assertFalse(consultaEnEdt.get());
+    }
+
+    @Test
+    void unaCargaNuevaDescartaLaAnteriorConLaMismaClave() throws Exception {
+        CargadorDatos cargador = new CargadorDatos();
+        CountDownLatch liberarPrimera = new CountDownLatch(1);
+        List<String> entregados = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<String> segunda = new CompletableFuture<>();
+        cargador.cargar("reservas", avance -> {
+            liberarPrimera.await(5, TimeUnit.SECONDS);
+            return "vieja";
+        }, entregados::add, e -> { });
+        cargador.cargar("reservas", avance -> "nueva", r -> { entregados.add(r); segunda.complete(r); }, segunda::completeExceptionally);
+        assertEquals("nueva", segunda.get(5, TimeUnit.SECONDS));
+        liberarPrimera.countDown();
+        // Esperar a que la primera termine y su done() pase por el EDT
+        Thread.sleep(100);
+        SwingUtilities.invokeAndWait(() -> { });
+        assertEquals(Collections.singletonList("nueva"), entregados);
+        assertEquals(1, cargador.getCargasCanceladas());
+        assertEquals(0, cargador.getCargasEnCurso());
+    }
+
+    @Test
+    void erroresLleganAlManejadorYSeInformaElProgreso() throws Exception {
+        CargadorDatos cargador = new CargadorDatos();
+        List<Integer> progresos = Collections.synchronizedList(new ArrayList<>());
+        cargador.setObservador((enCurso, progreso) -> progresos.add(progreso));
+        CompletableFuture<Exception> error = new CompletableFuture<>();
+        cargador.cargar("dashboard", avance -> {
+            avance.reportar(50);
+            throw new IllegalStateException("sin conexión");
+        }, r -> fail("no debe completar"), error::complete);
+        assertEquals("sin conexión", error.get(5, TimeUnit.SECONDS).getMessage());
+        SwingUtilities.invokeAndWait(() -> { });
+        assertTrue(progresos.contains(100));
+    }
+}
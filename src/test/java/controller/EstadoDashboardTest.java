@@ -0,0 +1,111 @@
+package controller;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EstadoDashboardTest {
+
+    private static final LocalDate HOY = LocalDate.of(2025, 3, 10);
+
+    private static Date fecha(LocalDate dia, int hora) {
+        return Date.from(dia.atTime(hora, 0).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static Reserva reserva(String id, String habitacion, LocalDate dia, int hora, double total) {
+        return new Reserva(id, "CLI-0001", habitacion, fecha(dia, hora), null, total);
+    }
+
+    private static EstadoDashboard cargado(int limite) {
+        List<Habitacion> habitaciones = Arrays.asList(
+            new Habitacion("HAB-001", "001", "Suite", true, 120),
+            new Habitacion("HAB-002", "002", "Simple", false, 50),
+            new Habitacion("HAB-003", "003", "Simple", false, 50));
+        Reserva ayer = reserva("RES-0001", "HAB-002", HOY.minusDays(1), 9, 50);
+        ayer.setFechaSalida(fecha(HOY, 8));
+        Reserva hoy = reserva("RES-0002", "HAB-001", HOY, 9, 120);
+        EstadoDashboard estado = new EstadoDashboard(limite);
+        assertTrue(estado.cargar(habitaciones, Arrays.asList(ayer, hoy), Arrays.asList(hoy, ayer),
+            Collections.singletonList(new Cliente("CLI-0001", "Ana", "Ruiz", "1234567890", "0987654321")), HOY));
+        return estado;
+    }
+
+    @Test
+    void cargaCompletaCalculaTarjetasYFilas() {
+        EstadoDashboard estado = cargado(10);
+        assertEquals(2, estado.getHabitacionesDisponibles());
+        assertEquals(1, estado.getHabitacionesOcupadas());
+        assertEquals(1, estado.getCheckinsHoy());
+        assertEquals(0, BigDecimal.valueOf(120.0).compareTo(estado.getIngresosHoy()));
+        String[][] filas = estado.getFilasRecientes();
+        assertEquals(2, filas.length);
+        assertArrayEquals(new String[]{"Ana Ruiz", "001", "10/03/2025", "Activa", Reserva.ESTADO_CHECKIN}, filas[0]);
+        assertEquals(Reserva.ESTADO_FINALIZADA, filas[1][4]);
+    }
+
+    @Test
+    void eventosActualizanSinRecargarYSonIdempotentes() {
+        EstadoDashboard estado = cargado(2);
+        Reserva nueva = reserva("RES-0003", "HAB-003", HOY, 11, 50);
+        for (int i = 0; i < 2; i++) { // el mismo cambio puede llegar directo y por el flujo remoto
+            assertTrue(estado.aplicar(EventoModelo.habitacionCambiada("HAB-003", true), HOY));
+            assertTrue(estado.aplicar(EventoModelo.reservaCreada(nueva).comoRemoto(), HOY));
+        }
+        assertEquals(2, estado.getHabitacionesOcupadas());
+        assertEquals(2, estado.getCheckinsHoy());
+        String[][] filas = estado.getFilasRecientes();
+        assertEquals(2, filas.length); // la más antigua sale de la tabla
+        assertEquals("003", filas[0][1]);
+        assertEquals("001", filas[1][1]);
+
+        nueva.setFechaSalida(fecha(HOY, 12));
+        assertTrue(estado.aplicar(EventoModelo.reservaFinalizada(nueva), HOY));
+        assertTrue(estado.aplicar(EventoModelo.habitacionCambiada("HAB-003", false), HOY));
+        assertEquals(Reserva.ESTADO_FINALIZADA, estado.getFilasRecientes()[0][4]);
+        assertEquals(2, estado.getCheckinsHoy()); // los check-in de hoy cuentan aunque ya salieran
+
+        assertTrue(estado.aplicar(EventoModelo.clienteCambiado("CLI-0001",
+            new Cliente("CLI-0001", "Ana", "Paz", "1234567890", "0987654321")), HOY));
+        assertEquals("Ana Paz", estado.getFilasRecientes()[0][0]);
+        assertTrue(estado.aplicar(EventoModelo.clienteCambiado("CLI-0001", null), HOY));
+        assertEquals(0, estado.getFilasRecientes().length); // sin cliente no se muestra la fila
+        assertEquals(8, estado.getEventosAplicados());
+    }
+
+    @Test
+    void pideRecargaCuandoNoPuedeAplicarElEvento() {
+        EstadoDashboard estado = new EstadoDashboard(10);
+        assertFalse(estado.aplicar(EventoModelo.habitacionCambiada("HAB-001", true), HOY)); // sin carga
+        estado = cargado(10);
+        assertFalse(estado.aplicar(EventoModelo.estadoRestaurado(), HOY));
+        assertFalse(estado.aplicar(EventoModelo.habitacionCambiada("HAB-999", true), HOY));
+        assertFalse(estado.aplicar(EventoModelo.habitacionCambiada("HAB-001", true), HOY.plusDays(1)));
+        assertEquals(0, estado.getEventosAplicados());
+    }
+
+    @Test
+    void eventosDuranteUnaCargaSeReaplicanSobreLosDatosNuevos() {
+        EstadoDashboard estado = cargado(10);
+        estado.iniciarCarga();
+        assertTrue(estado.aplicar(EventoModelo.habitacionCambiada("HAB-002", true), HOY));
+        assertEquals(1, estado.getHabitacionesOcupadas()); // en espera hasta que llegue la carga
+        // La consulta leyó HAB-002 antes del cambio
+        assertTrue(estado.cargar(Arrays.asList(new Habitacion("HAB-002", "002", "Simple", false, 50)),
+            Collections.<Reserva>emptyList(), Collections.<Reserva>emptyList(), Collections.<Cliente>emptyList(), HOY));
+        assertEquals(1, estado.getHabitacionesOcupadas());
+
+        estado.iniciarCarga();
+        estado.aplicar(EventoModelo.estadoRestaurado(), HOY);
+        assertFalse(estado.cargar(Collections.<Habitacion>emptyList(), Collections.<Reserva>emptyList(),
+            Collections.<Reserva>emptyList(), Collections.<Cliente>emptyList(), HOY));
+
+        estado.iniciarCarga();
+        estado.aplicar(EventoModelo.estadoRestaurado(), HOY);
+        estado.cancelarCarga();
+        assertTrue(estado.aplicar(EventoModelo.clienteCambiado("CLI-0009", null), HOY));
+    }
+}
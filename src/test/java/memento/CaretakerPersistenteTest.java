@@ -0,0 +1,304 @@
+package memento;
+
+import command.CommandInvoker;
+import command.CrearReservaCommand;
+import model.Cliente;
+import model.ModeloServiceMemoria;
+import model.Reserva;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import support.FakeModeloService;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CaretakerPersistenteTest {
+
+    @TempDir
+    Path dir;
+
+    private static FakeModeloService servicioConCliente() {
+        FakeModeloService service = new FakeModeloService();
+        service.registrarCliente(new Cliente(null, "Ana", "Ruiz", "0102030405", "0991234567"));
+        return service;
+    }
+
+    private static void reservar(FakeModeloService service, String obs) {
+        String hab = service.obtenerTodasHabitaciones().get(0).getId();
+        Reserva r = new Reserva(null, "CLI-1", hab, new Date(1000L), null, 80.0, obs, true,
+            new Date(500L), new Date(2000L), new Date(3000L), 1);
+        service.crearReserva(r);
+    }
+
+    @Test
+    void codificadorConservaTodosLosCampos() {
+        FakeModeloService service = servicioConCliente();
+        reservar(service, "con ñ y acentos á");
+        ModeloMemento original = service.crearMemento();
+
+        ModeloMemento leido = CodificadorMemento.decodificar(ByteBuffer.wrap(CodificadorMemento.codificar(original)));
+
+        assertEquals(original.getTimestamp(), leido.getTimestamp());
+        assertEquals("Ana", leido.getClientes().get(0).getNombre());
+        assertEquals(3, leido.getHabitaciones().size());
+        assertTrue(leido.getHabitaciones().get(0).isOcupada());
+        Reserva r = leido.getReservas().get(0);
+        assertEquals("con ñ y acentos á", r.getObservaciones());
+        assertEquals(new Date(1000L), r.getFechaIngreso());
+        assertNull(r.getFechaSalida());
+        assertEquals(new Date(3000L), r.getFechaFinPlanificada());
+        assertEquals(80.0, r.getTotal());
+        assertTrue(CodificadorMemento.estimarBytesHeap(original) > 0);
+    }
+
+    @Test
+    void codificadorRechazaVersionDesconocida() {
+        byte[] bytes = CodificadorMemento.codificar(new FakeModeloService().crearMemento());
+        bytes[0] = 99;
+        assertThrows(IllegalArgumentException.class, () -> CodificadorMemento.decodificar(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    void undoRedoIntercambianEstados() throws Exception {
+        FakeModeloService service = servicioConCliente();
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(service, dir, CaretakerPersistente.PRESUPUESTO_POR_DEFECTO)) {
+            assertFalse(caretaker.canUndo());
+            assertNull(caretaker.undo());
+            caretaker.saveState();
+            reservar(service, "R1");
+
+            caretaker.restoreState(caretaker.undo());
+            assertTrue(service.obtenerTodasReservas().isEmpty());
+            assertTrue(caretaker.canRedo());
+
+            caretaker.restoreState(caretaker.redo());
+            assertEquals(1, service.obtenerTodasReservas().size());
+            assertTrue(caretaker.canUndo());
+            assertFalse(caretaker.canRedo());
+            assertEquals(0, caretaker.getLecturasDisco());
+        }
+    }
+
+    @Test
+    void presupuestoPequenoReleeDelDisco() throws Exception {
+        FakeModeloService service = servicioConCliente();
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(service, dir, 1)) {
+            caretaker.saveState(service.crearMemento(), "A");
+            reservar(service, "R1");
+            caretaker.saveState(service.crearMemento(), "B");
+            reservar(service, "R2");
+            assertEquals(0, caretaker.getEntradasEnMemoria());
+            assertEquals(0, caretaker.getBytesEnMemoria());
+            assertTrue(caretaker.getBytesEnDisco() > 0);
+
+            caretaker.restoreState(caretaker.undo());
+            assertEquals(1, service.obtenerTodasReservas().size());
+            caretaker.restoreState(caretaker.undo());
+            assertEquals(0, service.obtenerTodasReservas().size());
+            assertEquals(2, caretaker.getLecturasDisco());
+        }
+    }
+
+    @Test
+    void presupuestoConservaLosMasRecientes() throws Exception {
+        FakeModeloService service = servicioConCliente();
+        long uno = CodificadorMemento.estimarBytesHeap(service.crearMemento());
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(service, dir, uno)) {
+            caretaker.saveState(service.crearMemento(), "A");
+            caretaker.saveState(service.crearMemento(), "B");
+            assertEquals(1, caretaker.getEntradasEnMemoria());
+            caretaker.undo(); // B en memoria; el estado actual pasa a redo y desplaza a A
+            assertEquals(0, caretaker.getLecturasDisco());
+            caretaker.undo();
+            assertEquals(1, caretaker.getLecturasDisco());
+        }
+    }
+
+    @Test
+    void historialSobreviveAlReinicio() throws Exception {
+        FakeModeloService service = servicioConCliente();
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(service, dir, CaretakerPersistente.PRESUPUESTO_POR_DEFECTO)) {
+            caretaker.saveState(service.crearMemento(), "Primera");
+            reservar(service, "R1");
+            caretaker.saveState(service.crearMemento(), "Segunda");
+            reservar(service, "R2");
+            caretaker.restoreState(caretaker.undo());
+        }
+
+        // La base conserva lo que había al cerrar
+        FakeModeloService reiniciado = servicioConCliente();
+        reservar(reiniciado, "R1");
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(reiniciado, dir, CaretakerPersistente.PRESUPUESTO_POR_DEFECTO)) {
+            assertEquals(Arrays.asList("Primera"), caretaker.getUndoDescriptions());
+            assertEquals(Arrays.asList("Segunda"), caretaker.getRedoDescriptions());
+            caretaker.restoreState(caretaker.redo());
+            assertEquals(2, reiniciado.obtenerTodasReservas().size());
+            assertEquals(1, caretaker.getLecturasDisco());
+        }
+    }
+
+    @Test
+    void indiceCorruptoEmpiezaHistorialNuevo() throws Exception {
+        FakeModeloService service = servicioConCliente();
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(service, dir, 0)) {
+            caretaker.saveState(service.crearMemento(), "A");
+        }
+        Files.write(dir.resolve("indice.bin"), new byte[]{1, 2, 3});
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(service, dir, 0)) {
+            assertFalse(caretaker.canUndo());
+            assertEquals(0, caretaker.getEntradas());
+        }
+    }
+
+    @Test
+    void descartarYLimpiarCompactanElArchivo() throws Exception {
+        FakeModeloService service = servicioConCliente();
+        for (int i = 0; i < 200; i++) reservar(service, "Reserva con observaciones largas para ocupar espacio " + i);
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(service, dir, 0)) {
+            for (int i = 0; i < 100; i++) caretaker.saveState(service.crearMemento(), "C" + i);
+            caretaker.discardOldest();
+            assertEquals(99, caretaker.getUndoDescriptions().size());
+            assertEquals("C1", caretaker.getUndoDescriptions().get(0));
+            long antes = caretaker.getBytesEnDisco();
+
+            for (int i = 0; i < 60; i++) caretaker.discardOldest();
+            assertTrue(caretaker.getBytesEnDisco() < antes, "debe compactar al superar los bytes vivos");
+            assertEquals("C61", caretaker.getUndoDescriptions().get(0));
+            caretaker.restoreState(caretaker.undo());
+            assertEquals(200, service.obtenerTodasReservas().size());
+
+            caretaker.clear();
+            assertFalse(caretaker.canUndo());
+            assertFalse(caretaker.canRedo());
+        }
+        try (java.util.stream.Stream<Path> archivos = Files.list(dir)) {
+            assertEquals(2, archivos.count(), "solo el índice y la generación vigente");
+        }
+    }
+
+    @Test
+    void invokerDelegaEnCaretakerYReconstruyeHistorial() throws Exception {
+        FakeModeloService service = servicioConCliente();
+        String hab = service.obtenerHabitacionesDisponibles().get(0).getId();
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(service, dir, 0)) {
+            CommandInvoker invoker = new CommandInvoker(2, service, caretaker);
+            invoker.executeCommand(new CrearReservaCommand(service, "CLI-1", hab, 80.0, "R1"));
+            invoker.executeCommand(new CrearReservaCommand(service, "CLI-1", hab, 80.0, "R2"));
+            invoker.executeCommand(new CrearReservaCommand(service, "CLI-1", hab, 80.0, "R3"));
+            assertEquals(0, invoker.getSnapshotsRetenidos());
+            assertEquals(2, caretaker.getUndoDescriptions().size(), "recorta junto con el invoker");
+
+            assertTrue(invoker.undo());
+            assertEquals(2, service.obtenerTodasReservas().size());
+        }
+
+        FakeModeloService reiniciado = servicioConCliente();
+        for (Reserva r : service.obtenerTodasReservas()) reiniciado.crearReserva(r);
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(reiniciado, dir, 0)) {
+            CommandInvoker invoker = new CommandInvoker(2, reiniciado, caretaker);
+            assertEquals(1, invoker.getUndoStackSize());
+            assertEquals(1, invoker.getRedoStackSize());
+            assertEquals(invoker.getCommandHistory().get(0), invoker.getNextUndoDescription());
+
+            assertTrue(invoker.redo());
+            assertEquals(3, reiniciado.obtenerTodasReservas().size());
+            assertTrue(invoker.undo());
+            assertTrue(invoker.undo());
+            assertEquals(1, reiniciado.obtenerTodasReservas().size());
+            assertFalse(invoker.canUndo());
+
+            invoker.clearHistory();
+            assertFalse(caretaker.canRedo());
+        }
+    }
+
+    @Test
+    void mementoHeredadoSeDescartaSiElEstadoCambio() throws Exception {
+        FakeModeloService service = servicioConCliente();
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(service, dir, 0)) {
+            caretaker.saveState(service.crearMemento(), "A");
+            reservar(service, "R1");
+        }
+
+        // Otra terminal hizo cambios mientras tanto: restaurar pisaría su reserva
+        FakeModeloService reiniciado = servicioConCliente();
+        reservar(reiniciado, "R1");
+        reservar(reiniciado, "R2 de otra terminal");
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(reiniciado, dir, 0)) {
+            assertTrue(caretaker.canUndo());
+            assertThrows(IllegalStateException.class, caretaker::undo);
+            assertEquals(0, caretaker.getEntradas());
+            assertEquals(2, reiniciado.obtenerTodasReservas().size());
+        }
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(servicioConCliente(), dir, 0)) {
+            assertFalse(caretaker.canUndo(), "el descarte también queda en disco");
+        }
+    }
+
+    @Test
+    void codificadorConservaRegistroDeCambios() {
+        RegistroCambios cambios = new RegistroCambios();
+        cambios.registrar("reservas", "RES-1", null, new Document("_id", "RES-1").append("total", 80.0)
+            .append("fechaIngreso", new Date(1000L)).append("fechaSalida", null));
+        cambios.registrar("habitaciones", "HAB-001", new Document("_id", "HAB-001").append("ocupada", false),
+            new Document("_id", "HAB-001").append("ocupada", true));
+
+        RegistroCambios leido = CodificadorMemento.decodificarCambios(ByteBuffer.wrap(CodificadorMemento.codificarCambios(cambios)));
+
+        assertEquals(2, leido.size());
+        for (int i = 0; i < 2; i++) {
+            RegistroCambios.Cambio original = cambios.getCambios().get(i);
+            RegistroCambios.Cambio copia = leido.getCambios().get(i);
+            assertEquals(original.getColeccion(), copia.getColeccion());
+            assertEquals(original.getId(), copia.getId());
+            assertEquals(original.getAntes(), copia.getAntes());
+            assertEquals(original.getDespues(), copia.getDespues());
+        }
+    }
+
+    @Test
+    void invokerGuardaRegistrosDeCambiosYLosValidaAlReiniciar() throws Exception {
+        ModeloServiceMemoria service = new ModeloServiceMemoria();
+        service.inicializarHabitaciones();
+        Cliente ana = new Cliente(null, "Ana", "Ruiz", "0102030405", "0991234567");
+        service.registrarCliente(ana);
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(service, dir, 0)) {
+            CommandInvoker invoker = new CommandInvoker(100, service, caretaker);
+            invoker.executeCommand(new CrearReservaCommand(service, ana.getId(), "HAB-001", 80.0, "R1"));
+            invoker.executeCommand(new CrearReservaCommand(service, ana.getId(), "HAB-002", 80.0, "R2"));
+            assertEquals(0, invoker.getSnapshotsRetenidos(), "los registros los custodia el caretaker");
+            assertEquals(0, caretaker.getEntradasEnMemoria(), "sin presupuesto quedan solo en disco");
+
+            assertTrue(invoker.undo());
+            assertEquals(1, service.obtenerTodasReservas().size());
+            assertEquals(1, caretaker.getLecturasDisco());
+        }
+
+        // Reinicio con la base intacta: el historial heredado se aplica
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(service, dir, 0)) {
+            CommandInvoker invoker = new CommandInvoker(100, service, caretaker);
+            assertEquals(1, invoker.getUndoStackSize());
+            assertEquals(1, invoker.getRedoStackSize());
+            assertTrue(invoker.redo());
+            assertEquals(2, service.obtenerTodasReservas().size());
+        }
+
+        // Otra terminal liberó una habitación que toca el historial: deshacer no la pisa
+        try (CaretakerPersistente caretaker = new CaretakerPersistente(service, dir, 0)) {
+            service.actualizarEstadoHabitacion("HAB-002", false);
+            CommandInvoker invoker = new CommandInvoker(100, service, caretaker);
+            assertEquals(2, invoker.getUndoStackSize());
+            assertThrows(RuntimeException.class, invoker::undo);
+            assertEquals(0, invoker.getUndoStackSize());
+            assertEquals(0, invoker.getRedoStackSize());
+            assertFalse(caretaker.canUndo());
+            assertEquals(2, service.obtenerTodasReservas().size());
+        }
+    }
+}
@@ -29,4 +29,16 @@ public class ModeloMementoAdditionalTest {
         assertFalse(m.getHabitaciones().get(0).isOcupada());
         assertNull(m.getReservas().get(0).getFechaSalida());
     }
+
+    @Test
+    void conservaCamposDePlanificacion(){
+        Date inicio = new Date(1000L), fin = new Date(2000L), registro = new Date(500L);
+        Reserva r = new Reserva("R1","C1","H1", null, null, 10.0, "", true, registro, inicio, fin, 3);
+        ModeloMemento m = new ModeloMemento(Collections.emptyList(), Collections.emptyList(), List.of(r));
+        Reserva copia = m.getReservas().get(0);
+        assertEquals(inicio, copia.getFechaInicioPlanificada());
+        assertEquals(fin, copia.getFechaFinPlanificada());
+        assertEquals(registro, copia.getFechaReserva());
+        assertEquals(3, copia.getNoches());
+    }
 }
@@ -0,0 +1,98 @@
+package memento;
+
+import model.Cliente;
+import model.Habitacion;
+import model.Reserva;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ModeloMementoCompartidoTest {
+
+    private static List<Reserva> reservas(int n) {
+        List<Reserva> lista = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            lista.add(new Reserva("R" + i, "C1", "H1", new Date(1000L * i), null, 10.0 + i, "obs " + i, true,
+                new Date(500L), new Date(2000L), new Date(3000L), 2));
+        }
+        return lista;
+    }
+
+    private static ModeloMemento memento(ModeloMemento anterior, List<Reserva> reservas) {
+        return ModeloMemento.derivar(anterior, Collections.singletonList(new Cliente("C1", "N", "A", "CED", "TEL")),
+            Collections.singletonList(new Habitacion("H1", "101", "Simple", false, 50)), reservas);
+    }
+
+    @Test
+    void sinCambiosCompartenTodo() {
+        List<Reserva> actuales = reservas(100);
+        ModeloMemento primero = memento(null, actuales);
+        ModeloMemento segundo = memento(primero, actuales);
+
+        assertSame(primero.getEstadoReservas(), segundo.getEstadoReservas());
+        assertSame(primero.getEstadoClientes(), segundo.getEstadoClientes());
+        assertSame(primero.getEstadoHabitaciones(), segundo.getEstadoHabitaciones());
+    }
+
+    @Test
+    void unCambioSoloCopiaEsaEntidadYSuBloque() {
+        List<Reserva> actuales = reservas(100);
+        ModeloMemento primero = memento(null, actuales);
+        actuales.get(40).finalizar();
+        ModeloMemento segundo = memento(primero, actuales);
+
+        ListaCompartida<ReservaInmutable> antes = (ListaCompartida<ReservaInmutable>) primero.getEstadoReservas();
+        ListaCompartida<ReservaInmutable> despues = (ListaCompartida<ReservaInmutable>) segundo.getEstadoReservas();
+        assertEquals(3, despues.bloquesCompartidosCon(antes), "4 bloques de 32, solo cambia el segundo");
+        assertSame(antes.get(39), despues.get(39));
+        assertNotSame(antes.get(40), despues.get(40));
+        assertNull(antes.get(40).getFechaSalida());
+        assertNotNull(despues.get(40).getFechaSalida());
+    }
+
+    @Test
+    void insercionAlInicioComparteEntidadesPorId() {
+        List<Reserva> actuales = reservas(10);
+        ModeloMemento primero = memento(null, actuales);
+        actuales.add(0, new Reserva("NUEVA", "C1", "H1", new Date(), null, 5.0));
+        actuales.remove(5);
+        ModeloMemento segundo = memento(primero, actuales);
+
+        assertEquals(10, segundo.getEstadoReservas().size());
+        assertEquals("NUEVA", segundo.getEstadoReservas().get(0).getId());
+        for (int i = 1; i < 10; i++) {
+            ReservaInmutable r = segundo.getEstadoReservas().get(i);
+            assertSame(primero.getEstadoReservas().get(i < 5 ? i - 1 : i), r, "posición " + i);
+        }
+    }
+
+    @Test
+    void vistasSonInmutablesYNoDependenDelOrigen() {
+        List<Reserva> actuales = reservas(3);
+        ModeloMemento m = memento(null, actuales);
+        actuales.get(0).setObservaciones("cambiada");
+        actuales.get(0).getFechaIngreso().setTime(99L);
+
+        assertEquals("obs 0", m.getEstadoReservas().get(0).getObservaciones());
+        assertEquals(new Date(0L), m.getEstadoReservas().get(0).getFechaIngreso());
+        m.getEstadoReservas().get(1).getFechaIngreso().setTime(99L);
+        assertEquals(new Date(1000L), m.getReservas().get(1).getFechaIngreso());
+        assertThrows(UnsupportedOperationException.class, () -> m.getEstadoReservas().remove(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> m.getEstadoReservas().get(3));
+    }
+
+    @Test
+    void getReservasMaterializaCopiasIndependientes() {
+        ModeloMemento m = memento(null, reservas(2));
+        Reserva copia = m.getReservas().get(0);
+        copia.finalizar();
+        assertNull(m.getReservas().get(0).getFechaSalida());
+        assertEquals(2, m.getReservas().get(0).getNoches());
+        assertTrue(m.getEstadoReservas().get(0).isConfirmada());
+    }
+}
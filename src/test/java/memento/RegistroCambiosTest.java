@@ -0,0 +1,43 @@
+package memento;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegistroCambiosTest {
+
+    @Test
+    void fusionaCambiosSobreElMismoDocumento(){
+        RegistroCambios r = new RegistroCambios();
+        Document v1 = new Document("_id", "HAB-001").append("ocupada", false);
+        Document v2 = new Document("_id", "HAB-001").append("ocupada", true);
+        Document v3 = new Document("_id", "HAB-001").append("ocupada", false).append("precio", 10.0);
+        r.registrar("habitaciones", "HAB-001", v1, v2);
+        r.registrar("habitaciones", "HAB-001", v2, v3);
+        assertEquals(1, r.size());
+        RegistroCambios.Cambio c = r.getCambios().get(0);
+        assertSame(v1, c.estadoObjetivo(true));
+        assertSame(v3, c.estadoObjetivo(false));
+    }
+
+    @Test
+    void insertarYEliminarEnElMismoComandoNoDejaRastro(){
+        RegistroCambios r = new RegistroCambios();
+        r.registrar("clientes", "CLI-0001", null, new Document("_id", "CLI-0001"));
+        r.registrar("clientes", "CLI-0001", new Document("_id", "CLI-0001"), null);
+        assertTrue(r.isEmpty());
+    }
+
+    @Test
+    void deshacerAplicaEnOrdenInverso(){
+        RegistroCambios r = new RegistroCambios();
+        r.registrar("clientes", "CLI-0001", null, new Document());
+        r.registrar("reservas", "RES-0001", null, new Document());
+        List<RegistroCambios.Cambio> undo = r.getCambiosParaAplicar(true);
+        assertEquals("reservas", undo.get(0).getColeccion());
+        assertEquals("clientes", r.getCambiosParaAplicar(false).get(0).getColeccion());
+        assertEquals(2, r.getColecciones().size());
+        assertTrue(r.toString().contains("2 documentos"));
+    }
+}
@@ -0,0 +1,89 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CalendarioDisponibilidadTest {
+
+    private static final long DIA = TimeUnit.DAYS.toMillis(1);
+    private static final long BASE = 1_700_000_000_000L;
+
+    private static Date dia(int n){ return new Date(BASE + n * DIA); }
+
+    private static Reserva reserva(String id, String hab, int inicio, int noches){
+        Reserva r = new Reserva();
+        r.setId(id);
+        r.setIdHabitacion(hab);
+        r.setFechaInicioPlanificada(dia(inicio));
+        r.setFechaFinPlanificada(dia(inicio + noches));
+        r.setNoches(noches);
+        return r;
+    }
+
+    @Test
+    void detectaSolapamientosConIntervalosSemiabiertos(){
+        CalendarioDisponibilidad cal = new CalendarioDisponibilidad();
+        cal.cargar(Arrays.asList(reserva("R1", "H1", 10, 3), reserva("R2", "H1", 20, 1)));
+        assertTrue(cal.haySolapamiento("H1", dia(12), dia(15)));
+        assertFalse(cal.haySolapamiento("H1", dia(13), dia(20))); // fin exclusiva e inicio de R2
+        assertTrue(cal.haySolapamiento("H1", dia(5), dia(30)));
+        assertFalse(cal.haySolapamiento("H2", dia(5), dia(30)));
+        List<CalendarioDisponibilidad.Estancia> solapadas = cal.estanciasSolapadas("H1", dia(0), dia(40));
+        assertEquals(Arrays.asList("R1", "R2"), Arrays.asList(solapadas.get(0).getIdReserva(), solapadas.get(1).getIdReserva()));
+    }
+
+    @Test
+    void estanciaLargaSeDetectaAunqueEmpieceMuchoAntes(){
+        CalendarioDisponibilidad cal = new CalendarioDisponibilidad();
+        cal.registrar(reserva("LARGA", "H1", 0, 60));
+        cal.registrar(reserva("CORTA", "H1", 70, 1));
+        assertTrue(cal.haySolapamiento("H1", dia(50), dia(51)));
+        cal.eliminar("LARGA");
+        assertFalse(cal.haySolapamiento("H1", dia(50), dia(51)));
+        assertEquals(1, cal.size());
+    }
+
+    @Test
+    void habitacionesLibresPorRangoYActualizaciones(){
+        CalendarioDisponibilidad cal = new CalendarioDisponibilidad();
+        Habitacion h1 = new Habitacion("H1", "001", "Suite", false, 120);
+        Habitacion h2 = new Habitacion("H2", "002", "Suite", false, 120);
+        cal.registrar(reserva("R1", "H1", 12, 3));
+        assertEquals(Arrays.asList(h2), cal.habitacionesLibres(Arrays.asList(h1, h2), dia(12), dia(15)));
+        // Replanificar mueve la estancia
+        cal.registrar(reserva("R1", "H1", 30, 2));
+        assertEquals(2, cal.habitacionesLibres(Arrays.asList(h1, h2), dia(12), dia(15)).size());
+        // Finalizar la saca del calendario
+        Reserva finalizada = reserva("R1", "H1", 30, 2);
+        finalizada.setFechaSalida(dia(31));
+        cal.registrar(finalizada);
+        assertEquals(0, cal.size());
+    }
+
+    @Test
+    void estanciaSinFinUsaNochesOIngreso(){
+        Reserva r = new Reserva();
+        r.setId("R1");
+        r.setIdHabitacion("H1");
+        r.setFechaIngreso(dia(3));
+        r.setNoches(2);
+        CalendarioDisponibilidad.Estancia e = CalendarioDisponibilidad.estanciaDe(r);
+        assertEquals(dia(3), e.getInicio());
+        assertEquals(dia(5), e.getFin());
+        Reserva sinFechas = new Reserva();
+        sinFechas.setId("R2");
+        sinFechas.setIdHabitacion("H1");
+        assertNull(CalendarioDisponibilidad.estanciaDe(sinFechas));
+    }
+
+    @Test
+    void rangoInvalidoSeRechaza(){
+        CalendarioDisponibilidad cal = new CalendarioDisponibilidad();
+        assertThrows(IllegalArgumentException.class, () -> cal.haySolapamiento("H1", dia(5), dia(5)));
+        assertThrows(IllegalArgumentException.class, () -> cal.haySolapamiento("H1", null, dia(5)));
+    }
+}
@@ -0,0 +1,49 @@
+package model;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConsultaTest {
+
+    @Test
+    void construccionFluidaConservaOpciones(){
+        Consulta c = new Consulta(new Document("ocupada", true))
+            .ordenarPor("numero", true)
+            .ordenarPor("precio", false)
+            .saltar(20)
+            .limitar(10)
+            .incluir("numero", "tipo");
+        assertEquals(true, c.getFiltro().get("ocupada"));
+        assertEquals(1, c.getOrden().get("numero"));
+        assertEquals(-1, c.getOrden().get("precio"));
+        assertEquals(20, c.getSalto());
+        assertEquals(10, c.getLimite());
+        assertTrue(c.getProyeccion().containsKey("tipo"));
+        assertTrue(c.toString().contains("limite=10"));
+    }
+
+    @Test
+    void consultaVaciaNoTieneOrdenNiLimite(){
+        Consulta c = new Consulta(null);
+        assertTrue(c.getFiltro().isEmpty());
+        assertNull(c.getOrden());
+        assertNull(c.getProyeccion());
+        assertEquals(0, c.getLimite());
+    }
+
+    @Test
+    void valoresNegativosSeRechazan(){
+        assertThrows(IllegalArgumentException.class, () -> new Consulta().limitar(-1));
+        assertThrows(IllegalArgumentException.class, () -> new Consulta().saltar(-1));
+        assertThrows(IllegalArgumentException.class, () -> new Consulta().porLotes(-1));
+    }
+
+    @Test
+    void tamanoLoteSeConservaYApareceEnToString(){
+        Consulta c = new Consulta().porLotes(500);
+        assertEquals(500, c.getTamanoLote());
+        assertEquals(0, new Consulta().getTamanoLote());
+        assertTrue(c.toString().contains("lote=500"));
+    }
+}
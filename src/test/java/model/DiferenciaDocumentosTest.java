@@ -0,0 +1,57 @@
+package model;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiferenciaDocumentosTest {
+
+    @Test
+    void soloReemplazaModificadosYNuevosYEliminaSobrantes(){
+        Habitacion h1 = new Habitacion("HAB-001","001","Suite", false, 120);
+        Habitacion h2 = new Habitacion("HAB-002","002","Doble", true, 80);
+        Habitacion h3 = new Habitacion("HAB-003","003","Simple", false, 50);
+        List<Document> actuales = Arrays.asList(h1.toDocument(), h2.toDocument(), h3.toDocument());
+
+        Habitacion h2Libre = new Habitacion("HAB-002","002","Doble", false, 80);
+        Habitacion h4 = new Habitacion("HAB-004","004","Simple", false, 50);
+        List<Document> objetivo = Arrays.asList(h1.toDocument(), h2Libre.toDocument(), h4.toDocument());
+
+        DiferenciaDocumentos dif = DiferenciaDocumentos.calcular(actuales, objetivo);
+        assertEquals(1, dif.getSinCambios());
+        assertEquals(Collections.singletonList(h4.toDocument()), dif.getInsertar());
+        assertEquals(Collections.singletonMap("HAB-002", new Document("ocupada", false)), dif.getActualizar());
+        assertEquals(3, dif.getEscrituras());
+        assertEquals(Collections.singletonList("HAB-003"), dif.getEliminar());
+        assertFalse(dif.isVacia());
+    }
+
+    @Test
+    void estadosIgualesNoGeneranEscrituras(){
+        Reserva r = new Reserva("RES-0001","CLI-0001","HAB-001", new Date(), null, 10.0);
+        DiferenciaDocumentos dif = DiferenciaDocumentos.calcular(
+            Collections.singletonList(r.toDocument()), Collections.singletonList(r.toDocument()));
+        assertTrue(dif.isVacia());
+        assertTrue(dif.toString().contains("sinCambios=1"));
+    }
+
+    @Test
+    void camposAjenosALaEntidadNoCuentanComoCambio(){
+        Cliente c = new Cliente("CLI-0001", "Ana", "Ruiz", "0102030405", "0999999999");
+        Document guardado = c.toDocument().append("notas", "cliente frecuente");
+
+        DiferenciaDocumentos igual = DiferenciaDocumentos.calcular(
+            Collections.singletonList(guardado), Collections.singletonList(c.toDocument()));
+        assertTrue(igual.isVacia());
+
+        Cliente renombrado = new Cliente("CLI-0001", "Ana María", "Ruiz", "0102030405", "0999999999");
+        DiferenciaDocumentos cambio = DiferenciaDocumentos.calcular(
+            Collections.singletonList(guardado), Collections.singletonList(renombrado.toDocument()));
+        Document campos = cambio.getActualizar().get("CLI-0001");
+        assertEquals("Ana María", campos.get("nombre"));
+        assertFalse(campos.containsKey("notas"));
+        assertFalse(campos.containsKey("_id"));
+        assertTrue(cambio.getInsertar().isEmpty());
+    }
+}
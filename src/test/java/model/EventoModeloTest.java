@@ -0,0 +1,88 @@
+package model;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventoModeloTest {
+
+    @Test
+    void fabricasLlenanLosCamposDelTipo() {
+        Reserva r = new Reserva("RES-0001", "CLI-0001", "HAB-001", new Date(), null, 50);
+        EventoModelo creada = EventoModelo.reservaCreada(r);
+        assertEquals(EventoModelo.Tipo.RESERVA_CREADA, creada.getTipo());
+        assertSame(r, creada.getReserva());
+        assertEquals("HAB-001", creada.getIdHabitacion());
+        assertEquals("CLI-0001", creada.getIdCliente());
+        assertFalse(creada.isRemoto());
+        assertEquals("RESERVA_CREADA[RES-0001]", creada.toString());
+        assertEquals(EventoModelo.Tipo.RESERVA_FINALIZADA, EventoModelo.reservaFinalizada(r).getTipo());
+        assertEquals(EventoModelo.Tipo.RESERVA_ACTUALIZADA, EventoModelo.reservaActualizada(r).getTipo());
+        assertThrows(IllegalArgumentException.class, () -> EventoModelo.reservaCreada(null));
+
+        EventoModelo habitacion = EventoModelo.habitacionCambiada("HAB-002", true).comoRemoto();
+        assertTrue(habitacion.isOcupada());
+        assertTrue(habitacion.isRemoto());
+        assertTrue(habitacion.toString().endsWith("(remoto)"));
+        assertNull(EventoModelo.clienteCambiado("CLI-0002", null).getCliente());
+        assertEquals("ESTADO_RESTAURADO", EventoModelo.estadoRestaurado().toString());
+        assertNotNull(EventoModelo.estadoRestaurado().getInstante());
+    }
+
+    @Test
+    void traduceCambiosDeDocumentos() {
+        Reserva activa = new Reserva("RES-0002", "CLI-0001", "HAB-003", new Date(), null, 80);
+        assertEquals(EventoModelo.Tipo.RESERVA_CREADA,
+            EventoModelo.desdeDocumento("reservas", "insert", "RES-0002", activa.toDocument()).getTipo());
+        assertEquals(EventoModelo.Tipo.RESERVA_ACTUALIZADA,
+            EventoModelo.desdeDocumento("reservas", "update", "RES-0002", activa.toDocument()).getTipo());
+        activa.setFechaSalida(new Date());
+        assertEquals(EventoModelo.Tipo.RESERVA_FINALIZADA,
+            EventoModelo.desdeDocumento("reservas", "update", "RES-0002", activa.toDocument()).getTipo());
+        assertEquals(EventoModelo.Tipo.ESTADO_RESTAURADO,
+            EventoModelo.desdeDocumento("reservas", "delete", "RES-0002", null).getTipo());
+
+        EventoModelo habitacion = EventoModelo.desdeDocumento("habitaciones", "update", "HAB-003",
+            new Habitacion("HAB-003", "003", "Suite", true, 120).toDocument());
+        assertEquals("HAB-003", habitacion.getIdHabitacion());
+        assertTrue(habitacion.isOcupada());
+        assertEquals(EventoModelo.Tipo.ESTADO_RESTAURADO,
+            EventoModelo.desdeDocumento("habitaciones", "delete", "HAB-003", null).getTipo());
+
+        Document cliente = new Cliente("CLI-0003", "Ana", "Ruiz", "1234567890", "0987654321").toDocument();
+        assertEquals("Ana", EventoModelo.desdeDocumento("clientes", "replace", "CLI-0003", cliente).getCliente().getNombre());
+        assertNull(EventoModelo.desdeDocumento("clientes", "delete", "CLI-0003", null).getCliente());
+        assertNull(EventoModelo.desdeDocumento("servicios", "insert", "SRV-0001", new Document()));
+    }
+
+    @Test
+    void publicadorEntregaATodosAunqueUnoFalle() {
+        PublicadorEventos publicador = new PublicadorEventos();
+        List<EventoModelo> recibidos = new ArrayList<>();
+        PublicadorEventos.Suscriptor roto = e -> { throw new IllegalStateException("roto"); };
+        PublicadorEventos.Suscriptor bueno = recibidos::add;
+        publicador.suscribir(roto);
+        publicador.suscribir(bueno);
+        publicador.suscribir(bueno); // duplicado ignorado
+        publicador.suscribir(null);
+        assertEquals(2, publicador.getSuscriptores());
+
+        EventoModelo evento = EventoModelo.habitacionCambiada("HAB-001", false);
+        publicador.publicar(evento);
+        assertEquals(Collections.singletonList(evento), recibidos);
+
+        publicador.cancelarSuscripcion(bueno);
+        publicador.publicar(evento);
+        assertEquals(1, recibidos.size());
+        assertEquals(2, publicador.getPublicados());
+    }
+
+    @Test
+    void serviciosSinEventosPidenSondeo() {
+        support.FakeModeloService servicio = new support.FakeModeloService();
+        assertFalse(servicio.suscribirEventos(e -> { }));
+        assertFalse(servicio.publicaCambiosRemotos());
+        servicio.cancelarSuscripcionEventos(e -> { });
+    }
+}
@@ -0,0 +1,93 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import support.FakeModeloService;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FiltroReservasTest {
+
+    private static Date dia(int d, int hora) {
+        Calendar c = Calendar.getInstance();
+        c.clear();
+        c.set(2025, Calendar.MARCH, d, hora, 30);
+        return c.getTime();
+    }
+
+    /** Fake con 30 reservas (una por día de marzo); HAB-001 ocupada con la reserva del día 30 activa. */
+    private static FakeModeloService servicio() {
+        FakeModeloService s = new FakeModeloService();
+        for (int d = 1; d <= 30; d++) {
+            Reserva r = new Reserva(String.format("RES-%04d", d), "CLI-1", d % 3 == 0 ? "HAB-001" : "HAB-002",
+                dia(d, 10), d < 28 ? dia(d + 1, 10) : null, d);
+            s.crearReserva(r);
+        }
+        s.actualizarEstadoHabitacion("HAB-002", false);
+        return s;
+    }
+
+    @Test
+    void paginaPorCursorSinRepetirNiSaltar() {
+        FakeModeloService s = servicio();
+        FiltroReservas filtro = new FiltroReservas(null, null, null).conTamanoPagina(7);
+        List<String> ids = new ArrayList<>();
+        PaginaReservas p = s.buscarReservas(filtro);
+        int paginas = 1;
+        p.getReservas().forEach(r -> ids.add(r.getId()));
+        while (p.hayMas()) {
+            p = s.buscarReservas(filtro.despuesDe(p.getSiguienteCursor()));
+            p.getReservas().forEach(r -> ids.add(r.getId()));
+            paginas++;
+        }
+        assertEquals(5, paginas);
+        assertEquals(30, ids.size());
+        assertEquals("RES-0030", ids.get(0)); // más recientes primero
+        assertEquals("RES-0001", ids.get(29));
+        assertEquals(30, new HashSet<>(ids).size());
+    }
+
+    @Test
+    void rangoIncluyeDiasCompletosYEstadoSeResuelveConLaHabitacion() {
+        FakeModeloService s = servicio();
+        // Días 10 a 12 inclusive aunque las horas del spinner sean arbitrarias
+        PaginaReservas rango = s.buscarReservas(new FiltroReservas(dia(10, 23), dia(12, 0), "Todos"));
+        assertEquals(Arrays.asList("RES-0012", "RES-0011", "RES-0010"), ids(rango));
+        assertFalse(rango.hayMas());
+
+        assertEquals(27, s.buscarReservas(new FiltroReservas(null, null, "Finalizada")).getReservas().size());
+        assertEquals(Arrays.asList("RES-0030"), ids(s.buscarReservas(new FiltroReservas(null, null, "Check-in"))));
+        assertEquals(Arrays.asList("RES-0029", "RES-0028"), ids(s.buscarReservas(new FiltroReservas(null, null, "Reservada"))));
+        assertEquals(3, s.buscarReservas(new FiltroReservas(null, null, "Activa")).getReservas().size());
+        assertTrue(s.buscarReservas(new FiltroReservas(null, null, "Desconocido")).getReservas().isEmpty());
+    }
+
+    @Test
+    void validaRangoTamanoYCursor() {
+        assertThrows(IllegalArgumentException.class, () -> new FiltroReservas(dia(5, 0), dia(4, 0), null));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroReservas(null, null, null).conTamanoPagina(0));
+        FiltroReservas f = new FiltroReservas(null, null, null).despuesDe("sin-separador");
+        assertThrows(IllegalArgumentException.class, f::getCursorId);
+
+        Reserva r = new Reserva("RES-0009", "C", "H", dia(9, 10), null, 1);
+        String cursor = FiltroReservas.cursorDe(r);
+        FiltroReservas conCursor = new FiltroReservas(null, null, null).despuesDe(cursor);
+        assertEquals("RES-0009", conCursor.getCursorId());
+        assertEquals(r.getFechaReserva(), conCursor.getCursorFecha());
+        assertTrue(conCursor.toString().contains("cursor="));
+        assertEquals(Reserva.FILTRO_TODOS, conCursor.getEstado());
+        assertEquals(FiltroReservas.TAMANO_PAGINA_POR_DEFECTO, conCursor.getTamanoPagina());
+    }
+
+    @Test
+    void reservaSinFechasNoEntraEnNingunRango() {
+        Reserva r = new Reserva();
+        r.setId("RES-X");
+        assertFalse(new FiltroReservas(null, null, null).cumple(r, null));
+    }
+
+    private static List<String> ids(PaginaReservas p) {
+        List<String> ids = new ArrayList<>();
+        for (Reserva r : p.getReservas()) ids.add(r.getId());
+        return ids;
+    }
+}
@@ -0,0 +1,64 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeneradorCodigosTest {
+
+    // Fuente en memoria equivalente a un contador con $inc atómico
+    static class FuenteEnMemoria implements FuenteSecuencias {
+        final Map<String, Long> contadores = new HashMap<>();
+        int viajes = 0;
+        @Override public synchronized long reservarBloque(String secuencia, int tamano){
+            viajes++;
+            long v = contadores.getOrDefault(secuencia, 0L) + tamano;
+            contadores.put(secuencia, v);
+            return v;
+        }
+    }
+
+    @Test
+    void reparteBloqueLocalSinViajesExtra(){
+        FuenteEnMemoria fuente = new FuenteEnMemoria();
+        GeneradorCodigos gen = new GeneradorCodigos(fuente, 5);
+        assertEquals("CLI-0001", gen.siguienteCodigo("CLI"));
+        for (int i=0;i<4;i++) gen.siguienteCodigo("CLI");
+        assertEquals(1, fuente.viajes);
+        assertEquals("CLI-0006", gen.siguienteCodigo("CLI"));
+        assertEquals(2, gen.getBloquesReservados());
+    }
+
+    @Test
+    void secuenciasIndependientesYContinuanDesdeSemilla(){
+        FuenteEnMemoria fuente = new FuenteEnMemoria();
+        fuente.contadores.put("RES", 41L); // semilla: máximo existente RES-0041
+        GeneradorCodigos gen = new GeneradorCodigos(fuente, 3);
+        assertEquals("RES-0042", gen.siguienteCodigo("RES"));
+        assertEquals("SRV-0001", gen.siguienteCodigo("SRV"));
+    }
+
+    @Test
+    void dosTerminalesNuncaColisionan() throws Exception {
+        FuenteEnMemoria fuente = new FuenteEnMemoria();
+        GeneradorCodigos terminalA = new GeneradorCodigos(fuente, 4);
+        GeneradorCodigos terminalB = new GeneradorCodigos(fuente, 7);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<String>> futuros = new ArrayList<>();
+        for (int i=0;i<200;i++){
+            GeneradorCodigos g = (i%2==0)? terminalA : terminalB;
+            futuros.add(pool.submit(() -> g.siguienteCodigo("CLI")));
+        }
+        Set<String> codigos = new HashSet<>();
+        for (Future<String> f : futuros) codigos.add(f.get());
+        pool.shutdown();
+        assertEquals(200, codigos.size());
+    }
+
+    @Test
+    void tamanoBloqueInvalidoLanzaExcepcion(){
+        assertThrows(IllegalArgumentException.class, () -> new GeneradorCodigos(new FuenteEnMemoria(), 0));
+        assertThrows(IllegalArgumentException.class, () -> new GeneradorCodigos(null));
+    }
+}
@@ -0,0 +1,69 @@
+package model;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GestorIndicesTest {
+
+    private static Map<String, GestorIndices.DefinicionIndice> porNombre() {
+        Map<String, GestorIndices.DefinicionIndice> mapa = new HashMap<>();
+        for (GestorIndices.DefinicionIndice def : GestorIndices.indicesRequeridos()) {
+            assertNull(mapa.put(def.getColeccion() + "." + def.getNombre(), def), "nombre repetido: " + def.getNombre());
+        }
+        return mapa;
+    }
+
+    @Test
+    void soloCedulaYTelefonoSonUnicos() {
+        Set<String> unicos = new TreeSet<>();
+        for (GestorIndices.DefinicionIndice def : GestorIndices.indicesRequeridos()) {
+            if (def.isUnico()) unicos.add(def.getColeccion() + "." + def.getNombre());
+        }
+        assertEquals(new TreeSet<>(Arrays.asList("clientes.ux_cedula", "clientes.ux_telefono")), unicos);
+    }
+
+    @Test
+    void cubreLosFiltrosYOrdenesDelServicio() {
+        Map<String, GestorIndices.DefinicionIndice> indices = porNombre();
+        assertEquals(new Document("cedula", 1), indices.get("clientes.ux_cedula").getClaves());
+        assertEquals(new Document("numero", 1), indices.get("habitaciones.ix_numero").getClaves());
+        // Reserva activa por cliente y por habitación: igualdad sobre el ID y fechaSalida
+        assertEquals(Arrays.asList("idCliente", "fechaSalida"),
+            new ArrayList<>(indices.get("reservas.ix_idCliente_fechaSalida").getClaves().keySet()));
+        assertEquals(Arrays.asList("idHabitacion", "fechaSalida"),
+            new ArrayList<>(indices.get("reservas.ix_idHabitacion_fechaSalida").getClaves().keySet()));
+        // Panel de reservas: mismo orden que FiltroReservas.ORDEN (fecha y ID descendentes)
+        assertEquals(new Document("fechaReserva", -1).append("_id", -1),
+            indices.get("reservas.ix_fechaReserva_id").getClaves());
+        assertEquals(new Document("fechaIngreso", -1), indices.get("reservas.ix_fechaIngreso").getClaves());
+        assertEquals(new Document("idReserva", 1), indices.get("servicios.ix_idReserva").getClaves());
+    }
+
+    @Test
+    void definicionesPersonalizadasSeConservanEnOrden() {
+        List<GestorIndices.DefinicionIndice> defs = Arrays.asList(
+            new GestorIndices.DefinicionIndice("a", "ix_1", new Document("x", 1), false),
+            new GestorIndices.DefinicionIndice("b", "ix_2", new Document("y", -1), true));
+        GestorIndices gestor = new GestorIndices(null, defs);
+        assertEquals(defs, gestor.getDefiniciones());
+        assertThrows(UnsupportedOperationException.class, () -> gestor.getDefiniciones().clear());
+        assertTrue(gestor.getTiemposCreacionMs().isEmpty());
+    }
+
+    @Test
+    void usoDeIndicesSeLeeDeAccessesOps() {
+        List<Document> estadisticas = Arrays.asList(
+            new Document("name", "_id_").append("accesses", new Document("ops", 42L).append("since", new Date())),
+            new Document("name", "ux_cedula").append("accesses", new Document("ops", 7)),
+            new Document("name", "ix_numero").append("accesses", new Document()),
+            new Document("name", "ix_fechaIngreso"));
+        Map<String, Long> uso = GestorIndices.leerUsoIndices(estadisticas);
+        assertEquals(Arrays.asList("_id_", "ux_cedula", "ix_numero", "ix_fechaIngreso"), new ArrayList<>(uso.keySet()));
+        assertEquals(42L, uso.get("_id_"));
+        assertEquals(7L, uso.get("ux_cedula"), "ops como int");
+        assertEquals(0L, uso.get("ix_numero"), "sin ops");
+        assertEquals(0L, uso.get("ix_fechaIngreso"), "sin accesses");
+    }
+}
@@ -0,0 +1,76 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GestorMigracionesTest {
+
+    static class RegistroEnMemoria implements RegistroMigraciones {
+        final Set<Integer> aplicadas = new HashSet<>();
+        int lecturas;
+        @Override public Set<Integer> versionesAplicadas(){ lecturas++; return new HashSet<>(aplicadas); }
+        @Override public void marcarAplicada(Migracion m, int documentos, long duracionMs){ aplicadas.add(m.getVersion()); }
+    }
+
+    static Migracion migracion(int version, List<Integer> ejecutadas, boolean falla){
+        return new Migracion() {
+            @Override public int getVersion(){ return version; }
+            @Override public String getDescripcion(){ return "v" + version; }
+            @Override public int aplicar(){
+                if (falla) throw new IllegalStateException("fallo");
+                ejecutadas.add(version);
+                return 1;
+            }
+        };
+    }
+
+    @Test
+    void ejecutaEnOrdenYNoRepite(){
+        RegistroEnMemoria registro = new RegistroEnMemoria();
+        List<Integer> ejecutadas = new ArrayList<>();
+        GestorMigraciones gestor = new GestorMigraciones(registro)
+            .registrar(migracion(2, ejecutadas, false))
+            .registrar(migracion(1, ejecutadas, false));
+        assertEquals(Arrays.asList(1, 2), gestor.ejecutarPendientes());
+        assertEquals(Arrays.asList(1, 2), ejecutadas);
+        assertTrue(gestor.ejecutarPendientes().isEmpty());
+        assertEquals(2, ejecutadas.size());
+    }
+
+    @Test
+    void seDetieneEnLaPrimeraQueFalla(){
+        RegistroEnMemoria registro = new RegistroEnMemoria();
+        List<Integer> ejecutadas = new ArrayList<>();
+        GestorMigraciones gestor = new GestorMigraciones(registro)
+            .registrar(migracion(1, ejecutadas, false))
+            .registrar(migracion(2, ejecutadas, true))
+            .registrar(migracion(3, ejecutadas, false));
+        assertEquals(Arrays.asList(1), gestor.ejecutarPendientes());
+        assertEquals(2, gestor.pendientes().size());
+        assertFalse(registro.aplicadas.contains(3));
+    }
+
+    @Test
+    void versionDuplicadaSeRechaza(){
+        List<Integer> ejecutadas = new ArrayList<>();
+        GestorMigraciones gestor = new GestorMigraciones(new RegistroEnMemoria()).registrar(migracion(1, ejecutadas, false));
+        assertThrows(IllegalArgumentException.class, () -> gestor.registrar(migracion(1, ejecutadas, false)));
+    }
+
+    @Test
+    void segundoPlanoCompletaElFuturo() throws Exception {
+        RegistroEnMemoria registro = new RegistroEnMemoria();
+        List<Integer> ejecutadas = new ArrayList<>();
+        GestorMigraciones gestor = new GestorMigraciones(registro).registrar(migracion(7, ejecutadas, false));
+        assertTrue(gestor.getEjecucionEnCurso().get().isEmpty());
+        assertEquals(Arrays.asList(7), gestor.ejecutarEnSegundoPlano().get(5, TimeUnit.SECONDS));
+        assertTrue(registro.aplicadas.contains(7));
+        assertEquals(Arrays.asList(7), gestor.getEjecucionEnCurso().get());
+    }
+}
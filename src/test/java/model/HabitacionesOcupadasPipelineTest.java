@@ -0,0 +1,31 @@
+package model;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HabitacionesOcupadasPipelineTest {
+
+    @Test
+    void pipelineFiltraOcupadasYResuelveReservaYCliente(){
+        List<Document> pipeline = ModeloServiceImpl.pipelineHabitacionesOcupadasConCliente();
+        assertEquals(new Document("ocupada", true), pipeline.get(0).get("$match"));
+        assertEquals("reservas", pipeline.get(2).get("$lookup", Document.class).getString("from"));
+        assertEquals("clientes", pipeline.get(4).get("$lookup", Document.class).getString("from"));
+        Document proyeccion = pipeline.get(pipeline.size()-1).get("$project", Document.class);
+        assertEquals("$reserva._id", proyeccion.get("idReserva"));
+    }
+
+    @Test
+    void fromDocumentMapeaCamposProyectados(){
+        Document doc = new Document("numeroHabitacion", "007").append("tipoHabitacion", "Suite")
+            .append("precioHabitacion", 120).append("nombreCliente", "Ana").append("apellidoCliente", "Paz")
+            .append("cedulaCliente", "0102030405").append("idReserva", "RES-0009");
+        HabitacionOcupadaInfo info = HabitacionOcupadaInfo.fromDocument(doc);
+        assertEquals("#007", info.getNumeroFormateado());
+        assertEquals(120.0, info.getPrecioHabitacion());
+        assertEquals("Ana Paz", info.getNombreCompletoCliente());
+        assertEquals("RES-0009", info.getIdReserva());
+    }
+}
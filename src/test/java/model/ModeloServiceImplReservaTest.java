@@ -0,0 +1,289 @@
+package model;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import singleton.GestorDisponibilidad;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reserva de habitaciones en ModeloServiceImpl sobre una CRUD en memoria que imita la
+ * atomicidad por documento del servidor. El índice local puede no ver lo que hizo otra terminal.
+ */
+public class ModeloServiceImplReservaTest {
+
+    /** Colecciones en memoria; cada documento se modifica de forma atómica, como en MongoDB. */
+    static class CrudEnMemoria extends MongoCRUD {
+        final Map<String, Map<String, Document>> colecciones = new ConcurrentHashMap<>();
+        final AtomicInteger actualizacionesCondicionales = new AtomicInteger();
+
+        CrudEnMemoria() { super(null); }
+
+        Map<String, Document> coleccion(String nombre) {
+            return colecciones.computeIfAbsent(nombre, k -> new ConcurrentHashMap<>());
+        }
+
+        @Override
+        public Document buscarPorId(String coleccion, String id) {
+            Document d = coleccion(coleccion).get(id);
+            return d != null ? new Document(d) : null;
+        }
+
+        @Override
+        public void insertar(String coleccion, Document doc) {
+            if (coleccion(coleccion).putIfAbsent(doc.getString("_id"), new Document(doc)) != null) {
+                throw new IllegalStateException("duplicate key " + doc.getString("_id"));
+            }
+        }
+
+        @Override
+        public boolean actualizarPorId(String coleccion, String id, Bson actualizacion) {
+            return actualizarSi(coleccion, id, new Document(), actualizacion);
+        }
+
+        @Override
+        public boolean actualizarSi(String coleccion, String id, Bson condicion, Bson actualizacion) {
+            if (!((Document) condicion).isEmpty()) actualizacionesCondicionales.incrementAndGet();
+            boolean[] coincide = {false};
+            coleccion(coleccion).computeIfPresent(id, (k, doc) -> {
+                if (!cumple(doc, (Document) condicion)) return doc;
+                coincide[0] = true;
+                Document nuevo = new Document(doc);
+                BsonDocument set = actualizacion.toBsonDocument(Document.class,
+                    MongoClientSettings.getDefaultCodecRegistry()).getDocument("$set");
+                set.forEach((campo, valor) -> nuevo.put(campo, valor.isBoolean() ? valor.asBoolean().getValue() : valor));
+                return nuevo;
+            });
+            return coincide[0];
+        }
+
+        @Override
+        public List<Document> buscar(String coleccion, Consulta consulta) {
+            List<Document> encontrados = new ArrayList<>();
+            for (Document doc : coleccion(coleccion).values()) {
+                if (cumple(doc, consulta.getFiltro())) encontrados.add(new Document(doc));
+            }
+            return encontrados;
+        }
+
+        @Override
+        public Document buscarPrimero(String coleccion, Consulta consulta) {
+            List<Document> encontrados = buscar(coleccion, consulta);
+            return encontrados.isEmpty() ? null : encontrados.get(0);
+        }
+
+        /** Inserción no ordenada: las de _id repetido se rechazan y el resto se inserta. */
+        @Override
+        public List<ResultadoLote> insertarVarios(String coleccion, List<Document> documentos) {
+            List<Integer> rechazados = new ArrayList<>();
+            for (int i = 0; i < documentos.size(); i++) {
+                Document doc = documentos.get(i);
+                if (coleccion(coleccion).putIfAbsent(doc.getString("_id"), new Document(doc)) != null) rechazados.add(i);
+            }
+            return Collections.singletonList(new ResultadoLote(1, documentos.size(), documentos.size() - rechazados.size(),
+                0, 0, 0, 0, rechazados.size(), 0, rechazados));
+        }
+
+        @Override
+        public List<ResultadoLote> eliminarPorIds(String coleccion, List<String> ids) {
+            int eliminados = 0;
+            for (String id : ids) {
+                if (coleccion(coleccion).remove(id) != null) eliminados++;
+            }
+            return Collections.singletonList(new ResultadoLote(1, ids.size(), 0, 0, 0, eliminados, 0, 0, 0));
+        }
+
+        /** Solo actualizaciones, que es lo que envía el servicio al liberar habitaciones. */
+        @Override
+        public List<ResultadoLote> escribirEnLote(String coleccion, List<OperacionLote> operaciones, boolean ordenado) {
+            int modificados = 0;
+            for (OperacionLote op : operaciones) {
+                if (actualizarPorId(coleccion, op.getId(), op.getActualizacion())) modificados++;
+            }
+            return Collections.singletonList(new ResultadoLote(1, operaciones.size(), 0, modificados, modificados, 0, 0, 0, 0));
+        }
+
+        private static boolean cumple(Document doc, Document condicion) {
+            for (Map.Entry<String, Object> c : condicion.entrySet()) {
+                Object valor = doc.get(c.getKey());
+                if (c.getValue() instanceof Document && ((Document) c.getValue()).containsKey("$ne")) {
+                    if (Objects.equals(valor, ((Document) c.getValue()).get("$ne"))) return false;
+                } else if (c.getValue() instanceof Document && ((Document) c.getValue()).containsKey("$in")) {
+                    if (!((Collection<?>) ((Document) c.getValue()).get("$in")).contains(valor)) return false;
+                } else if (!Objects.equals(valor, c.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static ConexionBD conexion;
+    private CrudEnMemoria crud;
+    private ModeloServiceImpl servicio;
+    private final GestorDisponibilidad gestor = GestorDisponibilidad.getInstance();
+
+    @BeforeAll
+    static void conectar() {
+        // Servidor inexistente: índices y migraciones fallan enseguida y el servicio usa la CRUD en memoria
+        conexion = new ConexionBD("mongodb://localhost:1/?serverSelectionTimeoutMS=100", "hotel_prueba");
+    }
+
+    @AfterAll
+    static void cerrar() {
+        conexion.cerrar();
+    }
+
+    @BeforeEach
+    void setUp() {
+        crud = new CrudEnMemoria();
+        servicio = new ModeloServiceImpl(conexion, crud, false);
+        crud.insertar("clientes", new Cliente("CLI-0001", "Ana", "Ruiz", "0102030405", "0999999999").toDocument());
+    }
+
+    private Habitacion habitacion(String id, boolean ocupadaEnBase) {
+        Habitacion libre = new Habitacion(id, id.substring(4), "Doble", false, 80);
+        crud.insertar("habitaciones", new Habitacion(id, libre.getNumero(), "Doble", ocupadaEnBase, 80).toDocument());
+        gestor.registrarHabitacion(libre); // esta terminal la vio libre
+        return libre;
+    }
+
+    private static Reserva reserva(String id, String idHabitacion) {
+        return new Reserva(id, "CLI-0001", idHabitacion, new Date(), null, 80.0);
+    }
+
+    @Test
+    void habitacionLibreSeOcupaEnLaBaseYEnElIndice() {
+        habitacion("HAB-T01", false);
+        assertTrue(servicio.crearReserva(reserva("RES-9001", "HAB-T01")));
+        assertEquals(Boolean.TRUE, crud.buscarPorId("habitaciones", "HAB-T01").getBoolean("ocupada"));
+        assertNotNull(crud.buscarPorId("reservas", "RES-9001"));
+        assertFalse(gestor.isHabitacionDisponible("HAB-T01"));
+    }
+
+    @Test
+    void habitacionOcupadaPorOtraTerminalSeRechazaAunqueElIndiceLaVeaLibre() {
+        habitacion("HAB-T02", true);
+        assertFalse(servicio.crearReserva(reserva("RES-9002", "HAB-T02")));
+        assertNull(crud.buscarPorId("reservas", "RES-9002"));
+        // El índice se corrige con lo que dice la base
+        assertFalse(gestor.isHabitacionDisponible("HAB-T02"));
+    }
+
+    @Test
+    void hilosConcurrentesSobreLaMismaHabitacionCreanUnaSolaReserva() throws Exception {
+        habitacion("HAB-T03", false);
+        int hilos = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger creadas = new AtomicInteger();
+        List<Future<?>> futuros = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            String idReserva = "RES-91" + i;
+            futuros.add(pool.submit(() -> {
+                salida.await();
+                if (servicio.crearReserva(reserva(idReserva, "HAB-T03"))) creadas.incrementAndGet();
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> f : futuros) f.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(1, creadas.get());
+        // Los perdedores del CAS local abandonan sin escribir en la base
+        assertEquals(1, crud.actualizacionesCondicionales.get());
+        assertEquals(1, crud.coleccion("reservas").size());
+        assertEquals(Boolean.TRUE, crud.buscarPorId("habitaciones", "HAB-T03").getBoolean("ocupada"));
+        assertFalse(gestor.isHabitacionDisponible("HAB-T03"));
+    }
+
+    @Test
+    void fallaAlGuardarLaReservaDevuelveLaHabitacion() {
+        habitacion("HAB-T04", false);
+        crud.insertar("reservas", reserva("RES-9004", "HAB-T99").toDocument()); // ID ya usado
+        assertFalse(servicio.crearReserva(reserva("RES-9004", "HAB-T04")));
+        assertEquals(Boolean.FALSE, crud.buscarPorId("habitaciones", "HAB-T04").getBoolean("ocupada"));
+        assertTrue(gestor.isHabitacionDisponible("HAB-T04"));
+    }
+
+    private static HuespedGrupo huesped(String idCliente, String cedula, String telefono, String idReserva, String idHabitacion) {
+        return new HuespedGrupo(new Cliente(idCliente, "Luis", "Paz", cedula, telefono),
+            new Reserva(idReserva, null, idHabitacion, new Date(), null, 80.0));
+    }
+
+    private boolean ocupadaEnBase(String idHabitacion) {
+        return Boolean.TRUE.equals(crud.buscarPorId("habitaciones", idHabitacion).getBoolean("ocupada"));
+    }
+
+    @Test
+    void checkinGrupalOcupaLasHabitacionesEnLaBase() {
+        habitacion("HAB-T10", false);
+        habitacion("HAB-T11", false);
+        ResultadoCheckinGrupal r = servicio.registrarCheckinGrupal(Arrays.asList(
+            huesped(null, "0102030405", null, "RES-9010", "HAB-T10"),
+            huesped("CLI-0777", "1111111111", "0981111111", "RES-9011", "HAB-T11")));
+        assertTrue(r.isExitoso(), r.getMensaje());
+        assertEquals(Collections.singletonList("CLI-0777"), r.getIdsClientesNuevos());
+        assertEquals(2, crud.actualizacionesCondicionales.get());
+        assertTrue(ocupadaEnBase("HAB-T10"));
+        assertTrue(ocupadaEnBase("HAB-T11"));
+        assertEquals("CLI-0001", crud.buscarPorId("reservas", "RES-9010").getString("idCliente"));
+    }
+
+    @Test
+    void checkinGrupalConHabitacionTomadaPorOtraTerminalNoEscribeNada() {
+        habitacion("HAB-T12", false);
+        habitacion("HAB-T13", true); // la otra terminal ganó; el índice local no lo sabe
+        ResultadoCheckinGrupal r = servicio.registrarCheckinGrupal(Arrays.asList(
+            huesped(null, "1111111111", "0981111111", "RES-9012", "HAB-T12"),
+            huesped(null, "2222222222", "0982222222", "RES-9013", "HAB-T13")));
+        assertFalse(r.isExitoso());
+        assertTrue(crud.coleccion("reservas").isEmpty());
+        assertEquals(1, crud.coleccion("clientes").size());
+        assertFalse(ocupadaEnBase("HAB-T12"), "la habitación ya tomada se devuelve");
+        assertTrue(gestor.isHabitacionDisponible("HAB-T12"));
+        assertFalse(gestor.isHabitacionDisponible("HAB-T13"));
+    }
+
+    @Test
+    void checkinGrupalNoTocaDatosAjenosConIdsRepetidos() {
+        habitacion("HAB-T14", false);
+        habitacion("HAB-T15", false);
+        Document ajena = reserva("RES-9014", "HAB-T99").toDocument();
+        crud.insertar("reservas", ajena);
+        ResultadoCheckinGrupal r = servicio.registrarCheckinGrupal(Arrays.asList(
+            huesped(null, "1111111111", "0981111111", "RES-9015", "HAB-T15"),
+            huesped(null, "2222222222", "0982222222", "RES-9014", "HAB-T14")));
+        assertFalse(r.isExitoso());
+        assertEquals("La reserva RES-9014 ya existe", r.getMensaje());
+        assertEquals(ajena, crud.buscarPorId("reservas", "RES-9014"));
+        assertNull(crud.buscarPorId("reservas", "RES-9015"));
+        assertFalse(ocupadaEnBase("HAB-T14"));
+        assertFalse(ocupadaEnBase("HAB-T15"));
+
+        // Un ID de cliente ya usado por otro huésped se sustituye en lugar de pisarlo
+        r = servicio.registrarCheckinGrupal(Collections.singletonList(
+            huesped("CLI-0001", "3333333333", "0983333333", "RES-9016", "HAB-T15")));
+        assertTrue(r.isExitoso(), r.getMensaje());
+        assertNotEquals("CLI-0001", r.getIdsClientesNuevos().get(0));
+        assertEquals("Ana", crud.buscarPorId("clientes", "CLI-0001").getString("nombre"));
+    }
+
+    @Test
+    void soloSeRevierteLoQueElServidorInserto() {
+        List<Document> docs = Arrays.asList(new Document("_id", "A"), new Document("_id", "B"), new Document("_id", "C"));
+        List<ResultadoLote> lotes = Arrays.asList(
+            new ResultadoLote(1, 2, 1, 0, 0, 0, 0, 1, 0, Collections.singletonList(1)),
+            new ResultadoLote(2, 1, 1, 0, 0, 0, 0, 0, 0));
+        assertEquals(Arrays.asList("A", "C"), ModeloServiceImpl.idsInsertados(docs, lotes));
+    }
+}
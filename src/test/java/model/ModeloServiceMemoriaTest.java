@@ -0,0 +1,442 @@
+package model;
+
+import memento.ModeloMemento;
+import memento.RegistroCambios;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import singleton.GestorDisponibilidad;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ModeloServiceMemoriaTest {
+
+    private ModeloServiceMemoria s;
+    private final List<EventoModelo> eventos = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void preparar() {
+        s = new ModeloServiceMemoria();
+        s.inicializarHabitaciones(); // también recarga el gestor de disponibilidad con estas 20 habitaciones
+        assertTrue(s.suscribirEventos(eventos::add));
+    }
+
+    private static Date dia(int d) {
+        Calendar c = Calendar.getInstance();
+        c.clear();
+        c.set(2025, Calendar.MARCH, d, 10, 0);
+        return c.getTime();
+    }
+
+    private Cliente cliente(String cedula, String telefono) {
+        Cliente c = new Cliente(null, "Ana", "Paz", cedula, telefono);
+        assertTrue(s.registrarCliente(c));
+        return c;
+    }
+
+    private Reserva reservar(Cliente c, String idHabitacion, int d) {
+        Reserva r = new Reserva(null, c.getId(), idHabitacion, dia(d), null, 50);
+        assertTrue(s.crearReserva(r));
+        return r;
+    }
+
+    @Test
+    void clientesConCedulaYTelefonoUnicosYCodigosLegibles() {
+        Cliente a = cliente("111", "0991");
+        assertEquals("CLI-0001", a.getId());
+        assertFalse(s.registrarCliente(new Cliente(null, "B", "B", "111", "0992")), "cédula repetida");
+        assertFalse(s.registrarCliente(new Cliente(null, "B", "B", "222", "0991")), "teléfono repetido");
+        assertFalse(s.registrarCliente(new Cliente(null, "B", "B", " ", "0993")));
+        assertFalse(s.registrarCliente(null));
+        assertFalse(s.registrarCliente(new Cliente("CLI-0001", "B", "B", "333", "0994")), "ID duplicado");
+        Cliente b = new Cliente("cualquiera", "B", "B", "222", "");
+        assertTrue(s.registrarCliente(b));
+        assertEquals("CLI-0002", b.getId());
+        assertTrue(s.registrarCliente(new Cliente(null, "C", "C", "333", "")), "teléfono vacío no es único");
+
+        assertTrue(s.existeCedula("111"));
+        assertTrue(s.existeTelefono("0991"));
+        assertFalse(s.existeTelefono(""));
+        assertFalse(s.existeCedula(null));
+        assertEquals("Ana", s.buscarClientePorCedula("111").getNombre());
+        assertNull(s.buscarClientePorCedula(" "));
+        assertNull(s.buscarClientePorId(""));
+        assertEquals(3, s.obtenerTodosClientes().size());
+
+        // Las copias devueltas no alteran el estado
+        s.buscarClientePorId("CLI-0001").setNombre("Otro");
+        assertEquals("Ana", s.buscarClientePorId("CLI-0001").getNombre());
+    }
+
+    @Test
+    void actualizarYEliminarClienteMantienenLosIndices() {
+        Cliente a = cliente("111", "0991");
+        cliente("222", "0992");
+        assertFalse(s.actualizarCliente(new Cliente(a.getId(), "Ana", "Paz", "111", "0991")), "sin cambios");
+        assertFalse(s.actualizarCliente(new Cliente(a.getId(), "Ana", "Paz", "222", "0991")), "cédula de otro");
+        assertFalse(s.actualizarCliente(new Cliente(a.getId(), "Ana", "Paz", "111", "0992")), "teléfono de otro");
+        assertFalse(s.actualizarCliente(new Cliente("CLI-9999", "X", "X", "9", "9")));
+        assertFalse(s.actualizarCliente(null));
+        assertTrue(s.actualizarCliente(new Cliente(a.getId(), "Ana", "Paz", "333", "0993")));
+        assertFalse(s.existeCedula("111"));
+        assertEquals(a.getId(), s.buscarClientePorCedula("333").getId());
+
+        assertTrue(s.eliminarCliente(a.getId()));
+        assertFalse(s.eliminarCliente(a.getId()));
+        assertFalse(s.eliminarCliente(" "));
+        assertFalse(s.existeTelefono("0993"));
+        assertTrue(s.registrarCliente(new Cliente(null, "D", "D", "333", "0993")));
+        assertEquals(EventoModelo.Tipo.CLIENTE_CAMBIADO, eventos.get(eventos.size() - 1).getTipo());
+        assertNull(eventos.get(eventos.size() - 2).getCliente(), "la eliminación publica el cliente nulo");
+    }
+
+    @Test
+    void habitacionesOrdenadasPorNumeroYSincronizadasConElGestor() {
+        List<Habitacion> todas = s.obtenerTodasHabitaciones();
+        assertEquals(20, todas.size());
+        assertEquals("Suite", todas.get(0).getTipo());
+        assertEquals(80.0, s.buscarHabitacionPorNumero("006").getPrecio());
+        assertNull(s.buscarHabitacionPorNumero(""));
+        assertNull(s.buscarHabitacionPorNumero("999"));
+
+        assertTrue(s.actualizarEstadoHabitacion("HAB-007", true));
+        assertFalse(s.actualizarEstadoHabitacion("HAB-007", true), "ya estaba ocupada");
+        assertFalse(s.actualizarEstadoHabitacion("HAB-999", true));
+        assertEquals(Collections.singletonList("HAB-007"), ids(s.obtenerHabitacionesOcupadas()));
+        assertEquals(19, s.obtenerHabitacionesDisponibles().size());
+        assertEquals("001", s.obtenerHabitacionesDisponibles().get(0).getNumero());
+        assertFalse(GestorDisponibilidad.getInstance().isHabitacionDisponible("HAB-007"));
+        assertEquals(19, GestorDisponibilidad.getInstance().getNumeroHabitacionesDisponibles());
+
+        s.inicializarHabitaciones(); // ya hay 20: no se recrean
+        assertTrue(s.buscarHabitacionPorNumero("007").isOcupada());
+    }
+
+    @Test
+    void crearYFinalizarReservaOcupanYLiberanLaHabitacion() {
+        Cliente c = cliente("111", "0991");
+        assertFalse(s.crearReserva(new Reserva(null, "CLI-9999", "HAB-001", dia(1), null, 0)), "cliente inexistente");
+        assertFalse(s.crearReserva(new Reserva(null, c.getId(), "HAB-999", dia(1), null, 0)), "habitación inexistente");
+        assertFalse(s.crearReserva(new Reserva(null, null, "HAB-001", dia(1), null, 0)));
+        assertFalse(s.crearReserva(null));
+        Reserva r = reservar(c, "HAB-001", 1);
+        assertEquals("RES-0001", r.getId());
+        assertFalse(s.crearReserva(new Reserva(null, c.getId(), "HAB-001", dia(2), null, 0)), "habitación ocupada");
+        assertFalse(s.crearReserva(new Reserva("RES-0001", c.getId(), "HAB-002", dia(2), null, 0)), "ID duplicado");
+
+        assertTrue(s.buscarHabitacionPorNumero("001").isOcupada());
+        assertEquals(r.getId(), s.buscarReservaActivaPorCedula("111").getId());
+        List<HabitacionOcupadaInfo> ocupadas = s.obtenerHabitacionesOcupadasConCliente();
+        assertEquals(1, ocupadas.size());
+        assertEquals("111", ocupadas.get(0).getCedulaCliente());
+        assertEquals(r.getId(), ocupadas.get(0).getIdReserva());
+
+        assertTrue(s.finalizarReserva(r.getId()));
+        assertFalse(s.finalizarReserva("RES-9999"));
+        assertNull(s.buscarReservaActivaPorCedula("111"));
+        assertNull(s.buscarReservaActivaPorCedula(null));
+        assertFalse(s.buscarHabitacionPorNumero("001").isOcupada());
+        assertTrue(GestorDisponibilidad.getInstance().isHabitacionDisponible("HAB-001"));
+        assertNotNull(s.obtenerTodasReservas().get(0).getFechaSalida());
+        assertTrue(s.obtenerHabitacionesOcupadasConCliente().isEmpty());
+
+        List<EventoModelo.Tipo> tipos = new ArrayList<>();
+        eventos.forEach(e -> tipos.add(e.getTipo()));
+        assertTrue(tipos.contains(EventoModelo.Tipo.RESERVA_CREADA));
+        assertTrue(tipos.contains(EventoModelo.Tipo.RESERVA_FINALIZADA));
+    }
+
+    @Test
+    void buscarReservasPaginaIgualQueElFiltroEnMemoria() {
+        Cliente c = cliente("111", "0991");
+        for (int d = 1; d <= 20; d++) {
+            Reserva r = reservar(c, String.format("HAB-%03d", d), d);
+            if (d % 4 == 0) assertTrue(s.finalizarReserva(r.getId()));
+            else if (d % 3 == 0) assertTrue(s.actualizarEstadoHabitacion(r.getIdHabitacion(), false));
+        }
+        for (String estado : Arrays.asList(null, "Activa", "Check-in", "Reservada", "Finalizada")) {
+            FiltroReservas filtro = new FiltroReservas(dia(3), dia(17), estado).conTamanoPagina(4);
+            List<String> esperado = new ArrayList<>();
+            Map<String, Habitacion> habitaciones = new HashMap<>();
+            s.obtenerTodasHabitaciones().forEach(h -> habitaciones.put(h.getId(), h));
+            List<Reserva> todas = s.obtenerTodasReservas();
+            todas.sort(FiltroReservas.ORDEN);
+            for (Reserva r : todas) {
+                if (filtro.cumple(r, habitaciones.get(r.getIdHabitacion()))) esperado.add(r.getId());
+            }
+            List<String> leidos = new ArrayList<>();
+            PaginaReservas p = s.buscarReservas(filtro);
+            p.getReservas().forEach(r -> leidos.add(r.getId()));
+            while (p.hayMas()) {
+                p = s.buscarReservas(filtro.despuesDe(p.getSiguienteCursor()));
+                p.getReservas().forEach(r -> leidos.add(r.getId()));
+            }
+            assertEquals(esperado, leidos, "estado " + estado);
+        }
+        assertTrue(s.buscarReservas(new FiltroReservas(null, null, "Desconocido")).getReservas().isEmpty());
+    }
+
+    @Test
+    void recientesPlanificacionYCalendario() {
+        Cliente c = cliente("111", "0991");
+        reservar(c, "HAB-001", 1);
+        Reserva ultima = reservar(c, "HAB-002", 5);
+        reservar(c, "HAB-003", 3);
+        assertEquals(Arrays.asList("RES-0002", "RES-0003"), idsReservas(s.obtenerReservasRecientes(2)));
+        assertTrue(s.obtenerReservasRecientes(0).isEmpty());
+
+        assertTrue(s.actualizarPlanificacionReserva(ultima.getId(), dia(10), 3, "ventana"));
+        assertFalse(s.actualizarPlanificacionReserva(ultima.getId(), dia(10), 3, "ventana"), "sin cambios");
+        assertFalse(s.actualizarPlanificacionReserva(ultima.getId(), dia(10), 0, null));
+        assertFalse(s.actualizarPlanificacionReserva("RES-9999", dia(10), 2, null));
+        Reserva planificada = s.obtenerReservasRecientes(1).get(0);
+        assertEquals(360.0, planificada.getTotal(), 0.001); // Suite a 120 por 3 noches
+        assertEquals(dia(13), planificada.getFechaFinPlanificada());
+
+        assertFalse(s.estaHabitacionLibre("HAB-002", dia(11), dia(12)));
+        assertTrue(s.estaHabitacionLibre("HAB-002", dia(13), dia(14)));
+        List<Habitacion> libres = s.obtenerHabitacionesLibres(dia(11), dia(12), "Suite");
+        assertFalse(ids(libres).contains("HAB-002"));
+        assertTrue(ids(libres).contains("HAB-005"));
+
+        assertTrue(s.finalizarReserva(ultima.getId()));
+        assertFalse(s.actualizarPlanificacionReserva(ultima.getId(), dia(10), 2, null), "ya finalizada");
+        assertTrue(s.estaHabitacionLibre("HAB-002", dia(11), dia(12)));
+    }
+
+    @Test
+    void checkinGrupalEsTodoONada() {
+        Cliente existente = cliente("111", "0991");
+        List<HuespedGrupo> grupo = Arrays.asList(
+            new HuespedGrupo(new Cliente(null, "A", "A", "111", "0991"), new Reserva(null, null, "HAB-001", dia(1), null, 0)),
+            new HuespedGrupo(new Cliente(null, "B", "B", "222", "0992"), new Reserva(null, null, "HAB-002", dia(1), null, 0)));
+        ResultadoCheckinGrupal ok = s.registrarCheckinGrupal(grupo);
+        assertTrue(ok.isExitoso(), ok.getMensaje());
+        assertEquals(1, ok.getClientesNuevos());
+        assertEquals(2, ok.getIdsReservas().size());
+        assertEquals(existente.getId(), grupo.get(0).getReserva().getIdCliente());
+        assertTrue(s.buscarHabitacionPorNumero("002").isOcupada());
+        assertEquals(Collections.singletonList(grupo.get(1).getCliente().getId()), ok.getIdsClientesNuevos());
+        assertEquals(Arrays.asList("HAB-001", "HAB-002"), ok.getIdsHabitaciones());
+
+        // eliminarReserva borra la reserva sin tocar la habitación
+        String idReserva = ok.getIdsReservas().get(1);
+        eventos.clear();
+        assertTrue(s.eliminarReserva(idReserva));
+        // La reserva borrada no se publica como finalizada (el panel la volvería a mostrar)
+        assertEquals(1, eventos.size());
+        assertEquals(EventoModelo.Tipo.ESTADO_RESTAURADO, eventos.get(0).getTipo());
+        assertFalse(s.eliminarReserva(idReserva));
+        assertNull(s.buscarReservaActivaPorCedula("222"));
+        assertTrue(s.buscarHabitacionPorNumero("002").isOcupada());
+        s.actualizarEstadoHabitacion("HAB-002", false);
+
+        int reservas = s.obtenerTodasReservas().size();
+        assertEquals("El grupo está vacío", s.registrarCheckinGrupal(Collections.emptyList()).getMensaje());
+        assertFalse(s.registrarCheckinGrupal(Collections.singletonList(
+            new HuespedGrupo(new Cliente(null, "C", "C", "333", "0993"), new Reserva(null, null, "HAB-001", dia(2), null, 0))))
+            .isExitoso(), "habitación ocupada");
+        assertFalse(s.registrarCheckinGrupal(Arrays.asList(
+            new HuespedGrupo(new Cliente(null, "C", "C", "333", "0993"), new Reserva(null, null, "HAB-003", dia(2), null, 0)),
+            new HuespedGrupo(new Cliente(null, "D", "D", "444", "0993"), new Reserva(null, null, "HAB-004", dia(2), null, 0))))
+            .isExitoso(), "teléfono repetido en el grupo");
+        assertFalse(s.registrarCheckinGrupal(Collections.singletonList(
+            new HuespedGrupo(new Cliente(null, "C", "C", "333", "0992"), new Reserva(null, null, "HAB-003", dia(2), null, 0))))
+            .isExitoso(), "teléfono ya registrado");
+        assertFalse(s.registrarCheckinGrupal(Arrays.asList(
+            new HuespedGrupo(new Cliente(null, "C", "C", "333", "0993"), new Reserva(null, null, "HAB-003", dia(2), null, 0)),
+            new HuespedGrupo(new Cliente(null, "D", "D", "444", "0994"), new Reserva(null, null, "HAB-003", dia(2), null, 0))))
+            .isExitoso(), "habitación repetida");
+        assertFalse(s.registrarCheckinGrupal(Collections.singletonList(
+            new HuespedGrupo(new Cliente(null, "C", "C", "", "0993"), new Reserva(null, null, "HAB-003", dia(2), null, 0))))
+            .isExitoso());
+        assertEquals(reservas, s.obtenerTodasReservas().size());
+        assertFalse(s.existeCedula("333"));
+        assertFalse(s.buscarHabitacionPorNumero("003").isOcupada());
+    }
+
+    @Test
+    void serviciosSoloParaReservasActivasYOrdenadosPorFecha() {
+        Cliente c = cliente("111", "0991");
+        Reserva r = reservar(c, "HAB-001", 1);
+        ServicioHabitacion tarde = ServicioHabitacion.crearLimpieza(r.getId(), "HAB-001");
+        tarde.setFecha(dia(3));
+        assertTrue(s.registrarServicioHabitacion(tarde));
+        ServicioHabitacion temprano = ServicioHabitacion.crearBebida(r.getId(), "HAB-001", "agua");
+        temprano.setFecha(dia(2));
+        assertTrue(s.registrarServicioHabitacion(temprano));
+        assertTrue(tarde.getId().startsWith("SRV-"));
+        assertFalse(s.registrarServicioHabitacion(ServicioHabitacion.crearLimpieza(r.getId(), "HAB-002")), "otra habitación");
+        assertFalse(s.registrarServicioHabitacion(ServicioHabitacion.crearLimpieza("RES-9999", "HAB-001")));
+        ServicioHabitacion repetido = ServicioHabitacion.crearLimpieza(r.getId(), "HAB-001");
+        repetido.setId(tarde.getId());
+        assertFalse(s.registrarServicioHabitacion(repetido));
+        assertFalse(s.registrarServicioHabitacion(null));
+
+        List<ServicioHabitacion> servicios = s.obtenerServiciosPorReserva(r.getId());
+        assertEquals(Arrays.asList(temprano.getId(), tarde.getId()),
+            Arrays.asList(servicios.get(0).getId(), servicios.get(1).getId()));
+        assertTrue(s.obtenerServiciosPorReserva(null).isEmpty());
+        assertNotEquals(tarde.getId(), s.generarCodigoServicio());
+
+        assertTrue(s.finalizarReserva(r.getId()));
+        assertFalse(s.registrarServicioHabitacion(ServicioHabitacion.crearLimpieza(r.getId(), "HAB-001")), "reserva finalizada");
+    }
+
+    @Test
+    void registroDeCambiosDeshaceYRehaceSoloLoModificado() {
+        Cliente c = cliente("111", "0991");
+        assertTrue(s.soportaRegistroCambios());
+        s.iniciarRegistroCambios();
+        Reserva r = reservar(c, "HAB-001", 1);
+        RegistroCambios cambios = s.finalizarRegistroCambios();
+        assertEquals(new HashSet<>(Arrays.asList("reservas", "habitaciones")), cambios.getColecciones());
+        assertEquals(2, cambios.size());
+        assertTrue(s.finalizarRegistroCambios().isEmpty());
+
+        s.aplicarCambios(cambios, true);
+        assertTrue(s.obtenerTodasReservas().isEmpty());
+        assertFalse(s.buscarHabitacionPorNumero("001").isOcupada());
+        assertTrue(GestorDisponibilidad.getInstance().isHabitacionDisponible("HAB-001"));
+        assertNull(s.buscarReservaActivaPorCedula("111"));
+
+        s.aplicarCambios(cambios, false);
+        assertEquals(r.getId(), s.buscarReservaActivaPorCedula("111").getId());
+        assertTrue(s.buscarHabitacionPorNumero("001").isOcupada());
+        s.aplicarCambios(null, true);
+
+        // Los IDs restaurados adelantan la secuencia: no se repiten
+        Reserva otra = reservar(c, "HAB-002", 2);
+        assertEquals("RES-0002", otra.getId());
+    }
+
+    @Test
+    void registroDeCambiosSoloRecogeLoQueEscribeSuHilo() throws Exception {
+        Cliente c = cliente("111", "0991");
+        s.iniciarRegistroCambios();
+        AtomicInteger delOtroHilo = new AtomicInteger(-1);
+        Thread otro = new Thread(() -> {
+            s.registrarCliente(new Cliente(null, "Luis", "Paz", "222", "0992"));
+            s.iniciarRegistroCambios();
+            s.actualizarEstadoHabitacion("HAB-005", true);
+            delOtroHilo.set(s.finalizarRegistroCambios().size());
+        });
+        otro.start();
+        otro.join();
+        assertEquals(1, delOtroHilo.get(), "cada hilo tiene su propio registro");
+        reservar(c, "HAB-001", 1);
+        RegistroCambios cambios = s.finalizarRegistroCambios();
+        assertEquals(new HashSet<>(Arrays.asList("reservas", "habitaciones")), cambios.getColecciones());
+        for (RegistroCambios.Cambio cambio : cambios.getCambios()) assertNotEquals("HAB-005", cambio.getId());
+
+        s.aplicarCambios(cambios, true);
+        assertNotNull(s.buscarClientePorCedula("222"), "lo del otro hilo no se deshace");
+        assertTrue(s.buscarHabitacionPorNumero("005").isOcupada());
+    }
+
+    @Test
+    void registroDeCambiosIncluyeServicios() {
+        Cliente c = cliente("111", "0991");
+        Reserva r = reservar(c, "HAB-001", 1);
+        s.iniciarRegistroCambios();
+        ServicioHabitacion servicio = ServicioHabitacion.crearLimpieza(r.getId(), "HAB-001");
+        assertTrue(s.registrarServicioHabitacion(servicio));
+        RegistroCambios cambios = s.finalizarRegistroCambios();
+        assertEquals(Collections.singleton("servicios"), cambios.getColecciones());
+        assertTrue(s.cambiosAplicables(cambios, true));
+
+        s.aplicarCambios(cambios, true);
+        assertTrue(s.obtenerServiciosPorReserva(r.getId()).isEmpty());
+        assertFalse(s.cambiosAplicables(cambios, true));
+        assertTrue(s.cambiosAplicables(cambios, false));
+
+        s.aplicarCambios(cambios, false);
+        assertEquals(servicio.getId(), s.obtenerServiciosPorReserva(r.getId()).get(0).getId());
+        ServicioHabitacion repetido = ServicioHabitacion.crearLimpieza(r.getId(), "HAB-001");
+        repetido.setId(servicio.getId());
+        assertFalse(s.registrarServicioHabitacion(repetido), "el servicio rehecho vuelve a ocupar su clave");
+    }
+
+    @Test
+    void mementoCompletoRestauraEstadoEIndices() {
+        Cliente c = cliente("111", "0991");
+        reservar(c, "HAB-001", 1);
+        ModeloMemento memento = s.crearMemento();
+        assertFalse(memento.isParcial());
+
+        cliente("222", "0992");
+        assertTrue(s.finalizarReserva("RES-0001"));
+        assertTrue(s.eliminarCliente(c.getId()));
+
+        s.restaurarEstadoCompleto(memento);
+        s.restaurarEstadoCompleto(null);
+        assertEquals(1, s.obtenerTodosClientes().size());
+        assertFalse(s.existeCedula("222"));
+        assertEquals("RES-0001", s.buscarReservaActivaPorCedula("111").getId());
+        assertTrue(s.buscarHabitacionPorNumero("001").isOcupada());
+        assertFalse(GestorDisponibilidad.getInstance().isHabitacionDisponible("HAB-001"));
+        assertEquals(EventoModelo.Tipo.ESTADO_RESTAURADO, eventos.get(eventos.size() - 1).getTipo());
+
+        // El siguiente memento comparte lo que no cambió
+        assertEquals(memento.getClientes().size(), s.crearMemento().getClientes().size());
+        assertTrue(s.verificarDisponibilidad());
+    }
+
+    @Test
+    void reservasConcurrentesSobreLaMismaHabitacionSoloUnaGana() throws Exception {
+        int hilos = 8;
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) clientes.add(cliente("C" + i, "T" + i));
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger exitos = new AtomicInteger();
+        List<Future<?>> futuros = new ArrayList<>();
+        for (Cliente c : clientes) {
+            futuros.add(pool.submit(() -> {
+                salida.await();
+                for (int i = 1; i <= 20; i++) {
+                    if (s.crearReserva(new Reserva(null, c.getId(), String.format("HAB-%03d", i), dia(1), null, 0))) {
+                        exitos.incrementAndGet();
+                    }
+                    s.obtenerHabitacionesDisponibles();
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> f : futuros) f.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+        assertEquals(20, exitos.get());
+        assertEquals(20, s.obtenerTodasReservas().size());
+        assertEquals(20, new HashSet<>(idsReservas(s.obtenerTodasReservas())).size());
+        assertTrue(s.obtenerHabitacionesDisponibles().isEmpty());
+    }
+
+    @Test
+    void datosSinteticosRespetanLosIndices() {
+        cliente("9000000002", "0991"); // choca con la cédula del primer cliente generado (CLI-0002)
+        int creados = s.generarDatosSinteticos(50, 3);
+        assertEquals(49 * 4, creados);
+        int[] tamanos = s.getTamanos();
+        assertEquals(50, tamanos[0]);
+        assertEquals(20, tamanos[1]);
+        assertEquals(147, tamanos[2]);
+        assertTrue(s.obtenerHabitacionesDisponibles().size() == 20, "las reservas generadas están finalizadas");
+        assertEquals(147, s.buscarReservas(new FiltroReservas(null, null, "Finalizada").conTamanoPagina(1000)).getReservas().size());
+        assertThrows(IllegalArgumentException.class, () -> s.generarDatosSinteticos(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ModeloServiceMemoria(null));
+    }
+
+    private static List<String> ids(List<Habitacion> habitaciones) {
+        List<String> ids = new ArrayList<>();
+        habitaciones.forEach(h -> ids.add(h.getId()));
+        return ids;
+    }
+
+    private static List<String> idsReservas(List<Reserva> reservas) {
+        List<String> ids = new ArrayList<>();
+        reservas.forEach(r -> ids.add(r.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,112 @@
+package model;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import memento.RegistroCambios;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MongoCRUDTest {
+
+    @Test
+    void elRegistroPerteneceAlHiloQueLoInicia() throws Exception {
+        MongoCRUD crud = new MongoCRUD(null);
+        RegistroCambios registro = new RegistroCambios();
+        crud.iniciarRegistro(registro);
+
+        AtomicReference<RegistroCambios> vistoPorOtroHilo = new AtomicReference<>(registro);
+        Thread otro = new Thread(() -> vistoPorOtroHilo.set(crud.getRegistroActivo()));
+        otro.start();
+        otro.join();
+
+        assertNull(vistoPorOtroHilo.get());
+        assertSame(registro, crud.getRegistroActivo());
+        assertSame(registro, crud.detenerRegistro());
+        assertNull(crud.getRegistroActivo());
+        assertNull(crud.detenerRegistro());
+    }
+
+    private static List<OperacionLote> inserciones(int cantidad) {
+        List<OperacionLote> ops = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            ops.add(OperacionLote.insertar(new Document("_id", "CLI-" + i)));
+        }
+        return ops;
+    }
+
+    private static BulkWriteResult insertados(int cantidad) {
+        return BulkWriteResult.acknowledged(cantidad, 0, 0, 0, Collections.emptyList(), Collections.emptyList());
+    }
+
+    private static MongoBulkWriteException falloEn(int insertadosAntes) {
+        BulkWriteError error = new BulkWriteError(11000, "duplicate key", new BsonDocument(), insertadosAntes);
+        return new MongoBulkWriteException(insertados(insertadosAntes), Collections.singletonList(error),
+            null, new ServerAddress(), Collections.emptySet());
+    }
+
+    @Test
+    void divideLasOperacionesEnLotesDelTamanoConfigurado() {
+        List<Integer> enviados = new ArrayList<>();
+        List<ResultadoLote> lotes = MongoCRUD.enviarPorLotes(inserciones(2500), 1000, false, parte -> {
+            enviados.add(parte.size());
+            return insertados(parte.size());
+        });
+        assertEquals(Arrays.asList(1000, 1000, 500), enviados);
+        assertEquals(3, lotes.size());
+        assertEquals(3, lotes.get(2).getNumeroLote());
+        ResultadoLote total = ResultadoLote.total(lotes);
+        assertEquals(2500, total.getInsertados());
+        assertTrue(total.isExitoso());
+    }
+
+    @Test
+    void ordenadoSeDetieneEnElPrimerLoteConErrores() {
+        int[] llamadas = {0};
+        List<ResultadoLote> lotes = MongoCRUD.enviarPorLotes(inserciones(30), 10, true, parte -> {
+            if (++llamadas[0] == 2) throw falloEn(4);
+            return insertados(parte.size());
+        });
+        assertEquals(2, llamadas[0]);
+        assertEquals(2, lotes.size());
+        assertEquals(1, lotes.get(1).getErrores());
+        assertEquals(4, lotes.get(1).getInsertados());
+        assertEquals(14, ResultadoLote.total(lotes).getInsertados());
+    }
+
+    @Test
+    void noOrdenadoContinuaTrasUnLoteConErrores() {
+        int[] llamadas = {0};
+        List<ResultadoLote> lotes = MongoCRUD.enviarPorLotes(inserciones(30), 10, false, parte -> {
+            if (++llamadas[0] == 2) throw falloEn(9);
+            return insertados(parte.size());
+        });
+        assertEquals(3, lotes.size());
+        ResultadoLote total = ResultadoLote.total(lotes);
+        assertEquals(29, total.getInsertados());
+        assertEquals(1, total.getErrores());
+        assertEquals(Collections.singletonList(19), total.getIndicesConError(), "posición en la lista completa");
+    }
+
+    @Test
+    void reemplazosCoincidentesNoCuentanComoUpserts() {
+        List<OperacionLote> ops = Arrays.asList(
+            OperacionLote.reemplazar("HAB-001", new Document("_id", "HAB-001")),
+            OperacionLote.reemplazar("HAB-002", new Document("_id", "HAB-002")),
+            OperacionLote.reemplazar("HAB-003", new Document("_id", "HAB-003")));
+        // Dos existían (uno idéntico, sin modificar) y uno se creó
+        BulkWriteResult res = BulkWriteResult.acknowledged(0, 2, 0, 1,
+            Collections.singletonList(new BulkWriteUpsert(2, new BsonString("HAB-003"))), Collections.emptyList());
+        ResultadoLote lote = MongoCRUD.enviarPorLotes(ops, 10, false, parte -> res).get(0);
+        assertEquals(2, lote.getCoincidentes());
+        assertEquals(1, lote.getModificados());
+        assertEquals(1, lote.getUpserts());
+    }
+}
@@ -0,0 +1,43 @@
+package model;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OperacionLoteTest {
+
+    @Test
+    void fabricasAsignanTipoEId(){
+        OperacionLote ins = OperacionLote.insertar(new Document("_id", "CLI-0001"));
+        assertEquals(OperacionLote.Tipo.INSERTAR, ins.getTipo());
+        assertEquals("CLI-0001", ins.getId());
+        OperacionLote upd = OperacionLote.actualizar("HAB-001", new Document("$set", new Document("ocupada", true)));
+        assertEquals(OperacionLote.Tipo.ACTUALIZAR, upd.getTipo());
+        assertNotNull(upd.getActualizacion());
+        assertEquals(OperacionLote.Tipo.REEMPLAZAR, OperacionLote.reemplazar("X", new Document()).getTipo());
+        assertEquals("ELIMINAR(Y)", OperacionLote.eliminar("Y").toString());
+    }
+
+    @Test
+    void argumentosNulosSeRechazan(){
+        assertThrows(IllegalArgumentException.class, () -> OperacionLote.insertar(null));
+        assertThrows(IllegalArgumentException.class, () -> OperacionLote.actualizar(null, new Document()));
+        assertThrows(IllegalArgumentException.class, () -> OperacionLote.reemplazar("X", null));
+        assertThrows(IllegalArgumentException.class, () -> OperacionLote.eliminar(null));
+    }
+
+    @Test
+    void totalSumaLosLotes(){
+        ResultadoLote a = new ResultadoLote(1, 1000, 1000, 0, 0, 0, 0, 0, 12);
+        ResultadoLote b = new ResultadoLote(2, 500, 498, 0, 0, 0, 0, 2, 7);
+        ResultadoLote total = ResultadoLote.total(Arrays.asList(a, b));
+        assertEquals(2, total.getNumeroLote());
+        assertEquals(1500, total.getOperaciones());
+        assertEquals(1498, total.getInsertados());
+        assertEquals(19, total.getDuracionMs());
+        assertFalse(total.isExitoso());
+        assertTrue(a.isExitoso());
+        assertTrue(b.toString().contains("errores=2"));
+    }
+}
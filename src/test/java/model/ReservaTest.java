@@ -55,4 +55,21 @@ public class ReservaTest {
         Reserva r = new Reserva("RES-Z","CLI-3","HAB-3", ingreso, salida, 10.0);
         assertFalse(r.isActiva());
     }
+
+    @Test
+    void estadoSeDerivaDeLaHabitacionYSeFiltra(){
+        Reserva r = new Reserva("RES-0010","CLI-0001","HAB-001",new Date(),null,50.0);
+        assertEquals(Reserva.ESTADO_CHECKIN, r.calcularEstado(new Habitacion("HAB-001","001","Simple",true,50)));
+        assertEquals(Reserva.ESTADO_RESERVADA, r.calcularEstado(new Habitacion("HAB-001","001","Simple",false,50)));
+        assertEquals(Reserva.ESTADO_RESERVADA, r.calcularEstado(null));
+        r.finalizar();
+        assertEquals(Reserva.ESTADO_FINALIZADA, r.calcularEstado(null));
+
+        assertTrue(Reserva.cumpleFiltroEstado(Reserva.ESTADO_FINALIZADA, "Todos"));
+        assertTrue(Reserva.cumpleFiltroEstado(Reserva.ESTADO_FINALIZADA, null));
+        assertTrue(Reserva.cumpleFiltroEstado(Reserva.ESTADO_CHECKIN, "Activa"));
+        assertFalse(Reserva.cumpleFiltroEstado(Reserva.ESTADO_FINALIZADA, "Activa"));
+        assertTrue(Reserva.cumpleFiltroEstado(Reserva.ESTADO_RESERVADA, "reservada"));
+        assertFalse(Reserva.cumpleFiltroEstado(Reserva.ESTADO_RESERVADA, "Check-in"));
+    }
 }
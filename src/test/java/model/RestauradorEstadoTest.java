@@ -0,0 +1,105 @@
+package model;
+
+import com.mongodb.MongoClientException;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import memento.ModeloMemento;
+import memento.RegistroCambios;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RestauradorEstadoTest {
+
+    @Test
+    void soloElServidorSinTransaccionesLasDesactiva() {
+        assertTrue(RestauradorEstado.sinSoporteTransacciones(
+            error(20, "Transaction numbers are only allowed on a replica set member or mongos")));
+        assertTrue(RestauradorEstado.sinSoporteTransacciones(new RuntimeException(
+            new MongoClientException("Sessions are not supported by the MongoDB cluster"))));
+
+        assertFalse(RestauradorEstado.sinSoporteTransacciones(error(112, "WriteConflict")));
+        assertFalse(RestauradorEstado.sinSoporteTransacciones(new MongoTimeoutException("sin servidor")));
+        assertFalse(RestauradorEstado.sinSoporteTransacciones(new IllegalStateException("otro error")));
+    }
+
+    @Test
+    void objetivoTomaLasTresColeccionesDelMemento() {
+        ModeloMemento memento = new ModeloMemento(
+            Collections.singletonList(new Cliente("CLI-1", "Ana", "Ruiz", "0102", "0991")),
+            Arrays.asList(new Habitacion("HAB-1", "001", "Simple", true, 50), new Habitacion("HAB-2", "002", "Doble", false, 80)),
+            Collections.emptyList());
+        Map<String, List<Document>> objetivo = RestauradorEstado.objetivo(memento);
+        assertEquals(Arrays.asList("clientes", "habitaciones", "reservas"), new ArrayList<>(objetivo.keySet()));
+        assertEquals("CLI-1", objetivo.get("clientes").get(0).getString("_id"));
+        assertEquals(2, objetivo.get("habitaciones").size());
+        assertTrue(objetivo.get("reservas").isEmpty());
+    }
+
+    @Test
+    void operacionesBorranInsertanConUpsertYSoloFijanLosCamposCambiados() {
+        List<Document> actuales = Arrays.asList(
+            new Document("_id", "A").append("nombre", "Ana").append("extra", 1),
+            new Document("_id", "B").append("nombre", "Beto"),
+            new Document("_id", "C").append("nombre", "Caro"));
+        List<Document> objetivo = Arrays.asList(
+            new Document("_id", "A").append("nombre", "Ana María").append("extra", 1),
+            new Document("_id", "C").append("nombre", "Caro"),
+            new Document("_id", "D").append("nombre", "Dani"));
+        DiferenciaDocumentos dif = DiferenciaDocumentos.calcular(actuales, objetivo);
+
+        List<WriteModel<Document>> ops = RestauradorEstado.operaciones(dif);
+        assertEquals(3, ops.size(), "C no cambia");
+        assertTrue(ops.get(0) instanceof DeleteOneModel);
+        ReplaceOneModel<Document> insertar = (ReplaceOneModel<Document>) ops.get(1);
+        assertEquals("D", insertar.getReplacement().getString("_id"));
+        assertTrue(insertar.getReplaceOptions().isUpsert());
+        UpdateOneModel<Document> actualizar = (UpdateOneModel<Document>) ops.get(2);
+        assertEquals(new Document("$set", new Document("nombre", "Ana María")), actualizar.getUpdate());
+
+        RegistroCambios registro = new RegistroCambios();
+        RestauradorEstado.anotar(registro, "clientes", actuales, dif);
+        Map<String, RegistroCambios.Cambio> porId = new HashMap<>();
+        for (RegistroCambios.Cambio c : registro.getCambios()) porId.put(c.getId(), c);
+        assertEquals(3, porId.size());
+        assertNull(porId.get("B").getDespues());
+        assertEquals("Beto", porId.get("B").getAntes().getString("nombre"));
+        assertNull(porId.get("D").getAntes());
+        // El estado resultante conserva los campos que no cambian
+        assertEquals(1, porId.get("A").getDespues().get("extra"));
+        assertEquals("Ana María", porId.get("A").getDespues().getString("nombre"));
+        assertEquals("Ana", porId.get("A").getAntes().getString("nombre"));
+    }
+
+    @Test
+    void sinServidorLaRestauracionFallaSinContarse() {
+        ConexionBD conexion = new ConexionBD("mongodb://localhost:1/?serverSelectionTimeoutMS=100", "hotel_prueba");
+        try {
+            RestauradorEstado restaurador = new RestauradorEstado(conexion, true);
+            assertTrue(restaurador.isUsarTransaccion());
+            ModeloMemento vacio = new ModeloMemento(Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+            assertThrows(MongoException.class, () -> restaurador.restaurar(vacio));
+            assertEquals(0, restaurador.getRestauraciones());
+            assertEquals(0.0, restaurador.getDuracionPromedioMs());
+            assertNull(restaurador.getUltimoResultado());
+            assertTrue(restaurador.isUsarTransaccion(), "un fallo de conexión no desactiva las transacciones");
+            restaurador.setUsarTransaccion(false);
+            assertFalse(restaurador.isUsarTransaccion());
+        } finally {
+            conexion.cerrar();
+        }
+    }
+
+    private static MongoCommandException error(int codigo, String mensaje) {
+        BsonDocument respuesta = BsonDocument.parse("{ok: 0, code: " + codigo + ", errmsg: '" + mensaje + "'}");
+        return new MongoCommandException(respuesta, new ServerAddress());
+    }
+}
@@ -23,4 +23,138 @@ public class GestorDisponibilidadAdditionalTest {
         assertEquals(2, gestor.getHabitacionesDisponibles().size());
         assertEquals(0, gestor.getHabitacionesOcupadas().size());
     }
+
+    @Test
+    void reservarHabitacionesEsTodoONada(){
+        GestorDisponibilidad gestor = GestorDisponibilidad.getInstance();
+        gestor.reset();
+        gestor.inicializar(List.of(new Habitacion("H1","101","Simple", false, 50),
+            new Habitacion("H2","102","Simple", false, 50), new Habitacion("H3","103","Simple", true, 50)));
+        assertFalse(gestor.reservarHabitaciones(List.of("H1","H2","H3")));
+        assertEquals(2, gestor.getNumeroHabitacionesDisponibles()); // H1 y H2 se liberaron
+        assertTrue(gestor.reservarHabitaciones(List.of("H1","H2")));
+        assertEquals(0, gestor.getNumeroHabitacionesDisponibles());
+    }
+
+    @Test
+    void indicePorIdYNumeroConMetricas(){
+        GestorDisponibilidad gestor = GestorDisponibilidad.getInstance();
+        gestor.reset();
+        gestor.inicializar(List.of(new Habitacion("H1","101","Simple", false, 50)));
+        Habitacion porNumero = gestor.buscarHabitacionPorNumero("101");
+        assertEquals("H1", porNumero.getId());
+        assertNotNull(gestor.buscarHabitacion("H1"));
+        assertNull(gestor.buscarHabitacion("H9"));
+        assertNull(gestor.buscarHabitacionPorNumero(null));
+        assertEquals(2, gestor.getAciertos());
+        assertEquals(2, gestor.getFallos());
+        assertEquals(0.5, gestor.getTasaAciertos(), 1e-9);
+        // Las búsquedas devuelven copias: modificarlas no altera el índice
+        porNumero.setOcupada(true);
+        assertTrue(gestor.isHabitacionDisponible("H1"));
+        assertFalse(gestor.buscarHabitacion("H1").isOcupada());
+        gestor.reiniciarMetricas();
+        assertEquals(0.0, gestor.getTasaAciertos());
+    }
+
+    @Test
+    void registrarYEliminarMantienenElIndiceCoherente(){
+        GestorDisponibilidad gestor = GestorDisponibilidad.getInstance();
+        gestor.reset();
+        gestor.registrarHabitacion(new Habitacion("H1","101","Simple", true, 50));
+        assertFalse(gestor.isHabitacionDisponible("H1"));
+        // Cambio de número: el número anterior deja de resolverse
+        gestor.registrarHabitacion(new Habitacion("H1","111","Simple", false, 50));
+        assertNull(gestor.buscarHabitacionPorNumero("101"));
+        assertEquals("H1", gestor.buscarHabitacionPorNumero("111").getId());
+        assertTrue(gestor.isHabitacionDisponible("H1"));
+        gestor.actualizarDisponibilidad("H1", false);
+        assertTrue(gestor.buscarHabitacion("H1").isOcupada());
+        gestor.eliminarHabitacion("H1");
+        assertNull(gestor.buscarHabitacion("H1"));
+        assertNull(gestor.buscarHabitacionPorNumero("111"));
+        assertEquals(0, gestor.getNumeroTotalHabitaciones());
+    }
+
+    @Test
+    void reservasConcurrentesSobreLaMismaHabitacionSoloGanaUna() throws Exception {
+        GestorDisponibilidad gestor = GestorDisponibilidad.getInstance();
+        gestor.reset();
+        gestor.inicializar(List.of(new Habitacion("H1","101","Simple", false, 50)));
+        int hilos = 8;
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(hilos);
+        java.util.concurrent.CountDownLatch salida = new java.util.concurrent.CountDownLatch(1);
+        List<java.util.concurrent.Future<Boolean>> resultados = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            resultados.add(pool.submit(() -> { salida.await(); return gestor.reservarHabitacion("H1"); }));
+        }
+        salida.countDown();
+        int ganadores = 0;
+        for (java.util.concurrent.Future<Boolean> f : resultados) if (f.get()) ganadores++;
+        pool.shutdown();
+        assertEquals(1, ganadores);
+        assertEquals(0, gestor.getNumeroHabitacionesDisponibles());
+        assertEquals(1, gestor.getNumeroHabitacionesOcupadas());
+    }
+
+    @Test
+    void contadoresSeMantienenConMuchasHabitacionesYVariosSegmentos() throws Exception {
+        GestorDisponibilidad gestor = GestorDisponibilidad.getInstance();
+        gestor.reset();
+        int n = 3000;
+        List<Habitacion> habitaciones = new ArrayList<>();
+        for (int i = 0; i < n; i++) habitaciones.add(new Habitacion("H" + i, String.valueOf(i), "Simple", i % 3 == 0, 50));
+        gestor.inicializar(habitaciones);
+        assertEquals(n, gestor.getNumeroTotalHabitaciones());
+        assertEquals(2000, gestor.getNumeroHabitacionesDisponibles());
+        // Cuatro hilos reservan en paralelo todas las disponibles
+        java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(4);
+        java.util.concurrent.atomic.AtomicInteger reservadas = new java.util.concurrent.atomic.AtomicInteger();
+        List<java.util.concurrent.Future<?>> tareas = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            tareas.add(pool.submit(() -> {
+                for (int i = 0; i < n; i++) if (gestor.reservarHabitacion("H" + i)) reservadas.incrementAndGet();
+            }));
+        }
+        for (java.util.concurrent.Future<?> f : tareas) f.get();
+        pool.shutdown();
+        assertEquals(2000, reservadas.get());
+        assertEquals(0, gestor.getNumeroHabitacionesDisponibles());
+        assertEquals(n, gestor.getNumeroHabitacionesOcupadas());
+        gestor.eliminarHabitacion("H5");
+        assertEquals(n - 1, gestor.getNumeroTotalHabitaciones());
+        assertFalse(gestor.reservarHabitacion("H5"));
+        // Una habitación desconocida se incorpora al actualizar su disponibilidad
+        gestor.actualizarDisponibilidad("NUEVA", true);
+        assertEquals(n, gestor.getNumeroTotalHabitaciones());
+        assertEquals(1, gestor.getNumeroHabitacionesDisponibles());
+    }
+
+    @Test
+    void slotsRetiradosSeReutilizan() {
+        GestorDisponibilidad gestor = GestorDisponibilidad.getInstance();
+        gestor.reset();
+        gestor.inicializar(Arrays.asList(new Habitacion("H1", "1", "Simple", false, 50),
+            new Habitacion("H2", "2", "Simple", true, 50)));
+        assertEquals(2, gestor.getSlotsCreados());
+        // Altas y bajas continuas no hacen crecer el bitset
+        for (int i = 0; i < 5000; i++) {
+            gestor.registrarHabitacion(new Habitacion("T" + i, "T" + i, "Simple", i % 2 == 0, 50));
+            gestor.eliminarHabitacion("T" + i);
+        }
+        assertEquals(3, gestor.getSlotsCreados());
+        assertEquals(2, gestor.getNumeroTotalHabitaciones());
+        assertEquals(1, gestor.getNumeroHabitacionesDisponibles());
+
+        // El slot reutilizado empieza con el estado de la habitación nueva, no el de la retirada
+        gestor.eliminarHabitacion("H2");
+        gestor.actualizarDisponibilidad("H3", true);
+        assertEquals(3, gestor.getSlotsCreados());
+        assertFalse(gestor.isHabitacionDisponible("H2"));
+        assertFalse(gestor.reservarHabitacion("H2"));
+        assertTrue(gestor.reservarHabitacion("H3"));
+        assertTrue(gestor.isHabitacionDisponible("H1"), "la vecina no cambia");
+        assertEquals(1, gestor.getNumeroHabitacionesOcupadas());
+        assertEquals(1, gestor.getNumeroHabitacionesDisponibles());
+    }
 }
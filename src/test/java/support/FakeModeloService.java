@@ -42,6 +42,7 @@ public class FakeModeloService implements IModeloService {
     @Override public boolean crearReserva(Reserva r){ if(r.getId()==null) r.setId("RES-"+(reservas.size()+1)); reservas.add(r); actualizarEstadoHabitacion(r.getIdHabitacion(), true); return true; }
     @Override public Reserva buscarReservaActivaPorCedula(String ced){ Cliente c=buscarClientePorCedula(ced); if(c==null) return null; return reservas.stream().filter(x->x.getIdCliente().equals(c.getId()) && x.getFechaSalida()==null).findFirst().orElse(null);}    
     @Override public boolean finalizarReserva(String id){ for(Reserva r:reservas) if(r.getId().equals(id)&&r.getFechaSalida()==null){ r.setFechaSalida(new Date()); actualizarEstadoHabitacion(r.getIdHabitacion(), false); return true;} return false;}    
+    @Override public boolean eliminarReserva(String id){ return reservas.removeIf(x->x.getId().equals(id)); }
     @Override public List<Reserva> obtenerTodasReservas(){ return new ArrayList<>(reservas);}    
     @Override public List<Reserva> obtenerReservasRecientes(int limite){ return reservas.subList(0, Math.min(limite, reservas.size())); }
 
@@ -0,0 +1,82 @@
+package view.util;
+
+import org.junit.jupiter.api.Test;
+import model.*;
+import javax.swing.event.TableModelEvent;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ModeloTablaListaTest {
+
+    private static Date dia(int d) {
+        Calendar c = Calendar.getInstance();
+        c.set(2025, Calendar.JANUARY, d, 10, 0, 0);
+        return c.getTime();
+    }
+
+    @Test
+    void recargaEmiteUnSoloEventoYFormateaAlLeer() {
+        ModeloTablaReservas modelo = new ModeloTablaReservas();
+        List<TableModelEvent> eventos = new ArrayList<>();
+        modelo.addTableModelListener(eventos::add);
+        Map<String, Cliente> clientes = Collections.singletonMap("CLI-0001", new Cliente("CLI-0001", "Ana", "Paz", "1", "2"));
+        Map<String, Habitacion> habitaciones = Collections.singletonMap("HAB-001", new Habitacion("HAB-001", "001", "Suite", true, 120));
+        List<Reserva> reservas = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            reservas.add(new Reserva(String.format("RES-%04d", i), "CLI-0001", i % 2 == 0 ? "HAB-001" : "HAB-XXX", dia(1 + i % 28), null, i));
+        }
+        modelo.setDatos(reservas, clientes, habitaciones);
+
+        assertEquals(1, eventos.size());
+        assertEquals(1000, modelo.getRowCount());
+        assertEquals(11, modelo.getColumnCount());
+        assertEquals("Ana Paz", modelo.getValueAt(1, 1));
+        assertEquals("001", modelo.getValueAt(1, 2));
+        assertEquals("Check-in", modelo.getValueAt(1, 9));
+        assertEquals("?", modelo.getValueAt(0, 2));
+        assertEquals("Reservada", modelo.getEstado(reservas.get(0)));
+        assertEquals("$1.00", modelo.getValueAt(0, 10).toString().replace(',', '.'));
+        assertFalse(modelo.isCellEditable(0, 0));
+        assertSame(reservas.get(5), modelo.getFila(5));
+    }
+
+    @Test
+    void ordenaPorValorYFiltraSinCopiarFilas() {
+        ModeloTablaReservas modelo = new ModeloTablaReservas();
+        List<Reserva> reservas = Arrays.asList(
+            new Reserva("RES-0001", "C", "H", dia(20), null, 9.5),
+            new Reserva("RES-0002", "C", "H", dia(3), null, 100),
+            new Reserva("RES-0003", "C", "H", dia(11), dia(12), 20));
+        modelo.setDatos(reservas, Collections.emptyMap(), Collections.emptyMap());
+
+        modelo.ordenar(10, true); // Total: 9.5 < 20 < 100 (como texto "$100.00" iría antes que "$9.50")
+        assertEquals("RES-0001", modelo.getValueAt(0, 0));
+        assertEquals("RES-0002", modelo.getValueAt(2, 0));
+        modelo.ordenar(0, false);
+        assertEquals("RES-0003", modelo.getValueAt(0, 0));
+
+        modelo.filtrar(r -> r.getFechaSalida() == null);
+        assertEquals(2, modelo.getRowCount());
+        assertEquals(3, modelo.getTotalDatos());
+        assertEquals("RES-0002", modelo.getValueAt(0, 0)); // el orden se conserva al filtrar
+
+        modelo.filtrar(null);
+        modelo.ordenar(-1, true);
+        assertSame(reservas.get(0), modelo.getFila(0));
+    }
+
+    @Test
+    void clientesYServiciosExponenSusColumnas() {
+        ModeloTablaClientes clientes = new ModeloTablaClientes();
+        clientes.setDatos(Collections.singletonList(new Cliente("CLI-0001", "Ana", "Paz", "0102030405", "0991234567")));
+        assertEquals("Cédula", clientes.getColumnName(3));
+        assertEquals("0991234567", clientes.getValueAt(0, 4));
+        clientes.setDatos(null);
+        assertEquals(0, clientes.getRowCount());
+
+        ModeloTablaServicios servicios = new ModeloTablaServicios();
+        servicios.setDatos(Collections.singletonList(ServicioHabitacion.crearLimpieza("RES-0001", "HAB-001")));
+        assertEquals(5, servicios.getColumnCount());
+        assertEquals(ServicioHabitacion.TIPO_LIMPIEZA, servicios.getValueAt(0, 2));
+    }
+}